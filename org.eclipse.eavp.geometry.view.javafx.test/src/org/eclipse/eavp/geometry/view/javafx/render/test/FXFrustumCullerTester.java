@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.eavp.geometry.view.javafx.render.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.eavp.geometry.view.javafx.render.FXFrustumCuller;
+import org.eclipse.eavp.geometry.view.javafx.render.FXMeshCache;
+import org.eclipse.eavp.geometry.view.javafx.render.FXRenderObject;
+import org.eclipse.january.geometry.Cube;
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.Vertex;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import javafx.scene.Group;
+import javafx.scene.ParallelCamera;
+import javafx.scene.PerspectiveCamera;
+import javafx.scene.transform.Rotate;
+
+/**
+ * A class to test the functionality of the FXFrustumCuller.
+ *
+ * @author Robert Smith
+ *
+ */
+@Ignore
+public class FXFrustumCullerTester {
+
+	/**
+	 * Check that renders outside the camera's view are hidden.
+	 */
+	@Test
+	public void checkCull() {
+
+		// A camera at the origin looking down the z axis
+		PerspectiveCamera camera = new PerspectiveCamera(true);
+		camera.setNearClip(0.1);
+		camera.setFarClip(100);
+		camera.setFieldOfView(60);
+
+		// Cubes ahead of, behind and to the side of the camera
+		FXMeshCache cache = new FXMeshCache();
+		List<FXRenderObject> renders = new ArrayList<FXRenderObject>();
+		FXRenderObject ahead = createCube(cache, 0, 0, 10);
+		FXRenderObject behind = createCube(cache, 0, 0, -10);
+		FXRenderObject side = createCube(cache, 50, 0, 10);
+		renders.add(ahead);
+		renders.add(behind);
+		renders.add(side);
+
+		// Only the cube ahead should be shown
+		FXFrustumCuller culler = new FXFrustumCuller();
+		assertTrue(culler.cull(camera, 100, 100, renders));
+		assertTrue(ahead.getMesh().isVisible());
+		assertFalse(behind.getMesh().isVisible());
+		assertFalse(side.getMesh().isVisible());
+		assertEquals(2, culler.getCulledCount());
+
+		// Nothing should be done if neither the camera nor the renders changed
+		assertFalse(culler.cull(camera, 100, 100, renders));
+
+		// A wide enough view should show the cube to the side
+		assertTrue(culler.cull(camera, 1000, 100, renders));
+		assertTrue(side.getMesh().isVisible());
+		assertEquals(1, culler.getCulledCount());
+
+		// Turning the camera around should show only the cube behind it
+		camera.getTransforms().add(new Rotate(180, Rotate.Y_AXIS));
+		assertTrue(culler.cull(camera, 100, 100, renders));
+		assertFalse(ahead.getMesh().isVisible());
+		assertTrue(behind.getMesh().isVisible());
+		assertEquals(2, culler.getCulledCount());
+
+		// A cube partly inside the view should be shown. Moving the source
+		// replaces its render, so the culler must be told to check again.
+		behind.getBase().setCenter(createVertex(12, 0, -10));
+		assertFalse(culler.cull(camera, 100, 100, renders));
+		culler.invalidate();
+		assertTrue(culler.cull(camera, 100, 100, renders));
+		assertFalse(behind.getMesh().isVisible());
+		behind.getBase().setCenter(createVertex(7, 0, -10));
+		culler.invalidate();
+		culler.cull(camera, 100, 100, renders);
+		assertTrue(behind.getMesh().isVisible());
+
+		// Unsupported cameras should show everything
+		assertTrue(culler.cull(new ParallelCamera(), 100, 100, renders));
+		assertEquals(0, culler.getCulledCount());
+		for (FXRenderObject render : renders) {
+			assertTrue(render.getMesh().isVisible());
+		}
+	}
+
+	/**
+	 * Check that the transforms applied to the render's group are used.
+	 */
+	@Test
+	public void checkTransformedRender() {
+
+		PerspectiveCamera camera = new PerspectiveCamera(true);
+		camera.setFarClip(100);
+		FXRenderObject render = createCube(new FXMeshCache(), 0, 0, 10);
+		List<FXRenderObject> renders = new ArrayList<FXRenderObject>();
+		renders.add(render);
+
+		// Put the render inside a group moved behind the camera
+		Group parent = new Group(render.getMesh());
+		parent.setTranslateZ(-20);
+		FXFrustumCuller culler = new FXFrustumCuller();
+		culler.cull(camera, 100, 100, renders);
+		assertFalse(render.getMesh().isVisible());
+
+		// Moving the parent back should show it again
+		parent.setTranslateZ(0);
+		culler.invalidate();
+		culler.cull(camera, 100, 100, renders);
+		assertTrue(render.getMesh().isVisible());
+	}
+
+	/**
+	 * Create a render for a cube of side 2.
+	 *
+	 * @param cache
+	 *            The cache to draw the cube's mesh from
+	 * @param x
+	 *            The cube's x coordinate
+	 * @param y
+	 *            The cube's y coordinate
+	 * @param z
+	 *            The cube's z coordinate
+	 * @return A render for the cube
+	 */
+	private FXRenderObject createCube(FXMeshCache cache, double x, double y,
+			double z) {
+		Cube cube = GeometryFactory.eINSTANCE.createCube();
+		cube.setSideLength(2);
+		cube.getCenter().setX(x);
+		cube.getCenter().setY(y);
+		cube.getCenter().setZ(z);
+		return new FXRenderObject(cube, cache);
+	}
+
+	/**
+	 * Create a vertex.
+	 *
+	 * @param x
+	 *            The vertex's x coordinate
+	 * @param y
+	 *            The vertex's y coordinate
+	 * @param z
+	 *            The vertex's z coordinate
+	 * @return A new vertex at the given point
+	 */
+	private Vertex createVertex(double x, double y, double z) {
+		Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+		vertex.setX(x);
+		vertex.setY(y);
+		vertex.setZ(z);
+		return vertex;
+	}
+}
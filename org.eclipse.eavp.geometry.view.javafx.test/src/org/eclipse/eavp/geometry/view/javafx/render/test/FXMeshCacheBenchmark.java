@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.eavp.geometry.view.javafx.render.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.eclipse.eavp.geometry.view.javafx.render.FXMeshCache;
+import org.eclipse.emf.common.util.BasicEList;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.Shape;
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.TriangleMesh;
+
+/**
+ * A benchmark measuring the throughput and allocation of
+ * FXMeshCache.createMesh() for large inputs. Each input is a flat grid of
+ * triangles, given either as a shape whose triangles are stored in a
+ * TriangleMesh, as produced by the STL importer, or as a list of ordinary
+ * triangles. Run as a Java application, optionally passing the triangle
+ * counts to measure, with a heap large enough for the biggest input.
+ *
+ * @author Robert Smith
+ *
+ */
+public class FXMeshCacheBenchmark {
+
+	/**
+	 * The triangle counts measured if none are given.
+	 */
+	private static final int[] DEFAULT_SIZES = { 100000, 1000000, 5000000 };
+
+	/**
+	 * The largest input for which a list of ordinary triangles is measured,
+	 * as larger ones take more memory than a typical heap allows.
+	 */
+	private static final int MAX_LIST_SIZE = 1000000;
+
+	/**
+	 * The number of meshes created before measuring, to warm up the JIT.
+	 */
+	private static final int WARMUP = 3;
+
+	/**
+	 * The number of meshes created for each measurement.
+	 */
+	private static final int RUNS = 5;
+
+	/**
+	 * A cache exposing createMesh(), so that the cache's lookup is not part
+	 * of the measurement.
+	 */
+	private static class BenchmarkCache extends FXMeshCache {
+
+		/**
+		 * Create a mesh without consulting the cache.
+		 *
+		 * @param triangles
+		 *            The triangles to convert
+		 * @return The new JavaFX mesh
+		 */
+		javafx.scene.shape.TriangleMesh create(EList<Triangle> triangles) {
+			return createMesh(triangles);
+		}
+	}
+
+	/**
+	 * Run the benchmark.
+	 *
+	 * @param args
+	 *            The numbers of triangles to measure
+	 */
+	public static void main(String[] args) {
+
+		int[] sizes = DEFAULT_SIZES;
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				sizes[i] = Integer.parseInt(args[i]);
+			}
+		}
+
+		BenchmarkCache cache = new BenchmarkCache();
+		for (int size : sizes) {
+			Shape shape = createGrid(size);
+			measure(cache, "TriangleMesh", shape.getTriangles());
+
+			if (size <= MAX_LIST_SIZE) {
+				measure(cache, "Triangle list", copyTriangles(shape));
+			}
+		}
+	}
+
+	/**
+	 * Measure the creation of a mesh and print the results.
+	 *
+	 * @param cache
+	 *            The cache which creates the meshes
+	 * @param name
+	 *            The name of the kind of input
+	 * @param triangles
+	 *            The triangles to convert
+	 */
+	private static void measure(BenchmarkCache cache, String name,
+			EList<Triangle> triangles) {
+
+		for (int i = 0; i < WARMUP; i++) {
+			cache.create(triangles);
+		}
+
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		long allocated = allocatedBytes(threads);
+		long start = System.nanoTime();
+		for (int i = 0; i < RUNS; i++) {
+			cache.create(triangles);
+		}
+		long time = System.nanoTime() - start;
+		allocated = allocatedBytes(threads) - allocated;
+
+		long count = (long) triangles.size() * RUNS;
+		System.out.println(String.format(
+				"%-14s %9d triangles: %8.2f M triangles/s, %7.1f bytes/triangle, %8.1f MB/s allocated",
+				name, triangles.size(), count / (time / 1e9) / 1e6,
+				(double) allocated / count,
+				allocated / (time / 1e9) / (1024 * 1024)));
+	}
+
+	/**
+	 * Get the number of bytes allocated by the current thread.
+	 *
+	 * @param threads
+	 *            The thread management bean
+	 * @return The bytes allocated so far, or 0 if the JVM cannot measure
+	 *         them.
+	 */
+	private static long allocatedBytes(ThreadMXBean threads) {
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threads)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	/**
+	 * Create a shape holding a square grid of at least the given number of
+	 * triangles in a TriangleMesh.
+	 *
+	 * @param triangleCount
+	 *            The minimum number of triangles
+	 * @return The new shape
+	 */
+	private static Shape createGrid(int triangleCount) {
+
+		// Each cell of the grid is made of two triangles
+		int cells = (int) Math.ceil(Math.sqrt(triangleCount / 2d));
+		TriangleMesh mesh = new TriangleMesh();
+		for (int y = 0; y <= cells; y++) {
+			for (int x = 0; x <= cells; x++) {
+				mesh.addVertex(x, y, 0);
+			}
+		}
+		for (int i = 0; i < triangleCount; i++) {
+			int cell = i / 2;
+			int corner = cell / cells * (cells + 1) + cell % cells;
+			if (i % 2 == 0) {
+				mesh.addTriangle(corner, corner + 1, corner + cells + 2, 0, 0,
+						1);
+			} else {
+				mesh.addTriangle(corner, corner + cells + 2, corner + cells + 1,
+						0, 0, 1);
+			}
+		}
+		mesh.trimToSize();
+
+		Shape shape = GeometryFactory.eINSTANCE.createShape();
+		shape.setMesh(mesh);
+		return shape;
+	}
+
+	/**
+	 * Copy a shape's triangles into a list of ordinary triangles, each with
+	 * its own vertices.
+	 *
+	 * @param shape
+	 *            The shape to copy
+	 * @return The new list of triangles
+	 */
+	private static EList<Triangle> copyTriangles(Shape shape) {
+		EList<Triangle> triangles = new BasicEList<Triangle>();
+		for (Triangle source : shape.getTriangles()) {
+			Triangle triangle = GeometryFactory.eINSTANCE.createTriangle();
+			triangle.getNormal().setZ(source.getNormal().getZ());
+			for (Vertex sourceVertex : source.getVertices()) {
+				Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+				vertex.setX(sourceVertex.getX());
+				vertex.setY(sourceVertex.getY());
+				vertex.setZ(sourceVertex.getZ());
+				triangle.getVertices().add(vertex);
+			}
+			triangles.add(triangle);
+		}
+		return triangles;
+	}
+}
@@ -13,6 +13,7 @@ package org.eclipse.eavp.geometry.view.javafx.render.test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.eclipse.eavp.geometry.view.javafx.render.FXMeshCache;
@@ -27,6 +28,7 @@ import org.junit.Test;
 import javafx.collections.ObservableFloatArray;
 import javafx.scene.shape.ObservableFaceArray;
 import javafx.scene.shape.TriangleMesh;
+import javafx.scene.shape.VertexFormat;
 
 /**
  * A class to test the functionality of the FXMeshCache
@@ -153,8 +155,21 @@ public class FXMeshCacheTester {
 		assertTrue(2 == faces.get(8));
 		assertTrue(3 == faces.get(10));
 
-		// The second half of the array is a mirror for the first half. Each
-		// faces is repeated with the triangles specified in the opposite order.
+		// Each face should only be given once
+		assertEquals(12, faces.size());
+
+		// In the double sided mesh, the second half of the array is a mirror
+		// for the first half. Each faces is repeated with the triangles
+		// specified in the opposite order.
+		TriangleMesh doubleSided = cache.getDoubleSidedMesh(triangles);
+		assertSame(doubleSided, cache.getDoubleSidedMesh(triangles));
+		assertEquals(points.size(), doubleSided.getPoints().size());
+		faces = doubleSided.getFaces();
+		assertEquals(24, faces.size());
+		assertTrue(0 == faces.get(0));
+		assertTrue(1 == faces.get(2));
+		assertTrue(2 == faces.get(4));
+
 		assertTrue(1 == faces.get(12));
 		assertTrue(0 == faces.get(14));
 		assertTrue(2 == faces.get(16));
@@ -171,4 +186,83 @@ public class FXMeshCacheTester {
 		TriangleMesh nullMesh = cache.getMesh((BasicEList<Triangle>) null);
 		assertEquals(0, nullMesh.getPoints().size());
 	}
+
+	/**
+	 * Test that the normals of the triangles sharing a point are averaged.
+	 */
+	@Test
+	public void checkNormals() {
+
+		// The cache for testing
+		FXMeshCache cache = new FXMeshCache();
+
+		// Create two triangles sharing an edge, one facing up the z axis and
+		// the other up the x axis
+		EList<Triangle> triangles = new BasicEList<Triangle>();
+		triangles.add(createTriangle(0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 1, 0));
+		triangles.add(createTriangle(1, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 1));
+
+		// Let the cache construct a mesh
+		TriangleMesh mesh = cache.getMesh(triangles);
+		assertEquals(VertexFormat.POINT_NORMAL_TEXCOORD,
+				mesh.getVertexFormat());
+		assertEquals(4 * 3, mesh.getPoints().size());
+
+		// Each point has a normal. The shared points, such as the first, have
+		// the average of the two triangles' normals.
+		ObservableFloatArray normals = mesh.getNormals();
+		assertEquals(4 * 3, normals.size());
+		assertEquals(0f, normals.get(1 * 3), 0f);
+		assertEquals(0f, normals.get(1 * 3 + 1), 0f);
+		assertEquals(1f, normals.get(1 * 3 + 2), 0f);
+		assertEquals(0.5f, normals.get(0), 0f);
+		assertEquals(0f, normals.get(1), 0f);
+		assertEquals(0.5f, normals.get(2), 0f);
+
+		// Each face vertex gives its point, normal, and texture coordinate
+		ObservableFaceArray faces = mesh.getFaces();
+		assertEquals(2 * 9, faces.size());
+		assertEquals(2, faces.get(6));
+		assertEquals(2, faces.get(7));
+		assertEquals(2, faces.get(8));
+
+		// The reversed faces should keep each point's normal
+		faces = cache.getDoubleSidedMesh(triangles).getFaces();
+		assertEquals(2 * 2 * 9, faces.size());
+		assertEquals(1, faces.get(18));
+		assertEquals(1, faces.get(19));
+		assertEquals(0, faces.get(20));
+		assertEquals(0, faces.get(21));
+		assertEquals(0, faces.get(22));
+		assertEquals(1, faces.get(23));
+	}
+
+	/**
+	 * Create a triangle.
+	 * 
+	 * @param nx
+	 *            The x component of the normal
+	 * @param ny
+	 *            The y component of the normal
+	 * @param nz
+	 *            The z component of the normal
+	 * @param coordinates
+	 *            The x, y, and z coordinates of each of the three vertices
+	 * @return The new triangle
+	 */
+	private Triangle createTriangle(double nx, double ny, double nz,
+			double... coordinates) {
+		Triangle triangle = GeometryFactory.eINSTANCE.createTriangle();
+		triangle.getNormal().setX(nx);
+		triangle.getNormal().setY(ny);
+		triangle.getNormal().setZ(nz);
+		for (int i = 0; i < 9; i += 3) {
+			Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+			vertex.setX(coordinates[i]);
+			vertex.setY(coordinates[i + 1]);
+			vertex.setZ(coordinates[i + 2]);
+			triangle.getVertices().add(vertex);
+		}
+		return triangle;
+	}
 }
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.eavp.geometry.view.javafx.render.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.eavp.geometry.view.javafx.render.FXPicker;
+import org.eclipse.january.geometry.Cube;
+import org.eclipse.january.geometry.Geometry;
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.util.BoundingVolumeHierarchy.Hit;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import javafx.scene.Group;
+import javafx.scene.ParallelCamera;
+import javafx.scene.PerspectiveCamera;
+import javafx.scene.transform.Rotate;
+
+/**
+ * A class to test the functionality of the FXPicker.
+ *
+ * @author Robert Smith
+ *
+ */
+@Ignore
+public class FXPickerTester {
+
+	/**
+	 * Check that the nearest node under a point of the view is found.
+	 */
+	@Test
+	public void checkPick() {
+
+		NotificationDispatcher.setSynchronous(true);
+		try {
+
+			// A camera at the origin looking down the z axis
+			PerspectiveCamera camera = new PerspectiveCamera(true);
+			camera.setFieldOfView(60);
+
+			// A cube ahead of the camera, one hidden behind it and one to the
+			// side
+			Geometry geometry = GeometryFactory.eINSTANCE.createGeometry();
+			Cube ahead = createCube(0, 0, 10);
+			Cube hidden = createCube(0, 0, 20);
+			Cube side = createCube(3, 0, 10);
+			geometry.getNodes().add(ahead);
+			geometry.getNodes().add(hidden);
+			geometry.getNodes().add(side);
+			Group parent = new Group();
+			FXPicker picker = new FXPicker(geometry, parent);
+
+			// The middle of the view should hit the front of the nearest cube
+			Hit hit = picker.pick(camera, 50, 50, 100, 100);
+			assertSame(ahead, hit.getNode());
+			assertEquals(9, hit.getPoint()[2], 1e-9);
+
+			// The cube to the side is at about 79 pixels across, while the
+			// corners of the view hit nothing
+			assertSame(side, picker.pickNode(camera, 79, 50, 100, 100));
+			assertNull(picker.pickNode(camera, 0, 0, 100, 100));
+
+			// Moving a cube should be seen by the next pick
+			ahead.getCenter().setY(5);
+			assertSame(hidden, picker.pickNode(camera, 50, 50, 100, 100));
+			ahead.getCenter().setY(0);
+
+			// The geometry's own center is not drawn, so it should not change
+			// what is picked
+			geometry.getCenter().setX(100);
+			assertSame(ahead, picker.pickNode(camera, 50, 50, 100, 100));
+
+			// Turning the camera around, or moving the parent behind it,
+			// should leave nothing under the point
+			camera.getTransforms().add(new Rotate(180, Rotate.Y_AXIS));
+			assertNull(picker.pickNode(camera, 50, 50, 100, 100));
+			camera.getTransforms().clear();
+			parent.setTranslateZ(-40);
+			assertNull(picker.pickNode(camera, 50, 50, 100, 100));
+			parent.setTranslateZ(0);
+
+			// Unsupported cameras should pick nothing
+			assertNull(picker.pickNode(new ParallelCamera(), 50, 50, 100,
+					100));
+			picker.dispose();
+		} finally {
+			NotificationDispatcher.setSynchronous(false);
+		}
+	}
+
+	/**
+	 * Create a cube of side 2.
+	 *
+	 * @param x
+	 *            The cube's x coordinate
+	 * @param y
+	 *            The cube's y coordinate
+	 * @param z
+	 *            The cube's z coordinate
+	 * @return A new cube
+	 */
+	private Cube createCube(double x, double y, double z) {
+		Cube cube = GeometryFactory.eINSTANCE.createCube();
+		cube.setSideLength(2);
+		cube.getCenter().setX(x);
+		cube.getCenter().setY(y);
+		cube.getCenter().setZ(z);
+		return cube;
+	}
+}
@@ -12,6 +12,8 @@ package org.eclipse.eavp.geometry.view.javafx.render.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.HashSet;
@@ -22,15 +24,22 @@ import org.eclipse.eavp.geometry.view.javafx.render.FXRenderObject;
 import org.eclipse.eavp.geometry.view.model.impl.MeshCacheImpl;
 import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.common.util.EList;
+import org.eclipse.january.geometry.Cube;
 import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.Intersection;
 import org.eclipse.january.geometry.Shape;
+import org.eclipse.january.geometry.Sphere;
 import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Union;
 import org.eclipse.january.geometry.Vertex;
 import org.eclipse.january.geometry.impl.ShapeImpl;
+import org.eclipse.january.geometry.util.MeshUtils;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import javafx.scene.ParallelCamera;
+import javafx.scene.PerspectiveCamera;
+import javafx.scene.shape.CullFace;
 import javafx.scene.shape.MeshView;
 import javafx.scene.shape.TriangleMesh;
 
@@ -80,6 +89,20 @@ public class FXRenderObjectTester {
 		assertTrue(renderTri1.getRender().getChildren()
 				.get(0) instanceof MeshView);
 
+		// A mesh specified by triangles should be drawn from both sides
+		// without doubling its faces
+		MeshView view = (MeshView) renderTri1.getRender().getChildren().get(0);
+		assertEquals(CullFace.NONE, view.getCullFace());
+		int faceCount = ((TriangleMesh) view.getMesh()).getFaces().size();
+
+		// A double sided render should give each face twice instead
+		shape1.changeDecoratorProperty(
+				FXRenderObject.PROPERTY_NAME_DOUBLE_SIDED, true);
+		view = (MeshView) renderTri1.getRender().getChildren().get(0);
+		assertEquals(CullFace.BACK, view.getCullFace());
+		assertEquals(faceCount * 2,
+				((TriangleMesh) view.getMesh()).getFaces().size());
+
 		// Create a shape with the second set of triangles.
 		Shape shape2 = GeometryFactory.eINSTANCE.createShape();
 		shape2.getTriangles().addAll(cache.getSet2());
@@ -104,6 +127,88 @@ public class FXRenderObjectTester {
 		assertEquals(5d, renderTri2.getMesh().getTranslateZ(), 0.01d);
 	}
 
+	/**
+	 * Check that a sphere is drawn with fewer triangles as it moves away from
+	 * the camera.
+	 */
+	@Test
+	public void checkDetailLevel() {
+
+		// Render a sphere from its triangles
+		Sphere sphere = GeometryFactory.eINSTANCE.createSphere();
+		sphere.setRadius(1);
+		FXRenderObject render = new FXRenderObject(sphere, new FXMeshCache());
+		int fullSize = getFaceCount(render);
+
+		// Close to the camera, the sphere should stay at full detail
+		assertFalse(render.updateDetailLevel(1, 30, 1000));
+		assertEquals(fullSize, getFaceCount(render));
+
+		// Far away, it should use a coarser level
+		assertTrue(render.updateDetailLevel(10000, 30, 1000));
+		assertTrue(getFaceCount(render) < fullSize);
+		assertEquals(MeshUtils.DETAIL_LEVELS - 1, render.getProperty(
+				FXRenderObject.PROPERTY_NAME_DETAIL_LEVEL));
+
+		// Moving the camera further should change nothing, while moving it
+		// back should restore the full mesh
+		assertFalse(render.updateDetailLevel(20000, 30, 1000));
+		assertTrue(render.updateDetailLevel(1, 30, 1000));
+		assertEquals(fullSize, getFaceCount(render));
+	}
+
+	/**
+	 * Check that a sphere's level of detail follows the camera viewing it.
+	 */
+	@Test
+	public void checkCameraDetailLevel() {
+
+		// Render a sphere away from the origin
+		Sphere sphere = GeometryFactory.eINSTANCE.createSphere();
+		sphere.setRadius(1);
+		sphere.getCenter().setX(100);
+		FXRenderObject render = new FXRenderObject(sphere, new FXMeshCache());
+		int fullSize = getFaceCount(render);
+
+		// A camera next to the sphere should keep it at full detail
+		PerspectiveCamera camera = new PerspectiveCamera(true);
+		camera.setFarClip(100000);
+		camera.setTranslateX(100);
+		camera.setTranslateZ(-5);
+		assertFalse(render.updateDetailLevel(camera, 1000, 1000));
+		assertEquals(fullSize, getFaceCount(render));
+
+		// Moving the camera away should coarsen it
+		camera.setTranslateZ(-10000);
+		assertTrue(render.updateDetailLevel(camera, 1000, 1000));
+		assertTrue(getFaceCount(render) < fullSize);
+
+		// Other cameras should leave it alone
+		assertFalse(render.updateDetailLevel(new ParallelCamera(), 1000,
+				1000));
+		assertFalse(render.updateDetailLevel(new PerspectiveCamera(false),
+				1000, 1000));
+
+		// Bringing the camera back should restore the full mesh, even with a
+		// horizontal field of view
+		camera.setTranslateZ(-5);
+		camera.setVerticalFieldOfView(false);
+		assertTrue(render.updateDetailLevel(camera, 1000, 500));
+		assertEquals(fullSize, getFaceCount(render));
+	}
+
+	/**
+	 * Get the number of faces in a render's mesh.
+	 * 
+	 * @param render
+	 *            A render drawn from triangles
+	 * @return The size of the faces array of the render's mesh
+	 */
+	private int getFaceCount(FXRenderObject render) {
+		MeshView view = (MeshView) render.getRender().getChildren().get(0);
+		return ((TriangleMesh) view.getMesh()).getFaces().size();
+	}
+
 	/**
 	 * Test that the object will properly handle child objects based on its
 	 * type.
@@ -160,6 +265,60 @@ public class FXRenderObjectTester {
 
 	}
 
+	/**
+	 * Check that an intersection is drawn from the result of its operation,
+	 * and redrawn when one of its children changes.
+	 */
+	@Test
+	public void checkOperatorResult() {
+
+		// An intersection of two cubes of side 2 overlapping in a cube of side
+		// 1
+		Intersection intersection = GeometryFactory.eINSTANCE
+				.createIntersection();
+		Cube first = GeometryFactory.eINSTANCE.createCube();
+		first.setSideLength(2);
+		Cube second = GeometryFactory.eINSTANCE.createCube();
+		second.setSideLength(2);
+		second.getCenter().setX(1);
+		second.getCenter().setY(1);
+		second.getCenter().setZ(1);
+		intersection.addNode(first);
+		intersection.addNode(second);
+
+		// The render should hold the shared cube rather than nothing
+		FXRenderObject render = new FXRenderObject(intersection,
+				new FXMeshCache());
+		EList<org.eclipse.eavp.geometry.view.model.IRenderElement<javafx.scene.Group>> childList = new BasicEList<org.eclipse.eavp.geometry.view.model.IRenderElement<javafx.scene.Group>>();
+		render.handleChildren(childList);
+		javafx.scene.Group group = render.getMesh();
+		assertFalse(intersection.getResultTriangles().isEmpty());
+		assertEquals(intersection.getResultTriangles().size(),
+				getTriangleCount(render));
+
+		// Nothing should be redrawn while the children are unchanged
+		assertSame(group, render.getMesh());
+
+		// Growing a child should change the result and so the render
+		first.setSideLength(4);
+		assertNotSame(group, render.getMesh());
+		assertEquals(intersection.getResultTriangles().size(),
+				getTriangleCount(render));
+	}
+
+	/**
+	 * Get the number of triangles in a render's mesh.
+	 * 
+	 * @param render
+	 *            A render drawn from triangles
+	 * @return The number of faces in the render's mesh
+	 */
+	private int getTriangleCount(FXRenderObject render) {
+		MeshView view = (MeshView) render.getRender().getChildren().get(0);
+		TriangleMesh mesh = (TriangleMesh) view.getMesh();
+		return mesh.getFaces().size() / mesh.getFaceElementSize();
+	}
+
 	/**
 	 * A simple MeshCache implementation for testing purposes. It comes
 	 * initialized with some dummy data.
@@ -221,13 +380,11 @@ public class FXRenderObjectTester {
 			triangle2.getVertices().add(GeometryFactory.eINSTANCE.createVertex());
 			triangle2.getVertices().add(GeometryFactory.eINSTANCE.createVertex());
 
-			// Add the first triangle mesh and the first triangle list to the
-			// caches with shared ID number 0.
+			// Create the first set. Its mesh will be created and cached the
+			// first time it is requested.
 			set1 = new HashSet<Triangle>();
 			set1.add(triangle);
 			set1.add(triangle2);
-			sourceTriangleCache.put(0, set1);
-			triangleCache.put(0, mesh1);
 
 			// Create a second triangle mesh
 			mesh2 = new TriangleMesh();
@@ -255,11 +412,6 @@ public class FXRenderObjectTester {
 			set2 = new HashSet<Triangle>();
 			set2.add(triangle3);
 			set2.add(triangle4);
-
-			// Add the second triangle mesh and the second triangle list to the
-			// caches with shared ID number 1.
-			sourceTriangleCache.put(1, set2);
-			triangleCache.put(1, mesh2);
 		}
 
 		/**
@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.eavp.geometry.view.javafx.render;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.eavp.geometry.view.model.IRenderElement;
+import org.eclipse.january.geometry.BoundingBox;
+import org.eclipse.january.geometry.INode;
+import org.eclipse.january.geometry.Vertex;
+
+import javafx.scene.Camera;
+import javafx.scene.Group;
+import javafx.scene.PerspectiveCamera;
+import javafx.scene.transform.NonInvertibleTransformException;
+import javafx.scene.transform.Transform;
+
+/**
+ * A class which hides the renders lying entirely outside of a camera's view
+ * frustum, so that JavaFX does not spend time drawing them.
+ *
+ * Each render's bounds are taken from its source node's cached bounding box
+ * and moved into the scene through the render group's transform. A render is
+ * hidden if all the corners of its box lie outside one of the frustum's six
+ * planes, and shown otherwise.
+ *
+ * Since cull() is meant to be called every frame, it only does any work when
+ * the camera has moved, its field of view, clipping distances or the size of
+ * the view have changed, or invalidate() was called to report that the
+ * renders changed.
+ *
+ * Only PerspectiveCameras with the eye fixed at the camera's origin are
+ * supported. For any other camera, every render is shown.
+ *
+ * @author Robert Smith
+ *
+ */
+public class FXFrustumCuller {
+
+	/**
+	 * The frustum's near, far, left, right, top and bottom planes in scene
+	 * coordinates. Each holds the a, b, c and d of the plane ax + by + cz + d
+	 * = 0, where points inside the frustum give a positive value.
+	 */
+	private final double[][] planes = new double[6][4];
+
+	/**
+	 * The camera state the planes were calculated for: the twelve entries of
+	 * its local to scene transform, followed by its field of view, whether
+	 * that is vertical, its near and far clipping distances and the view's
+	 * width and height. Null if the planes have not been calculated.
+	 */
+	private double[] cameraState;
+
+	/**
+	 * Whether the renders must be culled again even if the camera has not
+	 * changed.
+	 */
+	private volatile boolean dirty = true;
+
+	/**
+	 * The number of renders hidden by the last cull.
+	 */
+	private int culledCount;
+
+	/**
+	 * Report that the renders or their sources have changed, so that the next
+	 * call to cull() will check them again.
+	 */
+	public void invalidate() {
+		dirty = true;
+	}
+
+	/**
+	 * Get the number of renders which were hidden the last time they were
+	 * culled.
+	 *
+	 * @return The number of renders outside the frustum
+	 */
+	public int getCulledCount() {
+		return culledCount;
+	}
+
+	/**
+	 * Show the renders inside the camera's view frustum and hide the rest, if
+	 * the camera or the renders have changed since they were last culled.
+	 *
+	 * @param camera
+	 *            The camera the scene is being viewed through
+	 * @param width
+	 *            The width of the view, in pixels
+	 * @param height
+	 *            The height of the view, in pixels
+	 * @param renders
+	 *            The renders to cull. Renders held inside another are shown
+	 *            or hidden along with it, so only the top level renders need
+	 *            to be given.
+	 * @return True if the renders were culled, false if nothing had changed
+	 *         since the last time.
+	 */
+	public boolean cull(Camera camera, double width, double height,
+			List<? extends IRenderElement<Group>> renders) {
+
+		if (!updatePlanes(camera, width, height) && !dirty) {
+			return false;
+		}
+		dirty = false;
+
+		int culled = 0;
+		for (IRenderElement<Group> render : renders) {
+			boolean visible = cameraState == null || isVisible(render);
+			render.getMesh().setVisible(visible);
+			if (!visible) {
+				culled++;
+			}
+		}
+
+		culledCount = culled;
+		return true;
+	}
+
+	/**
+	 * Recalculate the frustum's planes if the camera has changed.
+	 *
+	 * @param camera
+	 *            The camera
+	 * @param width
+	 *            The width of the view
+	 * @param height
+	 *            The height of the view
+	 * @return True if the planes changed, false otherwise
+	 */
+	private boolean updatePlanes(Camera camera, double width, double height) {
+
+		// Only cameras whose frustum starts at their origin can be handled
+		if (!(camera instanceof PerspectiveCamera)
+				|| !((PerspectiveCamera) camera).isFixedEyeAtCameraZero()
+				|| width <= 0 || height <= 0) {
+			boolean changed = cameraState != null;
+			cameraState = null;
+			return changed;
+		}
+		PerspectiveCamera perspective = (PerspectiveCamera) camera;
+
+		// Compare the camera to the state the planes were made for
+		Transform transform = camera.getLocalToSceneTransform();
+		double[] state = { transform.getMxx(), transform.getMxy(),
+				transform.getMxz(), transform.getTx(), transform.getMyx(),
+				transform.getMyy(), transform.getMyz(), transform.getTy(),
+				transform.getMzx(), transform.getMzy(), transform.getMzz(),
+				transform.getTz(), perspective.getFieldOfView(),
+				perspective.isVerticalFieldOfView() ? 1 : 0,
+				camera.getNearClip(), camera.getFarClip(), width, height };
+		if (Arrays.equals(state, cameraState)) {
+			return false;
+		}
+
+		Transform inverse;
+		try {
+			inverse = transform.createInverse();
+		} catch (NonInvertibleTransformException e) {
+
+			// A flattened camera sees nothing sensible, so show everything
+			cameraState = null;
+			return true;
+		}
+
+		// Find the slopes of the sides. The camera looks down its z axis with
+		// x to the right and y down.
+		double tangent = Math.tan(Math.toRadians(state[12]) / 2);
+		double tanX = state[13] == 1 ? tangent * width / height : tangent;
+		double tanY = state[13] == 1 ? tangent : tangent * height / width;
+
+		// The planes in the camera's coordinates
+		double[][] local = { { 0, 0, 1, -camera.getNearClip() },
+				{ 0, 0, -1, camera.getFarClip() }, { 1, 0, tanX, 0 },
+				{ -1, 0, tanX, 0 }, { 0, 1, tanY, 0 }, { 0, -1, tanY, 0 } };
+
+		// Move them into the scene. A scene point p is inside a plane n.q + d
+		// if n.(Rp + t) + d is positive, where q = Rp + t is the point in the
+		// camera's coordinates, so the plane's scene normal is the transpose
+		// of R times n and its offset is n.t + d.
+		for (int i = 0; i < 6; i++) {
+			double a = local[i][0];
+			double b = local[i][1];
+			double c = local[i][2];
+			planes[i][0] = inverse.getMxx() * a + inverse.getMyx() * b
+					+ inverse.getMzx() * c;
+			planes[i][1] = inverse.getMxy() * a + inverse.getMyy() * b
+					+ inverse.getMzy() * c;
+			planes[i][2] = inverse.getMxz() * a + inverse.getMyz() * b
+					+ inverse.getMzz() * c;
+			planes[i][3] = inverse.getTx() * a + inverse.getTy() * b
+					+ inverse.getTz() * c + local[i][3];
+		}
+
+		cameraState = state;
+		return true;
+	}
+
+	/**
+	 * Check whether any part of a render's bounds may be inside the frustum.
+	 *
+	 * @param render
+	 *            The render to check
+	 * @return False if the render's box is entirely outside one of the
+	 *         frustum's planes, true otherwise, including when its bounds are
+	 *         unknown
+	 */
+	private boolean isVisible(IRenderElement<Group> render) {
+
+		INode source = render.getBase();
+		BoundingBox bounds = source == null ? null : source.getBounds();
+		if (bounds == null) {
+			return true;
+		}
+
+		// The bounds are offset by the source's center, which the group is
+		// already translated by
+		double x = 0;
+		double y = 0;
+		double z = 0;
+		Vertex center = source.getCenter();
+		if (center != null) {
+			x = center.getX();
+			y = center.getY();
+			z = center.getZ();
+		}
+
+		// Move the box's corners into the scene
+		Transform transform = render.getMesh().getLocalToSceneTransform();
+		double[] corners = new double[24];
+		for (int i = 0; i < 8; i++) {
+			double cornerX = ((i & 1) == 0 ? bounds.getMinX()
+					: bounds.getMaxX()) - x;
+			double cornerY = ((i & 2) == 0 ? bounds.getMinY()
+					: bounds.getMaxY()) - y;
+			double cornerZ = ((i & 4) == 0 ? bounds.getMinZ()
+					: bounds.getMaxZ()) - z;
+			corners[i * 3] = transform.getMxx() * cornerX
+					+ transform.getMxy() * cornerY
+					+ transform.getMxz() * cornerZ + transform.getTx();
+			corners[i * 3 + 1] = transform.getMyx() * cornerX
+					+ transform.getMyy() * cornerY
+					+ transform.getMyz() * cornerZ + transform.getTy();
+			corners[i * 3 + 2] = transform.getMzx() * cornerX
+					+ transform.getMzy() * cornerY
+					+ transform.getMzz() * cornerZ + transform.getTz();
+		}
+
+		// The box is hidden if every corner is behind the same plane
+		for (double[] plane : planes) {
+			boolean outside = true;
+			for (int i = 0; i < 8 && outside; i++) {
+				outside = plane[0] * corners[i * 3]
+						+ plane[1] * corners[i * 3 + 1]
+						+ plane[2] * corners[i * 3 + 2] + plane[3] < 0;
+			}
+			if (outside) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
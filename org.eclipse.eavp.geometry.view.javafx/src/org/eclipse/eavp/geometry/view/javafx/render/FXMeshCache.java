@@ -10,14 +10,15 @@
  *******************************************************************************/
 package org.eclipse.eavp.geometry.view.javafx.render;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.eclipse.eavp.geometry.view.model.impl.MeshCacheImpl;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.TriangleMeshView;
 
 import javafx.scene.shape.TriangleMesh;
 import javafx.scene.shape.VertexFormat;
@@ -34,11 +35,24 @@ import javafx.scene.shape.VertexFormat;
  * will be responsible for creating a new TriangleMesh based on the geometry of
  * the input triangles.
  * 
+ * Meshes created from triangles are single sided, with each face given only
+ * in the winding of the original triangle. Since we know nothing about the
+ * topology of such a mesh, it should be drawn with CullFace.NONE so that it is
+ * visible from either side. If the back of the faces must be lit the same as
+ * the front, getDoubleSidedMesh() gives a version of the mesh with a second
+ * copy of every face in the opposite winding, at twice the size.
+ * 
  * @author Robert Smith
  *
  */
 public class FXMeshCache extends MeshCacheImpl<TriangleMesh> {
 
+	/**
+	 * A map from single sided meshes to their double sided versions. Entries
+	 * are discarded once the single sided mesh is no longer in use.
+	 */
+	private final Map<TriangleMesh, TriangleMesh> doubleSidedMeshes = new WeakHashMap<TriangleMesh, TriangleMesh>();
+
 	/**
 	 * The nullary constructor.
 	 */
@@ -63,226 +77,177 @@ public class FXMeshCache extends MeshCacheImpl<TriangleMesh> {
 		typeCache.put(mesh.getType(), mesh.getMesh());
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * Get a double sided mesh for a list of triangles, in which every face
+	 * appears twice, once in each winding. This is only needed when the backs
+	 * of the faces must be lit the same as the fronts, as JavaFX will draw the
+	 * back of a single sided face unlit when face culling is turned off.
 	 * 
-	 * @see
-	 * model.impl.MeshCacheImpl#createMesh(org.eclipse.emf.common.util.EList)
+	 * @param triangles
+	 *            The mesh's triangles
+	 * @return The double sided version of the mesh given by getMesh() for the
+	 *         same triangles
 	 */
-	@Override
-	protected TriangleMesh createMesh(EList<Triangle> triangles) {
-
-		// The mesh being constructed
-		TriangleMesh mesh = new TriangleMesh();
+	public TriangleMesh getDoubleSidedMesh(EList<Triangle> triangles) {
 
-		// A map from a vertex's coordinates to its ID. The nested maps give the
-		// x, y, and z coordinates in order.
-		HashMap<Double, Map<Double, Map<Double, Integer>>> xCoords = new HashMap<Double, Map<Double, Map<Double, Integer>>>();
-
-		// The lists of points in the mesh, in the order x, y, and z coordinates
-		// for the first point, x, y, and z for the second point, etc.
-		ArrayList<Float> pointsList = new ArrayList<Float>();
-		ArrayList<Integer> facesList = new ArrayList<Integer>();
-		ArrayList<ArrayList<Vertex>> normalList = new ArrayList<ArrayList<Vertex>>();
-
-		// The next unassigned point ID.
-		int nextPointID = 0;
-
-		boolean normalsSet = false;
+		TriangleMesh mesh = getMesh(triangles);
+		if (mesh == null) {
+			return null;
+		}
 
-		if (triangles.size() > 0) {
-			Vertex vert = triangles.get(0).getNormal();
-			if (vert.getX() != 0 || vert.getY() != 0 || vert.getZ() != 0) {
-				normalsSet = true;
+		// Create the double sided version the first time it is needed
+		synchronized (doubleSidedMeshes) {
+			TriangleMesh doubleSided = doubleSidedMeshes.get(mesh);
+			if (doubleSided == null) {
+				doubleSided = createDoubleSidedMesh(mesh);
+				doubleSidedMeshes.put(mesh, doubleSided);
 			}
+			return doubleSided;
 		}
+	}
 
-		// Add each triangle to the mesh
-		for (Triangle tri : triangles) {
-
-			// Add each vertex to the face
-			for (int i = 0; i < 3; i++) {
-				Vertex vert = tri.getVertices().get(i);
-
-				// Get the vertex's x coordinate
-				Map<Double, Map<Double, Integer>> yCoords = xCoords
-						.get(vert.getX());
-
-				// If the x coordinate was recognized, continue
-				if (yCoords != null) {
-
-					// Get the vertex's y coordinate.
-					Map<Double, Integer> zCoords = yCoords.get(vert.getY());
-
-					// If the y coordinate was recognized, continue
-					if (zCoords != null) {
-
-						// Get the vertex's ID
-						Integer ID = zCoords.get(vert.getZ());
-
-						// If the z coordinate was recognized, add the ID to the
-						// face
-						if (ID != null) {
-							facesList.add(ID);
-
-							// Update the normal vector
-							normalList.get(ID).add(tri.getNormal());
-
-						} else {
-
-							// If the vertex is not recognized, add it
-							zCoords.put(vert.getZ(), nextPointID);
-							addVertex(vert, pointsList, facesList, nextPointID);
-							nextPointID++;
-
-							// Also add the triangle's normal
-							ArrayList<Vertex> normal = new ArrayList<Vertex>();
-							normal.add(tri.getNormal());
-							normalList.add(normal);
-
-						}
-
-					} else {
-
-						// If the vertex is not recognized, add it
-						zCoords = new HashMap<Double, Integer>();
-						zCoords.put(vert.getZ(), nextPointID);
-						addVertex(vert, pointsList, facesList, nextPointID);
-						nextPointID++;
-
-						// Also add the triangle's normal
-						ArrayList<Vertex> normal = new ArrayList<Vertex>();
-						normal.add(tri.getNormal());
-						normalList.add(normal);
-					}
-
-					// Save the modified z coordinate map
-					yCoords.put(vert.getY(), zCoords);
-				} else {
-
-					// If the vertex was not recognized, add it
-					Map<Double, Integer> zCoords = new HashMap<Double, Integer>();
-					zCoords.put(vert.getZ(), nextPointID);
-					addVertex(vert, pointsList, facesList, nextPointID);
-					yCoords = new HashMap<Double, Map<Double, Integer>>();
-					yCoords.put(vert.getY(), zCoords);
-					nextPointID++;
-
-					// Also add the triangle's normal
-					ArrayList<Vertex> normal = new ArrayList<Vertex>();
-					normal.add(tri.getNormal());
-					normalList.add(normal);
-				}
-
-				// Save the modified y coordinate map
-				xCoords.put(vert.getX(), yCoords);
-
-				// Add one of the three default texture vertices
-				facesList.add(i);
+	/**
+	 * Create a copy of a mesh with a second copy of every face in the opposite
+	 * winding. The reversed faces follow all the original ones, with their
+	 * first two vertices switched.
+	 * 
+	 * @param mesh
+	 *            The single sided mesh
+	 * @return The double sided mesh
+	 */
+	private static TriangleMesh createDoubleSidedMesh(TriangleMesh mesh) {
+
+		VertexFormat format = mesh.getVertexFormat();
+		int stride = format.getVertexIndexSize();
+		int pointOffset = format.getPointIndexOffset();
+		int normalOffset = format.getNormalIndexOffset();
+
+		// Copy the faces twice, then switch the first two vertices' points
+		// and normals in the second copy
+		int[] faces = mesh.getFaces().toArray(null);
+		int[] doubleFaces = Arrays.copyOf(faces, faces.length * 2);
+		System.arraycopy(faces, 0, doubleFaces, faces.length, faces.length);
+		for (int face = 0; face < faces.length; face += stride * 3) {
+			int first = faces.length + face;
+			int second = first + stride;
+			doubleFaces[first + pointOffset] = faces[face + stride
+					+ pointOffset];
+			doubleFaces[second + pointOffset] = faces[face + pointOffset];
+			if (normalOffset >= 0) {
+				doubleFaces[first + normalOffset] = faces[face + stride
+						+ normalOffset];
+				doubleFaces[second + normalOffset] = faces[face
+						+ normalOffset];
 			}
 		}
 
-		// FIXME When JavaFX properly supports turning cull faces off (ie the
-		// normally culled face is no longer displayed as pure black regardless
-		// of material color or lighting) or if it is decided we will only
-		// accept meshes specified according to the right hand rule, remove this
-		// section.
-		// A list of the faces specified in the opposite direction. Since we
-		// know nothing about the topology of the mesh, we cannot say which side
-		// of any triangle needs to be rendered. Thus we create two JavaFX
-		// triangles for every real one, each facing the opposite direction, so
-		// that the mesh will be visible either way.
-		ArrayList<Integer> reverseFaces = (ArrayList<Integer>) facesList
-				.clone();
-
-		// Switch the first two vertices of every face
-		for (int i = 0; i < facesList.size(); i++) {
-
-			// Faces are specified as blocks of six numbers: vertex1, 0,
-			// vertex2, 0, vertex3, 0
-			if (i % 6 == 0) {
-				reverseFaces.set(i, facesList.get(i + 2));
-			} else if (i % 6 == 1) {
+		TriangleMesh doubleSided = new TriangleMesh(format);
+		doubleSided.getPoints().setAll(mesh.getPoints());
+		doubleSided.getTexCoords().setAll(mesh.getTexCoords());
+		doubleSided.getNormals().setAll(mesh.getNormals());
+		doubleSided.getFaces().setAll(doubleFaces);
+		return doubleSided;
+	}
 
-			}
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * model.impl.MeshCacheImpl#createMesh(org.eclipse.emf.common.util.EList)
+	 */
+	@Override
+	protected TriangleMesh createMesh(EList<Triangle> triangles) {
 
-			else if (i % 6 == 2) {
-				reverseFaces.set(i, facesList.get(i - 2));
-			}
-		}
+		int triangleCount = triangles.size();
 
-		// Append the reversed face list to the original
-		facesList.addAll(reverseFaces);
+		// The table of distinct points, each identified by its index. A closed
+		// mesh has about half as many points as triangles.
+		PointTable points = new PointTable(triangleCount / 2);
 
-		// The list of faces with normals added
-		ArrayList<Integer> finalFacesList = new ArrayList<Integer>();
+		// The index of the point at each corner of each triangle
+		int[] corners = new int[triangleCount * 3];
 
-		// Create a version of the faces list with the indices into the normals
-		// array added for each triangle
-		if (normalsSet) {
-			for (int i = 0; i < facesList.size(); i = i + 2) {
-				finalFacesList.add(facesList.get(i));
-				finalFacesList.add(facesList.get(i));
-				finalFacesList.add(facesList.get(i + 1));
-			}
-		}
+		// The x, y, and z components of each triangle's normal
+		float[] triangleNormals = new float[triangleCount * 3];
 
-		// Convert the list to an array
-		float[] points = new float[pointsList.size()];
-		for (int i = 0; i < pointsList.size(); i++) {
-			points[i] = pointsList.get(i);
+		// If the triangles are a view of a mesh, read its arrays directly
+		// instead of creating an object for every triangle and vertex
+		org.eclipse.january.geometry.util.TriangleMesh source = null;
+		if (triangles instanceof TriangleMeshView) {
+			source = ((TriangleMeshView) triangles).getMesh();
 		}
 
-		// Convert the list to an array
-		int[] faces = normalsSet ? new int[finalFacesList.size()]
-				: new int[facesList.size()];
-
-		// Populate the faces array from the correct source list based on
-		// whether or not normals are in use
-		if (normalsSet) {
-			for (int i = 0; i < finalFacesList.size(); i++) {
-				faces[i] = finalFacesList.get(i);
+		if (source != null) {
+			float[] positions = source.getPositions();
+			int[] indices = source.getIndices();
+			System.arraycopy(source.getNormals(), 0, triangleNormals, 0,
+					triangleCount * 3);
+			for (int i = 0; i < triangleCount * 3; i++) {
+				int offset = indices[i] * 3;
+				corners[i] = points.add(positions[offset],
+						positions[offset + 1], positions[offset + 2]);
 			}
 		} else {
-			for (int i = 0; i < facesList.size(); i++) {
-				faces[i] = facesList.get(i);
+			int i = 0;
+			for (Triangle tri : triangles) {
+				Vertex normal = tri.getNormal();
+				triangleNormals[i] = (float) normal.getX();
+				triangleNormals[i + 1] = (float) normal.getY();
+				triangleNormals[i + 2] = (float) normal.getZ();
+
+				EList<Vertex> vertices = tri.getVertices();
+				for (int j = 0; j < 3; j++) {
+					Vertex vert = vertices.get(j);
+					corners[i + j] = points.add(vert.getX(), vert.getY(),
+							vert.getZ());
+				}
+				i += 3;
 			}
 		}
 
-		// Create a list to hold each of the coordinates for the normals for
-		// each vertex, listed in the order x coordinate, y coordinate, z
-		// coordinate for each normal in the same order as the vertices in the
-		// points array.
-		float[] normals = new float[normalList.size() * 3];
-
-		// Create the normals array
-		for (int i = 0; i <= normals.length / 3 - 1; i++) {
-
-			// Get all the normals of the triangles for this vertex
-			ArrayList<Vertex> triangleNormals = normalList.get(i);
-
-			// Initialize the x, y, and z values for this shape
-			float x = 0;
-			float y = 0;
-			float z = 0;
-
-			// Get the average for each of the values
-			for (Vertex normal : triangleNormals) {
-				x += normal.getX() / triangleNormals.size();
-				y += normal.getY() / triangleNormals.size();
-				z += normal.getZ() / triangleNormals.size();
-			}
+		// Normals are only used if the first triangle has one
+		boolean normalsSet = triangleCount > 0 && (triangleNormals[0] != 0
+				|| triangleNormals[1] != 0 || triangleNormals[2] != 0);
+
+		// Average the normals of the triangles touching each point, by summing
+		// them in place and then dividing by the number of triangles
+		int pointCount = points.size();
+		float[] normals = new float[pointCount * 3];
+		int[] normalCounts = new int[pointCount];
+		for (int i = 0; i < triangleCount * 3; i++) {
+			int point = corners[i];
+			int normal = i - i % 3;
+			normals[point * 3] += triangleNormals[normal];
+			normals[point * 3 + 1] += triangleNormals[normal + 1];
+			normals[point * 3 + 2] += triangleNormals[normal + 2];
+			normalCounts[point]++;
+		}
+		for (int i = 0; i < pointCount; i++) {
+			float scale = 1f / normalCounts[i];
+			normals[i * 3] *= scale;
+			normals[i * 3 + 1] *= scale;
+			normals[i * 3 + 2] *= scale;
+		}
 
-			// Set the averages to the array
-			normals[i * 3] = x;
-			normals[i * 3 + 1] = y;
-			normals[1 * 3 + 2] = z;
+		// Each vertex of a face is given by its point, its normal if normals
+		// are in use, which has the same index as the point, and one of the
+		// three default texture coordinates. Each face is given once, in the
+		// winding of its triangle.
+		int stride = normalsSet ? 3 : 2;
+		int[] faces = new int[triangleCount * 3 * stride];
+		for (int i = 0; i < triangleCount * 3; i += 3) {
+			int face = i * stride;
+			addFaceVertex(faces, face, stride, corners[i], 0);
+			addFaceVertex(faces, face + stride, stride, corners[i + 1], 1);
+			addFaceVertex(faces, face + stride * 2, stride, corners[i + 2],
+					2);
 		}
 
 		// Set all the points on the mesh and faces to the mesh, setting the
 		// texture to simply be a triangle cut from one side of the texture
 		// image to the center point of the opposite side.
-		mesh.getPoints().setAll(points);
+		TriangleMesh mesh = new TriangleMesh();
+		mesh.getPoints().setAll(points.getPoints(), 0, pointCount * 3);
 		mesh.getTexCoords().setAll(new float[] { 0.5f, 0.5f, 0f, 1f, 1f, 1f });
 		mesh.getFaces().setAll(faces);
 		mesh.getNormals().setAll(normals);
@@ -295,28 +260,208 @@ public class FXMeshCache extends MeshCacheImpl<TriangleMesh> {
 		return mesh;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.eavp.geometry.view.model.impl.MeshCacheImpl#estimateSize(java
+	 * .lang.Object, int)
+	 */
+	@Override
+	protected long estimateSize(TriangleMesh mesh, int triangleCount) {
+
+		// Every element of the mesh's arrays is a four byte float or int
+		return 4L * (mesh.getPoints().size() + mesh.getTexCoords().size()
+				+ mesh.getNormals().size() + mesh.getFaces().size());
+	}
+
 	/**
-	 * Add the vertex to the lists with the given ID
+	 * Write one vertex of a face into the faces array.
 	 * 
-	 * @param vert
-	 *            The vertex to add to the lists
-	 * @param pointsList
-	 *            The list of points
-	 * @param facesList
-	 *            The list of faces
-	 * @param nextPointID
-	 *            The ID number this vertex will be assigned
+	 * @param faces
+	 *            The array of faces
+	 * @param offset
+	 *            The index in the array where the vertex starts
+	 * @param stride
+	 *            The number of values per vertex, 3 if the normal is included
+	 *            or 2 if not
+	 * @param point
+	 *            The index of the vertex's point, which is also the index of
+	 *            its normal
+	 * @param texCoord
+	 *            The index of the vertex's texture coordinate
 	 */
-	private void addVertex(Vertex vert, ArrayList<Float> pointsList,
-			ArrayList<Integer> facesList, int nextPointID) {
+	private static void addFaceVertex(int[] faces, int offset, int stride,
+			int point, int texCoord) {
+		faces[offset] = point;
+		if (stride == 3) {
+			faces[offset + 1] = point;
+		}
+		faces[offset + stride - 1] = texCoord;
+	}
 
-		// Add the vertex's three coordinates to the points list
-		pointsList.add((float) vert.getX());
-		pointsList.add((float) vert.getY());
-		pointsList.add((float) vert.getZ());
+	/**
+	 * A table of distinct points, which assigns each new point the next
+	 * index. Points are found through an open addressing hash table of
+	 * indices, so that adding a point allocates nothing beyond the occasional
+	 * growth of the table and the coordinate arrays. Two points are the same
+	 * if all their coordinates are equal.
+	 * 
+	 * @author Robert Smith
+	 *
+	 */
+	private static final class PointTable {
+
+		/**
+		 * The value marking an empty slot in the table.
+		 */
+		private static final int EMPTY = -1;
+
+		/**
+		 * The x, y, and z coordinates of each point, used to compare them
+		 * exactly.
+		 */
+		private double[] coordinates;
+
+		/**
+		 * The x, y, and z coordinates of each point, in the precision used by
+		 * the mesh.
+		 */
+		private float[] points;
+
+		/**
+		 * The number of points in the table.
+		 */
+		private int size = 0;
+
+		/**
+		 * The hash table of point indices. Its length is always a power of two
+		 * at least twice the number of points.
+		 */
+		private int[] slots;
+
+		/**
+		 * The default constructor.
+		 * 
+		 * @param expected
+		 *            The number of points the table is expected to hold
+		 */
+		PointTable(int expected) {
+			int capacity = Math.max(16, expected);
+			coordinates = new double[capacity * 3];
+			points = new float[capacity * 3];
+			slots = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+			Arrays.fill(slots, EMPTY);
+		}
+
+		/**
+		 * Find a point in the table, adding it if it is not already present.
+		 * 
+		 * @param x
+		 *            The point's x coordinate
+		 * @param y
+		 *            The point's y coordinate
+		 * @param z
+		 *            The point's z coordinate
+		 * @return The point's index
+		 */
+		int add(double x, double y, double z) {
+
+			int mask = slots.length - 1;
+			int slot = hash(x, y, z) & mask;
+
+			// Search until the point or an empty slot is found
+			while (slots[slot] != EMPTY) {
+				int offset = slots[slot] * 3;
+				if (coordinates[offset] == x && coordinates[offset + 1] == y
+						&& coordinates[offset + 2] == z) {
+					return slots[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
 
-		// Add the ID to the face list
-		facesList.add(nextPointID);
+			// Grow the coordinate arrays if they are full
+			int offset = size * 3;
+			if (offset == coordinates.length) {
+				coordinates = Arrays.copyOf(coordinates, offset * 2);
+				points = Arrays.copyOf(points, offset * 2);
+			}
+			coordinates[offset] = x;
+			coordinates[offset + 1] = y;
+			coordinates[offset + 2] = z;
+			points[offset] = (float) x;
+			points[offset + 1] = (float) y;
+			points[offset + 2] = (float) z;
+			slots[slot] = size;
+
+			// Keep the table at most half full
+			if (++size * 2 > slots.length) {
+				rehash();
+			}
+
+			return size - 1;
+		}
+
+		/**
+		 * Getter method for the points.
+		 * 
+		 * @return The x, y, and z coordinates of each point. The array may be
+		 *         longer than the number of points.
+		 */
+		float[] getPoints() {
+			return points;
+		}
+
+		/**
+		 * Getter method for the size.
+		 * 
+		 * @return The number of points in the table
+		 */
+		int size() {
+			return size;
+		}
+
+		/**
+		 * Calculate the hash of a point's coordinates. Negative zero hashes the
+		 * same as zero, as the two are equal.
+		 * 
+		 * @param x
+		 *            The point's x coordinate
+		 * @param y
+		 *            The point's y coordinate
+		 * @param z
+		 *            The point's z coordinate
+		 * @return The point's hash
+		 */
+		private static int hash(double x, double y, double z) {
+			long hash = Double.doubleToLongBits(x + 0d);
+			hash = hash * 31 + Double.doubleToLongBits(y + 0d);
+			hash = hash * 31 + Double.doubleToLongBits(z + 0d);
+
+			// Mix the high bits into the low ones, as the low bits of the
+			// coordinates of round numbers are all zero
+			hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+			hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+			return (int) (hash ^ (hash >>> 33));
+		}
+
+		/**
+		 * Double the size of the hash table and reinsert every point.
+		 */
+		private void rehash() {
+			slots = new int[slots.length * 2];
+			Arrays.fill(slots, EMPTY);
+			int mask = slots.length - 1;
+			for (int i = 0; i < size; i++) {
+				int offset = i * 3;
+				int slot = hash(coordinates[offset], coordinates[offset + 1],
+						coordinates[offset + 2]) & mask;
+				while (slots[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				slots[slot] = i;
+			}
+		}
 	}
 
 }
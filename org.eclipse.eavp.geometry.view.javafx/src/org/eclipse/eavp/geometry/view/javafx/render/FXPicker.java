@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.eavp.geometry.view.javafx.render;
+
+import org.eclipse.january.geometry.INode;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.BoundingVolumeHierarchy;
+import org.eclipse.january.geometry.util.BoundingVolumeHierarchy.Hit;
+
+import javafx.geometry.Point3D;
+import javafx.scene.Camera;
+import javafx.scene.Node;
+import javafx.scene.PerspectiveCamera;
+import javafx.scene.transform.Transform;
+
+/**
+ * A class which finds the node under a point of the view by casting a ray
+ * from the camera through a BoundingVolumeHierarchy of the node tree, rather
+ * than testing every triangle of every MeshView in the scene.
+ *
+ * The root's children are expected to be drawn inside a parent node, each
+ * render translated by its source's center, as FXAttachment draws them. The
+ * root's own center is not applied to them.
+ *
+ * Like FXFrustumCuller, only PerspectiveCameras with the eye fixed at the
+ * camera's origin are supported.
+ *
+ * @author Robert Smith
+ *
+ */
+public class FXPicker {
+
+	/**
+	 * The node whose descendants are picked.
+	 */
+	private final INode root;
+
+	/**
+	 * The node the root's children are drawn in.
+	 */
+	private final Node parent;
+
+	/**
+	 * The hierarchy over the root's triangles.
+	 */
+	private final BoundingVolumeHierarchy hierarchy;
+
+	/**
+	 * The default constructor.
+	 *
+	 * @param root
+	 *            The node, such as a Geometry, whose descendants can be
+	 *            picked
+	 * @param parent
+	 *            The node the renders of the root's children are drawn in
+	 */
+	public FXPicker(INode root, Node parent) {
+		this.root = root;
+		this.parent = parent;
+		hierarchy = new BoundingVolumeHierarchy(root);
+	}
+
+	/**
+	 * Find the first triangle under a point of the view.
+	 *
+	 * @param camera
+	 *            The camera the scene is being viewed through
+	 * @param x
+	 *            The x coordinate of the point, in pixels from the left of
+	 *            the view
+	 * @param y
+	 *            The y coordinate of the point, in pixels from the top of the
+	 *            view
+	 * @param width
+	 *            The width of the view, in pixels
+	 * @param height
+	 *            The height of the view, in pixels
+	 * @return The nearest triangle under the point, along with the node it
+	 *         belongs to, or null if there is none or the camera is not
+	 *         supported. The hit's point is in the coordinates of the root's
+	 *         parent.
+	 */
+	public Hit pick(Camera camera, double x, double y, double width,
+			double height) {
+
+		if (!(camera instanceof PerspectiveCamera)
+				|| !((PerspectiveCamera) camera).isFixedEyeAtCameraZero()
+				|| width <= 0 || height <= 0) {
+			return null;
+		}
+		PerspectiveCamera perspective = (PerspectiveCamera) camera;
+
+		// Find the ray's direction in the camera's coordinates, where the
+		// camera looks down its z axis with x to the right and y down
+		double tangent = Math
+				.tan(Math.toRadians(perspective.getFieldOfView()) / 2);
+		boolean vertical = perspective.isVerticalFieldOfView();
+		double tanX = vertical ? tangent * width / height : tangent;
+		double tanY = vertical ? tangent : tangent * height / width;
+		double directionX = (2 * x / width - 1) * tanX;
+		double directionY = (2 * y / height - 1) * tanY;
+
+		// Move the ray into the parent's coordinates
+		Transform transform = camera.getLocalToSceneTransform();
+		Point3D origin = parent
+				.sceneToLocal(transform.transform(0, 0, 0));
+		Point3D end = parent.sceneToLocal(
+				transform.transform(directionX, directionY, 1));
+		if (origin == null || end == null) {
+			return null;
+		}
+
+		// The hierarchy also offsets the triangles by the root's center
+		Vertex center = root.getCenter();
+		if (center != null) {
+			origin = origin.add(center.getX(), center.getY(), center.getZ());
+			end = end.add(center.getX(), center.getY(), center.getZ());
+		}
+		Point3D direction = end.subtract(origin);
+		return hierarchy.castRay(origin.getX(), origin.getY(), origin.getZ(),
+				direction.getX(), direction.getY(), direction.getZ());
+	}
+
+	/**
+	 * Find the node under a point of the view.
+	 *
+	 * @param camera
+	 *            The camera the scene is being viewed through
+	 * @param x
+	 *            The x coordinate of the point, in pixels from the left of
+	 *            the view
+	 * @param y
+	 *            The y coordinate of the point, in pixels from the top of the
+	 *            view
+	 * @param width
+	 *            The width of the view, in pixels
+	 * @param height
+	 *            The height of the view, in pixels
+	 * @return The node without children whose triangle is nearest under the
+	 *         point, or null if there is none or the camera is not supported.
+	 */
+	public INode pickNode(Camera camera, double x, double y, double width,
+			double height) {
+		Hit hit = pick(camera, x, y, width, height);
+		return hit != null ? hit.getNode() : null;
+	}
+
+	/**
+	 * Stop listening to the root's descendants. The picker should not be
+	 * used afterwards.
+	 */
+	public void dispose() {
+		hierarchy.dispose();
+	}
+}
@@ -13,18 +13,31 @@ package org.eclipse.eavp.geometry.view.javafx.render;
 import org.eclipse.eavp.geometry.view.model.DisplayOption;
 import org.eclipse.eavp.geometry.view.model.IRenderElement;
 import org.eclipse.eavp.geometry.view.model.MeshCache;
+import org.eclipse.eavp.geometry.view.model.ModelPackage;
 import org.eclipse.eavp.geometry.view.model.impl.MeshCacheImpl;
 import org.eclipse.eavp.geometry.view.model.impl.RenderObjectImpl;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.impl.ENotificationImpl;
+import org.eclipse.january.geometry.BoundingBox;
 import org.eclipse.january.geometry.GeometryPackage;
 import org.eclipse.january.geometry.INode;
+import org.eclipse.january.geometry.Operator;
+import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.LevelOfDetail;
+import org.eclipse.january.geometry.util.MeshUtils;
 
+import javafx.application.Platform;
+import javafx.geometry.Point3D;
+import javafx.scene.Camera;
 import javafx.scene.Group;
+import javafx.scene.PerspectiveCamera;
+import javafx.scene.shape.CullFace;
 import javafx.scene.shape.MeshView;
 import javafx.scene.shape.TriangleMesh;
+import javafx.scene.transform.Transform;
 
 /**
  * A JavaFX implementation of a RenderObject. It is responsible for maintaining
@@ -36,6 +49,35 @@ import javafx.scene.shape.TriangleMesh;
  */
 public class FXRenderObject extends RenderObjectImpl<Group> {
 
+	/**
+	 * The name of the property for whether a mesh specified by triangles
+	 * should be drawn with a second copy of each face in the opposite winding,
+	 * instead of with face culling turned off. This doubles the size of the
+	 * mesh, and is only needed when the backs of the faces must be lit the
+	 * same as the fronts. False by default.
+	 */
+	public static final String PROPERTY_NAME_DOUBLE_SIDED = "DoubleSided";
+
+	/**
+	 * The name of the property for the level of detail at which a
+	 * LevelOfDetail source is drawn, from 0 for its full resolution up to
+	 * MeshUtils.DETAIL_LEVELS - 1. It is set by updateDetailLevel(). 0 by
+	 * default.
+	 */
+	public static final String PROPERTY_NAME_DETAIL_LEVEL = "DetailLevel";
+
+	/**
+	 * The largest error, in pixels, allowed between a LevelOfDetail source's
+	 * mesh and its true surface when choosing its level of detail.
+	 */
+	public static final double MAX_PIXEL_ERROR = 0.5;
+
+	/**
+	 * The result of the source's boolean operation which the render was last
+	 * drawn from, if the source is an Operator other than a union.
+	 */
+	private EList<Triangle> renderedResult;
+
 	/**
 	 * The default constructor.
 	 * 
@@ -52,46 +94,46 @@ public class FXRenderObject extends RenderObjectImpl<Group> {
 		this.source = source;
 		this.meshCache = meshCache;
 
-		// Create a new, empty group for the render
-		render = new Group();
-
-		// Try to get a mesh based on the source's type.
-		TriangleMesh mesh = meshCache.getMesh(source.getType());
-
-		// If there was no mesh for the source's type, instead specify one by a
-		// mesh of triangles
-		if (mesh == null) {
-			mesh = meshCache.getMesh(source.getTriangles());
-		}
-
-		// If a mesh was returned, create a view from it and add it to the
-		// render group. Otherwise, we will use an empty group to render the
-		// object.
-		if (mesh != null) {
-			render.getChildren().add(new MeshView(mesh));
-		}
+		// Create the render group
+		createRender();
 
 		// Register as a listener to the source object
 		source.eAdapters().add(new AdapterImpl() {
 			@Override
 			public void notifyChanged(Notification notification) {
-				handleUpdate(notification);
+				handleUpdateLater(notification);
 			}
 		});
+	}
 
-		// Get the center of the data object from the source
-		Vertex center = source.getCenter();
-
-		// Move the render to the correct location
-		if (center != null) {
-			render.setTranslateX(center.getX());
-			render.setTranslateY(center.getY());
-			render.setTranslateZ(center.getZ());
+	/**
+	 * Handle a notification from the source object on the JavaFX thread once
+	 * the render is part of a scene. Notifications may be sent from the SWT
+	 * thread or delivered on a notification dispatcher thread, so those
+	 * arriving on any other thread are passed to the JavaFX thread in the
+	 * order they arrive. A render which is not yet in a scene may be changed
+	 * on any thread.
+	 * 
+	 * @param notification
+	 *            The message of from the source object, specifying what has
+	 *            changed.
+	 */
+	protected void handleUpdateLater(final Notification notification) {
+		if (Platform.isFxApplicationThread() || render.getScene() == null) {
+			handleUpdate(notification);
+		} else {
+			Platform.runLater(new Runnable() {
+				@Override
+				public void run() {
+					handleUpdate(notification);
+				}
+			});
 		}
 	}
 
 	/**
-	 * Handle a notification from the source object.
+	 * Handle a notification from the source object. This must be called on
+	 * the JavaFX thread if the render is part of a scene.
 	 * 
 	 * @param notification
 	 *            The message of from the source object, specifying what has
@@ -121,25 +163,152 @@ public class FXRenderObject extends RenderObjectImpl<Group> {
 			}
 		}
 
-		// Cast the cache as a cache of TriangleMeshes
-		MeshCacheImpl<TriangleMesh> castCache = (MeshCacheImpl<TriangleMesh>) meshCache;
+		// For the base implementation, we simply replace the render group with
+		// a new one containing the new mesh.
+		createRender();
 
-		// For the base implementation, we simply clear the render group of all
-		// nodes and add the new mesh to it.
-		render = new Group();
+		// Pass the update on to own observer
+		eNotify(notification);
 
-		// Try to get the mesh based on type
-		TriangleMesh mesh = castCache.getMesh(source.getType());
+	}
 
-		// If no mesh was found, specify one with triangles
-		if (mesh == null) {
-			mesh = castCache.getMesh(source.getTriangles());
+	/**
+	 * Choose the level of detail to draw the source at from its distance to
+	 * the camera. The coarsest level whose error on screen is no more than
+	 * MAX_PIXEL_ERROR is used, so that distant shapes made of circles, such as
+	 * the pipes in a plant, are drawn with far fewer triangles. Sources which
+	 * are not LevelOfDetail shapes, or which are drawn from a mesh for their
+	 * type, are not affected.
+	 * 
+	 * @param distance
+	 *            The distance from the camera to the source
+	 * @param fieldOfView
+	 *            The camera's vertical field of view, in degrees
+	 * @param viewportHeight
+	 *            The height of the view, in pixels
+	 * @return True if the level of detail changed and the render was
+	 *         replaced, false if it was left as it was.
+	 */
+	public boolean updateDetailLevel(double distance, double fieldOfView,
+			double viewportHeight) {
+
+		if (!(source instanceof LevelOfDetail)) {
+			return false;
+		}
+
+		// Find the level for the size of a pixel at the source's distance
+		double maxError = MAX_PIXEL_ERROR
+				* MeshUtils.getPixelSize(distance, fieldOfView, viewportHeight);
+		int level = ((LevelOfDetail) source).getDetailLevel(maxError);
+		if (level == getDetailLevel()) {
+			return false;
 		}
 
+		// Redraw the source at the new level and let the observers know the
+		// render has changed
+		properties.put(PROPERTY_NAME_DETAIL_LEVEL, level);
+		createRender();
+		eNotify(new ENotificationImpl(this, Notification.SET,
+				ModelPackage.RENDER_OBJECT___SET_PROPERTY__STRING_OBJECT,
+				PROPERTY_NAME_DETAIL_LEVEL, level));
+		return true;
+	}
+
+	/**
+	 * Choose the level of detail to draw the source at from where it lies in
+	 * a camera's view. The distance is measured from the camera to the
+	 * nearest point of the sphere around the source's bounds, so that long
+	 * shapes are drawn in enough detail at their closest end. Like
+	 * FXFrustumCuller, only PerspectiveCameras with the eye fixed at the
+	 * camera's origin are supported.
+	 * 
+	 * @param camera
+	 *            The camera the scene is being viewed through
+	 * @param width
+	 *            The width of the view, in pixels
+	 * @param height
+	 *            The height of the view, in pixels
+	 * @return True if the level of detail changed and the render was
+	 *         replaced, false if it was left as it was or the camera is not
+	 *         supported.
+	 */
+	public boolean updateDetailLevel(Camera camera, double width,
+			double height) {
+
+		if (!(source instanceof LevelOfDetail)
+				|| !(camera instanceof PerspectiveCamera)
+				|| !((PerspectiveCamera) camera).isFixedEyeAtCameraZero()
+				|| width <= 0 || height <= 0) {
+			return false;
+		}
+		PerspectiveCamera perspective = (PerspectiveCamera) camera;
+
+		// Find the middle of the source's bounds, relative to the center the
+		// group is translated to, and the radius of the sphere around them
+		double x = 0;
+		double y = 0;
+		double z = 0;
+		double radius = 0;
+		BoundingBox bounds = source.getBounds();
+		if (bounds != null) {
+			Vertex center = source.getCenter();
+			x = (bounds.getMinX() + bounds.getMaxX()) / 2;
+			y = (bounds.getMinY() + bounds.getMaxY()) / 2;
+			z = (bounds.getMinZ() + bounds.getMaxZ()) / 2;
+			if (center != null) {
+				x -= center.getX();
+				y -= center.getY();
+				z -= center.getZ();
+			}
+			double sizeX = bounds.getMaxX() - bounds.getMinX();
+			double sizeY = bounds.getMaxY() - bounds.getMinY();
+			double sizeZ = bounds.getMaxZ() - bounds.getMinZ();
+			radius = Math.sqrt(sizeX * sizeX + sizeY * sizeY + sizeZ * sizeZ)
+					/ 2;
+		}
+
+		// Measure from the camera to the nearest point of the sphere, but no
+		// nearer than the camera can see
+		Point3D middle = render.getLocalToSceneTransform().transform(x, y, z);
+		Transform eye = camera.getLocalToSceneTransform();
+		double distance = Math.max(middle.distance(eye.getTx(), eye.getTy(),
+				eye.getTz()) - radius, camera.getNearClip());
+
+		// Find the vertical field of view
+		double fieldOfView = perspective.getFieldOfView();
+		if (!perspective.isVerticalFieldOfView()) {
+			fieldOfView = Math.toDegrees(2 * Math.atan(
+					Math.tan(Math.toRadians(fieldOfView) / 2) * height
+							/ width));
+		}
+
+		return updateDetailLevel(distance, fieldOfView, height);
+	}
+
+	/**
+	 * Get the level of detail the source is drawn at.
+	 * 
+	 * @return The value of the detail level property, or 0 if it is not set.
+	 */
+	private int getDetailLevel() {
+		Object level = properties.get(PROPERTY_NAME_DETAIL_LEVEL);
+		return level instanceof Integer ? (Integer) level : 0;
+	}
+
+	/**
+	 * Replace the render with a new group holding a view of the source's
+	 * current mesh, moved to the source's center. If the cache has no mesh
+	 * for the source, the group is left empty.
+	 */
+	private void createRender() {
+
+		render = new Group();
+
 		// If a mesh was found, create a view for it and add it to the render
 		// group.
-		if (mesh != null) {
-			render.getChildren().add(new MeshView(mesh));
+		MeshView view = createMeshView();
+		if (view != null) {
+			render.getChildren().add(view);
 		}
 
 		// Get the center of the data object from the source
@@ -151,10 +320,81 @@ public class FXRenderObject extends RenderObjectImpl<Group> {
 			render.setTranslateY(center.getY());
 			render.setTranslateZ(center.getZ());
 		}
+	}
 
-		// Pass the update on to own observer
-		eNotify(notification);
+	/**
+	 * Create a view of the source's mesh from the cache.
+	 * 
+	 * @return A view of the mesh for the source's type if there is one, or
+	 *         else of a mesh of the source's triangles. Null if the cache
+	 *         provided no mesh.
+	 */
+	private MeshView createMeshView() {
 
+		// Cast the cache as a cache of TriangleMeshes
+		MeshCacheImpl<TriangleMesh> castCache = (MeshCacheImpl<TriangleMesh>) meshCache;
+
+		// Try to get the mesh based on type
+		TriangleMesh mesh = castCache.getMesh(source.getType());
+		if (mesh != null) {
+			return new MeshView(mesh);
+		}
+
+		// If no mesh was found, specify one with triangles. Since nothing is
+		// known about which side of these faces is the outside, either both
+		// sides must be drawn or the faces must be doubled.
+		boolean doubleSided = Boolean.TRUE
+				.equals(properties.get(PROPERTY_NAME_DOUBLE_SIDED));
+		EList<Triangle> triangles = getSourceTriangles();
+		if (doubleSided && castCache instanceof FXMeshCache) {
+			mesh = ((FXMeshCache) castCache).getDoubleSidedMesh(triangles);
+		} else {
+			mesh = castCache.getMesh(triangles);
+		}
+		if (mesh == null) {
+			return null;
+		}
+
+		MeshView view = new MeshView(mesh);
+		if (!doubleSided) {
+			view.setCullFace(CullFace.NONE);
+		}
+		return view;
+	}
+
+	/**
+	 * Get the source's triangles at the level of detail it is drawn at.
+	 * 
+	 * @return The triangles for the current level of detail if the source is
+	 *         a LevelOfDetail shape, the result of the source's operation if
+	 *         it is an Operator which must be drawn as one mesh, or else all
+	 *         of the source's triangles.
+	 */
+	private EList<Triangle> getSourceTriangles() {
+		int level = getDetailLevel();
+		if (level > 0 && source instanceof LevelOfDetail) {
+			return ((LevelOfDetail) source).getTriangles(level);
+		}
+		if (isDrawnAsResult()) {
+			renderedResult = ((Operator) source).getResultTriangles();
+			return renderedResult;
+		}
+		return source.getTriangles();
+	}
+
+	/**
+	 * Check whether the source is drawn from the result of its operation.
+	 * This is done for intersections and complements, whose surfaces are not
+	 * the surfaces of their children. Unions are drawn by showing all of their
+	 * children instead, which gives the same surface while keeping each child
+	 * separately selectable.
+	 * 
+	 * @return True if the source is an Operator other than a union, false
+	 *         otherwise.
+	 */
+	private boolean isDrawnAsResult() {
+		return source instanceof Operator
+				&& !"union".equals(source.getType());
 	}
 
 	/*
@@ -183,6 +423,12 @@ public class FXRenderObject extends RenderObjectImpl<Group> {
 				for (IRenderElement<Group> child : children) {
 					render.getChildren().add(child.getMesh());
 				}
+			} else if (isDrawnAsResult() && ((Operator) source)
+					.getResultTriangles() != renderedResult) {
+
+				// The operator's result is only replaced when one of its
+				// descendants has changed, so redraw it
+				createRender();
 			}
 
 		}
@@ -203,7 +449,7 @@ public class FXRenderObject extends RenderObjectImpl<Group> {
 		option.eAdapters().add(new AdapterImpl() {
 			@Override
 			public void notifyChanged(Notification notification) {
-				handleUpdate(notification);
+				handleUpdateLater(notification);
 			}
 		});
 	}
@@ -17,13 +17,17 @@ import javafx.scene.shape.TriangleMesh;
  * This extension of TriangleMesh creates a two dimensional line between two
  * points in three dimensional space for JavaFX.
  * 
+ * By default the line's faces are single sided, so a MeshView displaying it
+ * should use CullFace.NONE for the line to be visible from both directions.
+ * 
  * @author Robert Smith
  *
  */
 public class LineTriangleMesh extends TriangleMesh {
 
 	/**
-	 * The default constructor which sets up the mesh to display a line.
+	 * The default constructor which sets up the mesh to display a line with
+	 * single sided faces.
 	 * 
 	 * @param start
 	 *            The line's start point.
@@ -31,6 +35,23 @@ public class LineTriangleMesh extends TriangleMesh {
 	 *            The line's end point.
 	 */
 	public LineTriangleMesh(Point3D start, Point3D end) {
+		this(start, end, false);
+	}
+
+	/**
+	 * A constructor which sets up the mesh to display a line.
+	 * 
+	 * @param start
+	 *            The line's start point.
+	 * @param end
+	 *            The line's end point.
+	 * @param doubleSided
+	 *            Whether each face should be given a second time facing the
+	 *            opposite direction, so that the line is displayed in the
+	 *            proper color from both directions even when back faces are
+	 *            culled.
+	 */
+	public LineTriangleMesh(Point3D start, Point3D end, boolean doubleSided) {
 		super();
 
 		// Get the angle between the two points
@@ -72,10 +93,14 @@ public class LineTriangleMesh extends TriangleMesh {
 		getTexCoords().addAll(new float[] { 0, 0 });
 
 		// Create faces for the line. There will be two triangles, which
-		// together will form a rectangle. Each triangle will be drawn twice,
-		// facing opposite directions each time, to ensure that the line is
-		// displayed in the proper color from both directions.
-		getFaces().addAll(new int[] { 0, 0, 1, 0, 2, 0, 1, 0, 0, 0, 2, 0, 1, 0,
-				2, 0, 3, 0, 2, 0, 1, 0, 3, 0 });
+		// together will form a rectangle.
+		getFaces().addAll(new int[] { 0, 0, 1, 0, 2, 0, 1, 0, 2, 0, 3, 0 });
+
+		// If requested, draw each triangle a second time facing the opposite
+		// direction
+		if (doubleSided) {
+			getFaces().addAll(
+					new int[] { 1, 0, 0, 0, 2, 0, 2, 0, 1, 0, 3, 0 });
+		}
 	}
 }
@@ -8,8 +8,10 @@ import org.eclipse.eavp.geometry.view.model.impl.MeshCacheImpl;
 import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.Shape;
 import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.TriangleMesh;
 import org.junit.Test;
 
 import junit.framework.TestCase;
@@ -196,21 +198,235 @@ public class MeshCacheTest extends TestCase {
 		// The cache should return different meshes for different inputs
 		assertFalse(cache.getMesh(list1).equals(cache.getMesh(list2)));
 
-		// TODO This part of the test is currently disabled because the current
-		// algorithm for the cache is slower than making a new mesh from
-		// scratch. Uncomment this section when the cache is set up to provided
-		// the cached meshes again.
-		// // The mesh should always return references to the same mesh for the
-		// // same input
-		// assertTrue(cache.getMesh(list2) == cache.getMesh(list2));
-		//
-		// // Check that the correct mesh is returned for two different lists
-		// with
-		// // identical values
-		// EList<Triangle> list3 = new BasicEList<Triangle>();
-		// list3.add(tri3);
-		// list3.add(tri4);
-		// assertTrue(cache.getMesh(list2) == cache.getMesh(list3));
+		// The mesh should always return references to the same mesh for the
+		// same input
+		assertTrue(cache.getMesh(list2) == cache.getMesh(list2));
+
+		// Check that the correct mesh is returned for two different lists with
+		// identical values
+		EList<Triangle> list3 = new BasicEList<Triangle>();
+		list3.add(copyTriangle(tri3));
+		list3.add(copyTriangle(tri4));
+		assertTrue(cache.getMesh(list2) == cache.getMesh(list3));
+
+		// Changing a triangle should give a new mesh
+		String oldMesh = cache.getMesh(list3);
+		list3.get(0).getVertices().get(0).setZ(1);
+		assertFalse(oldMesh == cache.getMesh(list3));
+		assertFalse(oldMesh.equals(cache.getMesh(list3)));
+	}
+
+	/**
+	 * Check that the cache keeps statistics and stays within its byte budget.
+	 * 
+	 * @generated NOT
+	 */
+	public void testStatistics() {
+
+		// The cache for testing
+		TestCache cache = new TestCache();
+
+		// Create three lists with different contents
+		EList<Triangle> list1 = createSquare(1).getTriangles();
+		EList<Triangle> list2 = createSquare(2).getTriangles();
+		EList<Triangle> list3 = createSquare(3).getTriangles();
+
+		// A new list is a miss, and the same list again is a hit
+		cache.getMesh(list1);
+		cache.getMesh(list1);
+		cache.getMesh(list2);
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(0, cache.getEvictionCount());
+
+		// Each square takes two triangles' worth of space
+		long size = cache.getCachedSize() / 2;
+		assertTrue(size > 0);
+
+		// With space for only two meshes, the least recently used should be
+		// evicted
+		cache.setByteBudget(size * 2);
+		cache.getMesh(list1);
+		cache.getMesh(list3);
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(size * 2, cache.getCachedSize());
+		cache.getMesh(list1);
+		assertEquals(3, cache.getHitCount());
+		cache.getMesh(list2);
+		assertEquals(4, cache.getMissCount());
+
+		// Shrinking the budget should evict the rest
+		cache.setByteBudget(0);
+		assertEquals(0, cache.getCachedSize());
+		cache.getMesh(list1);
+		cache.getMesh(list1);
+		assertEquals(6, cache.getMissCount());
+
+		// Clearing the cache should remove all meshes
+		cache.setByteBudget(size * 2);
+		cache.getMesh(list1);
+		cache.clearTriangleCache();
+		assertEquals(0, cache.getCachedSize());
+	}
+
+	/**
+	 * Check that meshes for shapes whose triangles are stored in a
+	 * TriangleMesh are cached until the mesh changes.
+	 * 
+	 * @generated NOT
+	 */
+	public void testTriangleMesh() {
+
+		// The cache for testing
+		TestCache cache = new TestCache();
+
+		// Redrawing an unchanged shape should reuse its mesh
+		Shape shape = createSquare(1);
+		String mesh = cache.getMesh(shape.getTriangles());
+		assertTrue(mesh == cache.getMesh(shape.getTriangles()));
+
+		// An identical part should share the same mesh
+		Shape copy = createSquare(1);
+		assertTrue(mesh == cache.getMesh(copy.getTriangles()));
+
+		// So should a list of ordinary triangles with the same values
+		EList<Triangle> list = new BasicEList<Triangle>();
+		for (Triangle triangle : shape.getTriangles()) {
+			list.add(copyTriangle(triangle));
+		}
+		assertTrue(mesh == cache.getMesh(list));
+
+		// Changing the shape should give it a new mesh
+		shape.getTriangles().get(0).getVertices().get(1).setX(5);
+		assertFalse(mesh.equals(cache.getMesh(shape.getTriangles())));
+		assertTrue(mesh == cache.getMesh(copy.getTriangles()));
+	}
+
+	/**
+	 * Check that meshes for shapes made of ordinary triangles are reused until
+	 * the shape changes.
+	 * 
+	 * @generated NOT
+	 */
+	public void testShapeTriangles() {
+
+		// The cache for testing
+		TestCache cache = new TestCache();
+
+		// Build a shape from ordinary copies of a square's triangles
+		Shape shape = GeometryFactory.eINSTANCE.createShape();
+		for (Triangle triangle : createSquare(1).getTriangles()) {
+			shape.getTriangles().add(copyTriangle(triangle));
+		}
+
+		// Redrawing the unchanged shape should reuse its mesh
+		String mesh = cache.getMesh(shape.getTriangles());
+		assertTrue(mesh == cache.getMesh(shape.getTriangles()));
+		assertEquals(1, cache.getHitCount());
+
+		// Moving a vertex should give the shape a new mesh, even though the
+		// shape has no listeners
+		shape.getTriangles().get(1).getVertices().get(2).setZ(4);
+		String moved = cache.getMesh(shape.getTriangles());
+		assertFalse(mesh.equals(moved));
+		assertTrue(moved == cache.getMesh(shape.getTriangles()));
+
+		// So should replacing a triangle's normal
+		Vertex normal = GeometryFactory.eINSTANCE.createVertex();
+		normal.setZ(-1);
+		shape.getTriangles().get(0).setNormal(normal);
+		assertFalse(moved.equals(cache.getMesh(shape.getTriangles())));
+
+		// Removing a triangle should as well
+		String beforeRemoval = cache.getMesh(shape.getTriangles());
+		shape.getTriangles().remove(1);
+		assertFalse(
+				beforeRemoval.equals(cache.getMesh(shape.getTriangles())));
+	}
+
+	/**
+	 * Check that lists with different values never share a mesh, even when
+	 * their hashes are the same.
+	 * 
+	 * @generated NOT
+	 */
+	public void testCollision() {
+
+		// The cache for testing
+		TestCache cache = new TestCache();
+
+		// Two triangles whose values differ only in the first vertex's x and
+		// y coordinates. The bits of the doubles are chosen so that the hash
+		// of the first pair, 31 * 1 + 0, equals that of the second, 31 * 0 +
+		// 31.
+		Triangle first = GeometryFactory.eINSTANCE.createTriangle();
+		Triangle second = GeometryFactory.eINSTANCE.createTriangle();
+		for (int i = 0; i < 3; i++) {
+			first.getVertices().add(GeometryFactory.eINSTANCE.createVertex());
+			second.getVertices()
+					.add(GeometryFactory.eINSTANCE.createVertex());
+		}
+		first.getVertices().get(0).setX(Double.longBitsToDouble(1));
+		second.getVertices().get(0).setY(Double.longBitsToDouble(31));
+
+		EList<Triangle> firstList = new BasicEList<Triangle>();
+		firstList.add(first);
+		EList<Triangle> secondList = new BasicEList<Triangle>();
+		secondList.add(second);
+
+		// Each list should get the mesh made from its own triangles
+		String firstMesh = cache.getMesh(firstList);
+		String secondMesh = cache.getMesh(secondList);
+		assertFalse(firstMesh == secondMesh);
+		assertEquals(cache.createMesh(firstList), firstMesh);
+		assertEquals(cache.createMesh(secondList), secondMesh);
+		assertEquals(2, cache.getMissCount());
+	}
+
+	/**
+	 * Create an ordinary triangle with the same values as another.
+	 * 
+	 * @param source
+	 *            The triangle to copy
+	 * @return The new triangle
+	 * 
+	 * @generated NOT
+	 */
+	private Triangle copyTriangle(Triangle source) {
+		Triangle triangle = GeometryFactory.eINSTANCE.createTriangle();
+		triangle.getNormal().setX(source.getNormal().getX());
+		triangle.getNormal().setY(source.getNormal().getY());
+		triangle.getNormal().setZ(source.getNormal().getZ());
+		for (Vertex sourceVertex : source.getVertices()) {
+			Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+			vertex.setX(sourceVertex.getX());
+			vertex.setY(sourceVertex.getY());
+			vertex.setZ(sourceVertex.getZ());
+			triangle.getVertices().add(vertex);
+		}
+		return triangle;
+	}
+
+	/**
+	 * Create a shape holding a square made of two triangles in a TriangleMesh.
+	 * 
+	 * @param size
+	 *            The length of the square's sides
+	 * @return The new shape
+	 * 
+	 * @generated NOT
+	 */
+	private Shape createSquare(float size) {
+		TriangleMesh mesh = new TriangleMesh();
+		mesh.addVertex(0, 0, 0);
+		mesh.addVertex(size, 0, 0);
+		mesh.addVertex(size, size, 0);
+		mesh.addVertex(0, size, 0);
+		mesh.addTriangle(0, 1, 2, 0, 0, 1);
+		mesh.addTriangle(0, 2, 3, 0, 0, 1);
+		Shape shape = GeometryFactory.eINSTANCE.createShape();
+		shape.setMesh(mesh);
+		return shape;
 	}
 
 	/**
@@ -2,24 +2,45 @@
  */
 package org.eclipse.eavp.geometry.view.model.impl;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Set;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 
 import org.eclipse.eavp.geometry.view.model.MeshCache;
 import org.eclipse.eavp.geometry.view.model.ModelPackage;
 import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.NotifyingList;
 import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.impl.MinimalEObjectImpl;
 import org.eclipse.january.geometry.Triangle;
-import org.eclipse.swt.widgets.Display;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.impl.ShapeImpl;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
+import org.eclipse.january.geometry.util.TriangleMesh;
+import org.eclipse.january.geometry.util.TriangleMeshView;
 
 /**
  * <!-- begin-user-doc --> An implementation of the model object ' <em><b>Mesh
- * Cache</b></em>'. <!-- end-user-doc -->
+ * Cache</b></em>'.
+ * 
+ * Meshes created from lists of triangles are cached by the triangles' content,
+ * so that identical parts and redraws of unchanged shapes share a single mesh.
+ * Each mesh's key holds a copy of the coordinates it was created from, which
+ * a lookup compares in full, so two lists only share a mesh if their values
+ * are the same. The content of a list is remembered along with the version of
+ * its source, which is the TriangleMesh behind a view of a mesh or the shape
+ * owning an ordinary list of triangles. Redrawing a source which has not
+ * changed since it was last drawn therefore finds its mesh without reading
+ * the triangles again. The least recently used meshes are evicted once their
+ * estimated total size exceeds the byte budget. Since meshes are shared,
+ * callers must not modify the meshes they are given. <!-- end-user-doc -->
  *
  * @generated
  */
@@ -35,8 +56,10 @@ public class MeshCacheImpl<T> extends MinimalEObjectImpl.Container
 
 		// Initialize the cache maps
 		typeCache = new HashMap<String, T>();
-		sourceTriangleCache = new HashMap<Integer, Set<Triangle>>();
-		triangleCache = new HashMap<Integer, T>();
+		triangleCache = new LinkedHashMap<MeshKey, CacheEntry<T>>(16, 0.75f,
+				true);
+		sourceCache = new HashMap<SourceEntry, SourceEntry>();
+		collectedSources = new ReferenceQueue<Object>();
 	}
 
 	/**
@@ -60,22 +83,87 @@ public class MeshCacheImpl<T> extends MinimalEObjectImpl.Container
 	protected HashMap<String, T> typeCache;
 
 	/**
-	 * A map from ID numbers to a list of triangles specifying an object's mesh.
+	 * The default maximum estimated size of the meshes in the triangle cache,
+	 * in bytes.
 	 * 
 	 * @generated NOT
 	 */
-	protected HashMap<Integer, Set<Triangle>> sourceTriangleCache;
+	public static final long DEFAULT_BYTE_BUDGET = 64L * 1024 * 1024;
 
 	/**
-	 * A map from ID numbers to meshes for objects that specified their geometry
-	 * through a list of triangles instead of by a type. This map should always
-	 * be synchronized with sourceTriangleCache, such that triangleCache.get(i)
-	 * will return a mesh corresponding to sourceTriangleCache.get(i) for any
-	 * value i.
+	 * The rough number of bytes a rendering engine's mesh takes for each
+	 * triangle, used when a subclass does not give a better estimate.
 	 * 
 	 * @generated NOT
 	 */
-	protected HashMap<Integer, T> triangleCache;
+	protected static final long BYTES_PER_TRIANGLE = 128;
+
+	/**
+	 * A map from the content of a list of triangles to the mesh created for
+	 * it, for objects that specified their geometry through a list of
+	 * triangles instead of by a type. The map is in access order, so that the
+	 * least recently used mesh comes first. All access must be synchronized on
+	 * the map.
+	 * 
+	 * @generated NOT
+	 */
+	protected LinkedHashMap<MeshKey, CacheEntry<T>> triangleCache;
+
+	/**
+	 * The sources of lists of triangles, each with the key of the mesh last
+	 * found for them and the version of the source at the time. Each entry is
+	 * its own key, and compares its source by identity. Sources are held
+	 * weakly, and are removed once they are collected or their mesh is
+	 * evicted. All access must be synchronized on the triangle cache.
+	 * 
+	 * @generated NOT
+	 */
+	private HashMap<SourceEntry, SourceEntry> sourceCache;
+
+	/**
+	 * The queue of source entries whose sources have been collected.
+	 * 
+	 * @generated NOT
+	 */
+	private ReferenceQueue<Object> collectedSources;
+
+	/**
+	 * The maximum estimated size of the meshes in the triangle cache, in
+	 * bytes.
+	 * 
+	 * @generated NOT
+	 */
+	private long byteBudget = DEFAULT_BYTE_BUDGET;
+
+	/**
+	 * The estimated size of the meshes in the triangle cache, in bytes.
+	 * 
+	 * @generated NOT
+	 */
+	private long cachedBytes = 0;
+
+	/**
+	 * The number of meshes which have been evicted from the triangle cache.
+	 * 
+	 * @generated NOT
+	 */
+	private long evictionCount = 0;
+
+	/**
+	 * The number of requests for a list of triangles which were answered from
+	 * the triangle cache.
+	 * 
+	 * @generated NOT
+	 */
+	private long hitCount = 0;
+
+	/**
+	 * The number of requests for a list of triangles which required a new mesh
+	 * to be created.
+	 * 
+	 * @generated NOT
+	 */
+	private long missCount = 0;
 
 	/**
 	 * <!-- begin-user-doc --> <!-- end-user-doc -->
@@ -98,68 +186,331 @@ public class MeshCacheImpl<T> extends MinimalEObjectImpl.Container
 	@Override
 	public T getMesh(EList<Triangle> triangles) {
 
-		// TODO This method of checking for old meshes is slower than creating a
-		// new mesh. Find a replacement algorithm.
-		// // The ID of the triangle list
-		// int ID = 0;
-		//
-		// // Whether the triangle list has been found in the cache
-		// boolean found = false;
-		//
 		// Treat null as an empty list
 		if (triangles == null) {
 			triangles = new BasicEList<Triangle>();
 		}
-		//
-		// // Convert the list to a set
-		// Set<Triangle> triangleSet = new HashSet();
-		//
-		// // Add each triangle to the set
-		// for(Triangle tri : triangles){
-		// triangleSet.add(tri);
-		// }
-		//
-		// // Check each set in the cache for a match
-		// for (int i : sourceTriangleCache.keySet()) {
-		//
-		// // If a match is found, stop the search
-		// if (triangleSet.equals(sourceTriangleCache.get(i))) {
-		//
-		// found = true;
-		//
-		// Set<Triangle> cached = sourceTriangleCache.get(i);
-		//
-		// //Check each triangle to see if any have been changed
-		// for(Triangle tri : triangleSet){
-		// if(!sourceTriangleCache.get(i).contains(tri)){
-		//
-		// //If any triangles have been changed, then the cached mesh has been
-		// invalidated
-		// found = false;
-		// break;
-		// }
-		// }
-		//
-		// break;
-		// }
-		//
-		// //Set the ID to the next un-checked mesh
-		// ID = i + 1;
-		// }
-		//
-		// // If the list was found, return the mesh with the same ID
-		// if (found) {
-		// return triangleCache.get(ID);
-		// }
-
-		// If the list was not found, create a mesh based on it and insert both
-		// into the caches.
-		// else {
-		// sourceTriangleCache.put(ID, triangleSet);
+
+		// Find the source of the triangles and its current version, if it has
+		// one
+		Object source = null;
+		long version = 0;
+		if (triangles instanceof TriangleMeshView
+				&& ((TriangleMeshView) triangles).getMesh() != null) {
+			TriangleMesh triangleMesh = ((TriangleMeshView) triangles)
+					.getMesh();
+			source = triangleMesh;
+			version = triangleMesh.getVersion();
+		} else if (triangles instanceof NotifyingList<?>
+				&& ((NotifyingList<?>) triangles)
+						.getNotifier() instanceof ShapeImpl) {
+			source = triangles;
+			version = ((ShapeImpl) ((NotifyingList<?>) triangles)
+					.getNotifier()).getVersion();
+		}
+
+		// If the source has not changed since its mesh was found, reuse the
+		// mesh without reading the triangles
+		synchronized (triangleCache) {
+			expungeSources();
+			SourceEntry sourceEntry = source != null
+					? sourceCache.get(new SourceEntry(source, null, 0, null))
+					: null;
+			if (sourceEntry != null && sourceEntry.version == version) {
+				CacheEntry<T> entry = triangleCache.get(sourceEntry.key);
+				if (entry != null) {
+					hitCount++;
+					return entry.mesh;
+				}
+			}
+		}
+
+		// Look for a mesh created from the same values
+		MeshKey key = new MeshKey(getContent(triangles));
+		synchronized (triangleCache) {
+			CacheEntry<T> entry = triangleCache.get(key);
+			if (entry != null) {
+				hitCount++;
+				putSource(source, entry.key, version);
+				return entry.mesh;
+			}
+			missCount++;
+		}
+
+		// Create the mesh without holding the lock, as this may take a while
 		T mesh = createMesh(triangles);
-		// triangleCache.put(ID, mesh);
+		if (mesh == null) {
+			return null;
+		}
+		long size = estimateSize(mesh, triangles.size());
+
+		synchronized (triangleCache) {
+
+			// If another thread created the same mesh in the meantime, use
+			// that one so that the two are shared
+			CacheEntry<T> entry = triangleCache.get(key);
+			if (entry != null) {
+				return entry.mesh;
+			}
+
+			// Meshes too large for the budget are never cached. The key's copy
+			// of the values counts towards the size.
+			size += key.content.length * 8L;
+			if (size <= byteBudget) {
+				triangleCache.put(key, new CacheEntry<T>(key, mesh, size));
+				cachedBytes += size;
+				putSource(source, key, version);
+				evict();
+			}
+		}
+
 		return mesh;
-		// }
+	}
+
+	/**
+	 * Remove all the meshes created from lists of triangles from the cache.
+	 * The statistics are not reset.
+	 * 
+	 * @generated NOT
+	 */
+	public void clearTriangleCache() {
+		synchronized (triangleCache) {
+			triangleCache.clear();
+			sourceCache.clear();
+			cachedBytes = 0;
+		}
+	}
+
+	/**
+	 * Getter method for the byte budget.
+	 * 
+	 * @return The maximum estimated size of the meshes created from lists of
+	 *         triangles which will be kept in the cache, in bytes.
+	 * 
+	 * @generated NOT
+	 */
+	public long getByteBudget() {
+		synchronized (triangleCache) {
+			return byteBudget;
+		}
+	}
+
+	/**
+	 * Getter method for the cached size.
+	 * 
+	 * @return The estimated size of the meshes created from lists of triangles
+	 *         currently in the cache, in bytes.
+	 * 
+	 * @generated NOT
+	 */
+	public long getCachedSize() {
+		synchronized (triangleCache) {
+			return cachedBytes;
+		}
+	}
+
+	/**
+	 * Getter method for the eviction count.
+	 * 
+	 * @return The number of meshes which have been removed from the cache to
+	 *         keep it within the byte budget.
+	 * 
+	 * @generated NOT
+	 */
+	public long getEvictionCount() {
+		synchronized (triangleCache) {
+			return evictionCount;
+		}
+	}
+
+	/**
+	 * Getter method for the hit count.
+	 * 
+	 * @return The number of calls to getMesh(EList) which returned a cached
+	 *         mesh.
+	 * 
+	 * @generated NOT
+	 */
+	public long getHitCount() {
+		synchronized (triangleCache) {
+			return hitCount;
+		}
+	}
+
+	/**
+	 * Getter method for the miss count.
+	 * 
+	 * @return The number of calls to getMesh(EList) which had to create a new
+	 *         mesh.
+	 * 
+	 * @generated NOT
+	 */
+	public long getMissCount() {
+		synchronized (triangleCache) {
+			return missCount;
+		}
+	}
+
+	/**
+	 * Setter method for the byte budget. If the cache is currently larger than
+	 * the new budget, the least recently used meshes are evicted.
+	 * 
+	 * @param newByteBudget
+	 *            The maximum estimated size of the meshes created from lists
+	 *            of triangles which will be kept in the cache, in bytes. A
+	 *            budget of 0 disables caching.
+	 * 
+	 * @generated NOT
+	 */
+	public void setByteBudget(long newByteBudget) {
+		synchronized (triangleCache) {
+			byteBudget = newByteBudget;
+			evict();
+		}
+	}
+
+	/**
+	 * Remove the least recently used meshes from the triangle cache until it
+	 * fits within the byte budget. The caller must hold the cache's lock.
+	 * 
+	 * @generated NOT
+	 */
+	private void evict() {
+		if (cachedBytes <= byteBudget) {
+			return;
+		}
+		Iterator<CacheEntry<T>> iterator = triangleCache.values().iterator();
+		while (cachedBytes > byteBudget && iterator.hasNext()) {
+			cachedBytes -= iterator.next().size;
+			iterator.remove();
+			evictionCount++;
+		}
+
+		// Forget the sources whose meshes are gone, along with their copies
+		// of the values
+		Iterator<SourceEntry> sources = sourceCache.values().iterator();
+		while (sources.hasNext()) {
+			if (!triangleCache.containsKey(sources.next().key)) {
+				sources.remove();
+			}
+		}
+	}
+
+	/**
+	 * Remember the mesh found for a source of triangles. The caller must hold
+	 * the cache's lock.
+	 * 
+	 * @param source
+	 *            The source, or null if the triangles did not have one
+	 * @param key
+	 *            The key of the source's mesh
+	 * @param version
+	 *            The source's version when the mesh was found
+	 * 
+	 * @generated NOT
+	 */
+	private void putSource(Object source, MeshKey key, long version) {
+		if (source != null) {
+			SourceEntry entry = new SourceEntry(source, key, version,
+					collectedSources);
+
+			// Replace the old entry as well as its value, so that each entry
+			// is its own key and can be removed once its source is collected
+			sourceCache.remove(entry);
+			sourceCache.put(entry, entry);
+		}
+	}
+
+	/**
+	 * Remove the entries of sources which have been garbage collected. The
+	 * caller must hold the cache's lock.
+	 * 
+	 * @generated NOT
+	 */
+	private void expungeSources() {
+		Object collected;
+		while ((collected = collectedSources.poll()) != null) {
+			sourceCache.remove(collected);
+		}
+	}
+
+	/**
+	 * Copy the values of a list of triangles. Each triangle is given by the
+	 * three components of its normal, its number of vertices and the three
+	 * coordinates of each vertex. A missing normal or vertex is given as NaN
+	 * values. A view of a TriangleMesh is read from the mesh's arrays, and
+	 * gives the same values as a list of ordinary triangles holding the same
+	 * coordinates.
+	 * 
+	 * @param triangles
+	 *            The triangles to copy
+	 * @return The triangles' values
+	 * 
+	 * @generated NOT
+	 */
+	protected static double[] getContent(EList<Triangle> triangles) {
+
+		// Read a mesh's arrays directly
+		TriangleMesh mesh = triangles instanceof TriangleMeshView
+				? ((TriangleMeshView) triangles).getMesh() : null;
+		if (mesh != null) {
+			float[] normals = mesh.getNormals();
+			float[] positions = mesh.getPositions();
+			int[] indices = mesh.getIndices();
+			int count = mesh.getTriangleCount();
+			double[] content = new double[count * 13];
+			int i = 0;
+			for (int triangle = 0; triangle < count; triangle++) {
+				content[i++] = normals[triangle * 3];
+				content[i++] = normals[triangle * 3 + 1];
+				content[i++] = normals[triangle * 3 + 2];
+				content[i++] = 3;
+				for (int corner = 0; corner < 3; corner++) {
+					int vertex = indices[triangle * 3 + corner] * 3;
+					content[i++] = positions[vertex];
+					content[i++] = positions[vertex + 1];
+					content[i++] = positions[vertex + 2];
+				}
+			}
+			return content;
+		}
+
+		// Otherwise read each triangle, which may have any number of vertices
+		int length = 0;
+		for (Triangle triangle : triangles) {
+			length += 4 + triangle.getVertices().size() * 3;
+		}
+		double[] content = new double[length];
+		int i = 0;
+		for (Triangle triangle : triangles) {
+			i = addVertex(content, i, triangle.getNormal());
+			EList<Vertex> vertices = triangle.getVertices();
+			content[i++] = vertices.size();
+			for (Vertex vertex : vertices) {
+				i = addVertex(content, i, vertex);
+			}
+		}
+		return content;
+	}
+
+	/**
+	 * Copy a vertex's coordinates into an array.
+	 * 
+	 * @param content
+	 *            The array to copy into
+	 * @param index
+	 *            The index to copy the x coordinate to
+	 * @param vertex
+	 *            The vertex, or null to copy NaN values
+	 * @return The index after the z coordinate
+	 * 
+	 * @generated NOT
+	 */
+	private static int addVertex(double[] content, int index, Vertex vertex) {
+		content[index] = vertex != null ? vertex.getX() : Double.NaN;
+		content[index + 1] = vertex != null ? vertex.getY() : Double.NaN;
+		content[index + 2] = vertex != null ? vertex.getZ() : Double.NaN;
+		return index + 3;
 	}
 
 	/**
@@ -201,6 +552,25 @@ public class MeshCacheImpl<T> extends MinimalEObjectImpl.Container
 		return null;
 	}
 
+	/**
+	 * Estimate the amount of memory taken by a mesh, for the purpose of
+	 * keeping the triangle cache within its byte budget.
+	 * 
+	 * The base implementation assumes a fixed number of bytes per triangle.
+	 * Subclasses which can measure their meshes should override it.
+	 * 
+	 * @param mesh
+	 *            A mesh created by createMesh()
+	 * @param triangleCount
+	 *            The number of triangles the mesh was created from
+	 * @return The mesh's approximate size in bytes
+	 * 
+	 * @generated NOT
+	 */
+	protected long estimateSize(T mesh, int triangleCount) {
+		return triangleCount * BYTES_PER_TRIANGLE;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -214,34 +584,182 @@ public class MeshCacheImpl<T> extends MinimalEObjectImpl.Container
 		Adapter[] eAdapters = eBasicAdapterArray();
 		if (eAdapters != null && eDeliver()) {
 
-			// If this notification is on the UI thread, launch a new thread to
-			// handle it
-			Display currDisplay = Display.getCurrent();
-			if (currDisplay != null
-					&& Thread.currentThread() == currDisplay.getThread()) {
+			// Let the shared dispatcher deliver the notification, in the
+			// background if this is the UI thread
+			NotificationDispatcher.dispatch(this, eAdapters, notification);
+		}
+	}
 
-				Thread updateThread = new Thread() {
+	/**
+	 * The key for a mesh in the triangle cache, holding the values of the
+	 * triangles it was created from, as given by getContent(). Two keys are
+	 * only equal if all their values are, so a hash collision can never
+	 * return another list's mesh.
+	 * 
+	 * @generated NOT
+	 */
+	protected static final class MeshKey {
+
+		/**
+		 * The triangles' values.
+		 */
+		private final double[] content;
 
-					@Override
-					public void run() {
-						for (int i = 0, size = eAdapters.length; i < size; ++i) {
-							eAdapters[i].notifyChanged(notification);
-						}
-					}
-				};
+		/**
+		 * The hash of the values.
+		 */
+		private final int hash;
 
-				updateThread.run();
+		/**
+		 * The default constructor.
+		 * 
+		 * @param content
+		 *            The triangles' values, which must not be modified
+		 *            afterwards
+		 */
+		MeshKey(double[] content) {
+			this.content = content;
+			hash = Arrays.hashCode(content);
+		}
 
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object otherObject) {
+			if (otherObject instanceof MeshKey) {
+				MeshKey otherKey = (MeshKey) otherObject;
+				return hash == otherKey.hash
+						&& Arrays.equals(content, otherKey.content);
 			}
+			return false;
+		}
 
-			// If we are already off the UI thread, such as being called by a
-			// thread created by some other object's eNotify(), then just notify
-			// the adapters.
-			else {
-				for (int i = 0, size = eAdapters.length; i < size; ++i) {
-					eAdapters[i].notifyChanged(notification);
-				}
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * A weak reference to a source of triangles, holding the source's version
+	 * when its mesh was last found, along with the mesh's key. Entries are
+	 * equal if they refer to the same source, so an entry for a source which
+	 * has been collected is only equal to itself.
+	 * 
+	 * @generated NOT
+	 */
+	private static final class SourceEntry extends WeakReference<Object> {
+
+		/**
+		 * The source's identity hash code.
+		 */
+		private final int hash;
+
+		/**
+		 * The key of the source's mesh.
+		 */
+		private final MeshKey key;
+
+		/**
+		 * The source's version.
+		 */
+		private final long version;
+
+		/**
+		 * The default constructor.
+		 * 
+		 * @param source
+		 *            The source of the triangles
+		 * @param key
+		 *            The key of the source's mesh, or null if the entry is
+		 *            only used for a lookup
+		 * @param version
+		 *            The source's version
+		 * @param queue
+		 *            The queue to add the entry to once the source is
+		 *            collected, or null if the entry is only used for a lookup
+		 */
+		SourceEntry(Object source, MeshKey key, long version,
+				ReferenceQueue<Object> queue) {
+			super(source, queue);
+			hash = System.identityHashCode(source);
+			this.key = key;
+			this.version = version;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object otherObject) {
+			if (this == otherObject) {
+				return true;
+			}
+			if (otherObject instanceof SourceEntry) {
+				Object source = get();
+				return source != null
+						&& source == ((SourceEntry) otherObject).get();
 			}
+			return false;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * A mesh in the triangle cache, along with its key and estimated size.
+	 * 
+	 * @generated NOT
+	 */
+	protected static final class CacheEntry<T> {
+
+		/**
+		 * The mesh's key, which is shared with the sources drawn with it.
+		 */
+		private final MeshKey key;
+
+		/**
+		 * The cached mesh.
+		 */
+		private final T mesh;
+
+		/**
+		 * The mesh's estimated size in bytes.
+		 */
+		private final long size;
+
+		/**
+		 * The default constructor.
+		 * 
+		 * @param key
+		 *            The mesh's key
+		 * @param mesh
+		 *            The cached mesh
+		 * @param size
+		 *            The mesh's estimated size in bytes
+		 */
+		CacheEntry(MeshKey key, T mesh, long size) {
+			this.key = key;
+			this.mesh = mesh;
+			this.size = size;
 		}
 	}
 
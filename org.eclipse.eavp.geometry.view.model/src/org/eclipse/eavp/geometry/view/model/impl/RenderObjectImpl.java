@@ -24,7 +24,7 @@ import org.eclipse.emf.ecore.impl.MinimalEObjectImpl;
 import org.eclipse.emf.ecore.util.EObjectContainmentEList;
 import org.eclipse.emf.ecore.util.InternalEList;
 import org.eclipse.january.geometry.INode;
-import org.eclipse.swt.widgets.Display;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
 
 /**
  * <!-- begin-user-doc --> An implementation of the model object ' <em><b>Render
@@ -604,34 +604,9 @@ public class RenderObjectImpl<T> extends MinimalEObjectImpl.Container
 		Adapter[] eAdapters = eBasicAdapterArray();
 		if (eAdapters != null && eDeliver()) {
 
-			// If this notification is on the UI thread, launch a new thread to
-			// handle it
-			Display currDisplay = Display.getCurrent();
-			if (currDisplay != null
-					&& Thread.currentThread() == currDisplay.getThread()) {
-
-				Thread updateThread = new Thread() {
-
-					@Override
-					public void run() {
-						for (int i = 0, size = eAdapters.length; i < size; ++i) {
-							eAdapters[i].notifyChanged(notification);
-						}
-					}
-				};
-
-				updateThread.run();
-
-			}
-
-			// If we are already off the UI thread, such as being called by a
-			// thread created by some other object's eNotify(), then just notify
-			// the adapters.
-			else {
-				for (int i = 0, size = eAdapters.length; i < size; ++i) {
-					eAdapters[i].notifyChanged(notification);
-				}
-			}
+			// Let the shared dispatcher deliver the notification, in the
+			// background if this is the UI thread
+			NotificationDispatcher.dispatch(this, eAdapters, notification);
 		}
 	}
 } // RenderObjectImpl
@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.eavp.viz.service.datastructures.VizObject.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.eavp.viz.datastructures.VizObject.IDispatchedUpdateableListener;
+import org.eclipse.eavp.viz.datastructures.VizObject.IManagedUpdateable;
+import org.eclipse.eavp.viz.datastructures.VizObject.IManagedUpdateableListener;
+import org.eclipse.eavp.viz.datastructures.VizObject.SubscriptionType;
+import org.eclipse.eavp.viz.datastructures.VizObject.UpdateDispatcher;
+import org.eclipse.eavp.viz.datastructures.VizObject.UpdateableSubscriptionManager;
+import org.junit.Test;
+
+/**
+ * A class for testing the functionality of the UpdateDispatcher.
+ *
+ * @author Robert Smith
+ *
+ */
+public class UpdateDispatcherTester {
+
+	/**
+	 * Check that updates are batched until the executor runs the dispatcher.
+	 */
+	@Test
+	public void checkBatching() {
+
+		// An executor which holds its tasks until told to run them
+		final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+		UpdateDispatcher dispatcher = new UpdateDispatcher(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				tasks.add(command);
+			}
+		});
+
+		// Two sources, each with a manager
+		TestSource source = new TestSource();
+		TestSource otherSource = new TestSource();
+		DispatchedListener listener = new DispatchedListener(dispatcher);
+		source.manager.register(listener);
+		otherSource.manager.register(listener);
+
+		// Send several updates, which should only schedule one task
+		source.send(SubscriptionType.CHILD);
+		source.send(SubscriptionType.PROPERTY);
+		source.send(SubscriptionType.CHILD);
+		otherSource.send(SubscriptionType.SELECTION);
+		assertEquals(0, listener.count);
+		assertEquals(1, tasks.size());
+
+		// Running it should deliver one merged update per source
+		tasks.remove(0).run();
+		assertEquals(2, listener.count);
+		assertTrue(listener.gotChild());
+		assertTrue(listener.gotProperty());
+		assertTrue(listener.gotSelection());
+
+		// Later updates should be delivered in a new batch
+		source.send(SubscriptionType.WIREFRAME);
+		assertEquals(1, tasks.size());
+		tasks.remove(0).run();
+		assertEquals(3, listener.count);
+		assertTrue(listener.gotWireframe());
+		assertFalse(listener.gotChild());
+	}
+
+	/**
+	 * Check that a batch is only scheduled once the previous one has been
+	 * delivered, and that a failing listener does not stop the others.
+	 */
+	@Test
+	public void checkSerialized() {
+
+		// An executor which holds its tasks until told to run them
+		final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+		UpdateDispatcher dispatcher = new UpdateDispatcher(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				tasks.add(command);
+			}
+		});
+
+		// A listener which fails, and one which sends another update while
+		// it is being updated
+		final TestSource source = new TestSource();
+		final TestSource otherSource = new TestSource();
+		final int[] scheduled = new int[1];
+		source.manager.register(new DispatchedListener(dispatcher) {
+			@Override
+			public void update(IManagedUpdateable component,
+					SubscriptionType[] types) {
+				super.update(component, types);
+				throw new IllegalStateException();
+			}
+		});
+		DispatchedListener listener = new DispatchedListener(dispatcher) {
+			@Override
+			public void update(IManagedUpdateable component,
+					SubscriptionType[] types) {
+				super.update(component, types);
+				if (component == source) {
+					otherSource.send(SubscriptionType.PROPERTY);
+					scheduled[0] = tasks.size();
+				}
+			}
+		};
+		source.manager.register(listener);
+		otherSource.manager.register(listener);
+
+		// The update sent during the batch should not be scheduled until the
+		// batch is done
+		source.send(SubscriptionType.CHILD);
+		assertEquals(1, tasks.size());
+		tasks.remove(0).run();
+		assertEquals(1, listener.count);
+		assertEquals(0, scheduled[0]);
+
+		// It should then be delivered in the next batch
+		assertEquals(1, tasks.size());
+		tasks.remove(0).run();
+		assertEquals(2, listener.count);
+		assertTrue(listener.gotProperty());
+		assertTrue(tasks.isEmpty());
+	}
+
+	/**
+	 * Check that listeners are updated on the dispatcher's thread while others
+	 * are updated directly.
+	 */
+	@Test
+	public void checkThreads() throws InterruptedException {
+
+		TestSource source = new TestSource();
+
+		// A listener without a dispatcher is updated on the sending thread
+		final Thread caller = Thread.currentThread();
+		final boolean[] direct = new boolean[1];
+		source.manager.register(new TestManagedListener(createAllList()) {
+			@Override
+			public void update(IManagedUpdateable component,
+					SubscriptionType[] types) {
+				direct[0] = Thread.currentThread() == caller;
+			}
+		});
+
+		// A listener on the caller's dispatcher is too
+		DispatchedListener callerListener = new DispatchedListener(
+				UpdateDispatcher.CALLER);
+		source.manager.register(callerListener);
+
+		// A worker listener is updated on another thread
+		final CountDownLatch latch = new CountDownLatch(1);
+		final boolean[] background = new boolean[1];
+		source.manager.register(
+				new DispatchedListener(UpdateDispatcher.WORKER) {
+					@Override
+					public void update(IManagedUpdateable component,
+							SubscriptionType[] types) {
+						background[0] = Thread.currentThread() != caller;
+						latch.countDown();
+					}
+				});
+
+		source.send(SubscriptionType.PROPERTY);
+		assertTrue(direct[0]);
+		assertEquals(1, callerListener.count);
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertTrue(background[0]);
+	}
+
+	/**
+	 * Create a list of subscription types containing only ALL.
+	 *
+	 * @return The list
+	 */
+	private static ArrayList<SubscriptionType> createAllList() {
+		ArrayList<SubscriptionType> types = new ArrayList<SubscriptionType>();
+		types.add(SubscriptionType.ALL);
+		return types;
+	}
+
+	/**
+	 * A listener which receives all updates through a dispatcher and counts
+	 * them.
+	 */
+	private static class DispatchedListener extends TestManagedListener
+			implements IDispatchedUpdateableListener {
+
+		/**
+		 * The dispatcher for the listener's updates.
+		 */
+		private UpdateDispatcher dispatcher;
+
+		/**
+		 * The number of updates received.
+		 */
+		private int count = 0;
+
+		/**
+		 * The default constructor.
+		 *
+		 * @param dispatcher
+		 *            The dispatcher for the listener's updates
+		 */
+		public DispatchedListener(UpdateDispatcher dispatcher) {
+			super(createAllList());
+			this.dispatcher = dispatcher;
+		}
+
+		@Override
+		public UpdateDispatcher getDispatcher() {
+			return dispatcher;
+		}
+
+		@Override
+		public void update(IManagedUpdateable component,
+				SubscriptionType[] types) {
+			count++;
+			super.update(component, types);
+		}
+	}
+
+	/**
+	 * A basic implementation of IManagedUpdateable for testing purposes.
+	 */
+	private static class TestSource implements IManagedUpdateable {
+
+		/**
+		 * The manager for the source's messages.
+		 */
+		private UpdateableSubscriptionManager manager = new UpdateableSubscriptionManager(
+				this);
+
+		/**
+		 * Send a message of a single type.
+		 *
+		 * @param type
+		 *            The message's type
+		 */
+		public void send(SubscriptionType type) {
+			manager.notifyListeners(new SubscriptionType[] { type });
+		}
+
+		@Override
+		public void register(IManagedUpdateableListener listener) {
+			manager.register(listener);
+		}
+
+		@Override
+		public void unregister(IManagedUpdateableListener listener) {
+			manager.unregister(listener);
+		}
+	}
+}
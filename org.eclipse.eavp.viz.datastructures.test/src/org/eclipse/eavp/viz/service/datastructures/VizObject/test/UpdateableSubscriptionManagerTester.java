@@ -10,10 +10,14 @@
  *******************************************************************************/
 package org.eclipse.eavp.viz.service.datastructures.VizObject.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.eavp.viz.datastructures.VizObject.IManagedUpdateable;
 import org.eclipse.eavp.viz.datastructures.VizObject.IManagedUpdateableListener;
@@ -262,6 +266,175 @@ public class UpdateableSubscriptionManagerTester {
 		assertTrue(listener2.gotProperty());
 	}
 
+	/**
+	 * Check that a listener registered more than once is notified once, for
+	 * all the types it subscribed for.
+	 */
+	@Test
+	public void checkRepeatedRegistration() {
+
+		// Create an object to listen to
+		TestUpdateable source = new TestUpdateable();
+
+		// A list that specifies the child and property subscription types
+		ArrayList<SubscriptionType> childPropertyList = new ArrayList<SubscriptionType>();
+		childPropertyList.add(SubscriptionType.CHILD);
+		childPropertyList.add(SubscriptionType.PROPERTY);
+
+		// Create a listener which counts its updates
+		ArrayList<SubscriptionType> types = new ArrayList<SubscriptionType>();
+		types.add(SubscriptionType.CHILD);
+		final int[] count = new int[1];
+		TestManagedListener listener = new TestManagedListener(types) {
+			@Override
+			public void update(IManagedUpdateable component,
+					SubscriptionType[] types) {
+				count[0]++;
+				super.update(component, types);
+			}
+		};
+
+		// Register it for child updates, then again for property updates
+		source.register(listener);
+		types.clear();
+		types.add(SubscriptionType.PROPERTY);
+		source.register(listener);
+
+		// It should receive both types in a single update
+		source.sendUpdate(childPropertyList);
+		assertEquals(1, count[0]);
+		assertTrue(listener.gotChild());
+		assertTrue(listener.gotProperty());
+
+		// Updates of other types should not reach it
+		ArrayList<SubscriptionType> selectionList = new ArrayList<SubscriptionType>();
+		selectionList.add(SubscriptionType.SELECTION);
+		source.sendUpdate(selectionList);
+		assertEquals(1, count[0]);
+
+		// Unregistering it once should remove it entirely
+		source.unregister(listener);
+		source.sendUpdate(childPropertyList);
+		assertEquals(1, count[0]);
+	}
+
+	/**
+	 * Check that messages sent from several threads at once are all delivered.
+	 */
+	@Test
+	public void checkConcurrentQueueing() throws InterruptedException {
+
+		// Create an object to listen to
+		final TestUpdateable source = new TestUpdateable();
+		final UpdateableSubscriptionManager manager = source.getManager();
+
+		// Create a listener which records the types it receives
+		ArrayList<SubscriptionType> allList = new ArrayList<SubscriptionType>();
+		allList.add(SubscriptionType.ALL);
+		final AtomicInteger received = new AtomicInteger();
+		TestManagedListener listener = new TestManagedListener(allList) {
+			@Override
+			public void update(IManagedUpdateable component,
+					SubscriptionType[] types) {
+				for (SubscriptionType type : types) {
+					int current;
+					do {
+						current = received.get();
+					} while (!received.compareAndSet(current,
+							current | 1 << type.ordinal()));
+				}
+			}
+		};
+		source.register(listener);
+
+		// Each thread repeatedly queues the manager, sends its own type of
+		// message and flushes the queue
+		final SubscriptionType[] types = { SubscriptionType.CHILD,
+				SubscriptionType.PROPERTY, SubscriptionType.SELECTION,
+				SubscriptionType.WIREFRAME };
+		Thread[] threads = new Thread[types.length];
+		for (int i = 0; i < threads.length; i++) {
+			final ArrayList<SubscriptionType> list = new ArrayList<SubscriptionType>();
+			list.add(types[i]);
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 10000; j++) {
+						manager.enqueue();
+						source.sendUpdate(list);
+						manager.flushQueue();
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		// Every type should have been delivered and the manager should have
+		// left queue mode
+		for (SubscriptionType type : types) {
+			assertTrue((received.get() & 1 << type.ordinal()) != 0);
+		}
+		received.set(0);
+		ArrayList<SubscriptionType> transformationList = new ArrayList<SubscriptionType>();
+		transformationList.add(SubscriptionType.TRANSFORMATION);
+		source.sendUpdate(transformationList);
+		assertEquals(1 << SubscriptionType.TRANSFORMATION.ordinal(),
+				received.get());
+	}
+
+	/**
+	 * Check that messages are held back for the flush interval.
+	 */
+	@Test
+	public void checkFlushInterval() throws InterruptedException {
+
+		// Create an object to listen to
+		TestUpdateable source = new TestUpdateable();
+		UpdateableSubscriptionManager manager = source.getManager();
+		manager.setFlushInterval(100);
+		assertEquals(100, manager.getFlushInterval());
+
+		// Create a listener which counts its updates
+		ArrayList<SubscriptionType> allList = new ArrayList<SubscriptionType>();
+		allList.add(SubscriptionType.ALL);
+		final CountDownLatch latch = new CountDownLatch(1);
+		final AtomicInteger count = new AtomicInteger();
+		TestManagedListener listener = new TestManagedListener(allList) {
+			@Override
+			public void update(IManagedUpdateable component,
+					SubscriptionType[] types) {
+				count.incrementAndGet();
+				super.update(component, types);
+				latch.countDown();
+			}
+		};
+		source.register(listener);
+
+		// Send several messages, which should not be delivered immediately
+		ArrayList<SubscriptionType> childList = new ArrayList<SubscriptionType>();
+		childList.add(SubscriptionType.CHILD);
+		ArrayList<SubscriptionType> propertyList = new ArrayList<SubscriptionType>();
+		propertyList.add(SubscriptionType.PROPERTY);
+		source.sendUpdate(childList);
+		source.sendUpdate(propertyList);
+		source.sendUpdate(childList);
+		assertEquals(0, count.get());
+
+		// They should arrive together in a single update
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertEquals(1, count.get());
+		assertTrue(listener.gotChild());
+		assertTrue(listener.gotProperty());
+
+		// Without an interval, messages should be sent immediately again
+		manager.setFlushInterval(0);
+		source.sendUpdate(childList);
+		assertEquals(2, count.get());
+	}
+
 	/**
 	 * A basic implementation of IManagedUpdateable for testing purposes.
 	 * 
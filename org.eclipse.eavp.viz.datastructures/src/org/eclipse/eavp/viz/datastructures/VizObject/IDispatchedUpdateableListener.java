@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.eavp.viz.datastructures.VizObject;
+
+/**
+ * An IManagedUpdateableListener which receives its updates through an
+ * UpdateDispatcher, such as one which runs them on a UI thread, rather than
+ * on the thread which sent them.
+ *
+ * @author Robert Smith
+ *
+ */
+public interface IDispatchedUpdateableListener
+		extends IManagedUpdateableListener {
+
+	/**
+	 * Get the dispatcher which will deliver this listener's updates. This is
+	 * read once, when the listener is registered.
+	 *
+	 * @return The listener's dispatcher
+	 */
+	public UpdateDispatcher getDispatcher();
+}
@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.eavp.viz.datastructures.VizObject;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A class which delivers updates to IDispatchedUpdateableListeners on the
+ * thread they want to receive them on.
+ *
+ * Updates are not handed to the executor one at a time. Instead they are
+ * collected until the executor gets around to running the dispatcher, and are
+ * then delivered together, with all the updates from one source to one
+ * listener merged into a single call. For example, a dispatcher wrapping
+ * javafx.application.Platform.runLater() posts one task per turn of the FX
+ * thread, however many updates arrive in the meantime, and a dispatcher
+ * wrapping an SWT Display's asyncExec() does the same for the SWT thread.
+ *
+ * Each dispatcher delivers its updates one batch at a time, in the order they
+ * were posted. Updates posted while a batch is being delivered wait for the
+ * next one, which is only handed to the executor once the current batch is
+ * done, so that even a pool of threads never delivers two batches at once.
+ * An exception thrown by one listener is logged and does not stop the
+ * others from being updated.
+ *
+ * A listener unregistered while an update for it is pending will still
+ * receive that update.
+ *
+ * @author Robert Smith
+ *
+ */
+public class UpdateDispatcher {
+
+	/**
+	 * A dispatcher which delivers updates immediately on the thread that sent
+	 * them.
+	 */
+	public static final UpdateDispatcher CALLER = new UpdateDispatcher(null);
+
+	/**
+	 * A dispatcher which delivers updates on a shared pool of background
+	 * threads.
+	 */
+	public static final UpdateDispatcher WORKER = new UpdateDispatcher(
+			createWorkerPool());
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(UpdateDispatcher.class);
+
+	/**
+	 * The executor which runs the delivery of pending updates, or null if
+	 * updates are delivered immediately.
+	 */
+	private final Executor executor;
+
+	/**
+	 * The pending updates, in the order they were first posted.
+	 */
+	private ArrayList<PendingUpdate> pending = new ArrayList<PendingUpdate>();
+
+	/**
+	 * The pending updates for each listener. Listeners are compared by
+	 * identity, since some override equals() to compare their contents.
+	 */
+	private IdentityHashMap<IManagedUpdateableListener, PendingUpdate> pendingMap = new IdentityHashMap<IManagedUpdateableListener, PendingUpdate>();
+
+	/**
+	 * Whether a delivery has been handed to the executor and not yet
+	 * finished.
+	 */
+	private boolean scheduled = false;
+
+	/**
+	 * The task which delivers the pending updates.
+	 */
+	private final Runnable deliverTask = new Runnable() {
+		@Override
+		public void run() {
+			deliver();
+		}
+	};
+
+	/**
+	 * The default constructor.
+	 *
+	 * @param executor
+	 *            The executor to deliver updates with, or null to deliver them
+	 *            immediately on the thread that sent them.
+	 */
+	public UpdateDispatcher(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Send an update to a listener.
+	 *
+	 * @param listener
+	 *            The listener to be updated
+	 * @param source
+	 *            The updateable component the update is coming from
+	 * @param types
+	 *            The event types of the update. The array is not kept, so it
+	 *            may be reused by the caller.
+	 */
+	public void post(IManagedUpdateableListener listener,
+			IManagedUpdateable source, SubscriptionType[] types) {
+
+		// Without an executor, update the listener directly
+		if (executor == null) {
+			listener.update(source, types);
+			return;
+		}
+
+		boolean schedule;
+		synchronized (this) {
+			schedule = !scheduled;
+			scheduled = true;
+
+			// Merge the types into the listener's pending update from the
+			// same source, if there is one
+			PendingUpdate update = pendingMap.get(listener);
+			while (update != null && update.source != source) {
+				update = update.next;
+			}
+			if (update != null) {
+				update.types |= UpdateableSubscriptionManager.getMask(types);
+			}
+
+			// Otherwise add a new pending update
+			else {
+				update = new PendingUpdate(listener, source,
+						UpdateableSubscriptionManager.getMask(types));
+				update.next = pendingMap.put(listener, update);
+				pending.add(update);
+			}
+		}
+
+		// Only schedule a delivery if none is waiting or running
+		if (schedule) {
+			executor.execute(deliverTask);
+		}
+	}
+
+	/**
+	 * Deliver all the pending updates.
+	 */
+	private void deliver() {
+
+		// Take the pending updates, so that updates posted from now on are
+		// delivered in the next turn
+		ArrayList<PendingUpdate> updates;
+		synchronized (this) {
+			updates = pending;
+			pending = new ArrayList<PendingUpdate>();
+			pendingMap.clear();
+		}
+
+		try {
+			for (PendingUpdate update : updates) {
+				try {
+					update.listener.update(update.source,
+							UpdateableSubscriptionManager
+									.getTypes(update.types));
+				} catch (RuntimeException e) {
+					logger.error("UpdateDispatcher: Exception while updating "
+							+ "listener " + update.listener, e);
+				}
+			}
+		} finally {
+
+			// Schedule the next delivery if more updates arrived meanwhile
+			boolean schedule;
+			synchronized (this) {
+				schedule = !pending.isEmpty();
+				scheduled = schedule;
+			}
+			if (schedule) {
+				executor.execute(deliverTask);
+			}
+		}
+	}
+
+	/**
+	 * Create the thread pool for the worker dispatcher.
+	 *
+	 * @return A pool of daemon threads
+	 */
+	private static ExecutorService createWorkerPool() {
+		return Executors.newCachedThreadPool(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "UpdateDispatcher worker");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * The types of update waiting to be sent from one source to one listener.
+	 */
+	private static class PendingUpdate {
+
+		/**
+		 * The listener to be updated.
+		 */
+		private final IManagedUpdateableListener listener;
+
+		/**
+		 * The component the update is coming from.
+		 */
+		private final IManagedUpdateable source;
+
+		/**
+		 * The types of the update, with each type represented by the bit at
+		 * its ordinal.
+		 */
+		private int types;
+
+		/**
+		 * The listener's pending update from another source, if any.
+		 */
+		private PendingUpdate next;
+
+		/**
+		 * The default constructor.
+		 *
+		 * @param listener
+		 *            The listener to be updated
+		 * @param source
+		 *            The component the update is coming from
+		 * @param types
+		 *            The types of the update
+		 */
+		private PendingUpdate(IManagedUpdateableListener listener,
+				IManagedUpdateable source, int types) {
+			this.listener = listener;
+			this.source = source;
+			this.types = types;
+		}
+	}
+}
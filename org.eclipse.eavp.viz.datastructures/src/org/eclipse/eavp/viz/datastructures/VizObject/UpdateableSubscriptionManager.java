@@ -12,9 +12,14 @@
  *******************************************************************************/
 package org.eclipse.eavp.viz.datastructures.VizObject;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.EnumSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A class which manages a list of IManagedUpdateableListeners and holds
@@ -22,27 +27,52 @@ import java.util.HashMap;
  * types of events to listeners which have subscribed to the corresponding event
  * type(s).
  * 
+ * The manager may be used from several threads at once. Queued messages are
+ * coalesced into a set of pending types without locking, and are delivered by
+ * whichever thread finds the manager leaving queue mode. If a flush interval
+ * is set, messages are held back so that listeners are notified at most once
+ * per interval, from a background thread.
+ * 
  * @author Robert Smith
  *
  */
 public class UpdateableSubscriptionManager {
 
+	/**
+	 * The timer which delivers the messages held back by managers with a flush
+	 * interval.
+	 */
+	private static final ScheduledExecutorService TIMER = Executors
+			.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable,
+							"UpdateableSubscriptionManager flush");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
 	/**
 	 * The updateable object the manager is controlling the message passing for.
 	 */
 	private IManagedUpdateable source;
 
 	/**
-	 * A map of registered listeners associated with the event types they are
-	 * registered to receive.
+	 * The registered listeners, each with the event types it is registered to
+	 * receive, in the order they were registered. The array is replaced rather
+	 * than modified when listeners are registered or unregistered, so that
+	 * notifying the listeners needs neither a copy nor a lock.
 	 */
-	private HashMap<SubscriptionType, ArrayList<IManagedUpdateableListener>> subscriptionMap = new HashMap<SubscriptionType, ArrayList<IManagedUpdateableListener>>();
+	private volatile Subscription[] subscriptions = new Subscription[0];
 
 	/**
-	 * A list of queued messages to be delivered all at once, for cases where
-	 * multiple events occur in quick succession.
+	 * The types of the queued messages to be delivered all at once, for cases
+	 * where multiple events occur in quick succession. Each type is
+	 * represented by the bit at its ordinal, so that a type sent many times is
+	 * only delivered once.
 	 */
-	private ArrayList<SubscriptionType> messageQueue = new ArrayList<SubscriptionType>();
+	private final AtomicInteger messageQueue = new AtomicInteger();
 
 	/**
 	 * Keeps track of whether the manager is in queue mode. In queue mode,
@@ -56,7 +86,18 @@ public class UpdateableSubscriptionManager {
 	 * is in queue mode if and only if the variable queueCount is greater than
 	 * 0.
 	 */
-	private int queueCount = 0;
+	private final AtomicInteger queueCount = new AtomicInteger();
+
+	/**
+	 * The minimum time between notifications, in milliseconds. If 0, messages
+	 * are sent as soon as the manager is not in queue mode.
+	 */
+	private volatile long flushInterval = 0;
+
+	/**
+	 * Whether the timer is due to deliver the queued messages.
+	 */
+	private final AtomicBoolean flushScheduled = new AtomicBoolean();
 
 	/**
 	 * A parent manager belonging to a registered listener. This parent should
@@ -67,7 +108,7 @@ public class UpdateableSubscriptionManager {
 	 * this object is in a queued state, but this object flushing its queue is
 	 * not a guarantee that the parent will then flush its queue.
 	 */
-	private UpdateableSubscriptionManager parent;
+	private volatile UpdateableSubscriptionManager parent;
 
 	/**
 	 * The default constructor.
@@ -84,9 +125,10 @@ public class UpdateableSubscriptionManager {
 	 * Sets the manager in queue mode.
 	 */
 	public void enqueue() {
-		queueCount++;
+		queueCount.incrementAndGet();
 
 		// If there is a parent, lock its notifications as well
+		UpdateableSubscriptionManager parent = this.parent;
 		if (parent != null) {
 			parent.enqueue();
 		}
@@ -97,35 +139,42 @@ public class UpdateableSubscriptionManager {
 	 */
 	public void flushQueue() {
 
-		// Attempt to exit queue mode
-		queueCount--;
-		if (queueCount == 0) {
-
-			// Handle the message queue if there is one
-			if (!messageQueue.isEmpty()) {
-
-				// Get a local copy of the queued messages and clear the queue.
-				// This prevents subsequent calls to the manager before all
-				// events are dispatched from sending the same message twice.
-				SubscriptionType[] types = new SubscriptionType[messageQueue
-						.size()];
-				messageQueue.toArray(types);
-				messageQueue.clear();
-
-				// Send the messages
-				notifyListeners(types);
-
-				// Empty the queue
-				messageQueue.clear();
-			}
+		// Attempt to exit queue mode, then handle the message queue
+		if (queueCount.decrementAndGet() == 0) {
+			sendQueue();
 		}
 
 		// If there is a parent, release its queue as well
+		UpdateableSubscriptionManager parent = this.parent;
 		if (parent != null) {
 			parent.flushQueue();
 		}
 	}
 
+	/**
+	 * Get the minimum time between notifications.
+	 * 
+	 * @return The flush interval in milliseconds, or 0 if messages are sent
+	 *         immediately.
+	 */
+	public long getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * Set the minimum time between notifications. While it is greater than 0,
+	 * messages are queued and sent together, from a background thread, once
+	 * the interval has passed. For example, an interval matching the frame
+	 * rate notifies each listener at most once per frame.
+	 * 
+	 * @param milliseconds
+	 *            The flush interval in milliseconds, or 0 to send messages as
+	 *            soon as the manager is not in queue mode.
+	 */
+	public void setFlushInterval(long milliseconds) {
+		flushInterval = Math.max(0, milliseconds);
+	}
+
 	/**
 	 * Broadcast a message to all listeners subscribed to the given message
 	 * types.
@@ -134,129 +183,58 @@ public class UpdateableSubscriptionManager {
 	 *            The list of types of messages which are being sent. A listener
 	 *            will be notified if it is subscribed for a type in eventTypes
 	 *            or if it is subscribed for UpdateableSubscriptionType.ALL.
+	 *            Listeners interested in every type given are passed this
+	 *            array itself, so it must not be changed afterwards.
 	 */
 	public void notifyListeners(SubscriptionType[] eventTypes) {
 
-		// In queue mode, place the events in the queue
-		if (queueCount > 0) {
+		// In queue mode, or when messages are held for the flush interval,
+		// place the events in the queue
+		if (queueCount.get() > 0 || flushInterval > 0) {
 
 			// Add each event type to the queue, avoiding repeats
-			for (SubscriptionType event : eventTypes) {
-				if (!messageQueue.contains(event)) {
-					messageQueue.add(event);
-				}
+			int mask = getMask(eventTypes);
+			int queued;
+			do {
+				queued = messageQueue.get();
+			} while ((queued | mask) != queued
+					&& !messageQueue.compareAndSet(queued, queued | mask));
+
+			// The queue may have been flushed by another thread before the
+			// events were added, in which case they must be sent now
+			if (queueCount.get() <= 0) {
+				sendQueue();
 			}
 		}
 
 		// If not in queue mode, notify the listeners
 		else {
+			dispatch(eventTypes);
+		}
+	}
 
-			// A map from a temporary identification number to the listener
-			// associated with it
-			HashMap<Integer, IManagedUpdateableListener> listenerMap = new HashMap<Integer, IManagedUpdateableListener>();
-
-			// A map from a temporary identification number to the a list of
-			// subscription types
-			HashMap<Integer, ArrayList<SubscriptionType>> messageMap = new HashMap<Integer, ArrayList<SubscriptionType>>();
-
-			// The next ID number to use when a new listener is encountered in
-			// the below search
-			int nextID = 0;
-
-			// Check each event type with registered listeners in the map
-			for (SubscriptionType listenerType : subscriptionMap.keySet()) {
-
-				// Whether there are any matches for this event type
-				boolean match = false;
-
-				// Listeners for all events are automatically updated
-				if (listenerType == SubscriptionType.ALL) {
-					match = true;
-				}
-
-				else {
-
-					// Check each event type to see if one matches
-					for (SubscriptionType eventType : eventTypes) {
-						if (listenerType == eventType
-								&& eventType != SubscriptionType.ALL) {
-							match = true;
-							break;
-						}
-					}
-				}
-
-				// If one of the event types is relevant to this subscription
-				// list, broadcast the message
-				if (match) {
-
-					// Get the listeners of that type
-					ArrayList<IManagedUpdateableListener> listeners = subscriptionMap
-							.get(listenerType);
-
-					// Place each listener and the correct event types in the
-					// maps, assigning each a temporary matching ID.
-					for (IManagedUpdateableListener listener : listeners) {
-
-						// If the listener is already in the map...
-						if (listenerMap.containsValue(listener)) {
-
-							// Search for the ID value for the listener
-							for (Integer i : listenerMap.keySet()) {
-
-								// When a match is found, add the new type to
-								// the map of messages for that ID
-								if (listenerMap.get(i) == listener) {
-									ArrayList<SubscriptionType> list = messageMap
-											.get(i);
-									list.add(listenerType);
-									messageMap.put(i, list);
-								}
-							}
-						}
-
-						// If the listener is not already in the map, place it
-						// there
-						else {
-
-							// Put the listener in the listener map
-							listenerMap.put(nextID, listener);
-
-							// Create a list of subscription types
-							ArrayList<SubscriptionType> list;
-
-							// If the type isn't ALL, initialize the list with
-							// the current message type
-							if (listenerType != SubscriptionType.ALL) {
-								list = new ArrayList<SubscriptionType>();
-								list.add(listenerType);
-							}
-
-							// If the type is ALL, put all the queued
-							// subscription types in the list
-							else {
-
-								list = new ArrayList<SubscriptionType>(
-										Arrays.asList(eventTypes));
-							}
-							messageMap.put(nextID, list);
-
-							// Increment the ID
-							nextID++;
-						}
-					}
-				}
+	/**
+	 * Send a message to the listeners subscribed to its types.
+	 * 
+	 * @param eventTypes
+	 *            The types of the message
+	 */
+	private void dispatch(SubscriptionType[] eventTypes) {
 
+		// Send each listener the types it is subscribed for
+		for (Subscription subscription : subscriptions) {
+			SubscriptionType[] types = subscription.filter(eventTypes);
+			if (types == null) {
+				continue;
 			}
 
-			// For each listener, send it the message types it is subscribed for
-			for (int i = 0; i < nextID; i++) {
-				SubscriptionType[] list = new SubscriptionType[messageMap.get(i)
-						.size()];
-				list = messageMap.get(i).toArray(list);
-				listenerMap.get(i).update(source, list);
+			// Listeners with a dispatcher are updated through it
+			if (subscription.dispatcher != null) {
+				subscription.dispatcher.post(subscription.listener, source,
+						types);
+			} else {
+				subscription.listener.update(source, types);
 			}
-
 		}
 	}
 
@@ -269,34 +247,35 @@ public class UpdateableSubscriptionManager {
 	 * @param types
 	 *            The list of event types the listener will receive
 	 */
-	public void register(IManagedUpdateableListener listener) {
+	public synchronized void register(IManagedUpdateableListener listener) {
 
 		// Silently fail if listener is null
 		if (listener != null) {
 
 			// Poll the listener as to which event types it wants to receive
-			// updates
-			// for
-			ArrayList<SubscriptionType> types = listener
-					.getSubscriptions(source);
-
-			// Add the listener to each type's list in the map
-			for (SubscriptionType type : types) {
-
-				// Get the current list of subscribers
-				ArrayList<IManagedUpdateableListener> tempListeners = subscriptionMap
-						.get(type);
-
-				// If it is empty, create a new list
-				if (tempListeners == null) {
-					tempListeners = new ArrayList<IManagedUpdateableListener>();
+			// updates for
+			EnumSet<SubscriptionType> types = EnumSet
+					.noneOf(SubscriptionType.class);
+			types.addAll(listener.getSubscriptions(source));
+
+			// A listener registered again receives the types from both
+			// registrations
+			Subscription[] current = subscriptions;
+			for (int i = 0; i < current.length; i++) {
+				if (current[i].listener == listener) {
+					types.addAll(current[i].types);
+					Subscription[] updated = current.clone();
+					updated[i] = new Subscription(listener, types);
+					subscriptions = updated;
+					return;
 				}
-
-				// Add the listener to the map
-				tempListeners.add(listener);
-				subscriptionMap.put(type, tempListeners);
 			}
 
+			// Add the listener to the end of the list
+			Subscription[] updated = Arrays.copyOf(current,
+					current.length + 1);
+			updated[current.length] = new Subscription(listener, types);
+			subscriptions = updated;
 		}
 	}
 
@@ -306,9 +285,93 @@ public class UpdateableSubscriptionManager {
 	 * known to not be relevant to any higher part of the hierarchy.
 	 */
 	public void removeMesaage(SubscriptionType type) {
-		messageQueue.remove(type);
+		int bit = 1 << type.ordinal();
+		int queued;
+		do {
+			queued = messageQueue.get();
+		} while ((queued & bit) != 0
+				&& !messageQueue.compareAndSet(queued, queued & ~bit));
+	}
+
+	/**
+	 * Send the queued messages to the listeners, or schedule them to be sent
+	 * once the flush interval has passed if there is one.
+	 */
+	private void sendQueue() {
+
+		// Hold the messages until the interval has passed
+		long interval = flushInterval;
+		if (interval > 0) {
+			if (messageQueue.get() != 0
+					&& flushScheduled.compareAndSet(false, true)) {
+				TIMER.schedule(new Runnable() {
+					@Override
+					public void run() {
+						flushScheduled.set(false);
+
+						// If the manager was queued in the meantime, the
+						// messages will be sent when it is flushed
+						if (queueCount.get() <= 0) {
+							dispatchQueue();
+						}
+					}
+				}, interval, TimeUnit.MILLISECONDS);
+			}
+		} else {
+			dispatchQueue();
+		}
 	}
 
+	/**
+	 * Send the queued messages to the listeners immediately.
+	 */
+	private void dispatchQueue() {
+
+		// Take the queued messages and clear the queue in one step. This
+		// prevents another thread flushing at the same time from sending the
+		// same message twice.
+		int queued = messageQueue.getAndSet(0);
+		if (queued != 0) {
+			dispatch(getTypes(queued));
+		}
+	}
+
+	/**
+	 * Convert a list of event types to a bit mask, with each type represented
+	 * by the bit at its ordinal.
+	 * 
+	 * @param types
+	 *            The event types
+	 * @return The mask of the types
+	 */
+	static int getMask(SubscriptionType[] types) {
+		int mask = 0;
+		for (SubscriptionType type : types) {
+			mask |= 1 << type.ordinal();
+		}
+		return mask;
+	}
+
+	/**
+	 * Convert a bit mask made by getMask() back into a list of event types.
+	 * 
+	 * @param mask
+	 *            The mask of the types
+	 * @return The event types, in the order they are declared
+	 */
+	static SubscriptionType[] getTypes(int mask) {
+		SubscriptionType[] types = new SubscriptionType[Integer
+				.bitCount(mask)];
+		int i = 0;
+		for (SubscriptionType type : SubscriptionType.values()) {
+			if ((mask & 1 << type.ordinal()) != 0) {
+				types[i++] = type;
+			}
+		}
+		return types;
+	}
+
+
 	/**
 	 * Setter method for the manager's parent.
 	 * 
@@ -325,12 +388,108 @@ public class UpdateableSubscriptionManager {
 	 * @param listener
 	 *            The listener to be unregistered
 	 */
-	public void unregister(IManagedUpdateableListener listener) {
+	public synchronized void unregister(
+			IManagedUpdateableListener listener) {
+
+		// Copy every other listener into a new list
+		Subscription[] current = subscriptions;
+		for (int i = 0; i < current.length; i++) {
+			if (current[i].listener == listener) {
+				Subscription[] updated = new Subscription[current.length - 1];
+				System.arraycopy(current, 0, updated, 0, i);
+				System.arraycopy(current, i + 1, updated, i,
+						updated.length - i);
+				subscriptions = updated;
+				return;
+			}
+		}
+	}
 
-		// Try to remove the listener from each individual subscription list.
-		for (SubscriptionType category : subscriptionMap.keySet()) {
-			subscriptionMap.get(category).remove(listener);
+	/**
+	 * A registered listener together with the set of event types it is
+	 * subscribed for.
+	 */
+	private static class Subscription {
+
+		/**
+		 * The registered listener.
+		 */
+		private final IManagedUpdateableListener listener;
+
+		/**
+		 * The event types the listener is subscribed for.
+		 */
+		private final EnumSet<SubscriptionType> types;
+
+		/**
+		 * Whether the listener is subscribed for every event.
+		 */
+		private final boolean all;
+
+		/**
+		 * The dispatcher which delivers the listener's updates, or null if
+		 * they are delivered directly.
+		 */
+		private final UpdateDispatcher dispatcher;
+
+		/**
+		 * The default constructor.
+		 * 
+		 * @param listener
+		 *            The registered listener
+		 * @param types
+		 *            The event types the listener is subscribed for
+		 */
+		private Subscription(IManagedUpdateableListener listener,
+				EnumSet<SubscriptionType> types) {
+			this.listener = listener;
+			this.types = types;
+			all = types.contains(SubscriptionType.ALL);
+			dispatcher = listener instanceof IDispatchedUpdateableListener
+					? ((IDispatchedUpdateableListener) listener)
+							.getDispatcher()
+					: null;
 		}
 
+		/**
+		 * Find the types of a message which the listener should receive.
+		 * 
+		 * @param eventTypes
+		 *            The types of the message being sent
+		 * @return The types the listener is subscribed for, which is
+		 *         eventTypes itself if the listener is subscribed for all of
+		 *         them, or null if it is subscribed for none of them.
+		 */
+		private SubscriptionType[] filter(SubscriptionType[] eventTypes) {
+
+			// Listeners for all events receive every type
+			if (all) {
+				return eventTypes;
+			}
+
+			// Count the types the listener is subscribed for. A message of
+			// type ALL only goes to listeners for all events.
+			int count = 0;
+			for (SubscriptionType type : eventTypes) {
+				if (type != SubscriptionType.ALL && types.contains(type)) {
+					count++;
+				}
+			}
+			if (count == 0) {
+				return null;
+			} else if (count == eventTypes.length) {
+				return eventTypes;
+			}
+
+			// Only create a new array if some types must be left out
+			SubscriptionType[] filtered = new SubscriptionType[count];
+			int i = 0;
+			for (SubscriptionType type : eventTypes) {
+				if (type != SubscriptionType.ALL && types.contains(type)) {
+					filtered[i++] = type;
+				}
+			}
+			return filtered;
+		}
 	}
 }
@@ -27,6 +27,7 @@ import org.eclipse.eavp.viz.modeling.base.IController;
 import org.eclipse.eavp.viz.modeling.base.IMesh;
 import org.eclipse.eavp.viz.modeling.properties.MeshCategory;
 import org.eclipse.eavp.viz.modeling.properties.MeshProperty;
+import org.eclipse.eavp.viz.modeling.properties.MeshType;
 import org.eclipse.eavp.viz.modeling.test.utils.TestController;
 import org.eclipse.eavp.viz.modeling.test.utils.TestMesh;
 import org.eclipse.eavp.viz.modeling.test.utils.TestView;
@@ -344,4 +345,57 @@ public class BasicMeshTester {
 		assertTrue(listener.gotWireframe());
 		assertTrue(listener.gotTransformation());
 	}
+
+	/**
+	 * Check that properties can be read and written as ints, doubles, booleans
+	 * and enums as well as strings.
+	 */
+	@Test
+	public void checkTypedProperties() {
+
+		// Create a listener for the object
+		ArrayList<SubscriptionType> allList = new ArrayList<SubscriptionType>();
+		allList.add(SubscriptionType.ALL);
+		TestManagedListener listener = new TestManagedListener(allList);
+		component.register(listener);
+
+		// Typed values should be readable as strings
+		component.setIntProperty(MeshProperty.ID, 42);
+		assertTrue(listener.gotProperty());
+		assertEquals("42", component.getProperty(MeshProperty.ID));
+		assertEquals(42, component.getIntProperty(MeshProperty.ID));
+		component.setDoubleProperty(MeshProperty.RADIUS, 1.5);
+		assertEquals("1.5", component.getProperty(MeshProperty.RADIUS));
+		assertEquals(1.5, component.getDoubleProperty(MeshProperty.RADIUS), 0);
+		component.setEnumProperty(MeshProperty.TYPE, MeshType.SIMPLE);
+		assertEquals("SIMPLE", component.getProperty(MeshProperty.TYPE));
+		assertEquals(MeshType.SIMPLE, component
+				.getEnumProperty(MeshProperty.TYPE, MeshType.class));
+		assertTrue(listener.gotProperty());
+
+		// Setting the same value again should not fire an update
+		component.setIntProperty(MeshProperty.ID, 42);
+		assertFalse(listener.gotProperty());
+
+		// Booleans should be stored as "True" and "False", with selection
+		// still firing a SELECTION update
+		component.setBooleanProperty(MeshProperty.SELECTED, true);
+		assertEquals("True", component.getProperty(MeshProperty.SELECTED));
+		assertTrue(component.getBooleanProperty(MeshProperty.SELECTED));
+		assertTrue(listener.gotSelection());
+		assertFalse(component.getBooleanProperty(MeshProperty.ROOT));
+
+		// Strings should be readable as typed values
+		component.setProperty(MeshProperty.LENGTH, "3");
+		assertEquals(3, component.getIntProperty(MeshProperty.LENGTH));
+		assertEquals(3.0, component.getDoubleProperty(MeshProperty.LENGTH),
+				0);
+		assertEquals("3", component.getProperty(MeshProperty.LENGTH));
+
+		// Copies should hold the same values
+		BasicMesh copy = new BasicMesh();
+		copy.copy(component);
+		assertEquals(42, copy.getIntProperty(MeshProperty.ID));
+		assertEquals(component.getPropertyMap(), copy.getPropertyMap());
+	}
 }
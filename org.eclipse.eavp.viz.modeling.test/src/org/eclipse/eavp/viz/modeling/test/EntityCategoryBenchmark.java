@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.eavp.viz.modeling.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.eavp.viz.modeling.base.BasicController;
+import org.eclipse.eavp.viz.modeling.base.BasicMesh;
+import org.eclipse.eavp.viz.modeling.base.BasicView;
+import org.eclipse.eavp.viz.modeling.base.IController;
+import org.eclipse.eavp.viz.modeling.properties.MeshCategory;
+
+/**
+ * A benchmark measuring how BasicMesh's entity categories scale with the
+ * number of entities. Each mesh holds the given number of vertices and as
+ * many edges, and the benchmark times filling the mesh, reading a category
+ * as the mesh editor does on every mouse move, and removing a tenth of the
+ * vertices. Run as a Java application, optionally passing the entity counts
+ * to measure.
+ *
+ * @author Robert Smith
+ *
+ */
+public class EntityCategoryBenchmark {
+
+	/**
+	 * The entity counts measured if none are given.
+	 */
+	private static final int[] DEFAULT_SIZES = { 10000, 100000 };
+
+	/**
+	 * The number of times a category is read for each measurement.
+	 */
+	private static final int READS = 100000;
+
+	/**
+	 * The number of meshes filled before measuring, to warm up the JIT.
+	 */
+	private static final int WARMUP = 2;
+
+	/**
+	 * The number of entities in each category of the warm up meshes.
+	 */
+	private static final int WARMUP_SIZE = 10000;
+
+	/**
+	 * Run the benchmark.
+	 *
+	 * @param args
+	 *            The numbers of entities to measure
+	 */
+	public static void main(String[] args) {
+
+		int[] sizes = DEFAULT_SIZES;
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				sizes[i] = Integer.parseInt(args[i]);
+			}
+		}
+
+		for (int size : sizes) {
+			// Warm up with separate entities, so that the measured ones are
+			// not already registered with other meshes
+			for (int i = 0; i < WARMUP; i++) {
+				fill(createEntities(WARMUP_SIZE),
+						createEntities(WARMUP_SIZE));
+			}
+
+			List<IController> vertices = createEntities(size);
+			List<IController> edges = createEntities(size);
+
+			// Fill the mesh
+			ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+			long allocated = allocatedBytes(threads);
+			long start = System.nanoTime();
+			BasicMesh mesh = fill(vertices, edges);
+			print("add", size, 2 * size, System.nanoTime() - start,
+					allocatedBytes(threads) - allocated);
+
+			// Read the categories repeatedly without changing them
+			long total = read(mesh);
+			allocated = allocatedBytes(threads);
+			start = System.nanoTime();
+			total += read(mesh);
+			print("read", size, READS, System.nanoTime() - start,
+					allocatedBytes(threads) - allocated);
+
+			// Remove every tenth vertex
+			allocated = allocatedBytes(threads);
+			start = System.nanoTime();
+			for (int i = 0; i < size; i += 10) {
+				mesh.removeEntity(vertices.get(i));
+			}
+			print("remove", size, (size + 9) / 10,
+					System.nanoTime() - start,
+					allocatedBytes(threads) - allocated);
+
+			// Use the total so the reads are not optimized away
+			if (total < 0) {
+				System.out.println(total);
+			}
+		}
+	}
+
+	/**
+	 * Create a mesh holding the given vertices and edges.
+	 *
+	 * @param vertices
+	 *            The entities to add as vertices
+	 * @param edges
+	 *            The entities to add as edges
+	 * @return The new mesh
+	 */
+	private static BasicMesh fill(List<IController> vertices,
+			List<IController> edges) {
+		BasicMesh mesh = new BasicMesh();
+		for (int i = 0; i < vertices.size(); i++) {
+			mesh.addEntityToCategory(vertices.get(i), MeshCategory.VERTICES);
+			mesh.addEntityToCategory(edges.get(i), MeshCategory.EDGES);
+		}
+		return mesh;
+	}
+
+	/**
+	 * Read the vertices and edges of a mesh, alternately.
+	 *
+	 * @param mesh
+	 *            The mesh to read
+	 * @return The total size of the lists read
+	 */
+	private static long read(BasicMesh mesh) {
+		long total = 0;
+		for (int i = 0; i < READS; i++) {
+			total += mesh.getEntitiesFromCategory(i % 2 == 0
+					? MeshCategory.VERTICES : MeshCategory.EDGES).size();
+		}
+		return total;
+	}
+
+	/**
+	 * Print the results of a measurement.
+	 *
+	 * @param name
+	 *            The name of the operation
+	 * @param size
+	 *            The number of entities in each category
+	 * @param count
+	 *            The number of operations performed
+	 * @param time
+	 *            The time taken, in nanoseconds
+	 * @param allocated
+	 *            The bytes allocated
+	 */
+	private static void print(String name, int size, int count, long time,
+			long allocated) {
+		System.out.println(String.format(
+				"%-7s %7d entities: %10.1f ns/operation, %10.1f bytes/operation",
+				name, size, (double) time / count,
+				(double) allocated / count));
+	}
+
+	/**
+	 * Get the number of bytes allocated by the current thread.
+	 *
+	 * @param threads
+	 *            The thread management bean
+	 * @return The bytes allocated so far, or 0 if the JVM cannot measure
+	 *         them.
+	 */
+	private static long allocatedBytes(ThreadMXBean threads) {
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threads)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	/**
+	 * Create a list of entities.
+	 *
+	 * @param count
+	 *            The number of entities
+	 * @return The new entities
+	 */
+	private static List<IController> createEntities(int count) {
+		List<IController> entities = new ArrayList<IController>(count);
+		for (int i = 0; i < count; i++) {
+			entities.add(
+					new BasicController(new BasicMesh(), new BasicView()));
+		}
+		return entities;
+	}
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.eavp.viz.modeling.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.eavp.viz.modeling.base.BasicController;
+import org.eclipse.eavp.viz.modeling.base.BasicMesh;
+import org.eclipse.eavp.viz.modeling.base.BasicView;
+import org.eclipse.eavp.viz.modeling.base.EntityCategoryMap;
+import org.eclipse.eavp.viz.modeling.base.IController;
+import org.eclipse.eavp.viz.modeling.properties.IMeshCategory;
+import org.eclipse.eavp.viz.modeling.properties.MeshCategory;
+import org.junit.Test;
+
+/**
+ * A class to test the functionality of the EntityCategoryMap.
+ *
+ * @author Robert Smith
+ *
+ */
+public class EntityCategoryMapTester {
+
+	/**
+	 * Check that entities are added to and removed from categories by
+	 * identity and kept in order.
+	 */
+	@Test
+	public void checkEntities() {
+
+		EntityCategoryMap map = new EntityCategoryMap();
+
+		// Two entities which are equal but not the same object
+		IController first = new BasicController(new BasicMesh(),
+				new BasicView());
+		IController second = new BasicController(new BasicMesh(),
+				new BasicView());
+		IController third = new BasicController(new BasicMesh(),
+				new BasicView());
+		assertEquals(first, second);
+
+		// Both can be added, but not twice
+		assertTrue(map.addEntity(MeshCategory.VERTICES, first));
+		assertTrue(map.addEntity(MeshCategory.VERTICES, second));
+		assertTrue(map.addEntity(MeshCategory.VERTICES, third));
+		assertFalse(map.addEntity(MeshCategory.VERTICES, first));
+		assertFalse(map.addEntity(MeshCategory.VERTICES, null));
+		assertTrue(map.addEntity(MeshCategory.EDGES, first));
+		assertEquals(3, map.get(MeshCategory.VERTICES).size());
+		assertTrue(map.contains(MeshCategory.EDGES, first));
+		assertFalse(map.contains(MeshCategory.EDGES, second));
+
+		// Lists from get() are copies, which do not change the map
+		ArrayList<IController> copy = map.get(MeshCategory.VERTICES);
+		assertNotSame(copy, map.get(MeshCategory.VERTICES));
+		copy.clear();
+		assertEquals(3, map.get(MeshCategory.VERTICES).size());
+		assertEquals(3, map.getView(MeshCategory.VERTICES).size());
+
+		// Views are cached until the category changes
+		List<IController> view = map.getView(MeshCategory.VERTICES);
+		assertSame(view, map.getView(MeshCategory.VERTICES));
+		assertTrue(map.getView(MeshCategory.FACES).isEmpty());
+		try {
+			view.remove(0);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
+
+		// Removing an entity removes that object from every category, leaving
+		// the others in order
+		assertTrue(map.removeEntity(first));
+		assertFalse(map.removeEntity(first));
+		assertEquals(3, view.size());
+		view = map.getView(MeshCategory.VERTICES);
+		assertEquals(2, view.size());
+		assertSame(second, view.get(0));
+		assertSame(third, view.get(1));
+		assertTrue(map.getView(MeshCategory.EDGES).isEmpty());
+
+		// Entities removed and added again go to the end
+		assertTrue(map.removeEntity(second));
+		assertTrue(map.addEntity(MeshCategory.VERTICES, second));
+		assertTrue(map.addEntity(MeshCategory.VERTICES, first));
+		view = map.getView(MeshCategory.VERTICES);
+		assertEquals(3, view.size());
+		assertSame(third, view.get(0));
+		assertSame(second, view.get(1));
+		assertSame(first, view.get(2));
+	}
+
+	/**
+	 * Check that the map behaves as a Map<IMeshCategory,
+	 * ArrayList<IController>>.
+	 */
+	@Test
+	public void checkMap() {
+
+		IController entity = new BasicController(new BasicMesh(),
+				new BasicView());
+		ArrayList<IController> list = new ArrayList<IController>();
+		list.add(entity);
+		list.add(entity);
+
+		// Putting a list should drop its duplicates
+		EntityCategoryMap map = new EntityCategoryMap();
+		assertNull(map.put(MeshCategory.CHILDREN, list));
+		assertEquals(1, map.get(MeshCategory.CHILDREN).size());
+		assertTrue(map.contains(MeshCategory.CHILDREN, entity));
+
+		// Compare to a HashMap with the same contents
+		HashMap<IMeshCategory, ArrayList<IController>> hashMap = new HashMap<IMeshCategory, ArrayList<IController>>();
+		ArrayList<IController> single = new ArrayList<IController>();
+		single.add(entity);
+		hashMap.put(MeshCategory.CHILDREN, single);
+		assertEquals(hashMap, map);
+		assertEquals(map, new EntityCategoryMap(hashMap));
+
+		// Replacing a category through an entry
+		map.entrySet().iterator().next()
+				.setValue(new ArrayList<IController>());
+		assertTrue(map.get(MeshCategory.CHILDREN).isEmpty());
+		assertFalse(map.contains(MeshCategory.CHILDREN, entity));
+
+		assertEquals(0, map.remove(MeshCategory.CHILDREN).size());
+		assertTrue(map.isEmpty());
+	}
+}
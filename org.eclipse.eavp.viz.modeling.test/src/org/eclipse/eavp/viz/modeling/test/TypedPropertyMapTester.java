@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.eavp.viz.modeling.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.eclipse.eavp.viz.modeling.base.TypedPropertyMap;
+import org.eclipse.eavp.viz.modeling.properties.IMeshProperty;
+import org.eclipse.eavp.viz.modeling.properties.MeshProperty;
+import org.eclipse.eavp.viz.modeling.properties.MeshType;
+import org.junit.Test;
+
+/**
+ * A class to test the functionality of the TypedPropertyMap.
+ *
+ * @author Robert Smith
+ *
+ */
+public class TypedPropertyMapTester {
+
+	/**
+	 * A property which is not one of the standard MeshProperties.
+	 */
+	private enum OtherProperty implements IMeshProperty {
+		OTHER
+	}
+
+	/**
+	 * Check that typed values are converted to and from strings.
+	 */
+	@Test
+	public void checkConversion() {
+
+		TypedPropertyMap map = new TypedPropertyMap();
+
+		// Typed values should appear as strings
+		assertTrue(map.putInt(MeshProperty.ID, 7));
+		assertTrue(map.putDouble(MeshProperty.RADIUS, 0.25));
+		assertTrue(map.putBoolean(MeshProperty.ROOT, false));
+		assertTrue(map.putEnum(MeshProperty.TYPE, MeshType.CUSTOM_PART));
+		assertEquals("7", map.get(MeshProperty.ID));
+		assertEquals("0.25", map.get(MeshProperty.RADIUS));
+		assertEquals("False", map.get(MeshProperty.ROOT));
+		assertEquals("CUSTOM_PART", map.get(MeshProperty.TYPE));
+		assertEquals(4, map.size());
+
+		// Storing the same value should report no change
+		assertFalse(map.putInt(MeshProperty.ID, 7));
+		assertTrue(map.putInt(MeshProperty.ID, 8));
+
+		// Values of another kind should be compared after conversion
+		map.put(MeshProperty.ID, "8");
+		assertFalse(map.putInt(MeshProperty.ID, 8));
+		map.put(MeshProperty.RADIUS, "0.25");
+		assertFalse(map.putDouble(MeshProperty.RADIUS, 0.25));
+		assertFalse(map.putBoolean(MeshProperty.ROOT, false));
+		map.put(MeshProperty.NAME, "True");
+		assertFalse(map.putBoolean(MeshProperty.NAME, true));
+		assertEquals("True", map.get(MeshProperty.NAME));
+		map.remove(MeshProperty.NAME);
+		map.put(MeshProperty.LENGTH, "08");
+		assertTrue(map.putInt(MeshProperty.LENGTH, 8));
+		assertEquals("8", map.get(MeshProperty.LENGTH));
+		map.remove(MeshProperty.LENGTH);
+		map.put(OtherProperty.OTHER, "5");
+		assertFalse(map.putInt(OtherProperty.OTHER, 5));
+		assertTrue(map.putDouble(OtherProperty.OTHER, 5));
+		map.remove(OtherProperty.OTHER);
+
+		// Parsed strings should keep their original text
+		map.put(MeshProperty.LENGTH, "012");
+		assertEquals(12, map.getInt(MeshProperty.LENGTH));
+		assertEquals(12, map.getInt(MeshProperty.LENGTH));
+		assertEquals("012", map.get(MeshProperty.LENGTH));
+		map.put(MeshProperty.SELECTED, "true");
+		assertTrue(map.getBoolean(MeshProperty.SELECTED));
+		assertEquals("true", map.get(MeshProperty.SELECTED));
+		map.put(MeshProperty.DESCRIPTION, "SIMPLE");
+		assertEquals(MeshType.SIMPLE,
+				map.getEnum(MeshProperty.DESCRIPTION, MeshType.class));
+		assertEquals("SIMPLE", map.get(MeshProperty.DESCRIPTION));
+
+		// Missing values
+		assertFalse(map.getBoolean(MeshProperty.NAME));
+		assertNull(map.getEnum(MeshProperty.NAME, MeshType.class));
+		try {
+			map.getInt(MeshProperty.NAME);
+			fail();
+		} catch (NumberFormatException e) {
+			// Expected
+		}
+
+		// Other properties should work the same way
+		map.putDouble(OtherProperty.OTHER, 2);
+		assertEquals("2.0", map.get(OtherProperty.OTHER));
+		assertEquals(2, map.getDouble(OtherProperty.OTHER), 0);
+		map.put(OtherProperty.OTHER, "5");
+		assertEquals(5, map.getInt(OtherProperty.OTHER));
+	}
+
+	/**
+	 * Check that the map behaves as a Map<IMeshProperty, String>.
+	 */
+	@Test
+	public void checkMap() {
+
+		TypedPropertyMap map = new TypedPropertyMap();
+		HashMap<IMeshProperty, String> hashMap = new HashMap<IMeshProperty, String>();
+
+		// Fill both maps with the same values
+		map.putInt(MeshProperty.ID, 3);
+		hashMap.put(MeshProperty.ID, "3");
+		map.putBoolean(MeshProperty.SELECTED, true);
+		hashMap.put(MeshProperty.SELECTED, "True");
+		map.put(OtherProperty.OTHER, "value");
+		hashMap.put(OtherProperty.OTHER, "value");
+		map.put(MeshProperty.NAME, null);
+		hashMap.put(MeshProperty.NAME, null);
+
+		// They should be equal
+		assertEquals(hashMap, map);
+		assertEquals(map, hashMap);
+		assertEquals(hashMap.hashCode(), map.hashCode());
+		assertEquals(map, new TypedPropertyMap(hashMap));
+		assertEquals(map, new TypedPropertyMap(map));
+		assertTrue(map.containsKey(MeshProperty.NAME));
+		assertFalse(map.containsKey(MeshProperty.ROOT));
+
+		// Put and remove should return the previous value
+		assertEquals("3", map.put(MeshProperty.ID, "4"));
+		assertEquals("4", map.remove(MeshProperty.ID));
+		assertNull(map.remove(MeshProperty.ID));
+		assertEquals(3, map.size());
+
+		// Entries can be changed and removed through the iterator
+		Iterator<Map.Entry<IMeshProperty, String>> iterator = map.entrySet()
+				.iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<IMeshProperty, String> entry = iterator.next();
+			if (entry.getKey() == MeshProperty.SELECTED) {
+				entry.setValue("False");
+			} else if (entry.getKey() == OtherProperty.OTHER) {
+				iterator.remove();
+			}
+		}
+		assertFalse(map.getBoolean(MeshProperty.SELECTED));
+		assertFalse(map.containsKey(OtherProperty.OTHER));
+		assertEquals(2, map.size());
+
+		map.clear();
+		assertTrue(map.isEmpty());
+	}
+}
@@ -10,8 +10,6 @@
  *******************************************************************************/
 package org.eclipse.eavp.viz.modeling;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Set;
 
 import org.eclipse.eavp.viz.datastructures.VizObject.SubscriptionType;
@@ -19,6 +17,7 @@ import org.eclipse.eavp.viz.modeling.base.BasicController;
 import org.eclipse.eavp.viz.modeling.base.BasicMesh;
 import org.eclipse.eavp.viz.modeling.base.IController;
 import org.eclipse.eavp.viz.modeling.base.IMesh;
+import org.eclipse.eavp.viz.modeling.base.TypedPropertyMap;
 import org.eclipse.eavp.viz.modeling.properties.IMeshCategory;
 import org.eclipse.eavp.viz.modeling.properties.IMeshProperty;
 import org.eclipse.eavp.viz.modeling.properties.MeshCategory;
@@ -52,7 +51,7 @@ public class DetailedEdge extends Edge {
 
 	/*
 	 * (non-Javadoc)
-	 *
+	 *
 	 * @see org.eclipse.eavp.viz.modeling.AbstractMeshComponent#
 	 * addEntityByCategory(org.eclipse.eavp.viz.modeling. IController,
 	 * java.lang.String)
@@ -64,20 +63,11 @@ public class DetailedEdge extends Edge {
 		// If the category is Faces, do not register as a listener, as the face
 		// is already listening to this
 		if (MeshCategory.FACES.equals(category)) {
-			// Get the entities for the given category
-			ArrayList<IController> catList = entities.get(category);
-
-			// If the list is empty, make an empty one
-			if (catList == null) {
-				catList = new ArrayList<IController>();
+			// Add the entity to the category if it is not already there
+			if (getEntityMap().addEntity(category, entity)) {
+				SubscriptionType[] eventTypes = { SubscriptionType.CHILD };
+				updateManager.notifyListeners(eventTypes);
 			}
-
-			// Add the entity to the list and put it in the map
-			catList.add(entity);
-			entities.put(category, catList);
-
-			SubscriptionType[] eventTypes = { SubscriptionType.CHILD };
-			updateManager.notifyListeners(eventTypes);
 		}
 
 		// Otherwise, add the entity normally
@@ -106,7 +96,7 @@ public class DetailedEdge extends Edge {
 	 * (non-Javadoc)
 	 * 
 	 * @see
-	 * org.eclipse.eavp.viz.modeling.AbstractMeshComponent#copy(org.
+	 * org.eclipse.eavp.viz.modeling.AbstractMeshComponent#copy(org.
 	 * eclipse.ice.viz.service.modeling.AbstractMeshComponent)
 	 */
 	@Override
@@ -133,7 +123,7 @@ public class DetailedEdge extends Edge {
 
 		// Copy each of the other component's data members
 		type = castObject.type;
-		properties = new HashMap<IMeshProperty, String>(castObject.properties);
+		properties = new TypedPropertyMap(castObject.properties);
 
 		// Notify listeners of the change
 		SubscriptionType[] eventTypes = { SubscriptionType.ALL };
@@ -10,13 +10,13 @@
  *******************************************************************************/
 package org.eclipse.eavp.viz.modeling;
 
-import java.util.HashMap;
 import java.util.List;
 
 import org.eclipse.eavp.viz.datastructures.VizObject.SubscriptionType;
 import org.eclipse.eavp.viz.modeling.base.BasicController;
 import org.eclipse.eavp.viz.modeling.base.IController;
 import org.eclipse.eavp.viz.modeling.base.IMesh;
+import org.eclipse.eavp.viz.modeling.base.TypedPropertyMap;
 import org.eclipse.eavp.viz.modeling.properties.IMeshCategory;
 import org.eclipse.eavp.viz.modeling.properties.IMeshProperty;
 import org.eclipse.eavp.viz.modeling.properties.MeshCategory;
@@ -236,8 +236,7 @@ public class DetailedFace extends Face {
 			// Copy the rest of the object data
 			// Copy each of the other component's data members
 			type = castObject.type;
-			properties = new HashMap<IMeshProperty, String>(
-					castObject.getPropertyMap());
+			properties = new TypedPropertyMap(castObject.getPropertyMap());
 
 			// Notify listeners of the change
 			SubscriptionType[] eventTypes = { SubscriptionType.ALL };
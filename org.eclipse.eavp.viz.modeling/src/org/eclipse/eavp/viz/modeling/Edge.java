@@ -10,7 +10,6 @@
  *******************************************************************************/
 package org.eclipse.eavp.viz.modeling;
 
-import java.util.HashMap;
 import java.util.List;
 
 import org.eclipse.eavp.viz.datastructures.VizObject.IManagedUpdateableListener;
@@ -19,6 +18,7 @@ import org.eclipse.eavp.viz.modeling.base.BasicController;
 import org.eclipse.eavp.viz.modeling.base.BasicMesh;
 import org.eclipse.eavp.viz.modeling.base.IController;
 import org.eclipse.eavp.viz.modeling.base.IMesh;
+import org.eclipse.eavp.viz.modeling.base.TypedPropertyMap;
 import org.eclipse.eavp.viz.modeling.properties.IMeshCategory;
 import org.eclipse.eavp.viz.modeling.properties.IMeshProperty;
 import org.eclipse.eavp.viz.modeling.properties.MeshCategory;
@@ -82,8 +82,8 @@ public class Edge extends BasicMesh {
 		if (MeshCategory.VERTICES.equals(category)) {
 
 			// The number of vertices
-			List<IController> vertices = entities.get(MeshCategory.VERTICES);
-			int verticesNum = (vertices != null ? vertices.size() : 0);
+			int verticesNum = getEntityMap().getView(MeshCategory.VERTICES)
+					.size();
 
 			// If the object is a vertex and the edge already has both vertices,
 			// fail silently.
@@ -132,9 +132,8 @@ public class Edge extends BasicMesh {
 
 		// Do not register the edge's vertices, as the edge will listen to them
 		// instead
-		List<IController> vertices = entities.get(MeshCategory.VERTICES);
-		if (vertices == null
-				|| !entities.get(MeshCategory.VERTICES).contains(listener)) {
+		if (!getEntityMap().getView(MeshCategory.VERTICES)
+				.contains(listener)) {
 			super.register(listener);
 		}
 	}
@@ -150,12 +149,9 @@ public class Edge extends BasicMesh {
 		super.setController(controller);
 
 		// Give a reference to the controller to the edge's vertices
-		List<IController> vertices = entities.get(MeshCategory.VERTICES);
-
-		if (vertices != null) {
-			for (IController vertex : vertices) {
-				vertex.addEntity(controller);
-			}
+		for (IController vertex : getEntityMap()
+				.getView(MeshCategory.VERTICES)) {
+			vertex.addEntity(controller);
 		}
 	}
 
@@ -208,8 +204,7 @@ public class Edge extends BasicMesh {
 
 		// Copy each of the other component's data members
 		type = castObject.type;
-		properties = new HashMap<IMeshProperty, String>(
-				castObject.getPropertyMap());
+		properties = new TypedPropertyMap(castObject.getPropertyMap());
 
 		// Calculate the new length
 		calculateLength();
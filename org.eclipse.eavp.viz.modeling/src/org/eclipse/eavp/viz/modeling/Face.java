@@ -11,7 +11,6 @@
 package org.eclipse.eavp.viz.modeling;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 import org.eclipse.eavp.viz.datastructures.VizObject.SubscriptionType;
@@ -19,6 +18,7 @@ import org.eclipse.eavp.viz.modeling.base.BasicController;
 import org.eclipse.eavp.viz.modeling.base.BasicMesh;
 import org.eclipse.eavp.viz.modeling.base.IController;
 import org.eclipse.eavp.viz.modeling.base.IMesh;
+import org.eclipse.eavp.viz.modeling.base.TypedPropertyMap;
 import org.eclipse.eavp.viz.modeling.properties.IMeshCategory;
 import org.eclipse.eavp.viz.modeling.properties.IMeshProperty;
 import org.eclipse.eavp.viz.modeling.properties.MeshCategory;
@@ -65,8 +65,8 @@ public class Face extends BasicMesh {
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see
-	 * org.eclipse.eavp.viz.modeling.FaceMesh#copy(org.eclipse.eavp.viz.
+	 * @see
+	 * org.eclipse.eavp.viz.modeling.FaceMesh#copy(org.eclipse.eavp.viz.
 	 * service.modeling.AbstractMesh)
 	 */
 	@Override
@@ -158,8 +158,7 @@ public class Face extends BasicMesh {
 			// Copy the rest of the object data
 			// Copy each of the other component's data members
 			type = castObject.type;
-			properties = new HashMap<IMeshProperty, String>(
-					castObject.getPropertyMap());
+			properties = new TypedPropertyMap(castObject.getPropertyMap());
 
 			// Notify listeners of the change
 			SubscriptionType[] eventTypes = { SubscriptionType.ALL };
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.eavp.viz.modeling;
 
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.eavp.viz.datastructures.VizObject.SubscriptionType;
@@ -215,10 +216,10 @@ public class Point extends BasicMesh {
 		// For each category, check that the two objects' lists of child
 		// entities in that category are equal.
 		for (IMeshCategory category : categories) {
-			if (!entities.get(category)
-					.containsAll(castObject.entities.get(category))
-					|| !castObject.entities.get(category)
-							.containsAll(entities.get(category))) {
+			List<IController> own = getEntityMap().getView(category);
+			List<IController> other = castObject.getEntityMap()
+					.getView(category);
+			if (!own.containsAll(other) || !other.containsAll(own)) {
 				return false;
 			}
 		}
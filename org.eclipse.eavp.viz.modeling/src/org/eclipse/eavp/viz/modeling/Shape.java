@@ -11,16 +11,17 @@
 package org.eclipse.eavp.viz.modeling;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 import org.eclipse.eavp.viz.datastructures.VizObject.IManagedUpdateableListener;
 import org.eclipse.eavp.viz.datastructures.VizObject.SubscriptionType;
 import org.eclipse.eavp.viz.modeling.base.BasicController;
 import org.eclipse.eavp.viz.modeling.base.BasicMesh;
+import org.eclipse.eavp.viz.modeling.base.EntityCategoryMap;
 import org.eclipse.eavp.viz.modeling.base.IController;
 import org.eclipse.eavp.viz.modeling.base.IMesh;
 import org.eclipse.eavp.viz.modeling.base.Transformation;
+import org.eclipse.eavp.viz.modeling.base.TypedPropertyMap;
 import org.eclipse.eavp.viz.modeling.properties.IMeshCategory;
 import org.eclipse.eavp.viz.modeling.properties.IMeshProperty;
 import org.eclipse.eavp.viz.modeling.properties.MeshCategory;
@@ -98,10 +99,9 @@ public class Shape extends BasicMesh {
 
 		// Select/deselect all children as well
 		if (MeshProperty.SELECTED.equals(property)) {
-			if (entities.get(MeshCategory.CHILDREN) != null) {
-				for (IController entity : entities.get(MeshCategory.CHILDREN)) {
-					entity.setProperty(MeshProperty.SELECTED, value);
-				}
+			for (IController entity : getEntityMap()
+					.getView(MeshCategory.CHILDREN)) {
+				entity.setProperty(MeshProperty.SELECTED, value);
 			}
 		}
 
@@ -206,7 +206,7 @@ public class Shape extends BasicMesh {
 		Shape castObject = (Shape) source;
 
 		// Copy the map of entities
-		entities = new HashMap<IMeshCategory, ArrayList<IController>>();
+		entities = new EntityCategoryMap();
 
 		// Copy each child in the entities map
 		List<IController> children = castObject.entities
@@ -221,8 +221,7 @@ public class Shape extends BasicMesh {
 
 		// Copy each of the other component's data members
 		type = castObject.type;
-		properties = new HashMap<IMeshProperty, String>(
-				castObject.getPropertyMap());
+		properties = new TypedPropertyMap(castObject.getPropertyMap());
 		// Notify listeners of the change
 		SubscriptionType[] eventTypes = { SubscriptionType.ALL };
 		updateManager.notifyListeners(eventTypes);
@@ -265,10 +264,11 @@ public class Shape extends BasicMesh {
 			// considered equal even if they are in different parts of the
 			// model.
 			if (!MeshCategory.PARENT.equals(category)) {
-				if (!entities.get(category).containsAll(
+				List<IController> own = getEntityMap().getView(category);
+				if (!own.containsAll(
 						castObject.getEntitiesFromCategory(category))
 						|| !castObject.getEntitiesFromCategory(category)
-								.containsAll(entities.get(category))) {
+								.containsAll(own)) {
 					return false;
 				}
 			}
@@ -311,8 +311,8 @@ public class Shape extends BasicMesh {
 
 		// Ignore requests to register own children to prevent circular
 		// observation
-		if (entities.get(MeshCategory.CHILDREN) == null
-				|| !entities.get(MeshCategory.CHILDREN).contains(listener)) {
+		if (!getEntityMap().getView(MeshCategory.CHILDREN)
+				.contains(listener)) {
 			super.register(listener);
 		}
 	}
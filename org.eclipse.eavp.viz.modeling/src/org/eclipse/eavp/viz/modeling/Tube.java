@@ -50,11 +50,10 @@ public class Tube extends Shape {
 	public int getAxialSamples() {
 
 		// If the property is not set, return 0
-		String axialSamples = getPropertyMap().get(MeshProperty.RESOLUTION);
-		if (axialSamples == null) {
+		if (getProperty(MeshProperty.RESOLUTION) == null) {
 			return 0;
 		}
-		return Integer.parseInt(axialSamples);
+		return getIntProperty(MeshProperty.RESOLUTION);
 	}
 
 	/**
@@ -65,11 +64,10 @@ public class Tube extends Shape {
 	public double getLength() {
 
 		// If the property is not set, return 0
-		String length = getPropertyMap().get(MeshProperty.LENGTH);
-		if (length == null) {
+		if (getProperty(MeshProperty.LENGTH) == null) {
 			return 0;
 		}
-		return Double.parseDouble(length);
+		return getDoubleProperty(MeshProperty.LENGTH);
 	}
 
 	/**
@@ -80,11 +78,10 @@ public class Tube extends Shape {
 	public double getRadius() {
 
 		// If the property is not set, return 0
-		String radius = getPropertyMap().get(MeshProperty.RADIUS);
-		if (radius == null) {
+		if (getProperty(MeshProperty.RADIUS) == null) {
 			return 0;
 		}
-		return Double.parseDouble(radius);
+		return getDoubleProperty(MeshProperty.RADIUS);
 	}
 
 	/**
@@ -94,11 +91,10 @@ public class Tube extends Shape {
 	 */
 	public double getInnerRadius() {
 		// If the property is not set, return 0
-		String radius = getPropertyMap().get(MeshProperty.INNER_RADIUS);
-		if (radius == null) {
+		if (getProperty(MeshProperty.INNER_RADIUS) == null) {
 			return 0;
 		}
-		return Double.parseDouble(radius);
+		return getDoubleProperty(MeshProperty.INNER_RADIUS);
 	}
 
 	/**
@@ -108,7 +104,7 @@ public class Tube extends Shape {
 	 *            The tube's new axial samples
 	 */
 	public void setAxialSamples(int axialSamples) {
-		setProperty(MeshProperty.RESOLUTION, Integer.toString(axialSamples));
+		setIntProperty(MeshProperty.RESOLUTION, axialSamples);
 	}
 
 	/**
@@ -118,7 +114,7 @@ public class Tube extends Shape {
 	 *            The tube's new length
 	 */
 	public void setLength(double length) {
-		setProperty(MeshProperty.LENGTH, Double.toString(length));
+		setDoubleProperty(MeshProperty.LENGTH, length);
 	}
 
 	/**
@@ -128,7 +124,7 @@ public class Tube extends Shape {
 	 *            The tube's new radius
 	 */
 	public void setRadius(double radius) {
-		setProperty(MeshProperty.RADIUS, Double.toString(radius));
+		setDoubleProperty(MeshProperty.RADIUS, radius);
 	}
 
 	/**
@@ -138,7 +134,7 @@ public class Tube extends Shape {
 	 *            The hole's new radius
 	 */
 	public void setInnerRadius(double radius) {
-		setProperty(MeshProperty.INNER_RADIUS, Double.toString(radius));
+		setDoubleProperty(MeshProperty.INNER_RADIUS, radius);
 	}
 
 	/*
@@ -10,13 +10,12 @@
  *******************************************************************************/
 package org.eclipse.eavp.viz.modeling;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 
 import org.eclipse.eavp.viz.datastructures.VizObject.SubscriptionType;
 import org.eclipse.eavp.viz.modeling.base.BasicController;
 import org.eclipse.eavp.viz.modeling.base.IController;
 import org.eclipse.eavp.viz.modeling.base.IMesh;
+import org.eclipse.eavp.viz.modeling.base.TypedPropertyMap;
 import org.eclipse.eavp.viz.modeling.properties.IMeshCategory;
 import org.eclipse.eavp.viz.modeling.properties.IMeshProperty;
 import org.eclipse.eavp.viz.modeling.properties.MeshCategory;
@@ -84,20 +83,11 @@ public class Vertex extends Point {
 		// If the category is Edges, do not register as a listener, as the edge
 		// is already listening to this
 		if (MeshCategory.EDGES.equals(category)) {
-			// Get the entities for the given category
-			ArrayList<IController> catList = entities.get(category);
-
-			// If the list is empty, make an empty one
-			if (catList == null) {
-				catList = new ArrayList<IController>();
+			// Add the entity to the category if it is not already there
+			if (getEntityMap().addEntity(category, entity)) {
+				SubscriptionType[] eventTypes = { SubscriptionType.CHILD };
+				updateManager.notifyListeners(eventTypes);
 			}
-
-			// Add the entity to the list and put it in the map
-			catList.add(entity);
-			entities.put(category, catList);
-
-			SubscriptionType[] eventTypes = { SubscriptionType.CHILD };
-			updateManager.notifyListeners(eventTypes);
 		}
 
 		// Otherwise, add the entity normally
@@ -124,7 +114,7 @@ public class Vertex extends Point {
 	 * (non-Javadoc)
 	 * 
 	 * @see
-	 * org.eclipse.eavp.viz.modeling.PointMesh#copy(org.eclipse.eavp.
+	 * org.eclipse.eavp.viz.modeling.PointMesh#copy(org.eclipse.eavp.
 	 * viz. service.modeling.AbstractMesh)
 	 */
 	@Override
@@ -140,8 +130,7 @@ public class Vertex extends Point {
 
 		// Copy each of the other component's data members
 		type = castObject.type;
-		properties = new HashMap<IMeshProperty, String>(
-				castObject.getPropertyMap());
+		properties = new TypedPropertyMap(castObject.getPropertyMap());
 
 		// Copy the transformation
 		transformation = castObject.getTransformation();
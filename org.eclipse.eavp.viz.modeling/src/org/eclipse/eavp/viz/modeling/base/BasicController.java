@@ -11,6 +11,7 @@
 package org.eclipse.eavp.viz.modeling.base;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -221,7 +222,7 @@ public class BasicController
 	 * java.lang.String)
 	 */
 	@Override
-	public ArrayList<IController> getEntitiesFromCategory(
+	public List<IController> getEntitiesFromCategory(
 			IMeshCategory category) {
 		return model.getEntitiesFromCategory(category);
 	}
@@ -233,7 +234,7 @@ public class BasicController
 	 * (org.eclipse.eavp.viz.modeling.IMeshCategory, java.lang.Class)
 	 */
 	@Override
-	public <T extends IController> ArrayList<T> getEntitiesFromCategory(
+	public <T extends IController> List<T> getEntitiesFromCategory(
 			IMeshCategory category, Class<T> returnType) {
 		return model.getEntitiesFromCategory(category, returnType);
 	}
@@ -348,6 +349,102 @@ public class BasicController
 		model.setProperty(property, value);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.eavp.viz.modeling.base.IController#getIntProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty)
+	 */
+	@Override
+	public int getIntProperty(IMeshProperty property) {
+		return model.getIntProperty(property);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.eavp.viz.modeling.base.IController#getDoubleProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty)
+	 */
+	@Override
+	public double getDoubleProperty(IMeshProperty property) {
+		return model.getDoubleProperty(property);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.eavp.viz.modeling.base.IController#getBooleanProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty)
+	 */
+	@Override
+	public boolean getBooleanProperty(IMeshProperty property) {
+		return model.getBooleanProperty(property);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.eavp.viz.modeling.base.IController#getEnumProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty, java.lang.Class)
+	 */
+	@Override
+	public <E extends Enum<E>> E getEnumProperty(IMeshProperty property,
+			Class<E> type) {
+		return model.getEnumProperty(property, type);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.eavp.viz.modeling.base.IController#setIntProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty, int)
+	 */
+	@Override
+	public void setIntProperty(IMeshProperty property, int value) {
+		model.setIntProperty(property, value);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.eavp.viz.modeling.base.IController#setDoubleProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty, double)
+	 */
+	@Override
+	public void setDoubleProperty(IMeshProperty property, double value) {
+		model.setDoubleProperty(property, value);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.eavp.viz.modeling.base.IController#setBooleanProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty, boolean)
+	 */
+	@Override
+	public void setBooleanProperty(IMeshProperty property, boolean value) {
+
+		// Go through setProperty() so that subclasses which propagate flags
+		// such as selection to their children still do so
+		setProperty(property, value ? "True" : "False");
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.eavp.viz.modeling.base.IController#setEnumProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty, java.lang.Enum)
+	 */
+	@Override
+	public void setEnumProperty(IMeshProperty property, Enum<?> value) {
+		model.setEnumProperty(property, value);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -11,8 +11,6 @@
 package org.eclipse.eavp.viz.modeling.base;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -95,8 +93,8 @@ public class BasicMesh
 	 */
 	public BasicMesh() {
 		// Instantiate the class variables
-		entities = new HashMap<IMeshCategory, ArrayList<IController>>();
-		properties = new HashMap<IMeshProperty, String>();
+		entities = new EntityCategoryMap();
+		properties = new TypedPropertyMap();
 		transformation = new Transformation();
 		type = MeshType.SIMPLE;
 		updateManager = new UpdateableSubscriptionManager(this);
@@ -129,7 +127,7 @@ public class BasicMesh
 		this();
 
 		// Create a map of entities
-		this.entities = new HashMap<IMeshCategory, ArrayList<IController>>();
+		this.entities = new EntityCategoryMap();
 
 		// Add the input into the map of entities
 		for (IController entity : entities) {
@@ -149,7 +147,7 @@ public class BasicMesh
 		this();
 
 		// Create a map of entitites and put the list in it
-		this.entities = new HashMap<IMeshCategory, ArrayList<IController>>();
+		this.entities = new EntityCategoryMap();
 		this.entities.put(MeshCategory.DEFAULT, entities);
 
 		// Instantiate the class variables
@@ -250,7 +248,7 @@ public class BasicMesh
 
 		// Add the entities of each category to the list
 		for (IMeshCategory category : entities.keySet()) {
-			entityList.addAll(entities.get(category));
+			entityList.addAll(getEntityMap().getView(category));
 		}
 
 		return entityList;
@@ -264,15 +262,9 @@ public class BasicMesh
 	 * lang.String)
 	 */
 	@Override
-	public ArrayList<IController> getEntitiesFromCategory(
+	public List<IController> getEntitiesFromCategory(
 			IMeshCategory category) {
-
-		// Get the entities under the given category
-		ArrayList<IController> temp = entities.get(category);
-
-		// If the list is null, return an empty list instead
-		return (temp != null ? new ArrayList<IController>(temp)
-				: new ArrayList<IController>());
+		return getEntityMap().getView(category);
 	}
 
 	/*
@@ -282,31 +274,12 @@ public class BasicMesh
 	 * eclipse.eavp.viz.service.modeling.IMeshCategory, java.lang.Class)
 	 */
 	@Override
-	public <T extends IController> ArrayList<T> getEntitiesFromCategory(
+	public <T extends IController> List<T> getEntitiesFromCategory(
 			IMeshCategory category, Class<T> returnType) {
 
-		// The list of cast entities
-		ArrayList<T> temp = new ArrayList<T>();
-
-		// Add each of the entities in category to the list
-		if (entities.get(category) != null) {
-			for (IController entity : entities.get(category)) {
-				try {
-					temp.add((T) entity);
-				}
-
-				// If an entity could not be cast to T, log an error and return
-				// an
-				// empty list.
-				catch (ClassCastException e) {
-					logger.error(
-							"IMesh attempted to cast entity, but entity was not a subtype of the specified return type. Returning empty list instead.");
-					return new ArrayList<T>();
-				}
-			}
-		}
-
-		return temp;
+		// The view is not copied, so the cast is not checked against the
+		// entities' actual types.
+		return (List<T>) getEntityMap().getView(category);
 	}
 
 	/*
@@ -339,18 +312,152 @@ public class BasicMesh
 
 		// If a change occurred, send an update
 		if (changed) {
+			notifyPropertyChanged(property);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.eavp.viz.modeling.base.IMesh#getIntProperty(org.eclipse.
+	 * eavp.viz.modeling.properties.IMeshProperty)
+	 */
+	@Override
+	public int getIntProperty(IMeshProperty property) {
+		return getTypedPropertyMap().getInt(property);
+	}
 
-			SubscriptionType[] eventTypes = new SubscriptionType[1];
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.eavp.viz.modeling.base.IMesh#getDoubleProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty)
+	 */
+	@Override
+	public double getDoubleProperty(IMeshProperty property) {
+		return getTypedPropertyMap().getDouble(property);
+	}
 
-			// Check if the changed property was selection to send the proper
-			// update event.
-			if (!MeshProperty.SELECTED.equals(property)) {
-				eventTypes[0] = SubscriptionType.PROPERTY;
-			} else {
-				eventTypes[0] = SubscriptionType.SELECTION;
-			}
-			updateManager.notifyListeners(eventTypes);
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.eavp.viz.modeling.base.IMesh#getBooleanProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty)
+	 */
+	@Override
+	public boolean getBooleanProperty(IMeshProperty property) {
+		return getTypedPropertyMap().getBoolean(property);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.eavp.viz.modeling.base.IMesh#getEnumProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty, java.lang.Class)
+	 */
+	@Override
+	public <E extends Enum<E>> E getEnumProperty(IMeshProperty property,
+			Class<E> type) {
+		return getTypedPropertyMap().getEnum(property, type);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.eavp.viz.modeling.base.IMesh#setIntProperty(org.eclipse.
+	 * eavp.viz.modeling.properties.IMeshProperty, int)
+	 */
+	@Override
+	public void setIntProperty(IMeshProperty property, int value) {
+		if (getTypedPropertyMap().putInt(property, value)) {
+			notifyPropertyChanged(property);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.eavp.viz.modeling.base.IMesh#setDoubleProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty, double)
+	 */
+	@Override
+	public void setDoubleProperty(IMeshProperty property, double value) {
+		if (getTypedPropertyMap().putDouble(property, value)) {
+			notifyPropertyChanged(property);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.eavp.viz.modeling.base.IMesh#setBooleanProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty, boolean)
+	 */
+	@Override
+	public void setBooleanProperty(IMeshProperty property, boolean value) {
+
+		// Go through setProperty() so that subclasses which propagate flags
+		// such as selection to their children still do so
+		setProperty(property, value ? "True" : "False");
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.eavp.viz.modeling.base.IMesh#setEnumProperty(org.
+	 * eclipse.eavp.viz.modeling.properties.IMeshProperty, java.lang.Enum)
+	 */
+	@Override
+	public void setEnumProperty(IMeshProperty property, Enum<?> value) {
+		if (getTypedPropertyMap().putEnum(property, value)) {
+			notifyPropertyChanged(property);
+		}
+	}
+
+	/**
+	 * Get the properties map as a TypedPropertyMap, converting it first if it
+	 * was replaced by a different kind of map.
+	 * 
+	 * @return The mesh's properties
+	 */
+	private TypedPropertyMap getTypedPropertyMap() {
+		if (!(properties instanceof TypedPropertyMap)) {
+			properties = new TypedPropertyMap(properties);
+		}
+		return (TypedPropertyMap) properties;
+	}
+
+	/**
+	 * Get the entities map as an EntityCategoryMap, converting it first if it
+	 * was replaced by a different kind of map.
+	 * 
+	 * @return The mesh's entities
+	 */
+	protected EntityCategoryMap getEntityMap() {
+		if (!(entities instanceof EntityCategoryMap)) {
+			entities = new EntityCategoryMap(entities);
 		}
+		return (EntityCategoryMap) entities;
+	}
+
+	/**
+	 * Notify listeners that a property has changed.
+	 * 
+	 * @param property
+	 *            The property which changed
+	 */
+	private void notifyPropertyChanged(IMeshProperty property) {
+
+		SubscriptionType[] eventTypes = new SubscriptionType[1];
+
+		// Check if the changed property was selection to send the proper
+		// update event.
+		if (!MeshProperty.SELECTED.equals(property)) {
+			eventTypes[0] = SubscriptionType.PROPERTY;
+		} else {
+			eventTypes[0] = SubscriptionType.SELECTION;
+		}
+		updateManager.notifyListeners(eventTypes);
 	}
 
 	/*
@@ -388,26 +495,11 @@ public class BasicMesh
 			return;
 		}
 
-		// Whether or not the entity was found in the map
-		boolean found = false;
-
-		// If the map contains the given entity
-		for (IMeshCategory category : entities.keySet()) {
-			if (entities.get(category).contains(entity)) {
-
-				// Remove all copies of the entity from the map
-				entities.values().removeAll(Collections.singleton(entity));
-
-				entities.get(category).remove(entity);
-
-				// Unregister from the entity
-				entity.unregister(this);
-
-				found = true;
-			}
-		}
+		// If the map contains the given entity, remove it from every category
+		// and unregister from it
+		if (getEntityMap().removeEntity(entity)) {
+			entity.unregister(this);
 
-		if (found) {
 			SubscriptionType[] eventTypes = { SubscriptionType.CHILD };
 			updateManager.notifyListeners(eventTypes);
 		}
@@ -423,27 +515,12 @@ public class BasicMesh
 	public void addEntityToCategory(IController newEntity,
 			IMeshCategory category) {
 
-		// Get the entities for the given category
-		ArrayList<IController> catList = entities.get(category);
-
-		// If the list is null, make an empty one
-		if (catList == null) {
-			catList = new ArrayList<IController>();
+		// Add the entity to the category. If it is already present, don't add
+		// a second entry for it
+		if (!getEntityMap().addEntity(category, newEntity)) {
+			return;
 		}
 
-		// If the entity is already present in this category, don't add a second
-		// entry for it
-		else
-			for (IController entity : catList) {
-				if (entity == newEntity) {
-					return;
-				}
-			}
-
-		// Add the entity to the list and put it in the map
-		catList.add(newEntity);
-		entities.put(category, catList);
-
 		// Register with the entity
 		newEntity.register(this);
 
@@ -602,8 +679,7 @@ public class BasicMesh
 
 		// Copy each of the other component's data members
 		type = castObject.type;
-		properties = new HashMap<IMeshProperty, String>(
-				castObject.getPropertyMap());
+		properties = new TypedPropertyMap(castObject.getPropertyMap());
 		transformation = (Transformation) castObject.transformation.clone();
 
 		// Clone each child entity
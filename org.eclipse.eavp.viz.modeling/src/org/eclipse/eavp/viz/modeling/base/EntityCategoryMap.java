@@ -0,0 +1,434 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.eavp.viz.modeling.base;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.eavp.viz.modeling.properties.IMeshCategory;
+
+/**
+ * A map of an IMesh's child entities, keyed on the category they belong to.
+ *
+ * Each category keeps its entities in the order they were added, along with
+ * an identity map from each entity to its position. Checking whether an
+ * entity is in a category and adding or removing it are therefore constant
+ * time operations, and an entity can only appear once in each category.
+ * Removed entities leave an empty slot behind, and the slots are compacted
+ * once more than half of them are empty.
+ *
+ * The lists returned by get(), put(), remove() and the map's entries are
+ * copies, which the caller may modify without affecting the map. getView()
+ * instead returns a read only snapshot of a category, which is cached and
+ * shared between callers until the category next changes, so it should be
+ * preferred when the entities are only read. Entities should be added and
+ * removed with addEntity() and removeEntity(), or a whole category replaced
+ * with put().
+ *
+ * @author Robert Smith
+ *
+ */
+public class EntityCategoryMap
+		extends AbstractMap<IMeshCategory, ArrayList<IController>> {
+
+	/**
+	 * The entities in each category.
+	 */
+	private final HashMap<IMeshCategory, Category> categories = new HashMap<IMeshCategory, Category>();
+
+	/**
+	 * The default constructor.
+	 */
+	public EntityCategoryMap() {
+	}
+
+	/**
+	 * A constructor which copies another map of entities.
+	 *
+	 * @param map
+	 *            The map to copy
+	 */
+	public EntityCategoryMap(
+			Map<? extends IMeshCategory, ? extends List<IController>> map) {
+		for (Map.Entry<? extends IMeshCategory, ? extends List<IController>> entry : map
+				.entrySet()) {
+			categories.put(entry.getKey(), new Category(entry.getValue()));
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#get(java.lang.Object)
+	 */
+	@Override
+	public ArrayList<IController> get(Object key) {
+		Category category = categories.get(key);
+		return category != null ? category.copyList() : null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#containsKey(java.lang.Object)
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		return categories.containsKey(key);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public ArrayList<IController> put(IMeshCategory key,
+			ArrayList<IController> value) {
+		Category previous = categories.put(key, new Category(value));
+		return previous != null ? previous.copyList() : null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#remove(java.lang.Object)
+	 */
+	@Override
+	public ArrayList<IController> remove(Object key) {
+		Category previous = categories.remove(key);
+		return previous != null ? previous.copyList() : null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#clear()
+	 */
+	@Override
+	public void clear() {
+		categories.clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#size()
+	 */
+	@Override
+	public int size() {
+		return categories.size();
+	}
+
+	/**
+	 * Add an entity to the end of a category, creating the category if it is
+	 * not already in the map.
+	 *
+	 * @param category
+	 *            The category to add the entity to
+	 * @param entity
+	 *            The entity to add. Null entities are ignored.
+	 * @return True if the entity was added, or false if it was null or
+	 *         already in the category.
+	 */
+	public boolean addEntity(IMeshCategory category, IController entity) {
+
+		if (entity == null) {
+			return false;
+		}
+
+		Category entities = categories.get(category);
+		if (entities == null) {
+			entities = new Category(null);
+			categories.put(category, entities);
+		}
+		return entities.add(entity);
+	}
+
+	/**
+	 * Remove an entity from every category it belongs to.
+	 *
+	 * @param entity
+	 *            The entity to remove
+	 * @return True if the entity was found in any category, false otherwise.
+	 */
+	public boolean removeEntity(IController entity) {
+
+		boolean found = false;
+		for (Category entities : categories.values()) {
+			found |= entities.remove(entity);
+		}
+		return found;
+	}
+
+	/**
+	 * Check whether an entity belongs to a category.
+	 *
+	 * @param category
+	 *            The category to check
+	 * @param entity
+	 *            The entity to look for
+	 * @return True if this exact entity is in the category, false otherwise.
+	 */
+	public boolean contains(IMeshCategory category, IController entity) {
+		Category entities = categories.get(category);
+		return entities != null && entities.contains(entity);
+	}
+
+	/**
+	 * Get a read only view of the entities in a category.
+	 *
+	 * @param category
+	 *            The category to get
+	 * @return The category's entities, or an empty list if the category is
+	 *         not in the map.
+	 */
+	public List<IController> getView(IMeshCategory category) {
+		Category entities = categories.get(category);
+		if (entities == null) {
+			return Collections.emptyList();
+		}
+		return entities.getView();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#entrySet()
+	 */
+	@Override
+	public Set<Map.Entry<IMeshCategory, ArrayList<IController>>> entrySet() {
+		return new AbstractSet<Map.Entry<IMeshCategory, ArrayList<IController>>>() {
+
+			@Override
+			public Iterator<Map.Entry<IMeshCategory, ArrayList<IController>>> iterator() {
+
+				final Iterator<Map.Entry<IMeshCategory, Category>> iterator = categories
+						.entrySet().iterator();
+
+				return new Iterator<Map.Entry<IMeshCategory, ArrayList<IController>>>() {
+
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Map.Entry<IMeshCategory, ArrayList<IController>> next() {
+						Map.Entry<IMeshCategory, Category> entry = iterator
+								.next();
+						return new Entry(entry.getKey(),
+								entry.getValue().copyList());
+					}
+
+					@Override
+					public void remove() {
+						iterator.remove();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return categories.size();
+			}
+		};
+	}
+
+	/**
+	 * An entry in the map, whose value can be set to replace the category's
+	 * contents.
+	 */
+	private class Entry extends
+			AbstractMap.SimpleEntry<IMeshCategory, ArrayList<IController>> {
+
+		/**
+		 * The serial version ID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The default constructor.
+		 *
+		 * @param key
+		 *            The entry's category
+		 * @param value
+		 *            The category's entities
+		 */
+		private Entry(IMeshCategory key, ArrayList<IController> value) {
+			super(key, value);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.AbstractMap.SimpleEntry#setValue(java.lang.Object)
+		 */
+		@Override
+		public ArrayList<IController> setValue(ArrayList<IController> value) {
+			super.setValue(value);
+			return put(getKey(), value);
+		}
+	}
+
+	/**
+	 * The entities belonging to one category.
+	 */
+	private static class Category {
+
+		/**
+		 * The entities in the order they were added, with null in the slots of
+		 * entities which have since been removed.
+		 */
+		private final ArrayList<IController> slots = new ArrayList<IController>();
+
+		/**
+		 * The slot of each entity in the category.
+		 */
+		private final IdentityHashMap<IController, Integer> positions = new IdentityHashMap<IController, Integer>();
+
+		/**
+		 * A list of the entities, or null if the category has changed since
+		 * it was last made. It is only shared through the read only view.
+		 */
+		private ArrayList<IController> list;
+
+		/**
+		 * A read only view of the list, or null if the category has changed
+		 * since it was last made.
+		 */
+		private List<IController> view;
+
+		/**
+		 * The default constructor.
+		 *
+		 * @param entities
+		 *            The initial entities, or null for an empty category
+		 */
+		private Category(List<IController> entities) {
+			if (entities != null) {
+				for (IController entity : entities) {
+					if (entity != null) {
+						add(entity);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Add an entity to the end of the category.
+		 *
+		 * @param entity
+		 *            The entity to add
+		 * @return True if the entity was added, or false if it was already
+		 *         present.
+		 */
+		private boolean add(IController entity) {
+			if (positions.containsKey(entity)) {
+				return false;
+			}
+			positions.put(entity, slots.size());
+			slots.add(entity);
+			list = null;
+			view = null;
+			return true;
+		}
+
+		/**
+		 * Remove an entity from the category.
+		 *
+		 * @param entity
+		 *            The entity to remove
+		 * @return True if the entity was present, false otherwise.
+		 */
+		private boolean remove(IController entity) {
+			Integer position = positions.remove(entity);
+			if (position == null) {
+				return false;
+			}
+			slots.set(position, null);
+			list = null;
+			view = null;
+
+			// Compact the slots once most of them are empty
+			if (positions.size() * 2 < slots.size()) {
+				int size = 0;
+				for (int i = 0; i < slots.size(); i++) {
+					IController current = slots.get(i);
+					if (current != null) {
+						slots.set(size, current);
+						positions.put(current, size);
+						size++;
+					}
+				}
+				slots.subList(size, slots.size()).clear();
+			}
+			return true;
+		}
+
+		/**
+		 * Check whether an entity is in the category.
+		 *
+		 * @param entity
+		 *            The entity to look for
+		 * @return True if the entity is present, false otherwise.
+		 */
+		private boolean contains(IController entity) {
+			return positions.containsKey(entity);
+		}
+
+		/**
+		 * Get a list of the category's entities.
+		 *
+		 * @return The entities, in the order they were added
+		 */
+		private ArrayList<IController> getList() {
+			if (list == null) {
+				list = new ArrayList<IController>(positions.size());
+				for (IController entity : slots) {
+					if (entity != null) {
+						list.add(entity);
+					}
+				}
+			}
+			return list;
+		}
+
+		/**
+		 * Get a copy of the list of the category's entities.
+		 *
+		 * @return A new list of the entities, in the order they were added
+		 */
+		private ArrayList<IController> copyList() {
+			return new ArrayList<IController>(getList());
+		}
+
+		/**
+		 * Get a read only view of the category's entities.
+		 *
+		 * @return The entities, in the order they were added
+		 */
+		private List<IController> getView() {
+			if (view == null) {
+				view = Collections.unmodifiableList(getList());
+			}
+			return view;
+		}
+	}
+}
@@ -11,7 +11,6 @@
 package org.eclipse.eavp.viz.modeling.base;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -72,7 +71,7 @@ public class EntityMapAdapter extends
 
 		// Create a map of categories to controllers and populate it with the
 		// categories from the adaption
-		Map<IMeshCategory, ArrayList<IController>> map = new HashMap<IMeshCategory, ArrayList<IController>>();
+		Map<IMeshCategory, ArrayList<IController>> map = new EntityCategoryMap();
 		for (EntityEntry entry : input.entry) {
 			map.put(entry.key, entry.value);
 		}
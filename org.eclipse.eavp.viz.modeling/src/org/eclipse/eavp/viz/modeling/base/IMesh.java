@@ -11,6 +11,7 @@
 package org.eclipse.eavp.viz.modeling.base;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -53,9 +54,10 @@ public interface IMesh extends IManagedUpdateable, IManagedUpdateableListener {
 	 * 
 	 * @param category
 	 *            The category of entities to return
-	 * @return All the entities in the map for the specified category.
+	 * @return A read only list of all the entities in the map for the
+	 *         specified category. It is not updated if the category changes.
 	 */
-	ArrayList<IController> getEntitiesFromCategory(IMeshCategory category);
+	List<IController> getEntitiesFromCategory(IMeshCategory category);
 
 	/**
 	 * Return all of the part's children entities of a given category cast to a
@@ -65,10 +67,10 @@ public interface IMesh extends IManagedUpdateable, IManagedUpdateableListener {
 	 *            The category of entities to return
 	 * @param returnType
 	 *            The class to which members of the category belong.
-	 * @return All the entities in the map for the specified category, cast to
-	 *         the given type.
+	 * @return A read only list of all the entities in the map for the
+	 *         specified category, cast to the given type.
 	 */
-	<T extends IController> ArrayList<T> getEntitiesFromCategory(
+	<T extends IController> List<T> getEntitiesFromCategory(
 			IMeshCategory category, Class<T> returnType);
 
 	/**
@@ -89,6 +91,97 @@ public interface IMesh extends IManagedUpdateable, IManagedUpdateableListener {
 	 */
 	void setProperty(IMeshProperty property, String value);
 
+	/**
+	 * Get the value of the given property as an int.
+	 * 
+	 * @param property
+	 *            The property to return
+	 * @return The property's value
+	 * @throws NumberFormatException
+	 *             If the property is not set or is not an integer
+	 */
+	int getIntProperty(IMeshProperty property);
+
+	/**
+	 * Get the value of the given property as a double.
+	 * 
+	 * @param property
+	 *            The property to return
+	 * @return The property's value
+	 * @throws NumberFormatException
+	 *             If the property is not a number
+	 * @throws NullPointerException
+	 *             If the property is not set
+	 */
+	double getDoubleProperty(IMeshProperty property);
+
+	/**
+	 * Get the value of the given property as a boolean.
+	 * 
+	 * @param property
+	 *            The property to return
+	 * @return True if the property is set to "True", ignoring case, and false
+	 *         otherwise
+	 */
+	boolean getBooleanProperty(IMeshProperty property);
+
+	/**
+	 * Get the value of the given property as a constant of an enum.
+	 * 
+	 * @param property
+	 *            The property to return
+	 * @param type
+	 *            The enum's class
+	 * @return The constant named by the property, or null if it is not set
+	 */
+	<E extends Enum<E>> E getEnumProperty(IMeshProperty property,
+			Class<E> type);
+
+	/**
+	 * Set the given property to an int, creating it in the map if it is not
+	 * already present.
+	 * 
+	 * @param property
+	 *            The property to set
+	 * @param value
+	 *            The property's new value
+	 */
+	void setIntProperty(IMeshProperty property, int value);
+
+	/**
+	 * Set the given property to a double, creating it in the map if it is not
+	 * already present.
+	 * 
+	 * @param property
+	 *            The property to set
+	 * @param value
+	 *            The property's new value
+	 */
+	void setDoubleProperty(IMeshProperty property, double value);
+
+	/**
+	 * Set the given property to a boolean, creating it in the map if it is not
+	 * already present. This is equivalent to setProperty() with "True" or
+	 * "False".
+	 * 
+	 * @param property
+	 *            The property to set
+	 * @param value
+	 *            The property's new value
+	 */
+	void setBooleanProperty(IMeshProperty property, boolean value);
+
+	/**
+	 * Set the given property to a constant of an enum, creating it in the map
+	 * if it is not already present.
+	 * 
+	 * @param property
+	 *            The property to set
+	 * @param value
+	 *            The property's new value
+	 */
+	void setEnumProperty(IMeshProperty property, Enum<?> value);
+
 	/**
 	 * Get the entire properties map for the mesh.
 	 * 
@@ -11,7 +11,6 @@
 package org.eclipse.eavp.viz.modeling.base;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -72,7 +71,7 @@ public class PropertyMapAdapter extends
 
 		// Create a map of properties to values and populate it with data from
 		// the adaption
-		Map<IMeshProperty, String> map = new HashMap<IMeshProperty, String>();
+		Map<IMeshProperty, String> map = new TypedPropertyMap();
 		for (PropertyEntry entry : input.entry) {
 			map.put(entry.key, entry.value);
 		}
@@ -0,0 +1,697 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.eavp.viz.modeling.base;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.eclipse.eavp.viz.modeling.properties.IMeshProperty;
+import org.eclipse.eavp.viz.modeling.properties.MeshProperty;
+
+/**
+ * A map of an IMesh's properties which can hold int, double, boolean and enum
+ * values as well as strings.
+ *
+ * The values of the standard MeshProperties are kept in arrays indexed by the
+ * property's ordinal, with numbers and booleans stored unboxed. Other
+ * properties are kept in a HashMap. The map itself presents every value as a
+ * string, so that it can be used anywhere a Map<IMeshProperty, String> was:
+ * typed values are converted to strings when first read, with booleans
+ * written as "True" or "False", and strings are parsed when first read as
+ * another type. Either way, the result is kept so that the conversion is not
+ * repeated, and a string which was parsed is still returned exactly as it
+ * was given.
+ *
+ * @author Robert Smith
+ *
+ */
+public class TypedPropertyMap extends AbstractMap<IMeshProperty, String> {
+
+	/**
+	 * The kind of a slot holding no value.
+	 */
+	private static final byte ABSENT = 0;
+
+	/**
+	 * The kind of a slot holding a string.
+	 */
+	private static final byte STRING = 1;
+
+	/**
+	 * The kind of a slot holding an int.
+	 */
+	private static final byte INT = 2;
+
+	/**
+	 * The kind of a slot holding a double.
+	 */
+	private static final byte DOUBLE = 3;
+
+	/**
+	 * The kind of a slot holding a boolean.
+	 */
+	private static final byte BOOLEAN = 4;
+
+	/**
+	 * The kind of a slot holding an enum constant.
+	 */
+	private static final byte ENUM = 5;
+
+	/**
+	 * The standard properties, indexed by ordinal.
+	 */
+	private static final MeshProperty[] SLOT_KEYS = MeshProperty.values();
+
+	/**
+	 * The kind of value held for each standard property.
+	 */
+	private final byte[] kinds = new byte[SLOT_KEYS.length];
+
+	/**
+	 * The int, double or boolean value of each standard property holding one.
+	 * Doubles are stored as their raw long bits and booleans as 1 or 0.
+	 */
+	private final long[] primitives = new long[SLOT_KEYS.length];
+
+	/**
+	 * The string or enum constant held for each standard property. For
+	 * properties holding a primitive, the value as a string, or null if it
+	 * has not been needed yet.
+	 */
+	private final Object[] objects = new Object[SLOT_KEYS.length];
+
+	/**
+	 * The number of standard properties with values.
+	 */
+	private int slotCount = 0;
+
+	/**
+	 * The values of other properties, as strings or boxed primitives and enum
+	 * constants.
+	 */
+	private HashMap<IMeshProperty, Object> others;
+
+	/**
+	 * The default constructor.
+	 */
+	public TypedPropertyMap() {
+	}
+
+	/**
+	 * A constructor which copies another map of properties.
+	 *
+	 * @param map
+	 *            The map to copy. If it is a TypedPropertyMap, its typed
+	 *            values are copied as they are.
+	 */
+	public TypedPropertyMap(Map<? extends IMeshProperty, ? extends String> map) {
+		if (map instanceof TypedPropertyMap) {
+			TypedPropertyMap other = (TypedPropertyMap) map;
+			System.arraycopy(other.kinds, 0, kinds, 0, kinds.length);
+			System.arraycopy(other.primitives, 0, primitives, 0,
+					primitives.length);
+			System.arraycopy(other.objects, 0, objects, 0, objects.length);
+			slotCount = other.slotCount;
+			if (other.others != null) {
+				others = new HashMap<IMeshProperty, Object>(other.others);
+			}
+		} else {
+			putAll(map);
+		}
+	}
+
+	/**
+	 * Get the index of a property's slot.
+	 *
+	 * @param key
+	 *            The property
+	 * @return The property's index in the arrays, or -1 if it is not one of
+	 *         the standard properties
+	 */
+	private static int slotOf(Object key) {
+		return key instanceof MeshProperty ? ((MeshProperty) key).ordinal()
+				: -1;
+	}
+
+	/**
+	 * Convert a boxed value from the map of other properties into a string.
+	 *
+	 * @param value
+	 *            The value
+	 * @return The value as a string
+	 */
+	private static String format(Object value) {
+		if (value == null || value instanceof String) {
+			return (String) value;
+		} else if (value instanceof Boolean) {
+			return ((Boolean) value) ? "True" : "False";
+		} else if (value instanceof Enum) {
+			return ((Enum<?>) value).name();
+		}
+		return value.toString();
+	}
+
+	/**
+	 * Box a value for the map of other properties.
+	 *
+	 * @param kind
+	 *            The kind of value
+	 * @param primitive
+	 *            The value, for ints, doubles and booleans
+	 * @param object
+	 *            The value, for strings and enum constants
+	 * @return The value as a string, boxed primitive or enum constant
+	 */
+	private static Object box(byte kind, long primitive, Object object) {
+		switch (kind) {
+		case INT:
+			return (int) primitive;
+		case DOUBLE:
+			return Double.longBitsToDouble(primitive);
+		case BOOLEAN:
+			return primitive != 0;
+		default:
+			return object;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#get(java.lang.Object)
+	 */
+	@Override
+	public String get(Object key) {
+		int slot = slotOf(key);
+		if (slot < 0) {
+			return others == null ? null : format(others.get(key));
+		}
+
+		switch (kinds[slot]) {
+		case ABSENT:
+			return null;
+		case ENUM:
+			return ((Enum<?>) objects[slot]).name();
+		case STRING:
+			return (String) objects[slot];
+		}
+
+		// Convert the primitive to a string the first time it is needed
+		if (objects[slot] == null) {
+			long value = primitives[slot];
+			switch (kinds[slot]) {
+			case INT:
+				objects[slot] = Integer.toString((int) value);
+				break;
+			case DOUBLE:
+				objects[slot] = Double
+						.toString(Double.longBitsToDouble(value));
+				break;
+			default:
+				objects[slot] = value != 0 ? "True" : "False";
+			}
+		}
+		return (String) objects[slot];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#containsKey(java.lang.Object)
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		int slot = slotOf(key);
+		if (slot < 0) {
+			return others != null && others.containsKey(key);
+		}
+		return kinds[slot] != ABSENT;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public String put(IMeshProperty key, String value) {
+		String previous = get(key);
+		set(key, STRING, 0, value);
+		return previous;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#remove(java.lang.Object)
+	 */
+	@Override
+	public String remove(Object key) {
+		String previous = get(key);
+		int slot = slotOf(key);
+		if (slot < 0) {
+			if (others != null) {
+				others.remove(key);
+			}
+		} else if (kinds[slot] != ABSENT) {
+			kinds[slot] = ABSENT;
+			objects[slot] = null;
+			slotCount--;
+		}
+		return previous;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#clear()
+	 */
+	@Override
+	public void clear() {
+		for (int i = 0; i < kinds.length; i++) {
+			kinds[i] = ABSENT;
+			objects[i] = null;
+		}
+		slotCount = 0;
+		others = null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#size()
+	 */
+	@Override
+	public int size() {
+		return slotCount + (others == null ? 0 : others.size());
+	}
+
+	/**
+	 * Get a property's value as an int.
+	 *
+	 * @param key
+	 *            The property
+	 * @return The property's value
+	 * @throws NumberFormatException
+	 *             If the property is not set or is not an integer
+	 */
+	public int getInt(IMeshProperty key) {
+		int slot = slotOf(key);
+		if (slot < 0) {
+			Object value = others == null ? null : others.get(key);
+			return value instanceof Integer ? (Integer) value
+					: Integer.parseInt(format(value));
+		}
+
+		if (kinds[slot] == INT) {
+			return (int) primitives[slot];
+		}
+
+		// Parse the value, remembering the result if it was a string
+		int value = Integer.parseInt(get(key));
+		if (kinds[slot] == STRING) {
+			kinds[slot] = INT;
+			primitives[slot] = value;
+		}
+		return value;
+	}
+
+	/**
+	 * Get a property's value as a double.
+	 *
+	 * @param key
+	 *            The property
+	 * @return The property's value
+	 * @throws NumberFormatException
+	 *             If the property is not set or is not a number
+	 * @throws NullPointerException
+	 *             If the property is not set
+	 */
+	public double getDouble(IMeshProperty key) {
+		int slot = slotOf(key);
+		if (slot < 0) {
+			Object value = others == null ? null : others.get(key);
+			return value instanceof Number ? ((Number) value).doubleValue()
+					: Double.parseDouble(format(value));
+		}
+
+		if (kinds[slot] == DOUBLE) {
+			return Double.longBitsToDouble(primitives[slot]);
+		} else if (kinds[slot] == INT) {
+			return (int) primitives[slot];
+		}
+
+		// Parse the value, remembering the result if it was a string
+		double value = Double.parseDouble(get(key));
+		if (kinds[slot] == STRING) {
+			kinds[slot] = DOUBLE;
+			primitives[slot] = Double.doubleToRawLongBits(value);
+		}
+		return value;
+	}
+
+	/**
+	 * Get a property's value as a boolean.
+	 *
+	 * @param key
+	 *            The property
+	 * @return True if the property's value is "true", ignoring case, false
+	 *         otherwise, including when it is not set.
+	 */
+	public boolean getBoolean(IMeshProperty key) {
+		int slot = slotOf(key);
+		if (slot < 0) {
+			Object value = others == null ? null : others.get(key);
+			return value instanceof Boolean ? (Boolean) value
+					: Boolean.parseBoolean(format(value));
+		}
+
+		if (kinds[slot] == BOOLEAN) {
+			return primitives[slot] != 0;
+		}
+
+		// Parse the value, remembering the result if it was a string
+		boolean value = Boolean.parseBoolean(get(key));
+		if (kinds[slot] == STRING && objects[slot] != null) {
+			kinds[slot] = BOOLEAN;
+			primitives[slot] = value ? 1 : 0;
+		}
+		return value;
+	}
+
+	/**
+	 * Get a property's value as a constant of an enum.
+	 *
+	 * @param key
+	 *            The property
+	 * @param type
+	 *            The enum's class
+	 * @return The constant named by the property's value, or null if it is not
+	 *         set
+	 * @throws IllegalArgumentException
+	 *             If the enum has no constant with the property's value as its
+	 *             name
+	 */
+	public <E extends Enum<E>> E getEnum(IMeshProperty key, Class<E> type) {
+		int slot = slotOf(key);
+		if (slot < 0) {
+			Object value = others == null ? null : others.get(key);
+			if (value == null || type.isInstance(value)) {
+				return type.cast(value);
+			}
+			return Enum.valueOf(type, format(value));
+		}
+
+		if (kinds[slot] == ENUM && type.isInstance(objects[slot])) {
+			return type.cast(objects[slot]);
+		}
+
+		// Look up the value, remembering the result if it was a string
+		String name = get(key);
+		if (name == null) {
+			return null;
+		}
+		E value = Enum.valueOf(type, name);
+		if (kinds[slot] == STRING) {
+			kinds[slot] = ENUM;
+			objects[slot] = value;
+		}
+		return value;
+	}
+
+	/**
+	 * Set a property to an int.
+	 *
+	 * @param key
+	 *            The property
+	 * @param value
+	 *            The property's new value
+	 * @return True if the property's value changed, false if it already held
+	 *         the same int or its string form
+	 */
+	public boolean putInt(IMeshProperty key, int value) {
+		return set(key, INT, value, null);
+	}
+
+	/**
+	 * Set a property to a double.
+	 *
+	 * @param key
+	 *            The property
+	 * @param value
+	 *            The property's new value
+	 * @return True if the property's value changed, false if it already held
+	 *         the same double or its string form
+	 */
+	public boolean putDouble(IMeshProperty key, double value) {
+		return set(key, DOUBLE, Double.doubleToRawLongBits(value), null);
+	}
+
+	/**
+	 * Set a property to a boolean.
+	 *
+	 * @param key
+	 *            The property
+	 * @param value
+	 *            The property's new value
+	 * @return True if the property's value changed, false if it already held
+	 *         the same boolean or its string form
+	 */
+	public boolean putBoolean(IMeshProperty key, boolean value) {
+		return set(key, BOOLEAN, value ? 1 : 0, null);
+	}
+
+	/**
+	 * Set a property to an enum constant.
+	 *
+	 * @param key
+	 *            The property
+	 * @param value
+	 *            The property's new value. If null, the property will be
+	 *            removed.
+	 * @return True if the property's value changed, false if it already held
+	 *         the same constant or its name
+	 */
+	public boolean putEnum(IMeshProperty key, Enum<?> value) {
+		if (value == null) {
+			boolean changed = containsKey(key);
+			remove(key);
+			return changed;
+		}
+		return set(key, ENUM, 0, value);
+	}
+
+	/**
+	 * Store a value for a property.
+	 *
+	 * @param key
+	 *            The property
+	 * @param kind
+	 *            The kind of value
+	 * @param primitive
+	 *            The value, for ints, doubles and booleans
+	 * @param object
+	 *            The value, for strings and enum constants
+	 * @return True if the property's value changed, false if it already held
+	 *         the same value, or a value of another kind with the same string
+	 *         form
+	 */
+	private boolean set(IMeshProperty key, byte kind, long primitive,
+			Object object) {
+
+		int slot = slotOf(key);
+		if (slot < 0) {
+			if (others == null) {
+				others = new HashMap<IMeshProperty, Object>();
+			}
+			Object value = box(kind, primitive, object);
+			boolean changed = !others.containsKey(key);
+			Object previous = others.put(key, value);
+			if (changed || previous == null || value == null) {
+				return changed || previous != value;
+			}
+
+			// Values of different kinds are the same if they convert to the
+			// same string
+			return previous.getClass() == value.getClass()
+					? !previous.equals(value)
+					: !format(previous).equals(format(value));
+		}
+
+		// Check whether the same value is already held
+		byte previousKind = kinds[slot];
+		boolean changed;
+		if (previousKind == ABSENT) {
+			changed = true;
+		} else if (previousKind != kind) {
+			// Compare the values as strings, replacing the stored value with
+			// the new kind even if they are the same
+			String previous = get(key);
+			changed = previous == null ? object != null
+					: !previous.equals(format(box(kind, primitive, object)));
+			if (!changed) {
+				kinds[slot] = kind;
+				primitives[slot] = primitive;
+				objects[slot] = kind == STRING || kind == ENUM ? object
+						: previous;
+			}
+		} else if (kind == STRING || kind == ENUM) {
+			changed = object == null ? objects[slot] != null
+					: !object.equals(objects[slot]);
+		} else {
+			changed = primitives[slot] != primitive;
+		}
+
+		if (changed) {
+			if (previousKind == ABSENT) {
+				slotCount++;
+			}
+			kinds[slot] = kind;
+			primitives[slot] = primitive;
+			objects[slot] = object;
+		}
+		return changed;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#entrySet()
+	 */
+	@Override
+	public Set<Map.Entry<IMeshProperty, String>> entrySet() {
+		return new AbstractSet<Map.Entry<IMeshProperty, String>>() {
+
+			@Override
+			public Iterator<Map.Entry<IMeshProperty, String>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return TypedPropertyMap.this.size();
+			}
+		};
+	}
+
+	/**
+	 * An entry in the map. Setting its value sets the property in the map.
+	 */
+	private class Entry extends AbstractMap.SimpleEntry<IMeshProperty, String> {
+
+		/**
+		 * The version number for serialization.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The default constructor.
+		 *
+		 * @param key
+		 *            The entry's property
+		 */
+		private Entry(IMeshProperty key) {
+			super(key, get(key));
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.AbstractMap.SimpleEntry#setValue(java.lang.Object)
+		 */
+		@Override
+		public String setValue(String value) {
+			put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+
+	/**
+	 * An iterator over the standard properties with values, in the order they
+	 * are declared, followed by the other properties.
+	 */
+	private class EntryIterator
+			implements Iterator<Map.Entry<IMeshProperty, String>> {
+
+		/**
+		 * The index of the next standard property to check.
+		 */
+		private int next = 0;
+
+		/**
+		 * The property most recently returned, or null if it was removed.
+		 */
+		private IMeshProperty current;
+
+		/**
+		 * The iterator over the other properties, once the standard ones are
+		 * done.
+		 */
+		private Iterator<IMeshProperty> otherIterator;
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			while (next < kinds.length && kinds[next] == ABSENT) {
+				next++;
+			}
+			if (next < kinds.length) {
+				return true;
+			}
+			if (otherIterator == null && others != null) {
+				otherIterator = others.keySet().iterator();
+			}
+			return otherIterator != null && otherIterator.hasNext();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#next()
+		 */
+		@Override
+		public Map.Entry<IMeshProperty, String> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			current = next < kinds.length ? SLOT_KEYS[next++]
+					: otherIterator.next();
+			return new Entry(current);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.Iterator#remove()
+		 */
+		@Override
+		public void remove() {
+			if (current == null) {
+				throw new IllegalStateException();
+			}
+			if (slotOf(current) < 0) {
+				otherIterator.remove();
+			} else {
+				TypedPropertyMap.this.remove(current);
+			}
+			current = null;
+		}
+	}
+}
@@ -20,8 +20,10 @@ import org.eclipse.eavp.viz.service.IRenderElementHolder;
 import org.eclipse.january.geometry.Geometry;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.INode;
+import org.eclipse.january.geometry.Shape;
 import org.eclipse.january.geometry.Union;
 import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.impl.ShapeInstance;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.dialogs.IDialogConstants;
 import org.eclipse.jface.resource.ImageDescriptor;
@@ -152,22 +154,35 @@ public class ActionReplicateShape extends Action {
 		replicateUnion.setName("Replication");
 		replicateUnion.setId(selectedShape.getBase().getId());
 
+		// A shape without children is replicated as instances which share a
+		// single copy of its triangles, so that each copy costs little more
+		// than its position and all of them are drawn with the same mesh.
+		// Anything else is cloned in full.
+		INode selectedNode = selectedShape.getBase();
+		Shape prototype = null;
+		if (selectedNode instanceof Shape
+				&& selectedNode.getNodes().isEmpty()) {
+			prototype = ShapeInstance.createPrototype((Shape) selectedNode);
+		}
+
 		for (int i = 1; i <= quantity; i++) {
 
-			// Clone the selected shape
+			// Copy the selected shape
 
-			IRenderElement clonedShape = (IRenderElement) selectedShape.clone();
-			clonedShape.getBase().setId(i);
+			INode clonedNode = prototype != null
+					? new ShapeInstance(prototype)
+					: (INode) selectedNode.clone();
+			clonedNode.setId(i);
 
 			// Add the translation
-			Vertex clonedCenter = clonedShape.getBase().getCenter();
+			Vertex clonedCenter = clonedNode.getCenter();
 			clonedCenter.setX(accumulatedX);
 			clonedCenter.setY(accumulatedY);
 			clonedCenter.setZ(accumulatedZ);
 
 			// Add it to the replicated union
 
-			replicateUnion.addNode(clonedShape.getBase());
+			replicateUnion.addNode(clonedNode);
 
 			// Shift the transform for the next shape
 			accumulatedX += shift[0];
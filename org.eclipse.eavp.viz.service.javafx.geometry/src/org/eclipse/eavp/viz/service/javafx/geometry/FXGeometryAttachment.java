@@ -55,17 +55,24 @@ public class FXGeometryAttachment extends FXAttachment {
 		super.fxAttachmentNode.setOnMouseClicked((event) -> {
 			selectMultiple = event.isControlDown();
 
-			// Get the pick result, see if we are selecting a node
+			// The render to select
+			IRenderElement selectedRender = null;
+
+			// Find the node under the mouse from the geometry's triangles
+			org.eclipse.january.geometry.INode picked = pick(
+					event.getSceneX(), event.getSceneY());
+			if (picked != null) {
+				selectedRender = getRender(picked);
+			}
+
+			// Otherwise, get the pick result, see if we are selecting a node
 			PickResult pick = event.getPickResult();
 
 			// Get the node
 			Node selected = pick.getIntersectedNode();
 
-			// The render to select
-			IRenderElement selectedRender = null;
-
 			// All geometry editor objects in the root are now TriangleMeshViews
-			if (selected instanceof MeshView) {
+			if (selectedRender == null && selected instanceof MeshView) {
 				MeshView view = (MeshView) selected;
 
 				// Go through the rendered nodes and find the node that
@@ -482,7 +482,7 @@ public class FXMeshViewer extends FXViewer {
 						.getEntities()) {
 
 			// Set the next polygon's ID higher than the face's, if neccesary
-			int faceID = Integer.parseInt(face.getProperty(MeshProperty.ID));
+			int faceID = face.getIntProperty(MeshProperty.ID);
 			if (faceID > nextPolygonID) {
 				nextPolygonID = faceID + 1;
 			}
@@ -490,8 +490,7 @@ public class FXMeshViewer extends FXViewer {
 			// Check each edge, setting the next ID higher than the highest seen
 			for (IController edge : face
 					.getEntitiesFromCategory(MeshCategory.EDGES)) {
-				int edgeID = Integer
-						.parseInt(edge.getProperty(MeshProperty.ID));
+				int edgeID = edge.getIntProperty(MeshProperty.ID);
 				if (edgeID > nextEdgeID) {
 					nextEdgeID = edgeID + 1;
 				}
@@ -501,8 +500,7 @@ public class FXMeshViewer extends FXViewer {
 			// seen
 			for (IController vertex : face
 					.getEntitiesFromCategory(MeshCategory.VERTICES)) {
-				int vertexID = Integer
-						.parseInt(vertex.getProperty(MeshProperty.ID));
+				int vertexID = vertex.getIntProperty(MeshProperty.ID);
 				if (vertexID > nextVertexID) {
 					nextVertexID = vertexID + 1;
 				}
@@ -536,7 +534,7 @@ public class FXMeshViewer extends FXViewer {
 
 			// Set the polygon's name and ID
 			newFace.setProperty(MeshProperty.NAME, "Polygon");
-			newFace.setProperty(MeshProperty.ID, String.valueOf(nextPolygonID));
+			newFace.setIntProperty(MeshProperty.ID, nextPolygonID);
 			nextPolygonID++;
 
 			for (IController edge : tempEdges) {
@@ -586,8 +584,7 @@ public class FXMeshViewer extends FXViewer {
 			// Set the vertex's scale, name, and ID
 			tempVertex.setApplicationScale(SCALE);
 			tempVertex.setProperty(MeshProperty.NAME, "Vertex");
-			tempVertex.setProperty(MeshProperty.ID,
-					String.valueOf(nextVertexID));
+			tempVertex.setIntProperty(MeshProperty.ID, nextVertexID);
 			nextVertexID++;
 
 			// Add the new vertex to the list
@@ -1145,7 +1142,7 @@ public class FXMeshViewer extends FXViewer {
 
 		// Set the edge's name and ID
 		tempEdge.setProperty(MeshProperty.NAME, "Edge");
-		tempEdge.setProperty(MeshProperty.ID, String.valueOf(nextEdgeID));
+		tempEdge.setIntProperty(MeshProperty.ID, nextEdgeID);
 		nextEdgeID++;
 
 		// Set the mouse to ignore edges. Only Vertices and
@@ -11,14 +11,18 @@
 package org.eclipse.eavp.viz.service.javafx.canvas;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 
+import org.eclipse.eavp.geometry.view.javafx.render.FXFrustumCuller;
 import org.eclipse.eavp.geometry.view.javafx.render.FXMeshCache;
+import org.eclipse.eavp.geometry.view.javafx.render.FXPicker;
 import org.eclipse.eavp.geometry.view.javafx.render.FXRenderObject;
 import org.eclipse.eavp.geometry.view.model.IRenderElement;
+import org.eclipse.eavp.viz.datastructures.VizObject.IDispatchedUpdateableListener;
 import org.eclipse.eavp.viz.datastructures.VizObject.IManagedUpdateable;
-import org.eclipse.eavp.viz.datastructures.VizObject.IManagedUpdateableListener;
 import org.eclipse.eavp.viz.datastructures.VizObject.SubscriptionType;
+import org.eclipse.eavp.viz.datastructures.VizObject.UpdateDispatcher;
 import org.eclipse.eavp.viz.modeling.base.IController;
 import org.eclipse.eavp.viz.service.javafx.internal.Util;
 import org.eclipse.eavp.viz.service.javafx.scene.model.IAttachment;
@@ -30,8 +34,12 @@ import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.util.EContentAdapter;
 import org.eclipse.january.geometry.Geometry;
+import org.eclipse.january.geometry.util.BoundingVolumeHierarchy.Hit;
 
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.scene.Group;
+import javafx.scene.Scene;
 
 /**
  * <p>
@@ -63,6 +71,37 @@ public class FXAttachment extends BasicAttachment {
 	 */
 	protected FXMeshCache cache;
 
+	/**
+	 * The renders at the top of the hierarchy, which are added directly to the
+	 * attachment node.
+	 */
+	protected List<IRenderElement<Group>> topLevelRenders;
+
+	/**
+	 * The culler which hides the top level renders outside of the camera's
+	 * view.
+	 */
+	protected FXFrustumCuller culler;
+
+	/**
+	 * The pickers which find the nodes of each known part under a point of the
+	 * view, created when they are first needed.
+	 */
+	protected IdentityHashMap<Geometry, FXPicker> pickers;
+
+	/**
+	 * The timer which culls the renders and updates their levels of detail
+	 * each frame while the attachment is attached to a node.
+	 */
+	private AnimationTimer cullTimer;
+
+	/**
+	 * The notifications waiting to be handled on the JavaFX thread, each
+	 * followed by the geometry it came from. A task to handle them is waiting
+	 * on the JavaFX thread whenever the list is not empty.
+	 */
+	private final ArrayList<Object> pendingUpdates = new ArrayList<Object>();
+
 	/**
 	 * <p>
 	 * Creates an FXGeometryAttachment instance.
@@ -76,6 +115,9 @@ public class FXAttachment extends BasicAttachment {
 		fxAttachmentNode = new Group();
 		renderedNodes = new ArrayList<IRenderElement>();
 		cache = new FXMeshCache();
+		topLevelRenders = new ArrayList<IRenderElement<Group>>();
+		culler = new FXFrustumCuller();
+		pickers = new IdentityHashMap<Geometry, FXPicker>();
 	}
 
 	/**
@@ -98,9 +140,91 @@ public class FXAttachment extends BasicAttachment {
 		return new FXRenderObject(node, cache);
 	}
 
+	/**
+	 * Handle an update from the attachment's contained modeling parts on the
+	 * JavaFX thread once the attachment is part of a scene. Notifications may
+	 * arrive on the SWT thread or on a notification dispatcher thread, while a
+	 * live scene graph may only be changed on the JavaFX thread, so updates
+	 * from other threads are passed to it in the order they arrive. All the
+	 * updates which arrive before the JavaFX thread gets to them are handled
+	 * together, so that a stream of changes, such as dragging a shape, only
+	 * rebuilds the scene once per pulse.
+	 * 
+	 * @param geom
+	 *            The geometry which contains the changed part
+	 * @param notification
+	 *            The notification of the change
+	 */
+	protected void handleUpdateLater(final Geometry geom,
+			final Notification notification) {
+		if (Platform.isFxApplicationThread()
+				|| fxAttachmentNode.getScene() == null) {
+
+			// Handle any earlier updates first
+			handlePendingUpdates();
+			handleUpdate(geom, notification);
+			return;
+		}
+
+		// Only the first waiting update needs to schedule a task
+		boolean schedule;
+		synchronized (pendingUpdates) {
+			schedule = pendingUpdates.isEmpty();
+			pendingUpdates.add(notification);
+			pendingUpdates.add(geom);
+		}
+		if (schedule) {
+			Platform.runLater(new Runnable() {
+				@Override
+				public void run() {
+					handlePendingUpdates();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Handle the updates waiting for the JavaFX thread. Notifications which
+	 * add or remove nodes are each handled in turn, while the others only
+	 * require the scene to be refreshed, so a run of them is handled once,
+	 * through its last notification.
+	 */
+	private void handlePendingUpdates() {
+		Object[] updates;
+		synchronized (pendingUpdates) {
+			if (pendingUpdates.isEmpty()) {
+				return;
+			}
+			updates = pendingUpdates.toArray();
+			pendingUpdates.clear();
+		}
+
+		// The last update which only requires a refresh, if the scene has not
+		// been refreshed since
+		Geometry refreshGeom = null;
+		Notification refreshNotification = null;
+		for (int i = 0; i < updates.length; i += 2) {
+			Notification notification = (Notification) updates[i];
+			Geometry geom = (Geometry) updates[i + 1];
+			if (notification == null
+					|| notification.getEventType() == Notification.ADD
+					|| notification.getEventType() == Notification.REMOVE) {
+				handleUpdate(geom, notification);
+				refreshGeom = null;
+			} else {
+				refreshGeom = geom;
+				refreshNotification = notification;
+			}
+		}
+		if (refreshGeom != null) {
+			handleUpdate(refreshGeom, refreshNotification);
+		}
+	}
+
 	/**
 	 * A function invoked when the attachment receives an update from its
-	 * contained modeling parts.
+	 * contained modeling parts. This must be called on the JavaFX thread if
+	 * the attachment is part of a scene.
 	 * 
 	 * @param source
 	 *            The controller which triggered the update
@@ -147,7 +271,7 @@ public class FXAttachment extends BasicAttachment {
 							@Override
 							public void notifyChanged(
 									Notification notification) {
-								handleUpdate(geom, notification);
+								handleUpdateLater(geom, notification);
 							}
 						});
 					}
@@ -217,7 +341,7 @@ public class FXAttachment extends BasicAttachment {
 					element.eAdapters().add(new AdapterImpl() {
 						@Override
 						public void notifyChanged(Notification notification) {
-							handleUpdate(geom, notification);
+							handleUpdateLater(geom, notification);
 						}
 					});
 				}
@@ -273,6 +397,103 @@ public class FXAttachment extends BasicAttachment {
 		for (IRenderElement<Group> render : topRenders) {
 			fxAttachmentNode.getChildren().add(render.getMesh());
 		}
+
+		// The renders may have been replaced or moved, so check them against
+		// the camera again on the next frame
+		topLevelRenders = topRenders;
+		culler.invalidate();
+	}
+
+	/**
+	 * Hide the top level renders which are outside of the view of the scene's
+	 * camera, and show the rest. This is called every frame while the
+	 * attachment is attached, but only does any work when the camera or the
+	 * renders have changed since the last time.
+	 * 
+	 * @return True if the renders were culled, false if nothing had changed
+	 *         or the attachment is not in a scene.
+	 */
+	public boolean cull() {
+		Scene scene = fxAttachmentNode.getScene();
+		if (scene == null) {
+			return false;
+		}
+		return culler.cull(scene.getCamera(), scene.getWidth(),
+				scene.getHeight(), topLevelRenders);
+	}
+
+	/**
+	 * Choose the level of detail of every render from its distance to the
+	 * scene's camera. Renders whose level changes are replaced, which
+	 * refreshes the attachment's node through their notifications.
+	 * 
+	 * @return True if any render's level of detail changed, false otherwise
+	 *         or if the attachment is not in a scene.
+	 */
+	public boolean updateDetailLevels() {
+		Scene scene = fxAttachmentNode.getScene();
+		if (scene == null) {
+			return false;
+		}
+
+		boolean changed = false;
+		for (IRenderElement<Group> render : renderedNodes) {
+			if (render instanceof FXRenderObject) {
+				changed |= ((FXRenderObject) render).updateDetailLevel(
+						scene.getCamera(), scene.getWidth(),
+						scene.getHeight());
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Find the node drawn under a point of the scene. The point is found by
+	 * casting a ray from the scene's camera through a bounding volume
+	 * hierarchy of each known part's triangles, so only the few triangles
+	 * near the ray are tested.
+	 * 
+	 * @param sceneX
+	 *            The x coordinate of the point in the scene
+	 * @param sceneY
+	 *            The y coordinate of the point in the scene
+	 * @return The node without children nearest to the camera under the
+	 *         point, or null if there is none, the attachment is not in a
+	 *         scene or the scene's camera is not supported by FXPicker.
+	 */
+	public org.eclipse.january.geometry.INode pick(double sceneX,
+			double sceneY) {
+		Scene scene = fxAttachmentNode.getScene();
+		if (scene == null || knownParts == null) {
+			return null;
+		}
+
+		// Find the nearest hit in any of the parts
+		Hit nearest = null;
+		for (Geometry geom : knownParts) {
+			FXPicker picker = pickers.get(geom);
+			if (picker == null) {
+				picker = new FXPicker(geom, fxAttachmentNode);
+				pickers.put(geom, picker);
+			}
+			Hit hit = picker.pick(scene.getCamera(), sceneX, sceneY,
+					scene.getWidth(), scene.getHeight());
+			if (hit != null && (nearest == null
+					|| hit.getDistance() < nearest.getDistance())) {
+				nearest = hit;
+			}
+		}
+		return nearest != null ? nearest.getNode() : null;
+	}
+
+	/**
+	 * Get the number of top level renders hidden by the last cull because they
+	 * were outside of the camera's view.
+	 * 
+	 * @return The number of culled renders
+	 */
+	public int getCulledCount() {
+		return culler.getCulledCount();
 	}
 
 	/**
@@ -345,6 +566,20 @@ public class FXAttachment extends BasicAttachment {
 
 		Group fxNode = Util.getFxGroup(owner);
 		fxNode.getChildren().add(fxAttachmentNode);
+
+		// Cull the renders against the camera each frame, and choose their
+		// levels of detail again whenever the camera or the renders change
+		if (cullTimer == null) {
+			cullTimer = new AnimationTimer() {
+				@Override
+				public void handle(long now) {
+					if (cull()) {
+						updateDetailLevels();
+					}
+				}
+			};
+		}
+		cullTimer.start();
 	}
 
 	/**
@@ -358,6 +593,11 @@ public class FXAttachment extends BasicAttachment {
 			fxNode.getChildren().remove(fxAttachmentNode);
 		}
 
+		// Stop culling while the renders are not in the scene
+		if (cullTimer != null) {
+			cullTimer.stop();
+		}
+
 		super.detach(owner);
 	}
 
@@ -400,19 +640,20 @@ public class FXAttachment extends BasicAttachment {
 
 		if (!knownPartControllers.contains(geom)) {
 
-			geom.register(new IManagedUpdateableListener() {
+			geom.register(new IDispatchedUpdateableListener() {
 				@Override
 				public void update(IManagedUpdateable component,
 						SubscriptionType[] type) {
 
-					javafx.application.Platform.runLater(new Runnable() {
-						@Override
-						public void run() {
+					// Invoke the update function. The dispatcher runs this on
+					// the FX thread, once for all the updates since the last
+					// pulse.
+					handleUpdate(geom);
+				}
 
-							// Invoke the update function
-							handleUpdate(geom);
-						}
-					});
+				@Override
+				public UpdateDispatcher getDispatcher() {
+					return Util.FX_DISPATCHER;
 				}
 
 				@Override
@@ -461,7 +702,7 @@ public class FXAttachment extends BasicAttachment {
 
 				@Override
 				public void notifyChanged(Notification notification) {
-					handleUpdate(geom, notification);
+					handleUpdateLater(geom, notification);
 				}
 			});
 
@@ -469,7 +710,7 @@ public class FXAttachment extends BasicAttachment {
 			knownParts.add(geom);
 
 			// Have the geometry refreshed when it is added
-			handleUpdate(geom, null);
+			handleUpdateLater(geom, null);
 
 		}
 	}
@@ -570,5 +811,11 @@ public class FXAttachment extends BasicAttachment {
 
 		// Remove the part from the list of seen parts
 		knownParts.remove(geom);
+
+		// Stop its picker listening to it
+		FXPicker picker = pickers.remove(geom);
+		if (picker != null) {
+			picker.dispose();
+		}
 	}
 }
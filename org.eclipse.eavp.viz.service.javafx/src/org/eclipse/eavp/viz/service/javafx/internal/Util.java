@@ -10,9 +10,13 @@
  *******************************************************************************/
 package org.eclipse.eavp.viz.service.javafx.internal;
 
+import java.util.concurrent.Executor;
+
+import org.eclipse.eavp.viz.datastructures.VizObject.UpdateDispatcher;
 import org.eclipse.eavp.viz.modeling.base.Transformation;
 import org.eclipse.eavp.viz.service.javafx.scene.model.INode;
 
+import javafx.application.Platform;
 import javafx.geometry.Point3D;
 import javafx.scene.Group;
 import javafx.scene.paint.Color;
@@ -50,6 +54,18 @@ public class Util {
 	/** */
 	public static final String SHAPE_PROP_KEY = "shape"; //$NON-NLS-1$
 
+	/**
+	 * Dispatcher for updates handled on the FX thread, which posts at most one
+	 * runLater() per pulse however many updates arrive.
+	 */
+	public static final UpdateDispatcher FX_DISPATCHER = new UpdateDispatcher(
+			new Executor() {
+				@Override
+				public void execute(Runnable command) {
+					Platform.runLater(command);
+				}
+			});
+
 	/**
 	 * <p>
 	 * Converts an ICE Geometry Transformation data structure to a JavaFX
@@ -138,13 +138,23 @@ public class NekPolygonTester {
 
 		/* ---- Make sure we cannot modify the Edge/Vertex Lists. ---- */
 		// Try to remove an edge.
-		polygon.getEntitiesFromCategory(MeshCategory.EDGES).remove(0);
+		try {
+			polygon.getEntitiesFromCategory(MeshCategory.EDGES).remove(0);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
 		polygonEdges = polygon.getEntitiesFromCategory(MeshCategory.EDGES);
 		assertEquals(size, polygonEdges.size());
 		assertEquals(edges, polygonEdges);
 
 		// Try to remove a vertex.
-		polygon.getEntitiesFromCategory(MeshCategory.VERTICES).clear();
+		try {
+			polygon.getEntitiesFromCategory(MeshCategory.VERTICES).clear();
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
 		assertEquals(size, polygonVertices.size());
 		assertEquals(vertices, polygonVertices);
 		/* ----------------------------------------------------------- */
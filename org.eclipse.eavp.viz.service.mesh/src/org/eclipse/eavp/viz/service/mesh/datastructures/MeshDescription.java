@@ -12,6 +12,7 @@ package org.eclipse.eavp.viz.service.mesh.datastructures;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -193,8 +194,8 @@ public class MeshDescription implements IMeshDescription {
 		// Populate the vertices array with the vertices' IDs
 		vertices = new int[numVertices];
 		for (int i = 0; i < numVertices; i++) {
-			vertices[i] = Integer
-					.parseInt(tempVertices.get(i).getProperty(MeshProperty.ID));
+			vertices[i] = tempVertices.get(i)
+					.getIntProperty(MeshProperty.ID);
 
 			// Keep track of the largest ID
 			if (vertices[i] > maxVertex) {
@@ -218,14 +219,14 @@ public class MeshDescription implements IMeshDescription {
 		for (int i = 0; i < tempEdges.size(); i++) {
 
 			// Get the edge's vertices
-			ArrayList<IController> edgeVertices = tempEdges.get(i)
+			List<IController> edgeVertices = tempEdges.get(i)
 					.getEntitiesFromCategory(MeshCategory.VERTICES);
 
 			// Get the endpoints' IDs
-			int endpoint1 = Integer
-					.parseInt(edgeVertices.get(0).getProperty(MeshProperty.ID));
-			int endpoint2 = Integer
-					.parseInt(edgeVertices.get(1).getProperty(MeshProperty.ID));
+			int endpoint1 = edgeVertices.get(0)
+					.getIntProperty(MeshProperty.ID);
+			int endpoint2 = edgeVertices.get(1)
+					.getIntProperty(MeshProperty.ID);
 			
 			//Sort the endpoints
 			if(endpoint2 < endpoint1){
@@ -238,9 +239,7 @@ public class MeshDescription implements IMeshDescription {
 			edges[edgeIndex] = endpoint1 * maxVertex + endpoint2;
 
 			// Put the new ID in the map
-			edgeIDMap.put(
-					Integer.valueOf(
-							tempEdges.get(i).getProperty(MeshProperty.ID)),
+			edgeIDMap.put(tempEdges.get(i).getIntProperty(MeshProperty.ID),
 					edges[edgeIndex]);
 			edgeIndex++;
 		}
@@ -268,8 +267,7 @@ public class MeshDescription implements IMeshDescription {
 		for (NekPolygonController face : tempFaces) {
 
 			// Record the face's global id
-			faces[faceIndex] = Integer
-					.parseInt(face.getProperty(MeshProperty.ID));
+			faces[faceIndex] = face.getIntProperty(MeshProperty.ID);
 			faceIndex++;
 
 			// For each edge in the face, add its id to the array
@@ -277,8 +275,8 @@ public class MeshDescription implements IMeshDescription {
 					.getEntitiesFromCategory(MeshCategory.EDGES)) {
 
 				// Use the map to convert from the edge's old ID to its new id
-				faces[faceIndex] = edgeIDMap.get(
-						Integer.parseInt(edge.getProperty(MeshProperty.ID)));
+				faces[faceIndex] = edgeIDMap
+						.get(edge.getIntProperty(MeshProperty.ID));
 				faceIndex++;
 			}
 
@@ -561,7 +559,7 @@ public class MeshDescription implements IMeshDescription {
 
 			// Create a vertex with the given id
 			Vertex mesh = new Vertex();
-			mesh.setProperty(MeshProperty.ID, Integer.toString(vertices[i]));
+			mesh.setIntProperty(MeshProperty.ID, vertices[i]);
 			VertexController vertex = vertexProvider.createController(mesh);
 
 			// Set the vertex's name
@@ -587,7 +585,7 @@ public class MeshDescription implements IMeshDescription {
 
 			// Create a new edge with the correct ID
 			DetailedEdge mesh = new DetailedEdge();
-			mesh.setProperty(MeshProperty.ID, Integer.toString(edges[i]));
+			mesh.setIntProperty(MeshProperty.ID, edges[i]);
 			IController edge = edgeProvider.createController(mesh);
 
 			// Set the edge's name
@@ -609,8 +607,7 @@ public class MeshDescription implements IMeshDescription {
 			for (IController vertex : tempVertices) {
 
 				// Get the vertex's id
-				int vertexID = Integer
-						.parseInt(vertex.getProperty(MeshProperty.ID));
+				int vertexID = vertex.getIntProperty(MeshProperty.ID);
 
 				// If it matches either endpoint, add it to the edge
 				if (vertexID == endpoint1 || vertexID == endpoint2) {
@@ -674,7 +671,7 @@ public class MeshDescription implements IMeshDescription {
 
 				// Create a mesh with the given ID
 				NekPolygon mesh = new NekPolygon();
-				mesh.setProperty(MeshProperty.ID, Integer.toString(faces[i]));
+				mesh.setIntProperty(MeshProperty.ID, faces[i]);
 				face = faceProvider.createController(mesh);
 
 				// Add the face as a child entity to the root
@@ -689,8 +686,7 @@ public class MeshDescription implements IMeshDescription {
 
 				// Search for the edge with the given ID and add it to the face
 				for (IController edge : tempEdges) {
-					if (id == Integer
-							.parseInt(edge.getProperty(MeshProperty.ID))) {
+					if (id == edge.getIntProperty(MeshProperty.ID)) {
 						face.addEntityToCategory(edge, MeshCategory.EDGES);
 					}
 				}
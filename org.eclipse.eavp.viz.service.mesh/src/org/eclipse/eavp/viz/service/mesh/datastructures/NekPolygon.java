@@ -10,7 +10,6 @@
  *******************************************************************************/
 package org.eclipse.eavp.viz.service.mesh.datastructures;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -428,7 +427,7 @@ public class NekPolygon extends DetailedFace
 		if (Arrays.asList(type).contains(SubscriptionType.PROPERTY)) {
 
 			// Edges Get the edges and check if the update came from any of them
-			ArrayList<EdgeController> edges = getEntitiesFromCategory(
+			List<EdgeController> edges = getEntitiesFromCategory(
 					MeshCategory.EDGES, EdgeController.class);
 			if (edges.contains(component)) {
 
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.tests;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.january.geometry.util.BinarySTLReader;
+
+import junit.framework.TestCase;
+
+/**
+ * A class to test the functionality of the BinarySTLReader.
+ *
+ * @author Robert Smith
+ *
+ */
+public class BinarySTLReaderTest extends TestCase {
+
+	/**
+	 * Check that the example binary file is read into an indexed mesh.
+	 *
+	 * @throws IOException
+	 */
+	public void testRead() throws IOException {
+
+		Path binarySTL = FileSystems.getDefault().getPath("src", "geometry",
+				"tests", "files", "binaryExample.stl");
+
+		BinarySTLReader reader = new BinarySTLReader();
+		reader.read(binarySTL, null);
+
+		// The file is a cube, which has 12 triangles sharing 8 vertices
+		assertEquals(12, reader.getTriangleCount());
+		assertEquals(36, reader.getIndices().length);
+		assertEquals(36, reader.getNormals().length);
+		assertEquals(24, reader.getVertices().length);
+		assertEquals(28, reader.getWeldedCount());
+
+		// Check the first triangle
+		float[] vertices = reader.getVertices();
+		int[] indices = reader.getIndices();
+		assertEquals(1f, reader.getNormals()[2], 0f);
+		assertEquals(5f, vertices[indices[0] * 3], 0f);
+		assertEquals(5f, vertices[indices[0] * 3 + 1], 0f);
+		assertEquals(5f, vertices[indices[0] * 3 + 2], 0f);
+		assertEquals(-5f, vertices[indices[1] * 3], 0f);
+	}
+
+	/**
+	 * Check that binary and ASCII files are told apart.
+	 *
+	 * @throws IOException
+	 */
+	public void testIsBinary() throws IOException {
+
+		Path asciiSTL = FileSystems.getDefault().getPath("src", "geometry",
+				"tests", "files", "cube.stl");
+		Path binarySTL = FileSystems.getDefault().getPath("src", "geometry",
+				"tests", "files", "binaryExample.stl");
+		assertFalse(BinarySTLReader.isBinary(asciiSTL));
+		assertTrue(BinarySTLReader.isBinary(binarySTL));
+
+		// A binary file whose header starts like an ASCII file should be
+		// recognized by its size
+		ByteBuffer buffer = ByteBuffer
+				.allocate(BinarySTLReader.HEADER_SIZE
+						+ 2 * BinarySTLReader.TRIANGLE_SIZE)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.put("solid part".getBytes());
+		buffer.putInt(BinarySTLReader.HEADER_SIZE - 4, 2);
+		Path file = Files.createTempFile("solid", ".stl");
+
+		try {
+			Files.write(file, buffer.array());
+			assertTrue(BinarySTLReader.isBinary(file));
+
+			// A short file is never binary
+			Files.write(file, "solid empty\nendsolid empty\n".getBytes());
+			assertFalse(BinarySTLReader.isBinary(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/**
+	 * Check that reading stops when the monitor is cancelled.
+	 *
+	 * @throws IOException
+	 */
+	public void testCancel() throws IOException {
+
+		// Write a file with enough triangles to check for cancellation
+		int count = 100000;
+		ByteBuffer buffer = ByteBuffer
+				.allocate(BinarySTLReader.HEADER_SIZE
+						+ count * BinarySTLReader.TRIANGLE_SIZE)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(BinarySTLReader.HEADER_SIZE - 4, count);
+		Path file = Files.createTempFile("cancel", ".stl");
+
+		try {
+			Files.write(file, buffer.array());
+
+			// A monitor which is always cancelled
+			NullProgressMonitor monitor = new NullProgressMonitor();
+			monitor.setCanceled(true);
+
+			try {
+				new BinarySTLReader().read(file, monitor);
+				fail();
+			} catch (OperationCanceledException e) {
+				// Expected
+			}
+
+			// Without cancellation, every triangle should be read and welded
+			// into a single vertex
+			BinarySTLReader reader = new BinarySTLReader();
+			reader.read(file, null);
+			assertEquals(count, reader.getTriangleCount());
+			assertEquals(3, reader.getVertices().length);
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
@@ -0,0 +1,427 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.tests;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.notify.impl.NotificationImpl;
+import org.eclipse.january.geometry.BoundingBox;
+import org.eclipse.january.geometry.Cube;
+import org.eclipse.january.geometry.Geometry;
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.INode;
+import org.eclipse.january.geometry.Sphere;
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.BackgroundAdapter;
+import org.eclipse.january.geometry.util.BoundingVolumeHierarchy;
+import org.eclipse.january.geometry.util.BoundingVolumeHierarchy.Hit;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
+
+import junit.framework.TestCase;
+
+/**
+ * A class to test the functionality of the BoundingVolumeHierarchy.
+ *
+ * @author Robert Smith
+ *
+ */
+public class BoundingVolumeHierarchyTest extends TestCase {
+
+	/**
+	 * The geometry being searched.
+	 */
+	private Geometry geometry;
+
+	/**
+	 * A sphere of radius 1 at (5, 0, 0).
+	 */
+	private Sphere sphere;
+
+	/**
+	 * A cube of side 2 at the origin, inside a union at (0, 5, 0).
+	 */
+	private Cube cube;
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	@Override
+	protected void setUp() throws Exception {
+		NotificationDispatcher.setSynchronous(true);
+
+		geometry = GeometryFactory.eINSTANCE.createGeometry();
+
+		sphere = GeometryFactory.eINSTANCE.createSphere();
+		sphere.setRadius(1);
+		sphere.getCenter().setX(5);
+		geometry.addNode(sphere);
+
+		cube = GeometryFactory.eINSTANCE.createCube();
+		cube.setSideLength(2);
+		INode union = GeometryFactory.eINSTANCE.createUnion();
+		union.getCenter().setY(5);
+		union.addNode(cube);
+		geometry.addNode(union);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	@Override
+	protected void tearDown() throws Exception {
+		NotificationDispatcher.setSynchronous(false);
+	}
+
+	/**
+	 * Check that rays hit the nearest triangle of the right node.
+	 */
+	public void testCastRay() {
+
+		BoundingVolumeHierarchy hierarchy = new BoundingVolumeHierarchy(
+				geometry);
+		assertEquals(sphere.getTriangles().size()
+				+ cube.getTriangles().size(), hierarchy.getTriangleCount());
+
+		// A ray along the x axis should hit the near side of the sphere
+		Hit hit = hierarchy.castRay(0, 0, 0, 1, 0, 0);
+		assertSame(sphere, hit.getNode());
+		assertEquals(4, hit.getDistance(), 0.05);
+		assertEquals(4, hit.getPoint()[0], 0.05);
+		assertTrue(sphere.getTriangles().contains(hit.getTriangle()));
+
+		// A ray down from above should hit the top of the cube in the union
+		hit = hierarchy.castRay(0.1, 10, 0.1, 0, -1, 0);
+		assertSame(cube, hit.getNode());
+		assertEquals(4, hit.getDistance(), 1e-6);
+
+		// Rays which pass between the shapes or point away miss
+		assertNull(hierarchy.castRay(0, -10, 0, 0, -1, 0));
+		assertNull(hierarchy.castRay(2.5, 2.5, -10, 0, 0, 1));
+
+		// Random rays should agree with testing every triangle
+		Random random = new Random(42);
+		for (int i = 0; i < 200; i++) {
+			double[] origin = { random.nextDouble() * 20 - 10,
+					random.nextDouble() * 20 - 10,
+					random.nextDouble() * 20 - 10 };
+			double[] direction = { 2.5 - origin[0], 2.5 - origin[1],
+					-origin[2] };
+			direction[0] += random.nextDouble() * 6 - 3;
+			direction[1] += random.nextDouble() * 6 - 3;
+			hit = hierarchy.castRay(origin[0], origin[1], origin[2],
+					direction[0], direction[1], direction[2]);
+			double expected = castRayAtEveryTriangle(origin, direction);
+			if (Double.isInfinite(expected)) {
+				assertNull(hit);
+			} else {
+				assertEquals(expected, hit.getDistance(), 1e-4);
+			}
+		}
+	}
+
+	/**
+	 * Check that the nearest triangle to a point is found.
+	 */
+	public void testGetNearestTriangle() {
+
+		BoundingVolumeHierarchy hierarchy = new BoundingVolumeHierarchy(
+				geometry);
+
+		// A point just outside the cube's side should be nearest the cube
+		Hit hit = hierarchy.getNearestTriangle(1.5, 5, 0);
+		assertSame(cube, hit.getNode());
+		assertEquals(0.5, hit.getDistance(), 1e-6);
+		assertEquals(1, hit.getPoint()[0], 1e-6);
+
+		// A point at the sphere's center should be about its radius away
+		hit = hierarchy.getNearestTriangle(5, 0, 0);
+		assertSame(sphere, hit.getNode());
+		assertEquals(1, hit.getDistance(), 0.05);
+	}
+
+	/**
+	 * Check that the nodes in a box are found.
+	 */
+	public void testGetNodesInBox() {
+
+		BoundingVolumeHierarchy hierarchy = new BoundingVolumeHierarchy(
+				geometry);
+
+		BoundingBox box = GeometryFactory.eINSTANCE.createBoundingBox();
+		box.setMinX(-10);
+		box.setMinY(-10);
+		box.setMinZ(-10);
+		box.setMaxX(10);
+		box.setMaxY(10);
+		box.setMaxZ(10);
+		assertEquals(2, hierarchy.getNodesInBox(box).size());
+
+		// A box around only the sphere
+		box.setMinX(3);
+		List<INode> nodes = hierarchy.getNodesInBox(box);
+		assertEquals(1, nodes.size());
+		assertSame(sphere, nodes.get(0));
+
+		// A box between the shapes
+		box.setMinX(2);
+		box.setMaxX(3);
+		assertTrue(hierarchy.getNodesInBox(box).isEmpty());
+
+		// The box around everything should contain both shapes
+		BoundingBox bounds = hierarchy.getBounds();
+		assertEquals(-1, bounds.getMinX(), 1e-6);
+		assertEquals(6, bounds.getMaxX(), 1e-6);
+		assertEquals(6, bounds.getMaxY(), 1e-6);
+	}
+
+	/**
+	 * Check that the hierarchy follows changes to the nodes.
+	 */
+	public void testChanges() {
+
+		BoundingVolumeHierarchy hierarchy = new BoundingVolumeHierarchy(
+				geometry);
+		assertSame(sphere, hierarchy.castRay(0, 0, 0, 1, 0, 0).getNode());
+
+		// Moving the sphere should move its triangles
+		sphere.getCenter().setX(8);
+		assertEquals(7, hierarchy.castRay(0, 0, 0, 1, 0, 0).getDistance(),
+				0.05);
+
+		// Moving the union should move the cube inside it
+		geometry.getNodes().get(1).getCenter().setY(0);
+		Hit hit = hierarchy.castRay(-10, 0, 0.1, 1, 0, 0);
+		assertSame(cube, hit.getNode());
+		assertEquals(9, hit.getDistance(), 1e-6);
+
+		// Resizing the sphere changes its triangles' positions
+		sphere.setRadius(2);
+		assertEquals(2, hierarchy.getNearestTriangle(8, 0, 0).getDistance(),
+				0.1);
+
+		// Adding a node should add its triangles
+		Cube other = GeometryFactory.eINSTANCE.createCube();
+		other.setSideLength(2);
+		other.getCenter().setZ(-5);
+		int count = hierarchy.getTriangleCount();
+		geometry.addNode(other);
+		assertEquals(count + other.getTriangles().size(),
+				hierarchy.getTriangleCount());
+		assertSame(other, hierarchy.castRay(0, 0, -10, 0, 0, 1).getNode());
+
+		// Removing it should remove them again
+		geometry.removeNode(other);
+		assertEquals(count, hierarchy.getTriangleCount());
+
+		// Once disposed, changes should not be followed
+		hierarchy.dispose();
+		sphere.getCenter().setX(5);
+		assertEquals(4, hierarchy.castRay(2, 0, 0, 1, 0, 0).getDistance(),
+				0.05);
+	}
+
+	/**
+	 * Check that the hierarchy and the nodes' bounds see changes as soon as
+	 * they are made, even while the notification dispatcher is holding
+	 * notifications for its background adapters.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void testChangesWhileDispatching() throws InterruptedException {
+
+		BoundingVolumeHierarchy hierarchy = new BoundingVolumeHierarchy(
+				geometry);
+		assertEquals(4, hierarchy.castRay(0, 0, 0, 1, 0, 0).getDistance(),
+				0.05);
+		assertEquals(6, sphere.getBounds().getMaxX(), 1e-6);
+
+		// Hold up the dispatcher's lane, so that notifications sent from any
+		// thread are queued for background adapters
+		NotificationDispatcher.setSynchronous(false);
+		CountDownLatch release = new CountDownLatch(1);
+		NotificationDispatcher.post(new Adapter[] { new Blocker(release) },
+				new NotificationImpl(Notification.SET, 0d, 1d));
+		try {
+
+			// Moving the sphere should be seen straight away
+			sphere.getCenter().setX(8);
+			assertEquals(7,
+					hierarchy.castRay(0, 0, 0, 1, 0, 0).getDistance(), 0.05);
+			assertEquals(9, sphere.getBounds().getMaxX(), 1e-6);
+		} finally {
+			release.countDown();
+		}
+		assertTrue(NotificationDispatcher.awaitIdle(10, TimeUnit.SECONDS));
+		hierarchy.dispose();
+	}
+
+	/**
+	 * Find the nearest triangle hit by a ray by testing every triangle.
+	 *
+	 * @param origin
+	 *            The ray's origin
+	 * @param direction
+	 *            The ray's direction
+	 * @return The distance to the nearest hit, or infinity if there is none
+	 */
+	private double castRayAtEveryTriangle(double[] origin,
+			double[] direction) {
+		double nearest = Double.POSITIVE_INFINITY;
+		for (Triangle triangle : sphere.getTriangles()) {
+			nearest = Math.min(nearest,
+					castRayAtTriangle(origin, direction, triangle, 5, 0));
+		}
+		for (Triangle triangle : cube.getTriangles()) {
+			nearest = Math.min(nearest,
+					castRayAtTriangle(origin, direction, triangle, 0, 5));
+		}
+		return nearest;
+	}
+
+	/**
+	 * Find where a ray hits a triangle, by finding where it crosses the
+	 * triangle's plane and checking that the point is on the triangle.
+	 *
+	 * @param origin
+	 *            The ray's origin
+	 * @param direction
+	 *            The ray's direction
+	 * @param triangle
+	 *            The triangle
+	 * @param offsetX
+	 *            The x offset of the triangle's node
+	 * @param offsetY
+	 *            The y offset of the triangle's node
+	 * @return The distance to the hit, or infinity if there is none
+	 */
+	private double castRayAtTriangle(double[] origin, double[] direction,
+			Triangle triangle, double offsetX, double offsetY) {
+
+		double[][] points = new double[3][];
+		for (int i = 0; i < 3; i++) {
+			Vertex vertex = triangle.getVertices().get(i);
+			points[i] = new double[] { vertex.getX() + offsetX,
+					vertex.getY() + offsetY, vertex.getZ() };
+		}
+		double[] normal = cross(subtract(points[1], points[0]),
+				subtract(points[2], points[0]));
+		double denominator = dot(normal, direction);
+		if (denominator == 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double distance = dot(normal, subtract(points[0], origin))
+				/ denominator;
+		if (distance < 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double[] point = { origin[0] + direction[0] * distance,
+				origin[1] + direction[1] * distance,
+				origin[2] + direction[2] * distance };
+
+		// The point is inside if it is on the same side of every edge
+		for (int i = 0; i < 3; i++) {
+			double[] edge = subtract(points[(i + 1) % 3], points[i]);
+			if (dot(cross(edge, subtract(point, points[i])), normal) < 0) {
+				return Double.POSITIVE_INFINITY;
+			}
+		}
+		return distance;
+	}
+
+	/**
+	 * Get the cross product of two vectors.
+	 *
+	 * @param a
+	 *            The first vector
+	 * @param b
+	 *            The second vector
+	 * @return a x b
+	 */
+	private static double[] cross(double[] a, double[] b) {
+		return new double[] { a[1] * b[2] - a[2] * b[1],
+				a[2] * b[0] - a[0] * b[2], a[0] * b[1] - a[1] * b[0] };
+	}
+
+	/**
+	 * Get the dot product of two vectors.
+	 *
+	 * @param a
+	 *            The first vector
+	 * @param b
+	 *            The second vector
+	 * @return a . b
+	 */
+	private static double dot(double[] a, double[] b) {
+		return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+	}
+
+	/**
+	 * Subtract one vector from another.
+	 *
+	 * @param a
+	 *            The first vector
+	 * @param b
+	 *            The second vector
+	 * @return a - b
+	 */
+	private static double[] subtract(double[] a, double[] b) {
+		return new double[] { a[0] - b[0], a[1] - b[1], a[2] - b[2] };
+	}
+
+	/**
+	 * A background adapter which waits to be released before returning.
+	 */
+	private static class Blocker extends AdapterImpl
+			implements BackgroundAdapter {
+
+		/**
+		 * The latch to wait for.
+		 */
+		private final CountDownLatch release;
+
+		/**
+		 * The default constructor.
+		 *
+		 * @param release
+		 *            The latch to wait for
+		 */
+		Blocker(CountDownLatch release) {
+			this.release = release;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see
+		 * org.eclipse.emf.common.notify.impl.AdapterImpl#notifyChanged(org.
+		 * eclipse.emf.common.notify.Notification)
+		 */
+		@Override
+		public void notifyChanged(Notification notification) {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
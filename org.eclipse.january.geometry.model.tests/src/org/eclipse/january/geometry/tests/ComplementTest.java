@@ -12,8 +12,12 @@
  */
 package org.eclipse.january.geometry.tests;
 
+import org.eclipse.emf.common.util.EList;
 import org.eclipse.january.geometry.Complement;
+import org.eclipse.january.geometry.Cube;
 import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
 import org.junit.Test;
 
 import junit.textui.TestRunner;
@@ -86,4 +90,42 @@ public class ComplementTest extends OperatorTest {
 		assertTrue(fixture.clone() instanceof Complement);
 	}
 
+	/**
+	 * Check that the difference of the operator's children is calculated and
+	 * cached until one of them changes.
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	public void testGetResultTriangles() {
+
+		NotificationDispatcher.setSynchronous(true);
+		try {
+			// The second cube cuts a cube of side 1 from the first
+			Cube first = createCube(0, 0, 0);
+			Cube second = createCube(1, 1, 1);
+			fixture.addNode(first);
+			fixture.addNode(second);
+			EList<Triangle> result = fixture.getResultTriangles();
+			assertEquals(7, MeshBooleanTest.getVolume(result), 1e-9);
+			assertSame(result, fixture.getResultTriangles());
+
+			// A cube cut from the middle of a larger one leaves a hollow
+			first.setSideLength(6);
+			second.getCenter().setX(0);
+			second.getCenter().setY(0);
+			second.getCenter().setZ(0);
+			assertEquals(208,
+					MeshBooleanTest.getVolume(fixture.getResultTriangles()),
+					1e-9);
+
+			// Subtracting from the smaller cube removes it entirely
+			fixture.removeNode(first);
+			fixture.addNode(first);
+			assertTrue(fixture.getResultTriangles().isEmpty());
+		} finally {
+			NotificationDispatcher.setSynchronous(false);
+		}
+	}
+
 } // ComplementTest
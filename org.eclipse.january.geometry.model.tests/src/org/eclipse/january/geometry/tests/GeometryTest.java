@@ -19,13 +19,22 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.january.geometry.BoundingBox;
+import org.eclipse.january.geometry.Cube;
 import org.eclipse.january.geometry.Geometry;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.GeometryPackage;
+import org.eclipse.january.geometry.INode;
 import org.eclipse.january.geometry.Operator;
 import org.eclipse.january.geometry.Shape;
+import org.eclipse.january.geometry.Sphere;
+import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Vertex;
 import org.eclipse.january.geometry.impl.GeometryImpl;
+import org.eclipse.january.geometry.impl.ShapeImpl;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
+import org.eclipse.january.geometry.util.TriangleMesh;
 
 import junit.framework.TestCase;
 import junit.textui.TestRunner;
@@ -459,4 +468,117 @@ public class GeometryTest extends TestCase {
 		assertNotEquals(fixture.hashCode(), unequalGeometry.hashCode());
 	}
 
+	/**
+	 * Check that the geometry's bounds are merged from its descendants', and
+	 * that only the nodes which changed are read again.
+	 * 
+	 * @generated NOT
+	 */
+	public void testGetBounds() {
+		NotificationDispatcher.setSynchronous(true);
+		try {
+
+			// An empty geometry has no bounds
+			assertNull(fixture.getBounds());
+
+			// A shape which counts how many times its triangles are read
+			final int[] reads = new int[1];
+			Shape counted = new ShapeImpl() {
+				@Override
+				public EList<Triangle> getTriangles() {
+					reads[0]++;
+					return super.getTriangles();
+				}
+			};
+			TriangleMesh mesh = new TriangleMesh();
+			mesh.addVertex(0, 0, 0);
+			mesh.addVertex(1, 1, 1);
+			mesh.addVertex(0, 1, 0);
+			mesh.addTriangle(0, 1, 2);
+			counted.setMesh(mesh);
+			counted.getCenter().setX(-10);
+			fixture.addNode(counted);
+
+			// A cube and a sphere in a union, which is moved up
+			Cube cube = GeometryFactory.eINSTANCE.createCube();
+			cube.setSideLength(2);
+			Sphere sphere = GeometryFactory.eINSTANCE.createSphere();
+			sphere.setRadius(1);
+			sphere.getCenter().setX(5);
+			INode union = GeometryFactory.eINSTANCE.createUnion();
+			union.getCenter().setY(5);
+			union.addNode(cube);
+			union.addNode(sphere);
+			fixture.addNode(union);
+
+			assertBounds(fixture.getBounds(), -10, 0, -1, 6, 6, 1);
+			assertBounds(union.getBounds(), -1, 4, -1, 6, 6, 1);
+			int count = reads[0];
+
+			// Asking again should use the cached bounds
+			assertBounds(fixture.getBounds(), -10, 0, -1, 6, 6, 1);
+			assertEquals(count, reads[0]);
+
+			// Changes deep in the tree should reach the geometry, without
+			// reading the unchanged shape again
+			sphere.setRadius(2);
+			assertBounds(fixture.getBounds(), -10, 0, -2, 7, 7, 2);
+			sphere.getCenter().setX(10);
+			assertBounds(fixture.getBounds(), -10, 0, -2, 12, 7, 2);
+			union.getCenter().setY(-5);
+			assertBounds(fixture.getBounds(), -10, -7, -2, 12, 1, 2);
+			assertEquals(count, reads[0]);
+
+			// Moving the geometry's own center should move its bounds
+			fixture.getCenter().setZ(1);
+			assertBounds(fixture.getBounds(), -10, -7, -1, 12, 1, 3);
+			fixture.getCenter().setZ(0);
+
+			// Changes to the counted shape should read it again
+			counted.getCenter().setX(-20);
+			assertBounds(fixture.getBounds(), -20, -7, -2, 12, 1, 2);
+			assertEquals(count + 1, reads[0]);
+
+			// Removing nodes should shrink the bounds
+			fixture.removeNode(union);
+			assertBounds(fixture.getBounds(), -20, 0, 0, -19, 1, 1);
+			union.removeNode(sphere);
+			assertBounds(union.getBounds(), -1, -6, -1, 1, -4, 1);
+
+		} finally {
+			NotificationDispatcher.setSynchronous(false);
+		}
+	}
+
+	/**
+	 * Check that a box has the expected extents, allowing for the sphere's
+	 * surface being approximated by triangles.
+	 * 
+	 * @param box
+	 *            The box to check
+	 * @param minX
+	 *            The expected minimum x coordinate
+	 * @param minY
+	 *            The expected minimum y coordinate
+	 * @param minZ
+	 *            The expected minimum z coordinate
+	 * @param maxX
+	 *            The expected maximum x coordinate
+	 * @param maxY
+	 *            The expected maximum y coordinate
+	 * @param maxZ
+	 *            The expected maximum z coordinate
+	 * @generated NOT
+	 */
+	private void assertBounds(BoundingBox box, double minX, double minY,
+			double minZ, double maxX, double maxY, double maxZ) {
+		assertEquals(minX, box.getMinX(), 0.01);
+		assertEquals(minY, box.getMinY(), 0.01);
+		assertEquals(minZ, box.getMinZ(), 0.01);
+		assertEquals(maxX, box.getMaxX(), 0.01);
+		assertEquals(maxY, box.getMaxY(), 0.01);
+		assertEquals(maxZ, box.getMaxZ(), 0.01);
+	}
+
+
 } // GeometryTest
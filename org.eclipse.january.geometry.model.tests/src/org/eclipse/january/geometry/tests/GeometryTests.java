@@ -59,6 +59,15 @@ public class GeometryTests extends TestSuite {
 		suite.addTestSuite(HeatExchangerTest.class);
 		suite.addTestSuite(ReactorTest.class);
 		suite.addTestSuite(PolyShapeTest.class);
+		suite.addTestSuite(VertexWelderTest.class);
+		suite.addTestSuite(BinarySTLReaderTest.class);
+		suite.addTestSuite(XtextImporterRuntimeTest.class);
+		suite.addTestSuite(TriangleMeshTest.class);
+		suite.addTestSuite(NotificationDispatcherTest.class);
+		suite.addTestSuite(ShapeInstanceTest.class);
+		suite.addTestSuite(PointTransformTest.class);
+		suite.addTestSuite(BoundingVolumeHierarchyTest.class);
+		suite.addTestSuite(MeshBooleanTest.class);
 		return suite;
 	}
 
@@ -12,8 +12,12 @@
  */
 package org.eclipse.january.geometry.tests;
 
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.january.geometry.Cube;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.Intersection;
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
 import org.junit.Test;
 
 import junit.textui.TestRunner;
@@ -86,4 +90,38 @@ public class IntersectionTest extends OperatorTest {
 		assertTrue(fixture.clone() instanceof Intersection);
 	}
 
+	/**
+	 * Check that the intersection of the operator's children is calculated and
+	 * cached until one of them changes.
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	public void testGetResultTriangles() {
+
+		NotificationDispatcher.setSynchronous(true);
+		try {
+			// The cubes overlap in a cube of side 1
+			Cube first = createCube(0, 0, 0);
+			Cube second = createCube(1, 1, 1);
+			fixture.addNode(first);
+			fixture.addNode(second);
+			EList<Triangle> result = fixture.getResultTriangles();
+			assertEquals(1, MeshBooleanTest.getVolume(result), 1e-9);
+			assertSame(result, fixture.getResultTriangles());
+
+			// Cubes which do not touch have nothing in common
+			second.getCenter().setX(5);
+			assertTrue(fixture.getResultTriangles().isEmpty());
+
+			// A lone child is its own intersection
+			fixture.removeNode(second);
+			assertEquals(8,
+					MeshBooleanTest.getVolume(fixture.getResultTriangles()),
+					1e-9);
+		} finally {
+			NotificationDispatcher.setSynchronous(false);
+		}
+	}
+
 } // IntersectionTest
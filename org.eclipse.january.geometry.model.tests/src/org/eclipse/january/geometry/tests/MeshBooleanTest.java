@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.tests;
+
+import java.util.List;
+
+import org.eclipse.january.geometry.Cube;
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.INode;
+import org.eclipse.january.geometry.Sphere;
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.MeshBoolean;
+import org.eclipse.january.geometry.util.TriangleMesh;
+
+import junit.framework.TestCase;
+
+/**
+ * A class to test the functionality of the MeshBoolean.
+ *
+ * @author Robert Smith
+ *
+ */
+public class MeshBooleanTest extends TestCase {
+
+	/**
+	 * Check the operations on overlapping cubes, whose results are boxes.
+	 */
+	public void testCubes() {
+
+		// Two cubes of side 2 overlapping in a cube of side 1
+		double[] first = getSolid(createCube(2), 0, 0, 0);
+		double[] second = getSolid(createCube(2), 1, 1, 1);
+		assertEquals(8, getVolume(first), 1e-9);
+
+		assertEquals(15, getVolume(MeshBoolean.union(first, second)), 1e-9);
+		assertEquals(1, getVolume(MeshBoolean.intersection(first, second)),
+				1e-9);
+		assertEquals(7, getVolume(MeshBoolean.difference(first, second)),
+				1e-9);
+		assertEquals(7, getVolume(MeshBoolean.difference(second, first)),
+				1e-9);
+
+		// The results should be closed, so moving them should not change
+		// their volumes
+		double[] union = MeshBoolean.union(first, second);
+		for (int i = 0; i < union.length; i++) {
+			union[i] += 10;
+		}
+		assertEquals(15, getVolume(union), 1e-9);
+	}
+
+	/**
+	 * Check the operations on solids which share faces.
+	 */
+	public void testCoplanarFaces() {
+
+		// A cube operated on with itself
+		double[] cube = getSolid(createCube(2), 0, 0, 0);
+		assertEquals(8, getVolume(MeshBoolean.union(cube, cube)), 1e-9);
+		assertEquals(8, getVolume(MeshBoolean.intersection(cube, cube)),
+				1e-9);
+		assertEquals(0, MeshBoolean.difference(cube, cube).length);
+
+		// Cubes touching face to face should merge without the shared face
+		double[] touching = getSolid(createCube(2), 2, 0, 0);
+		double[] union = MeshBoolean.union(cube, touching);
+		assertEquals(16, getVolume(union), 1e-9);
+		for (int i = 0; i < union.length; i += 3) {
+			if (Math.abs(union[i] - 1) < 1e-9) {
+
+				// Only the edges of the shared face may remain
+				assertTrue(Math.abs(Math.abs(union[i + 1]) - 1) < 1e-9
+						|| Math.abs(Math.abs(union[i + 2]) - 1) < 1e-9);
+			}
+		}
+		assertEquals(0, MeshBoolean.intersection(cube, touching).length);
+		assertEquals(8, getVolume(MeshBoolean.difference(cube, touching)),
+				1e-9);
+
+		// Cubes sharing part of their top and bottom faces
+		double[] shifted = getSolid(createCube(2), 0.5, 0.5, 0);
+		assertEquals(11.5, getVolume(MeshBoolean.union(cube, shifted)),
+				1e-9);
+		assertEquals(4.5, getVolume(MeshBoolean.intersection(cube, shifted)),
+				1e-9);
+		assertEquals(3.5, getVolume(MeshBoolean.difference(cube, shifted)),
+				1e-9);
+	}
+
+	/**
+	 * Check the operations on curved solids, whose results must add up to
+	 * the volumes of the operands.
+	 */
+	public void testSpheres() {
+
+		double[] first = getSolid(createSphere(1), 0, 0, 0);
+		double[] second = getSolid(createSphere(1), 0.5, 0.2, 0.1);
+		double volume = getVolume(first);
+
+		double union = getVolume(MeshBoolean.union(first, second));
+		double intersection = getVolume(
+				MeshBoolean.intersection(first, second));
+		double difference = getVolume(MeshBoolean.difference(first, second));
+		assertTrue(intersection > 0);
+		assertTrue(union > volume);
+		assertEquals(volume * 2, union + intersection, 1e-9);
+		assertEquals(volume, difference + intersection, 1e-9);
+
+		// Subtracting a sphere from the middle of a cube leaves a hollow
+		double[] cube = getSolid(createCube(4), 0, 0, 0);
+		assertEquals(64 - volume,
+				getVolume(MeshBoolean.difference(cube, first)), 1e-9);
+		assertEquals(volume,
+				getVolume(MeshBoolean.intersection(cube, first)), 1e-9);
+	}
+
+	/**
+	 * Check that solids far apart are combined without being split.
+	 */
+	public void testSeparateSolids() {
+
+		double[] first = getSolid(createSphere(1), 0, 0, 0);
+		double[] second = getSolid(createSphere(1), 5, 0, 0);
+		double[] union = MeshBoolean.union(first, second);
+		assertEquals(first.length + second.length, union.length);
+		assertEquals(0, MeshBoolean.intersection(first, second).length);
+		assertEquals(first.length,
+				MeshBoolean.difference(first, second).length);
+
+		// Empty solids
+		assertEquals(first.length,
+				MeshBoolean.union(new double[0], first).length);
+		assertEquals(0,
+				MeshBoolean.intersection(first, new double[0]).length);
+	}
+
+	/**
+	 * Check that a result is stored in a mesh with shared vertices.
+	 */
+	public void testToMesh() {
+
+		double[] union = MeshBoolean.union(getSolid(createCube(2), 0, 0, 0),
+				getSolid(createCube(2), 2, 0, 0));
+		TriangleMesh mesh = MeshBoolean.toMesh(union);
+		assertEquals(union.length / 9, mesh.getTriangleCount());
+		assertTrue(mesh.getVertexCount() < union.length / 3);
+
+		// Each triangle's normal should follow its winding
+		for (int i = 0; i < mesh.getTriangleCount(); i++) {
+			double[] normal = new double[3];
+			for (int axis = 0; axis < 3; axis++) {
+				normal[axis] = mesh.getNormal(i, axis);
+			}
+			double length = Math.sqrt(normal[0] * normal[0]
+					+ normal[1] * normal[1] + normal[2] * normal[2]);
+			assertEquals(1, length, 1e-6);
+		}
+	}
+
+	/**
+	 * Create a cube.
+	 *
+	 * @param side
+	 *            The length of the cube's sides
+	 * @return A new cube centered on the origin
+	 */
+	private static Cube createCube(double side) {
+		Cube cube = GeometryFactory.eINSTANCE.createCube();
+		cube.setSideLength(side);
+		return cube;
+	}
+
+	/**
+	 * Create a sphere.
+	 *
+	 * @param radius
+	 *            The sphere's radius
+	 * @return A new sphere centered on the origin
+	 */
+	private static Sphere createSphere(double radius) {
+		Sphere sphere = GeometryFactory.eINSTANCE.createSphere();
+		sphere.setRadius(radius);
+		return sphere;
+	}
+
+	/**
+	 * Get a node's triangles as an array of coordinates.
+	 *
+	 * @param node
+	 *            The node
+	 * @param x
+	 *            The x offset to add to the coordinates
+	 * @param y
+	 *            The y offset to add to the coordinates
+	 * @param z
+	 *            The z offset to add to the coordinates
+	 * @return The coordinates of the triangles' vertices
+	 */
+	private static double[] getSolid(INode node, double x, double y,
+			double z) {
+		List<Triangle> triangles = node.getTriangles();
+		double[] solid = new double[triangles.size() * 9];
+		int i = 0;
+		for (Triangle triangle : triangles) {
+			for (Vertex vertex : triangle.getVertices()) {
+				solid[i++] = vertex.getX() + x;
+				solid[i++] = vertex.getY() + y;
+				solid[i++] = vertex.getZ() + z;
+			}
+		}
+		return solid;
+	}
+
+	/**
+	 * Get the volume enclosed by a set of triangles, by summing the signed
+	 * volumes of the tetrahedra between each triangle and the origin.
+	 *
+	 * @param triangles
+	 *            The triangles
+	 * @return The enclosed volume
+	 */
+	static double getVolume(List<Triangle> triangles) {
+		double[] solid = new double[triangles.size() * 9];
+		int i = 0;
+		for (Triangle triangle : triangles) {
+			for (Vertex vertex : triangle.getVertices()) {
+				solid[i++] = vertex.getX();
+				solid[i++] = vertex.getY();
+				solid[i++] = vertex.getZ();
+			}
+		}
+		return getVolume(solid);
+	}
+
+	/**
+	 * Get the volume enclosed by a set of triangles.
+	 *
+	 * @param solid
+	 *            The coordinates of the triangles' vertices
+	 * @return The enclosed volume
+	 */
+	private static double getVolume(double[] solid) {
+		double volume = 0;
+		for (int i = 0; i < solid.length; i += 9) {
+			volume += solid[i]
+					* (solid[i + 4] * solid[i + 8] - solid[i + 5] * solid[i + 7])
+					- solid[i + 1] * (solid[i + 3] * solid[i + 8]
+							- solid[i + 5] * solid[i + 6])
+					+ solid[i + 2] * (solid[i + 3] * solid[i + 7]
+							- solid[i + 4] * solid[i + 6]);
+		}
+		return volume / 6;
+	}
+}
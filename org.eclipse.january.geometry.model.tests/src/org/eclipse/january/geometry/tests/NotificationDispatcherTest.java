@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.tests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.notify.impl.NotificationImpl;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.BackgroundAdapter;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
+
+import junit.framework.TestCase;
+
+/**
+ * A class to test the functionality of the NotificationDispatcher.
+ *
+ * @author Robert Smith
+ *
+ */
+public class NotificationDispatcherTest extends TestCase {
+
+	/**
+	 * Check that notifications sent off the UI thread are delivered
+	 * immediately and in order.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void testDispatch() throws InterruptedException {
+
+		// Record the values received by a vertex's listener
+		Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+		ArrayList<Double> values = new ArrayList<Double>();
+		vertex.eAdapters().add(new AdapterImpl() {
+			@Override
+			public void notifyChanged(Notification notification) {
+				values.add(notification.getNewDoubleValue());
+			}
+		});
+
+		// Each change should be seen by the time the setter returns
+		for (int i = 1; i <= 100; i++) {
+			vertex.setX(i);
+			assertEquals(i, values.size());
+			assertEquals(i, values.get(i - 1), 0d);
+		}
+		assertTrue(NotificationDispatcher.awaitIdle(1, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Check that queued notifications are delivered to background adapters in
+	 * the order they were sent on a dispatcher thread, even when a listener
+	 * fails, and that other adapters are still notified immediately.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void testPost() throws InterruptedException {
+
+		// The values received by the listener, and the threads they were
+		// received on
+		List<Double> values = Collections
+				.synchronizedList(new ArrayList<Double>());
+		List<Thread> threads = Collections
+				.synchronizedList(new ArrayList<Thread>());
+		Adapter recorder = new BackgroundAdapterImpl() {
+			@Override
+			public void notifyChanged(Notification notification) {
+				values.add(notification.getNewDoubleValue());
+				threads.add(Thread.currentThread());
+			}
+		};
+
+		// A listener which always fails
+		Adapter failure = new BackgroundAdapterImpl() {
+			@Override
+			public void notifyChanged(Notification notification) {
+				throw new IllegalStateException();
+			}
+		};
+
+		// A content adapter and an ordinary adapter, which record the values
+		// they receive
+		ArrayList<Double> contentValues = new ArrayList<Double>();
+		Adapter content = new EContentAdapter() {
+			@Override
+			public void notifyChanged(Notification notification) {
+				contentValues.add(notification.getNewDoubleValue());
+			}
+		};
+		ArrayList<Double> plainValues = new ArrayList<Double>();
+		Adapter plain = new AdapterImpl() {
+			@Override
+			public void notifyChanged(Notification notification) {
+				plainValues.add(notification.getNewDoubleValue());
+			}
+		};
+
+		// Queue notifications to two different sets of listeners, as if from
+		// two sources
+		Adapter[] first = new Adapter[] { failure, recorder, plain };
+		Adapter[] second = new Adapter[] { content, recorder };
+		for (int i = 0; i < 1000; i++) {
+			NotificationDispatcher.post(i % 2 == 0 ? first : second,
+					new NotificationImpl(Notification.SET, 0d, i));
+
+			// The content and ordinary adapters should be notified before
+			// post() returns
+			if (i % 2 == 1) {
+				assertEquals(i / 2 + 1, contentValues.size());
+				assertEquals(i, contentValues.get(i / 2), 0d);
+			} else {
+				assertEquals(i / 2 + 1, plainValues.size());
+				assertEquals(i, plainValues.get(i / 2), 0d);
+			}
+		}
+
+		// Every notification should reach the recorder in order, on a
+		// dispatcher thread
+		assertTrue(NotificationDispatcher.awaitIdle(10, TimeUnit.SECONDS));
+		assertEquals(1000, values.size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i, values.get(i), 0d);
+			assertNotSame(Thread.currentThread(), threads.get(i));
+		}
+
+		// Notifications sent after the queue has drained are delivered
+		// immediately again
+		Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+		vertex.eAdapters().add(recorder);
+		vertex.setZ(5);
+		assertEquals(1001, values.size());
+		assertSame(Thread.currentThread(), threads.get(1000));
+	}
+
+	/**
+	 * An adapter which may be notified on a dispatcher thread.
+	 */
+	private abstract static class BackgroundAdapterImpl extends AdapterImpl
+			implements BackgroundAdapter {
+	}
+
+	/**
+	 * Check that sending a notification never waits for a full lane, and that
+	 * the notifications which do not fit are delivered on the sending thread
+	 * instead.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void testFullLane() throws InterruptedException {
+
+		// A listener which holds up the lane until it is released, counting
+		// the notifications it receives on the sending thread
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger received = new AtomicInteger();
+		AtomicInteger immediate = new AtomicInteger();
+		Thread sender = Thread.currentThread();
+		Adapter blocker = new BackgroundAdapterImpl() {
+			@Override
+			public void notifyChanged(Notification notification) {
+				received.incrementAndGet();
+				if (Thread.currentThread() == sender) {
+					immediate.incrementAndGet();
+				} else {
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		};
+
+		// Send more notifications than the lane can hold while it is stuck
+		Adapter[] adapters = new Adapter[] { blocker };
+		for (int i = 0; i < 10000; i++) {
+			NotificationDispatcher.post(adapters,
+					new NotificationImpl(Notification.SET, 0d, i));
+		}
+		assertTrue(immediate.get() > 0);
+
+		// Every notification should still be delivered once
+		release.countDown();
+		assertTrue(NotificationDispatcher.awaitIdle(10, TimeUnit.SECONDS));
+		assertEquals(10000, received.get());
+	}
+
+	/**
+	 * Check that the synchronous mode can be turned on and off.
+	 */
+	public void testSynchronous() {
+
+		assertFalse(NotificationDispatcher.isSynchronous());
+		NotificationDispatcher.setSynchronous(true);
+		try {
+			assertTrue(NotificationDispatcher.isSynchronous());
+
+			// Notifications should still reach the listeners
+			Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+			int[] count = new int[1];
+			vertex.eAdapters().add(new AdapterImpl() {
+				@Override
+				public void notifyChanged(Notification notification) {
+					count[0]++;
+				}
+			});
+			vertex.setY(2);
+			assertEquals(1, count[0]);
+		} finally {
+			NotificationDispatcher.setSynchronous(false);
+		}
+	}
+}
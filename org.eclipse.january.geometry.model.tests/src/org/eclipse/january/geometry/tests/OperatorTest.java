@@ -19,11 +19,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.january.geometry.Cube;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.GeometryPackage;
 import org.eclipse.january.geometry.Operator;
 import org.eclipse.january.geometry.Shape;
+import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
 import org.junit.Test;
 
 import junit.framework.TestCase;
@@ -459,4 +463,134 @@ public class OperatorTest extends TestCase {
 		assertNotEquals(fixture.hashCode(), unequalOperator.hashCode());
 	}
 
+	/**
+	 * Check that the operator's result is cached until one of its children
+	 * changes.
+	 * 
+	 * @generated NOT
+	 */
+	public void testGetResultTriangles() {
+
+		NotificationDispatcher.setSynchronous(true);
+		try {
+
+			// A plain operator just gathers its children's triangles
+			Cube first = createCube(0, 0, 0);
+			Cube second = createCube(1, 1, 1);
+			fixture.addNode(first);
+			fixture.addNode(second);
+			EList<Triangle> result = fixture.getResultTriangles();
+			assertEquals(24, result.size());
+			assertEquals(16, MeshBooleanTest.getVolume(result), 1e-9);
+
+			// The result should be reused while nothing changes
+			assertSame(result, fixture.getResultTriangles());
+
+			// Changing a child should replace it
+			first.setSideLength(4);
+			EList<Triangle> changed = fixture.getResultTriangles();
+			assertNotSame(result, changed);
+			assertEquals(72, MeshBooleanTest.getVolume(changed), 1e-9);
+
+			// So should removing one
+			fixture.removeNode(second);
+			assertEquals(64,
+					MeshBooleanTest.getVolume(fixture.getResultTriangles()),
+					1e-9);
+		} finally {
+			NotificationDispatcher.setSynchronous(false);
+		}
+	}
+
+	/**
+	 * Check that the operator reads the triangles of a plain shape, splitting
+	 * polygons and skipping triangles with too few vertices, and that moving
+	 * one of their vertices replaces the result.
+	 * 
+	 * @generated NOT
+	 */
+	public void testGetResultTrianglesPolygons() {
+
+		NotificationDispatcher.setSynchronous(true);
+		try {
+
+			// A triangle, a square and a triangle missing a vertex
+			Shape shape = GeometryFactory.eINSTANCE.createShape();
+			shape.getTriangles().add(createPolygon(0, 0, 1, 0, 0, 1));
+			shape.getTriangles().add(createPolygon(0, 0, 1, 0, 1, 1, 0, 1));
+			shape.getTriangles().add(createPolygon(0, 0, 1, 0));
+			fixture.addNode(shape);
+			EList<Triangle> result = fixture.getResultTriangles();
+			assertEquals(3, result.size());
+			assertEquals(1, getMaxX(result), 0);
+
+			// Moving a vertex should replace the result
+			shape.getTriangles().get(0).getVertices().get(1).setX(5);
+			EList<Triangle> changed = fixture.getResultTriangles();
+			assertNotSame(result, changed);
+			assertEquals(5, getMaxX(changed), 0);
+			assertSame(changed, fixture.getResultTriangles());
+		} finally {
+			NotificationDispatcher.setSynchronous(false);
+		}
+	}
+
+	/**
+	 * Create a polygon in the z = 0 plane.
+	 * 
+	 * @param coordinates
+	 *            The x and y coordinates of each vertex in turn
+	 * @return A new triangle holding the vertices
+	 * @generated NOT
+	 */
+	protected Triangle createPolygon(double... coordinates) {
+		Triangle triangle = GeometryFactory.eINSTANCE.createTriangle();
+		for (int i = 0; i < coordinates.length; i += 2) {
+			Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+			vertex.setX(coordinates[i]);
+			vertex.setY(coordinates[i + 1]);
+			triangle.getVertices().add(vertex);
+		}
+		return triangle;
+	}
+
+	/**
+	 * Get the largest x coordinate of any vertex in a list of triangles.
+	 * 
+	 * @param triangles
+	 *            The triangles to check
+	 * @return The largest x coordinate
+	 * @generated NOT
+	 */
+	protected double getMaxX(List<Triangle> triangles) {
+		double max = Double.NEGATIVE_INFINITY;
+		for (Triangle triangle : triangles) {
+			for (Vertex vertex : triangle.getVertices()) {
+				max = Math.max(max, vertex.getX());
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Create a cube of side 2.
+	 * 
+	 * @param x
+	 *            The x coordinate of the cube's center
+	 * @param y
+	 *            The y coordinate of the cube's center
+	 * @param z
+	 *            The z coordinate of the cube's center
+	 * @return A new cube
+	 * @generated NOT
+	 */
+	protected Cube createCube(double x, double y, double z) {
+		Cube cube = GeometryFactory.eINSTANCE.createCube();
+		cube.setSideLength(2);
+		cube.getCenter().setX(x);
+		cube.getCenter().setY(y);
+		cube.getCenter().setZ(z);
+		return cube;
+	}
+
 } // OperatorTest
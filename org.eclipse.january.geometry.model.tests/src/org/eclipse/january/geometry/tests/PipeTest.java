@@ -4,11 +4,15 @@ package org.eclipse.january.geometry.tests;
 
 import static org.junit.Assert.assertNotEquals;
 
+import org.eclipse.emf.common.util.EList;
 import org.eclipse.january.geometry.BoundingBox;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.Pipe;
 import org.eclipse.january.geometry.Shape;
+import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.impl.PipeImpl;
+import org.eclipse.january.geometry.util.LevelOfDetail;
+import org.eclipse.january.geometry.util.TriangleMesh;
 import org.junit.Test;
 
 import junit.textui.TestRunner;
@@ -271,4 +275,76 @@ public class PipeTest extends TubeTest {
 		assertFalse(fixture.equals(unequalShape));
 		assertNotEquals(fixture.hashCode(), unequalShape.hashCode());
 	}
+	/**
+	 * Check that the pipe's lower levels of detail follow its rotation.
+	 * 
+	 * @generated NOT
+	 */
+	public void testLevelOfDetail() {
+
+		Pipe pipe = GeometryFactory.eINSTANCE.createPipe();
+		pipe.setRadius(1);
+		pipe.setHeight(10);
+		LevelOfDetail detail = (LevelOfDetail) pipe;
+
+		// A coarser level should have fewer triangles
+		assertTrue(detail.getTriangles(1).size() < pipe.getTriangles().size());
+
+		// Before rotation, the pipe's axis is the y axis, so no point should
+		// be further than the radius from it
+		double maxX = 0;
+		for (Triangle triangle : detail.getTriangles(1)) {
+			maxX = Math.max(maxX, triangle.getVertices().get(0).getX());
+		}
+		assertTrue(maxX <= 1 + 1e-9);
+
+		// Laying the pipe along the x axis should give new triangles which
+		// reach its ends
+		pipe.setRotationZ(Math.PI / 2);
+		maxX = 0;
+		for (Triangle triangle : detail.getTriangles(1)) {
+			maxX = Math.max(maxX,
+					Math.abs(triangle.getVertices().get(0).getX()));
+		}
+		assertEquals(5, maxX, 1e-9);
+	}
+	/**
+	 * Check that changing the pipe's dimensions moves the vertices of its
+	 * existing triangles instead of creating new ones.
+	 */
+	public void testResizeTriangles() {
+
+		Pipe pipe = GeometryFactory.eINSTANCE.createPipe();
+		pipe.setRadius(1);
+		pipe.setHeight(10);
+		EList<Triangle> triangles = pipe.getTriangles();
+		TriangleMesh mesh = pipe.getMesh();
+		int size = triangles.size();
+		long version = mesh.getVersion();
+
+		// Getting the triangles again without a change should not move them
+		assertSame(triangles, pipe.getTriangles());
+		assertEquals(version, mesh.getVersion());
+
+		// Widening the pipe should move the same triangles outward
+		pipe.setRadius(2);
+		assertSame(triangles, pipe.getTriangles());
+		assertSame(mesh, pipe.getMesh());
+		assertEquals(size, triangles.size());
+		assertTrue(mesh.getVersion() > version);
+		double maxX = 0;
+		for (Triangle triangle : triangles) {
+			maxX = Math.max(maxX, triangle.getVertices().get(0).getX());
+		}
+		assertEquals(2, maxX, 1e-6);
+
+		// Rotating the pipe should also move the vertices
+		pipe.setRotationZ(Math.PI / 2);
+		maxX = 0;
+		for (Triangle triangle : pipe.getTriangles()) {
+			maxX = Math.max(maxX,
+					Math.abs(triangle.getVertices().get(0).getX()));
+		}
+		assertEquals(5, maxX, 1e-6);
+	}
 } // PipeTest
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.tests;
+
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.PointTransform;
+
+/**
+ * A benchmark comparing the cost of rotating and centering a set of points
+ * the way MeshUtils.rotatePoints() and centerPoints() used to, with trig
+ * calls for every point and a new array for each step, against a single
+ * PointTransform applied in place, both serially and in parallel. Run as a
+ * Java application.
+ *
+ * @author Robert Smith
+ *
+ */
+public class PointTransformBenchmark {
+
+	/**
+	 * The sizes of the point arrays to measure, from a single shape's mesh to
+	 * a large imported model.
+	 */
+	private static final int[] POINT_COUNTS = { 400, 40000, 1000000 };
+
+	/**
+	 * The total number of points to transform for each measurement, so that
+	 * small arrays are transformed many times.
+	 */
+	private static final int TOTAL_POINTS = 20000000;
+
+	/**
+	 * The number of passes performed before measuring, to warm up the JIT.
+	 */
+	private static final int WARMUP = 3;
+
+	/**
+	 * Run the benchmark.
+	 *
+	 * @param args
+	 *            Unused
+	 */
+	public static void main(String[] args) {
+
+		Vertex center = GeometryFactory.eINSTANCE.createVertex();
+		center.setX(1);
+		center.setY(2);
+		center.setZ(3);
+
+		for (int count : POINT_COUNTS) {
+			double[] points = new double[count * 3];
+			for (int i = 0; i < points.length; i++) {
+				points[i] = Math.sin(i);
+			}
+			int repetitions = Math.max(1, TOTAL_POINTS / count);
+
+			long separate = 0;
+			long serial = 0;
+			long parallel = 0;
+			for (int pass = 0; pass <= WARMUP; pass++) {
+
+				long start = System.nanoTime();
+				for (int i = 0; i < repetitions; i++) {
+					centerPoints(rotatePoints(points, 0.1, 0.2, 0.3), center);
+				}
+				separate = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int i = 0; i < repetitions; i++) {
+					new PointTransform().rotate(0.1, 0.2, 0.3).center(center)
+							.transform(points);
+				}
+				serial = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int i = 0; i < repetitions; i++) {
+					new PointTransform().rotate(0.1, 0.2, 0.3).center(center)
+							.transformParallel(points);
+				}
+				parallel = System.nanoTime() - start;
+			}
+
+			double scale = 1.0 / ((double) repetitions * count);
+			System.out.println(String.format(
+					"%8d points: separate steps %6.2f ns, transform %6.2f ns,"
+							+ " parallel %6.2f ns per point",
+					count, separate * scale, serial * scale,
+					parallel * scale));
+		}
+	}
+
+	/**
+	 * Rotate points as MeshUtils.rotatePoints() used to.
+	 *
+	 * @param points
+	 *            The points to rotate
+	 * @param rotationX
+	 *            The rotation about the x axis
+	 * @param rotationY
+	 *            The rotation about the y axis
+	 * @param rotationZ
+	 *            The rotation about the z axis
+	 * @return A new array of rotated points
+	 */
+	private static double[] rotatePoints(double[] points, double rotationX,
+			double rotationY, double rotationZ) {
+		double[] rotated = new double[points.length];
+		for (int i = 0; i < points.length / 3; i++) {
+			double x = points[i * 3];
+			double y = points[i * 3 + 1];
+			double z = points[i * 3 + 2];
+			double tempY = (x * Math.sin(rotationZ) + y * Math.cos(rotationZ));
+			x = (x * Math.cos(rotationZ) - y * Math.sin(rotationZ));
+			y = tempY;
+			double tempX = (z * Math.sin(rotationY) + x * Math.cos(rotationY));
+			z = (z * Math.cos(rotationY) - x * Math.sin(rotationY));
+			rotated[i * 3] = tempX;
+			tempY = (y * Math.cos(rotationX) - z * Math.sin(rotationX));
+			rotated[i * 3 + 2] = (y * Math.sin(rotationX)
+					+ z * Math.cos(rotationX));
+			rotated[i * 3 + 1] = tempY;
+		}
+		return rotated;
+	}
+
+	/**
+	 * Center points as MeshUtils.centerPoints() used to.
+	 *
+	 * @param points
+	 *            The points to move
+	 * @param center
+	 *            The new center
+	 * @return A new array of moved points
+	 */
+	private static double[] centerPoints(double[] points, Vertex center) {
+		double[] centered = new double[points.length];
+		for (int i = 0; i < points.length / 3; i++) {
+			centered[i * 3] = points[i * 3] + center.getX();
+			centered[i * 3 + 1] = points[i * 3 + 1] + center.getY();
+			centered[i * 3 + 2] = points[i * 3 + 2] + center.getZ();
+		}
+		return centered;
+	}
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.tests;
+
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.PointTransform;
+
+import junit.framework.TestCase;
+
+/**
+ * A class to test the functionality of the PointTransform.
+ *
+ * @author Robert Smith
+ *
+ */
+public class PointTransformTest extends TestCase {
+
+	/**
+	 * Check that each operation moves a point correctly.
+	 */
+	public void testOperations() {
+
+		// A rotation about the z axis should take x to y
+		double[] points = { 1, 0, 0 };
+		new PointTransform().rotate(0, 0, Math.PI / 2).transform(points);
+		assertPoint(points, 0, 0, 1, 0);
+
+		// A rotation about the y axis should take z to x
+		points = new double[] { 0, 0, 1 };
+		new PointTransform().rotate(0, Math.PI / 2, 0).transform(points);
+		assertPoint(points, 0, 1, 0, 0);
+
+		// A rotation about the x axis should take y to z
+		points = new double[] { 0, 1, 0 };
+		new PointTransform().rotate(Math.PI / 2, 0, 0).transform(points);
+		assertPoint(points, 0, 0, 0, 1);
+
+		// Rotating about an axis should leave points on the axis alone
+		Vertex axis = GeometryFactory.eINSTANCE.createVertex();
+		axis.setX(2);
+		axis.setY(2);
+		axis.setZ(2);
+		points = new double[] { 1, 1, 1, 1, 0, 0 };
+		new PointTransform().rotateAboutAxis(axis, 2 * Math.PI / 3)
+				.transform(points);
+		assertPoint(points, 0, 1, 1, 1);
+		assertPoint(points, 1, 0, 1, 0);
+
+		// Scaling and translating should apply to each point
+		points = new double[] { 1, 2, 3, -1, -2, -3 };
+		new PointTransform().scale(2, 3, 4).translate(1, 1, 1)
+				.transform(points);
+		assertPoint(points, 0, 3, 7, 13);
+		assertPoint(points, 1, -1, -5, -11);
+	}
+
+	/**
+	 * Check that operations are applied in the order they were added.
+	 */
+	public void testComposition() {
+
+		Vertex center = GeometryFactory.eINSTANCE.createVertex();
+		center.setX(5);
+
+		// Rotating and then moving should not rotate the offset
+		double[] points = { 1, 0, 0 };
+		new PointTransform().rotate(0, 0, Math.PI / 2).center(center)
+				.transform(points);
+		assertPoint(points, 0, 5, 1, 0);
+
+		// Moving and then rotating should
+		points = new double[] { 1, 0, 0 };
+		new PointTransform().center(center).rotate(0, 0, Math.PI / 2)
+				.transform(points);
+		assertPoint(points, 0, 0, 6, 0);
+
+		// A combined rotation should match rotating about each axis in turn
+		double[] combined = { 1, 2, 3 };
+		new PointTransform().rotate(0.3, 0.5, 0.7).transform(combined);
+		double[] separate = { 1, 2, 3 };
+		new PointTransform().rotate(0, 0, 0.7).transform(separate);
+		new PointTransform().rotate(0, 0.5, 0).transform(separate);
+		new PointTransform().rotate(0.3, 0, 0).transform(separate);
+		assertPoint(combined, 0, separate[0], separate[1], separate[2]);
+	}
+
+	/**
+	 * Check that transforming in parallel gives the same results as
+	 * transforming on one thread, for both doubles and floats.
+	 */
+	public void testParallel() {
+
+		int count = PointTransform.PARALLEL_CHUNK_SIZE * 4 + 7;
+		double[] serial = new double[count * 3];
+		float[] floats = new float[count * 3];
+		for (int i = 0; i < serial.length; i++) {
+			serial[i] = i % 101 - 50;
+			floats[i] = (float) serial[i];
+		}
+		double[] parallel = serial.clone();
+
+		PointTransform transform = new PointTransform().rotate(0.1, 0.2, 0.3)
+				.scale(2, 2, 2).translate(-1, 0, 1);
+		transform.transform(serial);
+		transform.transformParallel(parallel);
+		transform.transformParallel(floats);
+
+		for (int i = 0; i < serial.length; i++) {
+			assertEquals(serial[i], parallel[i], 0);
+			assertEquals(serial[i], floats[i], 1e-3);
+		}
+	}
+
+	/**
+	 * Check that a point in an array has the expected coordinates.
+	 *
+	 * @param points
+	 *            The array of coordinates
+	 * @param index
+	 *            The point's index in the array
+	 * @param x
+	 *            The expected x coordinate
+	 * @param y
+	 *            The expected y coordinate
+	 * @param z
+	 *            The expected z coordinate
+	 */
+	private void assertPoint(double[] points, int index, double x, double y,
+			double z) {
+		assertEquals(x, points[index * 3], 1e-9);
+		assertEquals(y, points[index * 3 + 1], 1e-9);
+		assertEquals(z, points[index * 3 + 2], 1e-9);
+	}
+}
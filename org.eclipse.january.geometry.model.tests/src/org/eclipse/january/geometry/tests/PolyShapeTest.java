@@ -4,8 +4,13 @@ package org.eclipse.january.geometry.tests;
 
 import junit.textui.TestRunner;
 
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.january.geometry.Face;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.PolyShape;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.VertexSource;
 
 /**
  * <!-- begin-user-doc -->
@@ -67,4 +72,70 @@ public class PolyShapeTest extends ShapeTest {
 		setFixture(null);
 	}
 
+	/**
+	 * Tests the
+	 * '{@link org.eclipse.january.geometry.PolyShape#calculatePolyTriangles()
+	 * <em>Calculate Poly Triangles</em>}' operation. <!-- begin-user-doc -->
+	 * Checks that a vertex shared by several triangles has a single listener
+	 * and reports each change to the shape once. <!-- end-user-doc -->
+	 * 
+	 * @generated NOT
+	 */
+	public void testCalculatePolyTriangles() {
+
+		PolyShape shape = getFixture();
+
+		// Create a square from four vertices
+		VertexSource source = GeometryFactory.eINSTANCE.createVertexSource();
+		for (int i = 0; i < 4; i++) {
+			Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+			vertex.setX(i % 2);
+			vertex.setY(i / 2);
+			source.getVertices().add(vertex);
+		}
+		shape.setVertexSource(source);
+
+		// Two faces which share vertices 1 and 2 and split into three
+		// triangles sharing vertex 1
+		Face face = GeometryFactory.eINSTANCE.createFace();
+		face.getVertexIndices().add(1);
+		face.getVertexIndices().add(2);
+		face.getVertexIndices().add(4);
+		face.getVertexIndices().add(3);
+		shape.getFaces().add(face);
+		face = GeometryFactory.eINSTANCE.createFace();
+		face.getVertexIndices().add(1);
+		face.getVertexIndices().add(2);
+		face.getVertexIndices().add(3);
+		shape.getFaces().add(face);
+		shape.calculatePolyTriangles();
+		assertEquals(3, shape.getTriangles().size());
+
+		// Each vertex should have only the shape's listener
+		Vertex shared = source.getVertices().get(0);
+		assertEquals(1, shared.eAdapters().size());
+
+		// Count the notifications received by the shape
+		int[] count = new int[1];
+		shape.eAdapters().add(new AdapterImpl() {
+			@Override
+			public void notifyChanged(Notification notification) {
+				count[0]++;
+			}
+		});
+
+		// Moving the shared vertex should notify the shape only once
+		shared.setZ(2);
+		assertEquals(1, count[0]);
+		assertEquals(2d,
+				shape.getTriangles().get(2).getVertices().get(0).getZ());
+
+		// A clone shares the vertices and adds its own listener, but copying
+		// it back should not add another one for the original shape
+		PolyShape clone = (PolyShape) shape.clone();
+		assertEquals(2, shared.eAdapters().size());
+		shape.copy(clone);
+		assertEquals(2, shared.eAdapters().size());
+	}
+
 } //PolyShapeTest
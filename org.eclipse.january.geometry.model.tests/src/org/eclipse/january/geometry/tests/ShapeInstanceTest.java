@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.GeometryPackage;
+import org.eclipse.january.geometry.Shape;
+import org.eclipse.january.geometry.Sphere;
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.impl.ShapeInstance;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
+import org.eclipse.january.geometry.util.TriangleMesh;
+
+import junit.framework.TestCase;
+
+/**
+ * A class to test the functionality of the ShapeInstance.
+ *
+ * @author Robert Smith
+ *
+ */
+public class ShapeInstanceTest extends TestCase {
+
+	/**
+	 * Check that a prototype holds a compact copy of a shape's triangles.
+	 */
+	public void testCreatePrototype() {
+
+		Sphere sphere = GeometryFactory.eINSTANCE.createSphere();
+		sphere.setName("ball");
+		sphere.setRadius(2);
+		Shape prototype = ShapeInstance.createPrototype(sphere);
+
+		// The prototype should have the same data and triangles, stored in a
+		// mesh
+		assertEquals("ball", prototype.getName());
+		assertEquals(2, prototype.getProperty("radius"), 0);
+		assertNotNull(prototype.getMesh());
+		assertEquals(sphere.getTriangles().size(),
+				prototype.getMesh().getTriangleCount());
+		Triangle original = sphere.getTriangles().get(5);
+		Triangle copy = prototype.getTriangles().get(5);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(original.getVertices().get(i).getX(),
+					copy.getVertices().get(i).getX(), 1e-6);
+			assertEquals(original.getVertices().get(i).getY(),
+					copy.getVertices().get(i).getY(), 1e-6);
+			assertEquals(original.getVertices().get(i).getZ(),
+					copy.getVertices().get(i).getZ(), 1e-6);
+		}
+		assertEquals(original.getNormal().getY(), copy.getNormal().getY(),
+				1e-6);
+	}
+
+	/**
+	 * Check that instances share their prototype's triangles while keeping
+	 * their own positions.
+	 */
+	public void testSharing() {
+
+		Shape prototype = GeometryFactory.eINSTANCE.createShape();
+		prototype.setName("part");
+		TriangleMesh mesh = new TriangleMesh();
+		mesh.addVertex(0, 0, 0);
+		mesh.addVertex(1, 0, 0);
+		mesh.addVertex(0, 1, 0);
+		mesh.addTriangle(0, 1, 2, 0, 0, 1);
+		prototype.setMesh(mesh);
+
+		ShapeInstance instance1 = new ShapeInstance(prototype);
+		ShapeInstance instance2 = new ShapeInstance(prototype);
+		instance1.getCenter().setX(5);
+		instance2.getCenter().setX(10);
+
+		// Both instances should use the very same list of triangles
+		assertEquals("part", instance1.getName());
+		assertSame(prototype.getTriangles(), instance1.getTriangles());
+		assertSame(instance1.getTriangles(), instance2.getTriangles());
+		assertSame(mesh, instance2.getMesh());
+		assertEquals(5, instance1.getCenter().getX(), 0);
+		assertEquals(10, instance2.getCenter().getX(), 0);
+
+		// A clone should be another instance of the same prototype
+		ShapeInstance clone = (ShapeInstance) instance2.clone();
+		assertSame(prototype, clone.getPrototype());
+		assertSame(prototype.getTriangles(), clone.getTriangles());
+		assertEquals(10, clone.getCenter().getX(), 0);
+		assertTrue(clone.equals(instance2));
+	}
+
+	/**
+	 * Check that an instance is saved and copied with its prototype's
+	 * triangles.
+	 *
+	 * @throws IOException
+	 */
+	public void testSave() throws IOException {
+
+		Sphere sphere = GeometryFactory.eINSTANCE.createSphere();
+		sphere.setRadius(2);
+		Shape prototype = ShapeInstance.createPrototype(sphere);
+		ShapeInstance instance = new ShapeInstance(prototype);
+		instance.getCenter().setX(5);
+		assertTrue(instance.eIsSet(GeometryPackage.Literals.INODE__TRIANGLES));
+
+		// A copy should be an ordinary shape with its own triangles
+		Shape copy = EcoreUtil.copy(instance);
+		assertFalse(copy instanceof ShapeInstance);
+		assertEquals(sphere.getTriangles().size(),
+				copy.getTriangles().size());
+		assertNotSame(prototype.getTriangles().get(0),
+				copy.getTriangles().get(0));
+		assertEquals(prototype.getTriangles(), copy.getTriangles());
+
+		// Shapes do not contain their centers, so leave them out
+		Resource resource = new XMIResourceImpl(URI.createURI("test.xmi"));
+		resource.getContents().add(instance);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		resource.save(out,
+				Collections.singletonMap(
+						XMLResource.OPTION_PROCESS_DANGLING_HREF,
+						XMLResource.OPTION_PROCESS_DANGLING_HREF_DISCARD));
+
+		// The loaded shape should have the prototype's triangles
+		Resource loaded = new XMIResourceImpl(URI.createURI("test.xmi"));
+		loaded.load(new ByteArrayInputStream(out.toByteArray()), null);
+		Shape shape = (Shape) loaded.getContents().get(0);
+		assertEquals(prototype.getTriangles(), shape.getTriangles());
+	}
+
+	/**
+	 * Check that instances are notified when the shared triangles change.
+	 */
+	public void testNotifications() {
+
+		NotificationDispatcher.setSynchronous(true);
+		try {
+			Shape prototype = GeometryFactory.eINSTANCE.createShape();
+			prototype.setMesh(new TriangleMesh());
+			ShapeInstance instance = new ShapeInstance(prototype);
+
+			ArrayList<Notification> received = new ArrayList<Notification>();
+			instance.eAdapters().add(new AdapterImpl() {
+				@Override
+				public void notifyChanged(Notification notification) {
+					received.add(notification);
+				}
+			});
+
+			// Replacing the prototype's triangles should be passed on
+			prototype.setMesh(new TriangleMesh());
+			assertEquals(1, received.size());
+
+			// The prototype's own decorator properties should not
+			prototype.changeDecoratorProperty("test", 1);
+			assertEquals(1, received.size());
+
+			// Neither should changes to the instance's own center
+			instance.getCenter().setY(3);
+			assertEquals(1, received.size());
+		} finally {
+			NotificationDispatcher.setSynchronous(false);
+		}
+	}
+
+	/**
+	 * Check that the prototype does not keep its instances from being
+	 * garbage collected.
+	 */
+	public void testCollection() {
+
+		NotificationDispatcher.setSynchronous(true);
+		try {
+			Shape prototype = GeometryFactory.eINSTANCE.createShape();
+			prototype.setMesh(new TriangleMesh());
+			ShapeInstance kept = new ShapeInstance(prototype);
+			ArrayList<Notification> received = new ArrayList<Notification>();
+			kept.eAdapters().add(new AdapterImpl() {
+				@Override
+				public void notifyChanged(Notification notification) {
+					received.add(notification);
+				}
+			});
+
+			// Make many instances without keeping them. The prototype should
+			// only gain a single listener for all of them.
+			WeakReference<ShapeInstance> dropped = new WeakReference<ShapeInstance>(
+					new ShapeInstance(prototype));
+			for (int i = 0; i < 1000; i++) {
+				new ShapeInstance(prototype);
+			}
+			assertEquals(1, prototype.eAdapters().size());
+
+			// The dropped instances should be collectable
+			for (int i = 0; i < 100 && dropped.get() != null; i++) {
+				System.gc();
+				Thread.sleep(10);
+			}
+			assertNull(dropped.get());
+
+			// The kept instance should still be notified
+			prototype.setMesh(new TriangleMesh());
+			assertEquals(1, received.size());
+		} catch (InterruptedException e) {
+			fail();
+		} finally {
+			NotificationDispatcher.setSynchronous(false);
+		}
+	}
+}
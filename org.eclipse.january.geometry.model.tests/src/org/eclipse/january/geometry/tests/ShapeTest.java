@@ -19,12 +19,17 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.common.util.EList;
+import org.eclipse.january.geometry.BoundingBox;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.GeometryPackage;
+import org.eclipse.january.geometry.INode;
 import org.eclipse.january.geometry.Operator;
 import org.eclipse.january.geometry.Shape;
+import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Vertex;
 import org.eclipse.january.geometry.impl.ShapeImpl;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
+import org.eclipse.january.geometry.util.TriangleMesh;
 import org.junit.Test;
 
 import junit.framework.TestCase;
@@ -472,5 +477,212 @@ public class ShapeTest extends TestCase {
 		assertFalse(fixture.equals(unequalShape));
 		assertFalse(fixture.equals(unequalShape));
 		assertNotEquals(fixture.hashCode(), unequalShape.hashCode());
+
+		// Children whose centers differ within the vertex tolerance are still
+		// equal, even though their hash codes differ
+		Shape closeShape = (Shape) equalShape.clone();
+		INode closeChild = closeShape.getNodes().get(0);
+		closeChild.getCenter().setX(closeChild.getCenter().getX() + 0.001);
+		assertNotEquals(equalChild.hashCode(), closeChild.hashCode());
+		assertTrue(fixture.equals(closeShape));
+		assertTrue(closeShape.equals(fixture));
+
+		// But not outside of it
+		closeChild.getCenter().setX(closeChild.getCenter().getX() + 1);
+		assertFalse(fixture.equals(closeShape));
+		assertFalse(closeShape.equals(fixture));
+
+		// Triangles follow the same tolerance as centers, even though their
+		// fingerprints differ
+		Shape triangleShape = GeometryFactory.eINSTANCE.createShape();
+		Shape closeTriangleShape = GeometryFactory.eINSTANCE.createShape();
+		triangleShape.setName("triangle");
+		closeTriangleShape.setName("triangle");
+		triangleShape.setType("triangle");
+		closeTriangleShape.setType("triangle");
+		TriangleMesh mesh = new TriangleMesh();
+		mesh.addVertex(0, 0, 0);
+		mesh.addVertex(1, 0, 0);
+		mesh.addVertex(0, 1, 0);
+		mesh.addTriangle(0, 1, 2, 0, 0, 1);
+		triangleShape.setMesh(mesh);
+		closeTriangleShape.setMesh(mesh.copy());
+		closeTriangleShape.getMesh().setPosition(1, 0, 1.001f);
+		assertTrue(triangleShape.equals(closeTriangleShape));
+		assertTrue(closeTriangleShape.equals(triangleShape));
+		closeTriangleShape.getMesh().setPosition(1, 0, 2f);
+		assertFalse(triangleShape.equals(closeTriangleShape));
+		assertFalse(closeTriangleShape.equals(triangleShape));
+	}
+
+	/**
+	 * Check that the shape's bounds hold its triangles and its children's, and
+	 * follow changes to them.
+	 * 
+	 * @generated NOT
+	 */
+	public void testGetBounds() {
+		NotificationDispatcher.setSynchronous(true);
+		try {
+
+			// Subclasses' fixtures generate their own triangles, so use a
+			// plain shape
+			Shape shape = GeometryFactory.eINSTANCE.createShape();
+
+			// A shape without triangles has no bounds
+			assertNull(shape.getBounds());
+
+			TriangleMesh mesh = new TriangleMesh();
+			mesh.addVertex(0, 0, 0);
+			mesh.addVertex(1, 2, 3);
+			mesh.addVertex(-1, 0, 1);
+			mesh.addTriangle(0, 1, 2);
+			shape.setMesh(mesh);
+			assertBounds(shape.getBounds(), -1, 0, 0, 1, 2, 3);
+
+			// The bounds should be offset by the center
+			shape.getCenter().setX(10);
+			assertBounds(shape.getBounds(), 9, 0, 0, 11, 2, 3);
+
+			// Moving a vertex should move the bounds
+			shape.getTriangles().get(0).getVertices().get(1).setY(5);
+			assertBounds(shape.getBounds(), 9, 0, 0, 11, 5, 3);
+
+			// Changing the returned box should not change the cached one
+			shape.getBounds().setMaxX(100);
+			assertBounds(shape.getBounds(), 9, 0, 0, 11, 5, 3);
+
+			// A child's bounds should be included in the shape's coordinates,
+			// and changes to the child should reach the shape
+			Shape child = (Shape) shape.clone();
+			child.getCenter().setX(0);
+			child.getCenter().setZ(-10);
+			shape.addNode(child);
+			assertBounds(shape.getBounds(), 9, 0, -10, 11, 5, 3);
+			child.getCenter().setZ(10);
+			assertBounds(shape.getBounds(), 9, 0, 0, 11, 5, 13);
+			shape.removeNode(child);
+			assertBounds(shape.getBounds(), 9, 0, 0, 11, 5, 3);
+
+			// Copying another shape should replace the bounds
+			Shape other = GeometryFactory.eINSTANCE.createShape();
+			other.setMesh(mesh.copy());
+			other.getCenter().setY(-1);
+			shape.copy(other);
+			assertBounds(shape.getBounds(), -1, -1, 0, 1, 4, 3);
+
+		} finally {
+			NotificationDispatcher.setSynchronous(false);
+		}
+	}
+
+	/**
+	 * Check that the bounds of a shape made of ordinary triangles follow
+	 * changes to the triangles and their vertices.
+	 * 
+	 * @generated NOT
+	 */
+	public void testGetBoundsTriangles() {
+		NotificationDispatcher.setSynchronous(true);
+		try {
+
+			// Build a shape from a triangle created by the factory
+			Shape shape = GeometryFactory.eINSTANCE.createShape();
+			Triangle triangle = GeometryFactory.eINSTANCE.createTriangle();
+			triangle.getVertices().add(createVertex(0, 0, 0));
+			triangle.getVertices().add(createVertex(1, 2, 3));
+			triangle.getVertices().add(createVertex(-1, 0, 1));
+			shape.getTriangles().add(triangle);
+			assertBounds(shape.getBounds(), -1, 0, 0, 1, 2, 3);
+
+			// Place it inside a parent, whose bounds are cached as well
+			Shape parent = GeometryFactory.eINSTANCE.createShape();
+			parent.addNode(shape);
+			parent.getCenter().setX(10);
+			assertBounds(parent.getBounds(), 9, 0, 0, 11, 2, 3);
+
+			// Moving a vertex should move the bounds of the shape and parent
+			triangle.getVertices().get(1).setY(5);
+			assertBounds(shape.getBounds(), -1, 0, 0, 1, 5, 3);
+			assertBounds(parent.getBounds(), 9, 0, 0, 11, 5, 3);
+
+			// So should replacing a vertex
+			triangle.getVertices().set(2, createVertex(-4, 0, 1));
+			assertBounds(shape.getBounds(), -4, 0, 0, 1, 5, 3);
+			assertBounds(parent.getBounds(), 6, 0, 0, 11, 5, 3);
+
+			// And adding another triangle
+			Triangle second = GeometryFactory.eINSTANCE.createTriangle();
+			second.getVertices().add(createVertex(0, 0, -2));
+			second.getVertices().add(createVertex(0, 1, 0));
+			second.getVertices().add(createVertex(1, 0, 0));
+			shape.getTriangles().add(second);
+			assertBounds(shape.getBounds(), -4, 0, -2, 1, 5, 3);
+
+			// A vertex of the new triangle should be followed too
+			second.getVertices().get(0).setZ(-6);
+			assertBounds(parent.getBounds(), 6, 0, -6, 11, 5, 3);
+
+			// The triangles copied into another shape should be followed as
+			// well
+			Shape copy = GeometryFactory.eINSTANCE.createShape();
+			copy.copy(shape);
+			assertBounds(copy.getBounds(), -4, 0, -6, 1, 5, 3);
+			copy.getTriangles().get(0).getVertices().get(0).setX(-8);
+			assertBounds(copy.getBounds(), -8, 0, -6, 1, 5, 3);
+			assertBounds(shape.getBounds(), -4, 0, -6, 1, 5, 3);
+
+		} finally {
+			NotificationDispatcher.setSynchronous(false);
+		}
+	}
+
+	/**
+	 * Create a vertex.
+	 * 
+	 * @param x
+	 *            The x coordinate
+	 * @param y
+	 *            The y coordinate
+	 * @param z
+	 *            The z coordinate
+	 * @return The new vertex
+	 * @generated NOT
+	 */
+	private Vertex createVertex(double x, double y, double z) {
+		Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+		vertex.setX(x);
+		vertex.setY(y);
+		vertex.setZ(z);
+		return vertex;
+	}
+
+	/**
+	 * Check that a box has the expected extents.
+	 * 
+	 * @param box
+	 *            The box to check
+	 * @param minX
+	 *            The expected minimum x coordinate
+	 * @param minY
+	 *            The expected minimum y coordinate
+	 * @param minZ
+	 *            The expected minimum z coordinate
+	 * @param maxX
+	 *            The expected maximum x coordinate
+	 * @param maxY
+	 *            The expected maximum y coordinate
+	 * @param maxZ
+	 *            The expected maximum z coordinate
+	 * @generated NOT
+	 */
+	private void assertBounds(BoundingBox box, double minX, double minY,
+			double minZ, double maxX, double maxY, double maxZ) {
+		assertEquals(minX, box.getMinX(), 1e-6);
+		assertEquals(minY, box.getMinY(), 1e-6);
+		assertEquals(minZ, box.getMinZ(), 1e-6);
+		assertEquals(maxX, box.getMaxX(), 1e-6);
+		assertEquals(maxY, box.getMaxY(), 1e-6);
+		assertEquals(maxZ, box.getMaxZ(), 1e-6);
 	}
 } // ShapeTest
@@ -14,11 +14,18 @@ package org.eclipse.january.geometry.tests;
 
 import static org.junit.Assert.assertNotEquals;
 
+import org.eclipse.emf.common.util.EList;
 import org.eclipse.january.geometry.Cube;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.Shape;
 import org.eclipse.january.geometry.Sphere;
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.Vertex;
 import org.eclipse.january.geometry.impl.SphereImpl;
+import org.eclipse.january.geometry.util.LevelOfDetail;
+import org.eclipse.january.geometry.util.MeshUtils;
+import org.eclipse.january.geometry.util.TriangleMesh;
+import org.eclipse.january.geometry.util.TriangleMeshView;
 import org.junit.Test;
 
 import junit.textui.TestRunner;
@@ -198,4 +205,58 @@ public class SphereTest extends ShapeTest {
 		assertNotEquals(fixture.hashCode(), unequalShape.hashCode());
 	}
 
+	/**
+	 * Check that the sphere can be tessellated at lower levels of detail.
+	 * 
+	 * @generated NOT
+	 */
+	public void testLevelOfDetail() {
+
+		Sphere sphere = GeometryFactory.eINSTANCE.createSphere();
+		sphere.setRadius(3);
+		LevelOfDetail detail = (LevelOfDetail) sphere;
+
+		// The full level is the sphere's normal mesh
+		assertSame(sphere.getTriangles(), detail.getTriangles(0));
+
+		// Each level should have fewer triangles than the one before it, and
+		// levels past the last should give the last
+		for (int level = 1; level < MeshUtils.DETAIL_LEVELS; level++) {
+			assertTrue(detail.getTriangles(level).size() < detail
+					.getTriangles(level - 1).size());
+		}
+		assertSame(detail.getTriangles(MeshUtils.DETAIL_LEVELS - 1),
+				detail.getTriangles(MeshUtils.DETAIL_LEVELS));
+
+		// Every vertex should still lie on the sphere
+		for (Triangle triangle : detail.getTriangles(2)) {
+			for (Vertex vertex : triangle.getVertices()) {
+				assertEquals(3, Math.sqrt(vertex.getX() * vertex.getX()
+						+ vertex.getY() * vertex.getY()
+						+ vertex.getZ() * vertex.getZ()), 0.5);
+			}
+		}
+
+		// A tiny error requires the full level, while one larger than the
+		// sphere allows the coarsest
+		assertEquals(0, detail.getDetailLevel(1e-6));
+		assertEquals(MeshUtils.DETAIL_LEVELS - 1, detail.getDetailLevel(10));
+
+		// Coarse levels should be views of a mesh, so that renderers can
+		// recognize them without reading the triangles
+		EList<Triangle> coarse = detail.getTriangles(1);
+		assertTrue(coarse instanceof TriangleMeshView);
+		TriangleMesh coarseMesh = ((TriangleMeshView) coarse).getMesh();
+		assertNotNull(coarseMesh);
+		assertEquals(coarse.size(), coarseMesh.getTriangleCount());
+		assertNull(coarse.get(0).eContainer());
+
+		// Changing the radius should replace the cached levels
+		assertSame(coarse, detail.getTriangles(1));
+		sphere.setRadius(1);
+		assertNotSame(coarse, detail.getTriangles(1));
+		double x = detail.getTriangles(1).get(0).getVertices().get(0).getX();
+		assertTrue(Math.abs(x) <= 1);
+	}
+
 } // SphereTest
@@ -0,0 +1,500 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.BasicEList;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.GeometryPackage;
+import org.eclipse.january.geometry.Shape;
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.TriangleMesh;
+
+import junit.framework.TestCase;
+
+/**
+ * A class to test the functionality of the TriangleMesh and of shapes whose
+ * triangles are stored in one.
+ *
+ * @author Robert Smith
+ *
+ */
+public class TriangleMeshTest extends TestCase {
+
+	/**
+	 * Check that vertices and triangles can be added to the mesh.
+	 */
+	public void testAdd() {
+
+		TriangleMesh mesh = new TriangleMesh();
+
+		// Add enough vertices and triangles to grow the arrays
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, mesh.addVertex(i, i + 1, i + 2));
+		}
+		for (int i = 0; i < 98; i++) {
+			assertEquals(i, mesh.addTriangle(i, i + 1, i + 2, 0, 0, 1));
+		}
+		assertEquals(100, mesh.getVertexCount());
+		assertEquals(98, mesh.getTriangleCount());
+		assertEquals(51f, mesh.getPosition(50, 1), 0f);
+		assertEquals(52, mesh.getIndex(50, 2));
+		assertEquals(1f, mesh.getNormal(97, 2), 0f);
+
+		// Trimming should leave arrays exactly the size of the mesh
+		mesh.trimToSize();
+		assertEquals(300, mesh.getPositions().length);
+		assertEquals(294, mesh.getIndices().length);
+		assertEquals(294, mesh.getNormals().length);
+
+		// A copy should be independent of the original
+		TriangleMesh copy = mesh.copy();
+		copy.setPosition(0, 0, 7f);
+		assertEquals(7f, copy.getPosition(0, 0), 0f);
+		assertEquals(0f, mesh.getPosition(0, 0), 0f);
+	}
+
+	/**
+	 * Check that changes to the mesh are tracked.
+	 */
+	public void testChanges() {
+
+		// A new mesh is entirely dirty
+		TriangleMesh mesh = createSquare();
+		assertEquals(0, mesh.getDirtyVertexStart());
+		assertEquals(4, mesh.getDirtyVertexEnd());
+		assertEquals(2, mesh.getDirtyTriangleEnd());
+
+		// After clearing, only the changed elements should be dirty
+		long version = mesh.getVersion();
+		mesh.clearDirty();
+		assertEquals(0, mesh.getDirtyVertexEnd());
+		assertEquals(0, mesh.getDirtyTriangleEnd());
+		mesh.setPosition(2, 0, 5f);
+		mesh.setPosition(1, 1, 5f);
+		mesh.setNormal(1, 0, 1f);
+		assertEquals(1, mesh.getDirtyVertexStart());
+		assertEquals(3, mesh.getDirtyVertexEnd());
+		assertEquals(1, mesh.getDirtyTriangleStart());
+		assertEquals(2, mesh.getDirtyTriangleEnd());
+		assertEquals(version + 3, mesh.getVersion());
+
+		// A shape should be notified once for each change to a shared vertex
+		Shape shape = GeometryFactory.eINSTANCE.createShape();
+		shape.setMesh(mesh);
+		int[] count = new int[1];
+		shape.eAdapters().add(new AdapterImpl() {
+			@Override
+			public void notifyChanged(Notification notification) {
+				count[0]++;
+			}
+		});
+		shape.getTriangles().get(0).getVertices().get(0).setY(3);
+		assertEquals(1, count[0]);
+		assertEquals(3f, mesh.getPosition(0, 1), 0f);
+	}
+
+	/**
+	 * Check that the content hash depends only on the triangles' values.
+	 */
+	public void testContentHash() {
+
+		// Meshes with the same triangles should have the same hash, however
+		// their vertices are numbered
+		TriangleMesh mesh = createSquare();
+		TriangleMesh reordered = new TriangleMesh();
+		reordered.addVertex(0, 1, 0);
+		reordered.addVertex(1, 1, 0);
+		reordered.addVertex(1, 0, 0);
+		reordered.addVertex(0, 0, 0);
+		reordered.addTriangle(3, 2, 1, 0, 0, 1);
+		reordered.addTriangle(3, 1, 0, 0, 0, 1);
+		assertEquals(mesh.getContentHash(), reordered.getContentHash());
+
+		// A list of triangles should have the same hash as the mesh
+		Shape shape = GeometryFactory.eINSTANCE.createShape();
+		shape.setMesh(mesh.copy());
+		EList<Triangle> triangles = new BasicEList<Triangle>();
+		for (Triangle triangle : shape.getTriangles()) {
+			Triangle copy = GeometryFactory.eINSTANCE.createTriangle();
+			copy.getNormal().setZ(triangle.getNormal().getZ());
+			for (Vertex vertex : triangle.getVertices()) {
+				copy.getVertices().add(createVertex(vertex.getX(),
+						vertex.getY(), vertex.getZ()));
+			}
+			triangles.add(copy);
+		}
+		assertEquals(mesh.getContentHash(),
+				TriangleMesh.getContentHash(triangles));
+		assertEquals(mesh.getContentHash(),
+				TriangleMesh.getContentHash(shape.getTriangles()));
+
+		// Changing the mesh should change its hash
+		long hash = mesh.getContentHash();
+		mesh.setPosition(3, 2, 1f);
+		assertFalse(hash == mesh.getContentHash());
+		mesh.setPosition(3, 2, 0f);
+		assertEquals(hash, mesh.getContentHash());
+	}
+
+	/**
+	 * Check that the fingerprint depends only on the triangles' values, and
+	 * not on their order.
+	 */
+	public void testFingerprint() {
+
+		// Reversing the triangles and turning their vertices should not
+		// change the fingerprint, though it changes the content hash
+		TriangleMesh mesh = createSquare();
+		TriangleMesh reordered = new TriangleMesh();
+		reordered.addVertex(0, 0, 0);
+		reordered.addVertex(1, 0, 0);
+		reordered.addVertex(1, 1, 0);
+		reordered.addVertex(0, 1, 0);
+		reordered.addTriangle(3, 0, 2, 0, 0, 1);
+		reordered.addTriangle(1, 2, 0, 0, 0, 1);
+		assertEquals(mesh.getFingerprint(), reordered.getFingerprint());
+		assertFalse(mesh.getContentHash() == reordered.getContentHash());
+
+		// A list of triangles should have the same fingerprint as the mesh
+		Shape shape = GeometryFactory.eINSTANCE.createShape();
+		shape.setMesh(reordered);
+		EList<Triangle> triangles = new BasicEList<Triangle>();
+		for (Triangle triangle : shape.getTriangles()) {
+			Triangle copy = GeometryFactory.eINSTANCE.createTriangle();
+			copy.getNormal().setZ(triangle.getNormal().getZ());
+			for (Vertex vertex : triangle.getVertices()) {
+				copy.getVertices().add(createVertex(vertex.getX(),
+						vertex.getY(), vertex.getZ()));
+			}
+			triangles.add(0, copy);
+		}
+		assertEquals(mesh.getFingerprint(),
+				TriangleMesh.getFingerprint(triangles));
+
+		// Triangles added or given new normals should be accounted for
+		long fingerprint = mesh.getFingerprint();
+		mesh.addTriangle(0, 2, 3, 0, 0, 1);
+		mesh.setNormal(0, 0, 1);
+		long updated = mesh.getFingerprint();
+		assertFalse(fingerprint == updated);
+		assertEquals(updated, mesh.copy().getFingerprint());
+
+		// As should moved vertices
+		mesh.setPosition(3, 2, 1f);
+		assertFalse(updated == mesh.getFingerprint());
+		mesh.setPosition(3, 2, 0f);
+		assertEquals(updated, mesh.getFingerprint());
+	}
+
+	/**
+	 * Check that shapes with the same triangles are equal whatever order the
+	 * triangles are in, including for large meshes.
+	 */
+	public void testShapeEquals() {
+
+		// A grid of 20000 triangles, and the same grid built backwards
+		TriangleMesh mesh = new TriangleMesh();
+		TriangleMesh reversed = new TriangleMesh();
+		for (int i = 0; i <= 100; i++) {
+			for (int j = 0; j <= 100; j++) {
+				mesh.addVertex(i, j, 0);
+				reversed.addVertex(i, j, 0);
+			}
+		}
+		for (int i = 0; i < 100; i++) {
+			for (int j = 0; j < 100; j++) {
+				int corner = i * 101 + j;
+				mesh.addTriangle(corner, corner + 101, corner + 102, 0, 0, 1);
+				mesh.addTriangle(corner, corner + 102, corner + 1, 0, 0, 1);
+			}
+		}
+		for (int i = 99; i >= 0; i--) {
+			for (int j = 99; j >= 0; j--) {
+				int corner = i * 101 + j;
+				reversed.addTriangle(corner + 1, corner, corner + 102, 0, 0,
+						1);
+				reversed.addTriangle(corner + 102, corner, corner + 101, 0, 0,
+						1);
+			}
+		}
+		Shape shape = GeometryFactory.eINSTANCE.createShape();
+		shape.setName("grid");
+		shape.setType("grid");
+		shape.setMesh(mesh);
+		Shape equalShape = GeometryFactory.eINSTANCE.createShape();
+		equalShape.setName("grid");
+		equalShape.setType("grid");
+		equalShape.setMesh(reversed);
+		assertTrue(shape.equals(equalShape));
+		assertTrue(equalShape.equals(shape));
+		assertEquals(shape.hashCode(), equalShape.hashCode());
+
+		// Moving a single vertex should make them unequal
+		reversed.setPosition(5000, 2, 1f);
+		assertFalse(shape.equals(equalShape));
+		assertFalse(shape.hashCode() == equalShape.hashCode());
+		reversed.setPosition(5000, 2, 0f);
+		assertTrue(shape.equals(equalShape));
+
+		// A shape holding the same triangles as model objects should be equal
+		// to one holding them in a mesh
+		Shape listShape = GeometryFactory.eINSTANCE.createShape();
+		listShape.setName("grid");
+		listShape.setType("grid");
+		for (Triangle triangle : equalShape.getTriangles()) {
+			Triangle copy = GeometryFactory.eINSTANCE.createTriangle();
+			copy.getNormal().setZ(triangle.getNormal().getZ());
+			for (Vertex vertex : triangle.getVertices()) {
+				copy.getVertices().add(createVertex(vertex.getX(),
+						vertex.getY(), vertex.getZ()));
+			}
+			listShape.getTriangles().add(copy);
+		}
+		assertTrue(shape.equals(listShape));
+		assertTrue(listShape.equals(shape));
+		assertEquals(shape.hashCode(), listShape.hashCode());
+		listShape.getTriangles().remove(0);
+		assertFalse(shape.equals(listShape));
+	}
+
+	/**
+	 * Check that a shape's triangles are views of its mesh.
+	 */
+	public void testShapeTriangles() {
+
+		Shape shape = GeometryFactory.eINSTANCE.createShape();
+		shape.setMesh(createSquare());
+		EList<Triangle> triangles = shape.getTriangles();
+		assertEquals(2, triangles.size());
+
+		// Check the triangles' contents
+		Triangle first = triangles.get(0);
+		assertEquals(3, first.getVertices().size());
+		assertEquals(1d, first.getVertices().get(1).getX(), 0d);
+		assertEquals(1d, first.getNormal().getZ(), 0d);
+
+		// A materialized triangle should be equal to an ordinary one
+		Triangle expected = GeometryFactory.eINSTANCE.createTriangle();
+		expected.getVertices().add(createVertex(0, 0, 0));
+		expected.getVertices().add(createVertex(1, 0, 0));
+		expected.getVertices().add(createVertex(1, 1, 0));
+		expected.getNormal().setZ(1);
+		assertEquals(expected, first);
+
+		// Changing a shared vertex in one triangle should change it in the
+		// other
+		first.getVertices().get(0).setX(-2);
+		assertEquals(-2d, triangles.get(1).getVertices().get(0).getX(), 0d);
+		assertEquals(-2f, shape.getMesh().getPosition(0, 0), 0f);
+
+		// Setting the normal should write it to the mesh
+		Vertex normal = createVertex(0, 1, 0);
+		first.setNormal(normal);
+		assertEquals(1f, shape.getMesh().getNormal(0, 1), 0f);
+
+		// The vertex list cannot be edited
+		try {
+			first.getVertices().remove(0);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
+	}
+
+	/**
+	 * Check that a shape's triangle views are kept between requests.
+	 */
+	public void testShapeTriangleViews() {
+
+		Shape shape = GeometryFactory.eINSTANCE.createShape();
+		shape.setMesh(createSquare());
+		EList<Triangle> triangles = shape.getTriangles();
+
+		// The same index should always give the same view, contained by the
+		// shape
+		Triangle first = triangles.get(0);
+		assertSame(first, triangles.get(0));
+		assertSame(first, shape.getTriangles().get(0));
+		assertSame(shape, first.eContainer());
+
+		// Adapters on a view should still be there when it is requested again
+		AdapterImpl adapter = new AdapterImpl();
+		first.eAdapters().add(adapter);
+		assertTrue(triangles.get(0).eAdapters().contains(adapter));
+
+		// Materializing the list should keep the same views
+		triangles.add(GeometryFactory.eINSTANCE.createTriangle());
+		assertSame(first, shape.getTriangles().get(0));
+		assertSame(shape, first.eContainer());
+
+		// Replacing the mesh should release the old views
+		shape.setMesh(createSquare());
+		Triangle view = shape.getTriangles().get(0);
+		assertNotSame(first, view);
+		assertSame(shape, view.eContainer());
+		shape.setMesh(createSquare());
+		assertNull(view.eContainer());
+	}
+
+	/**
+	 * Check that the list only keeps the views which have adapters.
+	 */
+	public void testShapeTriangleViewsReleased() {
+
+		Shape shape = GeometryFactory.eINSTANCE.createShape();
+		shape.setMesh(createSquare());
+		EList<Triangle> triangles = shape.getTriangles();
+
+		// A view which is no longer in use should be collected
+		WeakReference<Triangle> first = new WeakReference<Triangle>(
+				triangles.get(0));
+		for (int i = 0; i < 20 && first.get() != null; i++) {
+			System.gc();
+		}
+		assertNull(first.get());
+
+		// A view with an adapter on one of its vertices should be kept
+		AdapterImpl adapter = new AdapterImpl();
+		triangles.get(1).getVertices().get(0).eAdapters().add(adapter);
+		WeakReference<Triangle> second = new WeakReference<Triangle>(
+				triangles.get(1));
+		System.gc();
+		assertSame(second.get(), triangles.get(1));
+		assertTrue(triangles.get(1).getVertices().get(0).eAdapters()
+				.contains(adapter));
+	}
+
+	/**
+	 * Check that modifying a shape's list of triangles replaces its mesh with
+	 * ordinary triangles.
+	 */
+	public void testModify() {
+
+		Shape shape = GeometryFactory.eINSTANCE.createShape();
+		shape.setMesh(createSquare());
+
+		// Adding a triangle should keep the mesh's triangles in the list
+		EList<Triangle> triangles = shape.getTriangles();
+		triangles.add(GeometryFactory.eINSTANCE.createTriangle());
+		assertNull(shape.getMesh());
+		assertEquals(3, triangles.size());
+		assertEquals(3, shape.getTriangles().size());
+		assertSame(shape, triangles.get(0).eContainer());
+
+		// Clearing the list should discard the mesh
+		shape.setMesh(createSquare());
+		shape.getTriangles().clear();
+		assertNull(shape.getMesh());
+		assertTrue(shape.getTriangles().isEmpty());
+	}
+
+	/**
+	 * Check that copying a shape copies its mesh.
+	 */
+	public void testCopy() {
+
+		Shape shape = GeometryFactory.eINSTANCE.createShape();
+		shape.setMesh(createSquare());
+
+		Shape clone = (Shape) shape.clone();
+		assertNotNull(clone.getMesh());
+		assertNotSame(shape.getMesh(), clone.getMesh());
+		assertEquals(2, clone.getTriangles().size());
+		assertEquals(shape, clone);
+		assertEquals(shape.hashCode(), clone.hashCode());
+
+		// Changing the clone should not change the original
+		clone.getTriangles().get(0).getVertices().get(0).setZ(5);
+		assertEquals(0f, shape.getMesh().getPosition(0, 2), 0f);
+	}
+
+	/**
+	 * Check that a shape's mesh is saved and loaded as ordinary triangles.
+	 *
+	 * @throws IOException
+	 */
+	public void testSave() throws IOException {
+
+		Shape shape = GeometryFactory.eINSTANCE.createShape();
+		shape.setMesh(createSquare());
+		assertTrue(shape.eIsSet(GeometryPackage.Literals.INODE__TRIANGLES));
+
+		// Adding the shape to a resource after its views were created should
+		// not materialize the mesh
+		Triangle first = shape.getTriangles().get(0);
+		Resource resource = new XMIResourceImpl(URI.createURI("test.xmi"));
+		resource.getContents().add(shape);
+		assertNotNull(shape.getMesh());
+		assertSame(resource, first.eResource());
+
+		// Shapes do not contain their centers, so leave them out
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		resource.save(out,
+				Collections.singletonMap(
+						XMLResource.OPTION_PROCESS_DANGLING_HREF,
+						XMLResource.OPTION_PROCESS_DANGLING_HREF_DISCARD));
+		Resource loaded = new XMIResourceImpl(URI.createURI("test.xmi"));
+		loaded.load(new ByteArrayInputStream(out.toByteArray()), null);
+
+		// The loaded shape should have the same triangles
+		Shape copy = (Shape) loaded.getContents().get(0);
+		assertEquals(shape.getTriangles(), copy.getTriangles());
+	}
+
+	/**
+	 * Create a mesh of a unit square made of two triangles.
+	 *
+	 * @return The new mesh
+	 */
+	private TriangleMesh createSquare() {
+		TriangleMesh mesh = new TriangleMesh();
+		mesh.addVertex(0, 0, 0);
+		mesh.addVertex(1, 0, 0);
+		mesh.addVertex(1, 1, 0);
+		mesh.addVertex(0, 1, 0);
+		mesh.addTriangle(0, 1, 2, 0, 0, 1);
+		mesh.addTriangle(0, 2, 3, 0, 0, 1);
+		return mesh;
+	}
+
+	/**
+	 * Create a vertex with the given coordinates.
+	 *
+	 * @param x
+	 *            The x coordinate
+	 * @param y
+	 *            The y coordinate
+	 * @param z
+	 *            The z coordinate
+	 * @return The new vertex
+	 */
+	private Vertex createVertex(double x, double y, double z) {
+		Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+		vertex.setX(x);
+		vertex.setY(y);
+		vertex.setZ(z);
+		return vertex;
+	}
+}
@@ -12,8 +12,13 @@
  */
 package org.eclipse.january.geometry.tests;
 
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.january.geometry.Cube;
 import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.Intersection;
+import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Union;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
 import org.junit.Test;
 
 import junit.textui.TestRunner;
@@ -86,4 +91,55 @@ public class UnionTest extends OperatorTest {
 		assertTrue(fixture.clone() instanceof Union);
 	}
 
+	/**
+	 * Check that the union of the operator's children is calculated and
+	 * cached until one of them changes.
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	public void testGetResultTriangles() {
+
+		NotificationDispatcher.setSynchronous(true);
+		try {
+			// The cubes overlap in a cube of side 1
+			Cube first = createCube(0, 0, 0);
+			Cube second = createCube(1, 1, 1);
+			fixture.addNode(first);
+			fixture.addNode(second);
+			EList<Triangle> result = fixture.getResultTriangles();
+			assertEquals(15, MeshBooleanTest.getVolume(result), 1e-9);
+			assertSame(result, fixture.getResultTriangles());
+
+			// Moving a cube away should leave both whole
+			second.getCenter().setX(5);
+			assertNotSame(result, fixture.getResultTriangles());
+			assertEquals(16,
+					MeshBooleanTest.getVolume(fixture.getResultTriangles()),
+					1e-9);
+
+			// Replace the second cube with an intersection
+			fixture.removeNode(second);
+			Intersection intersection = GeometryFactory.eINSTANCE
+					.createIntersection();
+			Cube inner = createCube(0.5, 0, 0);
+			intersection.addNode(inner);
+			intersection.addNode(createCube(1.5, 0, 0));
+			fixture.addNode(intersection);
+			assertEquals(10,
+					MeshBooleanTest.getVolume(fixture.getResultTriangles()),
+					1e-9);
+
+			// Changes to the intersection's children should be seen too
+			result = fixture.getResultTriangles();
+			inner.setSideLength(4);
+			assertNotSame(result, fixture.getResultTriangles());
+			assertEquals(14,
+					MeshBooleanTest.getVolume(fixture.getResultTriangles()),
+					1e-9);
+		} finally {
+			NotificationDispatcher.setSynchronous(false);
+		}
+	}
+
 } // UnionTest
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.tests;
+
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.VertexWelder;
+
+import junit.framework.TestCase;
+
+/**
+ * A class to test the functionality of the VertexWelder.
+ *
+ * @author Robert Smith
+ *
+ */
+public class VertexWelderTest extends TestCase {
+
+	/**
+	 * Check that vertices within the tolerance are merged and others are not.
+	 */
+	public void testAdd() {
+
+		VertexWelder welder = new VertexWelder();
+
+		// Distinct points should each get a new index
+		assertEquals(0, welder.add(0, 0, 0));
+		assertEquals(1, welder.add(1, 0, 0));
+		assertEquals(2, welder.add(0, 1, 0));
+		assertEquals(0, welder.getMergedCount());
+
+		// Points within the tolerance should be merged, including across cell
+		// boundaries
+		assertEquals(0, welder.add(0.005, -0.005, 0.01));
+		assertEquals(1, welder.add(0.999, 0, 0));
+		assertEquals(2, welder.getMergedCount());
+
+		// A point just outside the tolerance should not be merged
+		assertEquals(3, welder.add(0.02, 0, 0));
+		assertEquals(4, welder.getVertexCount());
+
+		// Check the stored coordinates
+		double[] coordinates = welder.getCoordinates();
+		assertEquals(12, coordinates.length);
+		assertEquals(0.02, coordinates[9], 0);
+	}
+
+	/**
+	 * Check that a welder with no tolerance only merges exact matches.
+	 */
+	public void testExactTolerance() {
+
+		VertexWelder welder = new VertexWelder(0);
+		assertEquals(0, welder.add(-2.5, 3, 1e6));
+		assertEquals(1, welder.add(-2.5, 3, 1e6 + 0.5));
+		assertEquals(0, welder.add(-2.5, 3, 1e6));
+		assertEquals(1, welder.getMergedCount());
+
+		// Negative tolerances are not allowed
+		try {
+			new VertexWelder(-1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+
+	/**
+	 * Check that welded Vertex objects are shared.
+	 */
+	public void testWeld() {
+
+		VertexWelder welder = new VertexWelder();
+
+		Vertex vertex1 = GeometryFactory.eINSTANCE.createVertex();
+		vertex1.setX(1);
+		vertex1.setY(2);
+		vertex1.setZ(3);
+		Vertex vertex2 = (Vertex) vertex1.clone();
+		vertex2.setZ(3.001);
+
+		// The welded vertex should be a clone of the first vertex shared by
+		// both
+		Vertex welded = welder.weld(vertex1);
+		assertNotSame(vertex1, welded);
+		assertEquals(vertex1, welded);
+		assertSame(welded, welder.weld(vertex2));
+		assertSame(welded, welder.getVertex(0));
+	}
+
+	/**
+	 * Check that the welder handles enough points to force it to grow.
+	 */
+	public void testGrowth() {
+
+		VertexWelder welder = new VertexWelder();
+
+		// Add a grid of points, then add each point again
+		for (int pass = 0; pass < 2; pass++) {
+			for (int i = 0; i < 50; i++) {
+				for (int j = 0; j < 50; j++) {
+					for (int k = 0; k < 2; k++) {
+						int index = welder.add(i, j, k);
+						assertEquals((i * 50 + j) * 2 + k, index);
+					}
+				}
+			}
+		}
+
+		assertEquals(5000, welder.getVertexCount());
+		assertEquals(5000, welder.getMergedCount());
+	}
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.tests;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.january.geometry.model.importer.XtextImporterRuntime;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.XtextResourceSet;
+
+import com.google.inject.Injector;
+
+import xtext.STLStandaloneSetup;
+
+/**
+ * A benchmark comparing the per file cost of parsing a small STL file with a
+ * new injector for every file, as the importers used to do, against parsing
+ * it with the shared XtextImporterRuntime. Run as a Java application from the
+ * test bundle's root directory.
+ *
+ * @author Robert Smith
+ *
+ */
+public class XtextImporterRuntimeBenchmark {
+
+	/**
+	 * The number of files to import for each measurement, matching a typical
+	 * batch import of an assembly's parts.
+	 */
+	private static final int FILES = 300;
+
+	/**
+	 * The number of imports performed before measuring, to warm up the JIT.
+	 */
+	private static final int WARMUP = 50;
+
+	/**
+	 * Run the benchmark.
+	 *
+	 * @param args
+	 *            Unused
+	 */
+	public static void main(String[] args) {
+
+		Path file = FileSystems.getDefault().getPath("src", "geometry",
+				"tests", "files", "cube.stl");
+
+		// Warm up both approaches
+		for (int i = 0; i < WARMUP; i++) {
+			loadWithNewInjector(file);
+			loadWithRuntime(file);
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < FILES; i++) {
+			loadWithNewInjector(file);
+		}
+		long before = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < FILES; i++) {
+			loadWithRuntime(file);
+		}
+		long after = System.nanoTime() - start;
+
+		System.out.println(String.format(
+				"New injector per file:  %8.3f ms per file", before / 1e6 / FILES));
+		System.out.println(String.format(
+				"Shared runtime:         %8.3f ms per file", after / 1e6 / FILES));
+	}
+
+	/**
+	 * Load a file by creating a new injector and resource set.
+	 *
+	 * @param path
+	 *            The file to load
+	 * @return The first object in the file
+	 */
+	private static Object loadWithNewInjector(Path path) {
+		Injector injector = new STLStandaloneSetup()
+				.createInjectorAndDoEMFRegistration();
+		XtextResourceSet resourceSet = injector
+				.getInstance(XtextResourceSet.class);
+		resourceSet.addLoadOption(XtextResource.OPTION_RESOLVE_ALL,
+				Boolean.TRUE);
+		return resourceSet
+				.getResource(URI.createFileURI(path.toFile().getAbsolutePath()),
+						true)
+				.getContents().get(0);
+	}
+
+	/**
+	 * Load a file through the shared runtime.
+	 *
+	 * @param path
+	 *            The file to load
+	 * @return The first object in the file
+	 */
+	private static Object loadWithRuntime(Path path) {
+		return XtextImporterRuntime.getRuntime(new STLStandaloneSetup())
+				.load(path).get(0);
+	}
+}
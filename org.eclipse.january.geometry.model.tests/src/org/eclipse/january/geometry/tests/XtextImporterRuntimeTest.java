@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.tests;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.january.geometry.Geometry;
+import org.eclipse.january.geometry.model.importer.XtextImporterRuntime;
+import org.eclipse.xtext.resource.XtextResourceSet;
+
+import junit.framework.TestCase;
+import xtext.STLStandaloneSetup;
+
+/**
+ * A class to test the functionality of the XtextImporterRuntime.
+ *
+ * @author Robert Smith
+ *
+ */
+public class XtextImporterRuntimeTest extends TestCase {
+
+	/**
+	 * The ASCII STL file to load.
+	 */
+	private final Path file = FileSystems.getDefault().getPath("src",
+			"geometry", "tests", "files", "cube.stl");
+
+	/**
+	 * Check that the runtime and its injector are shared.
+	 */
+	public void testGetRuntime() {
+
+		XtextImporterRuntime runtime = XtextImporterRuntime
+				.getRuntime(new STLStandaloneSetup());
+		assertSame(runtime,
+				XtextImporterRuntime.getRuntime(new STLStandaloneSetup()));
+		assertNotNull(runtime.getInjector());
+
+		// A released resource set should be reused, and should be empty
+		XtextResourceSet resourceSet = runtime.acquire();
+		runtime.release(resourceSet);
+		assertSame(resourceSet, runtime.acquire());
+		assertTrue(resourceSet.getResources().isEmpty());
+		runtime.release(resourceSet);
+	}
+
+	/**
+	 * Check that each load gives independent contents.
+	 */
+	public void testLoad() {
+
+		XtextImporterRuntime runtime = XtextImporterRuntime
+				.getRuntime(new STLStandaloneSetup());
+
+		EList<EObject> contents1 = runtime.load(file);
+		EList<EObject> contents2 = runtime.load(file);
+
+		Geometry geometry1 = (Geometry) contents1.get(0);
+		Geometry geometry2 = (Geometry) contents2.get(0);
+		assertNotSame(geometry1, geometry2);
+		assertEquals(12, geometry1.getNodes().get(0).getTriangles().size());
+		assertEquals(12, geometry2.getNodes().get(0).getTriangles().size());
+	}
+
+	/**
+	 * Check that files can be loaded from several threads at once.
+	 *
+	 * @throws Exception
+	 */
+	public void testConcurrentLoad() throws Exception {
+
+		XtextImporterRuntime runtime = XtextImporterRuntime
+				.getRuntime(new STLStandaloneSetup());
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Geometry>> results = new ArrayList<Future<Geometry>>();
+			for (int i = 0; i < 16; i++) {
+				results.add(executor.submit(new Callable<Geometry>() {
+					@Override
+					public Geometry call() {
+						return (Geometry) runtime.load(file).get(0);
+					}
+				}));
+			}
+
+			for (Future<Geometry> result : results) {
+				assertEquals(12, result.get().getNodes().get(0).getTriangles()
+						.size());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.xtext.obj.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.january.geometry.Face;
+import org.eclipse.january.geometry.Geometry;
+import org.eclipse.january.geometry.PolyShape;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.xtext.obj.importer.OBJFastReader;
+import org.junit.Test;
+
+/**
+ * Tests the functionality of the fast OBJ reader.
+ *
+ * @author Robert Smith
+ *
+ */
+public class OBJFastReaderTester {
+
+	/**
+	 * Check that vertices, texture coordinates and faces in all their forms
+	 * are read.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void testRead() throws IOException {
+
+		Geometry geometry = read("# A comment\n" + "mtllib ./test.mtl\n"
+				+ "v 0 0 0\n" + "v 1.5 -2.25 3e2\n" + "v -.5 +4 0.125 1\n"
+				+ "v 7 8 9 # trailing comment\n" + "vt 0.5 1\n" + "vt 1 0 0\n"
+				+ "vn 0 0 1\n" + "g part one\n" + "s off\n"
+				+ "f 1 2 3\n" + "f 1/1 2/2 3/1\n" + "f 1/1/1 2//1 -1/2/1\n"
+				+ "usemtl steel\n" + "f 2 3 4\n");
+
+		// Check the vertices
+		EList<Vertex> vertices = geometry.getVertexSource().getVertices();
+		assertEquals(4, vertices.size());
+		testVertex(vertices.get(1), 1.5, -2.25, 300);
+		testVertex(vertices.get(2), -0.5, 4, 0.125);
+		testVertex(vertices.get(3), 7, 8, 9);
+		EList<Vertex> textures = geometry.getVertexSource()
+				.getTextureCoordinates();
+		assertEquals(2, textures.size());
+		testVertex(textures.get(0), 0.5, 1, 0);
+		assertEquals("./test.mtl",
+				geometry.getVertexSource().getMaterialFiles().get(0));
+
+		// The material change should start a second shape in the same group
+		assertEquals(2, geometry.getNodes().size());
+		PolyShape shape1 = (PolyShape) geometry.getNodes().get(0);
+		PolyShape shape2 = (PolyShape) geometry.getNodes().get(1);
+		assertEquals("part one", shape1.getName());
+		assertNull(shape1.getMaterial());
+		assertEquals("part one", shape2.getName());
+		assertEquals("steel", shape2.getMaterial().getPhongMatName());
+
+		// Check the faces
+		EList<Face> faces = shape1.getFaces();
+		assertEquals(3, faces.size());
+		testIndices(faces.get(0).getVertexIndices(), 1, 2, 3);
+		testIndices(faces.get(0).getTextureIndices());
+		testIndices(faces.get(1).getVertexIndices(), 1, 2, 3);
+		testIndices(faces.get(1).getTextureIndices(), 1, 2);
+		testIndices(faces.get(2).getVertexIndices(), 1, 2, 4);
+		testIndices(faces.get(2).getTextureIndices(), 1, 2);
+		testIndices(shape2.getFaces().get(0).getVertexIndices(), 2, 3, 4);
+	}
+
+	/**
+	 * Check that unsupported or malformed files are rejected.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void testErrors() throws IOException {
+		testError("v 0 0 0\ncurv 0 1 1 2\n");
+		testError("v 0 0\n");
+		testError("v 0 0 zero\n");
+		testError("v 0 0 0\nf 1 2a 3\n");
+		testError("v 0 0 0\nf 1 -2 1\n");
+	}
+
+	/**
+	 * Read a file containing the given text.
+	 *
+	 * @param contents
+	 *            The file's contents
+	 * @return The geometry read from the file
+	 * @throws IOException
+	 */
+	private Geometry read(String contents) throws IOException {
+		Path file = Files.createTempFile("fast", ".obj");
+		try {
+			Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+			return new OBJFastReader().read(file);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/**
+	 * Check that reading the given text fails.
+	 *
+	 * @param contents
+	 *            The file's contents
+	 */
+	private void testError(String contents) {
+		try {
+			read(contents);
+			fail();
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+
+	private void testIndices(EList<Integer> indices, int... expected) {
+		assertEquals(expected.length, indices.size());
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], (int) indices.get(i));
+		}
+	}
+
+	private void testVertex(Vertex toTest, double x, double y, double z) {
+		assertEquals(x, toTest.getX(), 0);
+		assertEquals(y, toTest.getY(), 0);
+		assertEquals(z, toTest.getZ(), 0);
+	}
+}
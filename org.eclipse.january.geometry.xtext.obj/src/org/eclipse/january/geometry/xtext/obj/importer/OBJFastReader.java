@@ -0,0 +1,497 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.xtext.obj.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.eclipse.january.geometry.Face;
+import org.eclipse.january.geometry.Geometry;
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.Material;
+import org.eclipse.january.geometry.PolyShape;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.VertexSource;
+
+/**
+ * A streaming reader for OBJ files which tokenizes each line by hand instead
+ * of parsing the file with the Xtext grammar. No node model or cross
+ * references are built, and the vertices and faces are added to the model in
+ * bulk once the whole file has been read, so very large meshes can be read
+ * quickly and in little memory.
+ *
+ * The reader understands the v, vt, vn, f, g, o, s, usemtl and mtllib
+ * statements, which are the ones supported by the Xtext OBJ grammar. Any other
+ * statement causes an IOException, so that the caller can fall back to the
+ * full Xtext parser.
+ *
+ * The resulting geometry has the same structure as that produced by the
+ * grammar: a single vertex source, and a PolyShape for each group of faces.
+ * Negative (relative) face indices are converted to absolute ones.
+ *
+ * @author Robert Smith
+ *
+ */
+public class OBJFastReader {
+
+	/**
+	 * Exact powers of ten, used to convert simple decimals without rounding
+	 * error.
+	 */
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4,
+			1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+			1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * The largest mantissa which can be exactly represented by a double.
+	 */
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	/**
+	 * The shape currently receiving faces, or null if the next face should
+	 * start a new shape.
+	 */
+	private PolyShape currentShape;
+
+	/**
+	 * The faces of the current shape.
+	 */
+	private ArrayList<Face> currentFaces;
+
+	/**
+	 * The line currently being tokenized.
+	 */
+	private String line;
+
+	/**
+	 * The number of the line currently being tokenized, for error messages.
+	 */
+	private int lineNumber;
+
+	/**
+	 * The name of the material set by the last usemtl statement.
+	 */
+	private String materialName;
+
+	/**
+	 * The name given by the last g or o statement.
+	 */
+	private String groupName;
+
+	/**
+	 * The position of the next unread character in the line.
+	 */
+	private int position;
+
+	/**
+	 * The shapes read so far, along with their faces.
+	 */
+	private ArrayList<PolyShape> shapes;
+
+	/**
+	 * The faces for each shape, in the same order as the shapes.
+	 */
+	private ArrayList<ArrayList<Face>> shapeFaces;
+
+	/**
+	 * The texture coordinates read so far.
+	 */
+	private ArrayList<Vertex> textureCoordinates;
+
+	/**
+	 * The vertex source for the geometry.
+	 */
+	private VertexSource vertexSource;
+
+	/**
+	 * The vertices read so far.
+	 */
+	private ArrayList<Vertex> vertices;
+
+	/**
+	 * Read an OBJ file into a new geometry.
+	 *
+	 * @param path
+	 *            The path of the file to read
+	 * @return The geometry described by the file
+	 * @throws IOException
+	 *             Thrown if the file cannot be read, or contains a statement
+	 *             which the reader does not support or cannot parse.
+	 */
+	public Geometry read(Path path) throws IOException {
+
+		// Reset the state from any previous file
+		vertexSource = GeometryFactory.eINSTANCE.createVertexSource();
+		vertices = new ArrayList<Vertex>();
+		textureCoordinates = new ArrayList<Vertex>();
+		shapes = new ArrayList<PolyShape>();
+		shapeFaces = new ArrayList<ArrayList<Face>>();
+		currentShape = null;
+		currentFaces = null;
+		groupName = null;
+		materialName = null;
+		lineNumber = 0;
+
+		try (BufferedReader reader = Files.newBufferedReader(path,
+				StandardCharsets.UTF_8)) {
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				position = 0;
+				readStatement();
+			}
+		}
+
+		// Add all the data to the model at once
+		vertexSource.getVertices().addAll(vertices);
+		vertexSource.getTextureCoordinates().addAll(textureCoordinates);
+		for (int i = 0; i < shapes.size(); i++) {
+			shapes.get(i).getFaces().addAll(shapeFaces.get(i));
+		}
+
+		Geometry geometry = GeometryFactory.eINSTANCE.createGeometry();
+		geometry.getVertexSources().add(vertexSource);
+		geometry.getNodes().addAll(shapes);
+
+		// Release the references to the data
+		vertices = null;
+		textureCoordinates = null;
+		shapes = null;
+		shapeFaces = null;
+		currentShape = null;
+		currentFaces = null;
+		line = null;
+
+		return geometry;
+	}
+
+	/**
+	 * Create an exception describing a problem with the current line.
+	 *
+	 * @param message
+	 *            A description of the problem
+	 * @return An exception with the message and the line's number
+	 */
+	private IOException error(String message) {
+		return new IOException(
+				"Line " + lineNumber + " of the OBJ file: " + message);
+	}
+
+	/**
+	 * Check whether there are more tokens on the current line.
+	 *
+	 * @return True if a token remains, false if only whitespace or a comment
+	 *         remains
+	 */
+	private boolean hasToken() {
+		skipWhitespace();
+		return position < line.length() && line.charAt(position) != '#';
+	}
+
+	/**
+	 * Read the next token as a double.
+	 *
+	 * @return The token's value
+	 * @throws IOException
+	 *             Thrown if there is no token or it is not a number
+	 */
+	private double nextDouble() throws IOException {
+		skipWhitespace();
+		int start = position;
+		int length = line.length();
+
+		// Try to read a simple decimal directly
+		boolean negative = false;
+		if (position < length && (line.charAt(position) == '-'
+				|| line.charAt(position) == '+')) {
+			negative = line.charAt(position) == '-';
+			position++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int decimals = 0;
+		boolean point = false;
+		boolean simple = true;
+		while (position < length) {
+			char c = line.charAt(position);
+			if (c >= '0' && c <= '9') {
+				mantissa = mantissa * 10 + (c - '0');
+				digits++;
+				if (point) {
+					decimals++;
+				}
+				if (mantissa >= MAX_EXACT_MANTISSA) {
+					simple = false;
+				}
+			} else if (c == '.' && !point) {
+				point = true;
+			} else if (isSeparator(c)) {
+				break;
+			} else {
+				// Exponents and anything unusual are handled by the JDK
+				simple = false;
+			}
+			position++;
+		}
+
+		if (simple && digits > 0 && decimals < POWERS_OF_TEN.length) {
+			double value = mantissa / POWERS_OF_TEN[decimals];
+			return negative ? -value : value;
+		}
+
+		// Fall back to the full parser
+		if (position == start) {
+			throw error("expected a number.");
+		}
+		try {
+			return Double.parseDouble(line.substring(start, position));
+		} catch (NumberFormatException e) {
+			throw error("\"" + line.substring(start, position)
+					+ "\" is not a number.");
+		}
+	}
+
+	/**
+	 * Read an integer at the current position, which must not be preceded by
+	 * whitespace.
+	 *
+	 * @return The integer's value
+	 * @throws IOException
+	 *             Thrown if there is no integer at the current position
+	 */
+	private int nextInt() throws IOException {
+		int length = line.length();
+		boolean negative = false;
+		if (position < length && line.charAt(position) == '-') {
+			negative = true;
+			position++;
+		}
+
+		int start = position;
+		long value = 0;
+		while (position < length && line.charAt(position) >= '0'
+				&& line.charAt(position) <= '9') {
+			value = value * 10 + (line.charAt(position) - '0');
+			if (value > Integer.MAX_VALUE) {
+				throw error("index is too large.");
+			}
+			position++;
+		}
+
+		if (position == start) {
+			throw error("expected an index.");
+		}
+
+		return (int) (negative ? -value : value);
+	}
+
+	/**
+	 * Check whether a character ends a token.
+	 *
+	 * @param c
+	 *            The character
+	 * @return True if the character is whitespace or starts a comment
+	 */
+	private static boolean isSeparator(char c) {
+		return c == ' ' || c == '\t' || c == '\r' || c == '#';
+	}
+
+	/**
+	 * Read the next token as a string.
+	 *
+	 * @return The token
+	 */
+	private String nextToken() {
+		skipWhitespace();
+		int start = position;
+		while (position < line.length()
+				&& !isSeparator(line.charAt(position))) {
+			position++;
+		}
+		return line.substring(start, position);
+	}
+
+	/**
+	 * Read a face statement, adding the face to the current shape.
+	 *
+	 * @throws IOException
+	 *             Thrown if the face's indices cannot be read
+	 */
+	private void readFace() throws IOException {
+
+		// Start a new shape if the group or material changed
+		if (currentShape == null) {
+			currentShape = GeometryFactory.eINSTANCE.createPolyShape();
+			currentShape.setName(groupName);
+			if (materialName != null) {
+				Material material = GeometryFactory.eINSTANCE
+						.createMaterial();
+				material.setPhongMatName(materialName);
+				currentShape.setMaterial(material);
+			}
+			currentFaces = new ArrayList<Face>();
+			shapes.add(currentShape);
+			shapeFaces.add(currentFaces);
+		}
+
+		Face face = GeometryFactory.eINSTANCE.createFace();
+		while (hasToken()) {
+
+			// Read the vertex index, then the optional texture and normal
+			// indices in the form v/vt/vn, v/vt or v//vn
+			face.getVertexIndices().add(resolve(nextInt(), vertices.size()));
+			if (position < line.length() && line.charAt(position) == '/') {
+				position++;
+				if (position < line.length()
+						&& line.charAt(position) != '/') {
+					face.getTextureIndices().add(
+							resolve(nextInt(), textureCoordinates.size()));
+				}
+				if (position < line.length()
+						&& line.charAt(position) == '/') {
+					position++;
+					nextInt();
+				}
+			}
+
+			// Each index must be followed by a separator
+			if (position < line.length()
+					&& !isSeparator(line.charAt(position))) {
+				throw error("unexpected character '" + line.charAt(position)
+						+ "' in face.");
+			}
+		}
+
+		currentFaces.add(face);
+	}
+
+	/**
+	 * Read a single statement from the current line.
+	 *
+	 * @throws IOException
+	 *             Thrown if the statement is unsupported or malformed
+	 */
+	private void readStatement() throws IOException {
+
+		// Ignore blank lines and comments
+		if (!hasToken()) {
+			return;
+		}
+
+		String keyword = nextToken();
+		switch (keyword) {
+		case "v":
+			vertices.add(readVertex(true));
+			break;
+		case "vt":
+			textureCoordinates.add(readVertex(false));
+			break;
+		case "vn":
+			// Normals are read to check them, but the model has no place to
+			// store them
+			nextDouble();
+			nextDouble();
+			nextDouble();
+			break;
+		case "f":
+			readFace();
+			break;
+		case "g":
+		case "o":
+			groupName = readRest();
+			currentShape = null;
+			break;
+		case "usemtl":
+			materialName = readRest();
+			currentShape = null;
+			break;
+		case "mtllib":
+			vertexSource.getMaterialFiles().add(readRest());
+			break;
+		case "s":
+			// Smoothing groups are not used
+			break;
+		default:
+			throw error("unsupported statement \"" + keyword + "\".");
+		}
+	}
+
+	/**
+	 * Read the remainder of the line, excluding any comment.
+	 *
+	 * @return The rest of the line with surrounding whitespace removed, or
+	 *         null if it is empty
+	 */
+	private String readRest() {
+		int end = line.indexOf('#', position);
+		String rest = (end < 0 ? line.substring(position)
+				: line.substring(position, end)).trim();
+		return rest.isEmpty() ? null : rest;
+	}
+
+	/**
+	 * Read a vertex or texture coordinate.
+	 *
+	 * @param requireZ
+	 *            Whether the third coordinate is required
+	 * @return A new vertex with the coordinates from the line
+	 * @throws IOException
+	 *             Thrown if the coordinates cannot be read
+	 */
+	private Vertex readVertex(boolean requireZ) throws IOException {
+		Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+		vertex.setX(nextDouble());
+		vertex.setY(nextDouble());
+		if (requireZ || hasToken()) {
+			vertex.setZ(nextDouble());
+		}
+
+		// Ignore any further values, such as a weight
+		return vertex;
+	}
+
+	/**
+	 * Convert a possibly relative index into an absolute, one based index.
+	 *
+	 * @param index
+	 *            The index from the file
+	 * @param count
+	 *            The number of elements read so far
+	 * @return The absolute index
+	 * @throws IOException
+	 *             Thrown if a relative index refers to a missing element
+	 */
+	private int resolve(int index, int count) throws IOException {
+		if (index >= 0) {
+			return index;
+		}
+
+		int absolute = count + 1 + index;
+		if (absolute < 1) {
+			throw error("relative index " + index + " is out of range.");
+		}
+		return absolute;
+	}
+
+	/**
+	 * Move the position past any whitespace.
+	 */
+	private void skipWhitespace() {
+		while (position < line.length() && (line.charAt(position) == ' '
+				|| line.charAt(position) == '\t'
+				|| line.charAt(position) == '\r')) {
+			position++;
+		}
+	}
+}
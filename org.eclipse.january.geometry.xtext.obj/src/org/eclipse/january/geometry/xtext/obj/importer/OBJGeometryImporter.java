@@ -11,15 +11,16 @@
  *******************************************************************************/
 package org.eclipse.january.geometry.xtext.obj.importer;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Path;
 
+import org.apache.log4j.Logger;
 import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.TreeIterator;
-import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EOperation;
@@ -31,11 +32,8 @@ import org.eclipse.january.geometry.Geometry;
 import org.eclipse.january.geometry.IGeometryImporter;
 import org.eclipse.january.geometry.INode;
 import org.eclipse.january.geometry.PolyShape;
+import org.eclipse.january.geometry.model.importer.XtextImporterRuntime;
 import org.eclipse.january.geometry.xtext.OBJStandaloneSetup;
-import org.eclipse.xtext.resource.XtextResource;
-import org.eclipse.xtext.resource.XtextResourceSet;
-
-import com.google.inject.Injector;
 
 /**
  * Imports OBJ files into Geometries for use in the Geometry Editor
@@ -45,6 +43,12 @@ import com.google.inject.Injector;
  */
 public class OBJGeometryImporter implements IGeometryImporter {
 
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = Logger
+			.getLogger(OBJGeometryImporter.class);
+
 	@Override
 	public EList<String> getFileTypes() {
 		BasicEList<String> list = new BasicInternalEList<String>(String.class);
@@ -60,27 +64,28 @@ public class OBJGeometryImporter implements IGeometryImporter {
 
 	@Override
 	public Geometry load(Path path) {
-		Injector injector = new OBJStandaloneSetup()
-				.createInjectorAndDoEMFRegistration();
-		XtextResourceSet resourceSet = injector
-				.getInstance(XtextResourceSet.class);
-		resourceSet.addLoadOption(XtextResource.OPTION_RESOLVE_ALL,
-				Boolean.TRUE);
-		Resource resource = resourceSet.getResource(
-				URI.createFileURI(path.toFile().getAbsolutePath()), true);
-
-		// Check to see if returned contents contain a valid geometry. If not,
-		// then the file might be
-		// a binary format
-
-		// Get the contents of the resource
-		EList<EObject> contents = resource.getContents();
 
 		Geometry geometry = null;
 
-		// If they contents are valid, get the first element
-		if (contents != null && !contents.isEmpty()) {
-			geometry = (Geometry) contents.get(0);
+		// Read the file with the fast tokenizer if possible
+		try {
+			geometry = new OBJFastReader().read(path);
+		} catch (IOException e) {
+			logger.info("Using the Xtext parser for " + path + " because "
+					+ e.getMessage());
+		}
+
+		// Otherwise, fall back on the full Xtext parser
+		if (geometry == null) {
+
+			// Parse the file using the shared OBJ language runtime
+			EList<EObject> contents = XtextImporterRuntime
+					.getRuntime(new OBJStandaloneSetup()).load(path);
+
+			// If they contents are valid, get the first element
+			if (contents != null && !contents.isEmpty()) {
+				geometry = (Geometry) contents.get(0);
+			}
 		}
 
 		if (geometry != null) {
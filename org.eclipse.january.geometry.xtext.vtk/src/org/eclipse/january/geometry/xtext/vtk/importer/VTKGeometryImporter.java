@@ -8,7 +8,6 @@ import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.TreeIterator;
-import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EOperation;
@@ -20,12 +19,9 @@ import org.eclipse.january.geometry.Geometry;
 import org.eclipse.january.geometry.IGeometryImporter;
 import org.eclipse.january.geometry.INode;
 import org.eclipse.january.geometry.PolyShape;
-import org.eclipse.xtext.resource.XtextResource;
-import org.eclipse.xtext.resource.XtextResourceSet;
+import org.eclipse.january.geometry.model.importer.XtextImporterRuntime;
 import org.xtext.example.mydsl.MyDslStandaloneSetup;
 
-import com.google.inject.Injector;
-
 /**
  * Imports OBJ files into Geometries for use in the Geometry Editor
  * 
@@ -48,17 +44,8 @@ public class VTKGeometryImporter implements IGeometryImporter {
 
 	@Override
 	public Geometry load(Path path) {
-		Injector injector = new MyDslStandaloneSetup().createInjectorAndDoEMFRegistration();
-		XtextResourceSet resourceSet = injector.getInstance(XtextResourceSet.class);
-		resourceSet.addLoadOption(XtextResource.OPTION_RESOLVE_ALL, Boolean.TRUE);
-		Resource resource = resourceSet.getResource(URI.createFileURI(path.toFile().getAbsolutePath()), true);
-
-		// Check to see if returned contents contain a valid geometry. If not,
-		// then the file might be
-		// a binary format
-
-		// Get the contents of the resource
-		EList<EObject> contents = resource.getContents();
+		// Parse the file using the shared VTK language runtime
+		EList<EObject> contents = XtextImporterRuntime.getRuntime(new MyDslStandaloneSetup()).load(path);
 
 		Geometry geometry = null;
 
@@ -185,45 +185,14 @@ public interface BoundingBox extends EObject {
 	 * 
 	 * @param shape
 	 *            The shape to determine the bounds of
-	 * @return Returns the bounding box giving the bounds of the specified shape
+	 * @return Returns the bounding box giving the bounds of the specified
+	 *         shape, or null if it has no triangles
+	 * @see INode#getBounds()
 	 * 
 	 * @generated NOT
 	 */
 	static BoundingBox getBounds(Shape shape) {
-		// Bounds to return
-		BoundingBox bounds = null;
-		// If the shape has triangles
-		if (!shape.getTriangles().isEmpty()) {
-			// Create the box, initialize the min and max values
-			bounds = GeometryFactory.eINSTANCE.createBoundingBox();
-			double minx = shape.getTriangles().get(0).getVertices().get(0).getX();
-			double maxx = minx;
-			double miny = shape.getTriangles().get(0).getVertices().get(0).getY();
-			double maxy = miny;
-			double minz = shape.getTriangles().get(0).getVertices().get(0).getZ();
-			double maxz = minz;
-
-			// Go through each vertex and see if it is a new min or max
-			for (Triangle tri : shape.getTriangles()) {
-				for (Vertex vert : tri.getVertices()) {
-					minx = Math.min(minx, vert.getX());
-					maxx = Math.max(maxx, vert.getX());
-					miny = Math.min(miny, vert.getY());
-					maxy = Math.max(maxy, vert.getY());
-					minz = Math.min(minz, vert.getZ());
-					maxz = Math.max(maxz, vert.getZ());
-				}
-			}
-			// Finally, create the vertex from the mins and max values
-			Vertex center = shape.getCenter();
-			bounds.setMinX(minx + center.getX());
-			bounds.setMinY(miny + center.getY());
-			bounds.setMinZ(minz + center.getZ());
-			bounds.setMaxX(maxx + center.getX());
-			bounds.setMaxY(maxy + center.getY());
-			bounds.setMaxZ(maxz + center.getZ());
-		}
-		return bounds;
+		return shape.getBounds();
 	}
 
 	/**
@@ -232,25 +201,14 @@ public interface BoundingBox extends EObject {
 	 * 
 	 * @param union
 	 *            The union to find the bounds of
-	 * @return Returns a BoundingBox, describing the bounds of the union
+	 * @return Returns a BoundingBox, describing the bounds of the union, or
+	 *         null if its shapes have no triangles
+	 * @see INode#getBounds()
 	 * 
 	 * @generated NOT
 	 */
 	static BoundingBox getBounds(Union union) {
-		BoundingBox bounds = null;
-		// If the union is valid
-		if (union != null && !union.getNodes().isEmpty()) {
-			// Create the bounds object
-			bounds = GeometryFactory.eINSTANCE.createBoundingBox();
-			// Add each shape's bounds together
-			for (INode node : union.getNodes()) {
-				if (node instanceof Shape) {
-					bounds.addArea(getBounds((Shape) node));
-				}
-			}
-		}
-		// Return the bounds
-		return bounds;
+		return union != null ? union.getBounds() : null;
 	}
 
 	/**
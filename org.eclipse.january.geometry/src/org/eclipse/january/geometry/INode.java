@@ -269,6 +269,15 @@ public interface INode extends EObject {
 	 */
 	void addNodes(EList<INode> children);
 
+	/**
+	 * Get the smallest box, orthogonal to the axes, holding this node's triangles and those of all its descendants. The box is offset by the node's center, so that it is in the same coordinate system as the node's parent's triangles.
+	 * 
+	 * The box is cached, and only calculated again after the node, its center or one of its descendants changes, so that finding the bounds of a large tree after a change only reads the triangles of the nodes which changed.
+	 * @return A new bounding box, or null if neither this node nor its descendants have any triangles
+	 * @generated NOT
+	 */
+	BoundingBox getBounds();
+
 	/**
 	 * <!-- begin-user-doc -->
 	 * <!-- end-user-doc -->
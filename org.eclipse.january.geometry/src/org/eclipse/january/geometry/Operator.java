@@ -12,6 +12,7 @@
  */
 package org.eclipse.january.geometry;
 
+import org.eclipse.emf.common.util.EList;
 
 /**
  * <!-- begin-user-doc -->
@@ -24,4 +25,13 @@ package org.eclipse.january.geometry;
  * @generated
  */
 public interface Operator extends INode {
+
+	/**
+	 * Get the triangles of the solid produced by applying the operator to its children, in the operator's coordinate system. Each child's solid is its own triangles together with those of its children, or its result if it is itself an operator, offset by its center. The operator's own triangles are not included.
+	 * 
+	 * The result is cached, and only produced again after a child is added, removed or changed, or one of the children's descendants changes.
+	 * @return The result's triangles, which must not be modified
+	 * @generated NOT
+	 */
+	EList<Triangle> getResultTriangles();
 } // Operator
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.january.geometry;
 
+import org.eclipse.january.geometry.util.TriangleMesh;
 
 /**
  * <!-- begin-user-doc -->
@@ -58,4 +59,18 @@ public interface Shape extends INode {
 	 */
 	void setMaterial(Material value);
 
+	/**
+	 * Returns the compact storage of the shape's triangles, if they are stored in primitive arrays instead of as model objects. The triangles list is then a view of the mesh.
+	 * @return The shape's mesh, or null if the triangles are held in the triangles list.
+	 * @generated NOT
+	 */
+	TriangleMesh getMesh();
+
+	/**
+	 * Store the shape's triangles in the given mesh, replacing the contents of the triangles list with views of the mesh's triangles.
+	 * @param mesh The new mesh, or null to return to an empty list of triangles.
+	 * @generated NOT
+	 */
+	void setMesh(TriangleMesh mesh);
+
 } // Shape
\ No newline at end of file
@@ -14,6 +14,7 @@ import org.eclipse.emf.ecore.EClass;
 import org.eclipse.january.geometry.Complement;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.GeometryPackage;
+import org.eclipse.january.geometry.util.MeshBoolean;
 
 /**
  * <!-- begin-user-doc --> An implementation of the model object '
@@ -59,4 +60,14 @@ public class ComplementImpl extends OperatorImpl implements Complement {
 		return clone;
 	}
 
+	/**
+	 * <!-- begin-user-doc --> <!-- end-user-doc -->
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	protected double[] combine(double[] first, double[] second) {
+		return MeshBoolean.difference(first, second);
+	}
+
 } // ComplementImpl
\ No newline at end of file
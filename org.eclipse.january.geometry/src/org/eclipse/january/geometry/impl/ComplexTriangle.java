@@ -16,7 +16,6 @@ import java.util.Collections;
 
 import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.Notification;
-import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.TreeIterator;
@@ -25,6 +24,7 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EOperation;
 import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
 import org.eclipse.emf.ecore.impl.MinimalEObjectImpl;
 import org.eclipse.emf.ecore.resource.Resource;
@@ -32,11 +32,15 @@ import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.GeometryPackage;
 import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Vertex;
-import org.eclipse.swt.widgets.Display;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
 
 /**
  * An implementation of the Triangle interface that allows for multiple triangles to share the same vertices.
  * 
+ * The triangle does not listen to its vertices, as a vertex shared by many triangles would otherwise
+ * carry one listener per triangle and send the same change through each of them. Instead, the shape
+ * owning the triangles listens to each of its vertices once.
+ * 
  * @author Robert Smith
  *
  */
@@ -68,28 +72,22 @@ public class ComplexTriangle extends MinimalEObjectImpl.Container implements Tri
 		vertices.add(v2);
 		vertices.add(v3);
 		
-		//Listen to each vertex, passing along their notifications
-		v1.eAdapters().add(new AdapterImpl(){
-			public void notifyChanged(Notification notification) {
-				eNotify(notification);
-			}
-		});
-		
-		v2.eAdapters().add(new AdapterImpl(){
-			public void notifyChanged(Notification notification) {
-				eNotify(notification);
-			}
-		});
-		
-		v3.eAdapters().add(new AdapterImpl(){
-			public void notifyChanged(Notification notification) {
-				eNotify(notification);
-			}
-		});
-		
 		normal = GeometryFactory.eINSTANCE.createVertex();
 	}
-	
+
+	/**
+	 * A constructor for subclasses which supply their own vertex list and
+	 * normal.
+	 *
+	 * @param vertices The list of the triangle's three vertices.
+	 * @param normal The triangle's normal.
+	 */
+	protected ComplexTriangle(EList<Vertex> vertices, Vertex normal){
+		super();
+		this.vertices = vertices;
+		this.normal = normal;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.eclipse.january.geometry.Triangle#getNormal()
@@ -121,6 +119,25 @@ public class ComplexTriangle extends MinimalEObjectImpl.Container implements Tri
 		return vertices;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.emf.common.notify.impl.BasicNotifierImpl#
+	 * eNotificationRequired()
+	 */
+	@Override
+	public boolean eNotificationRequired() {
+
+		// Changes must also be reported whenever the triangle's shape needs
+		// them, for its listeners or cached bounds
+		if (super.eNotificationRequired()) {
+			return true;
+		}
+		InternalEObject container = eInternalContainer();
+		return container instanceof ShapeImpl
+				&& ((ShapeImpl) container).eNotificationRequired();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -134,34 +151,16 @@ public class ComplexTriangle extends MinimalEObjectImpl.Container implements Tri
 		Adapter[] eAdapters = eBasicAdapterArray();
 		if (eAdapters != null && eDeliver()) {
 
-			// If this notification is on the UI thread, launch a new thread to
-			// handle it
-			Display currDisplay = Display.getCurrent();
-			if (currDisplay != null
-					&& Thread.currentThread() == currDisplay.getThread()) {
-
-				Thread updateThread = new Thread() {
-
-					@Override
-					public void run() {
-						for (int i = 0, size = eAdapters.length; i < size; ++i) {
-							eAdapters[i].notifyChanged(notification);
-						}
-					}
-				};
-
-				updateThread.run();
-
-			}
+			// Let the shared dispatcher deliver the notification, in the
+			// background if this is the UI thread
+			NotificationDispatcher.dispatch(this, eAdapters, notification);
+		}
 
-			// If we are already off the UI thread, such as being called by a
-			// thread created by some other object's eNotify(), then just notify
-			// the adapters.
-			else {
-				for (int i = 0, size = eAdapters.length; i < size; ++i) {
-					eAdapters[i].notifyChanged(notification);
-				}
-			}
+		// Pass the change on to the shape containing the triangle
+		InternalEObject container = eInternalContainer();
+		if (container instanceof ShapeImpl && notification
+				.getEventType() != Notification.REMOVING_ADAPTER) {
+			((ShapeImpl) container).vertexChanged(notification);
 		}
 	}
 	
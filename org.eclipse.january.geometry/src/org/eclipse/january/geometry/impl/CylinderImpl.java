@@ -2,8 +2,6 @@
  */
 package org.eclipse.january.geometry.impl;
 
-import java.util.ArrayList;
-
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EClass;
@@ -13,7 +11,8 @@ import org.eclipse.january.geometry.Cylinder;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.GeometryPackage;
 import org.eclipse.january.geometry.Triangle;
-import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.LevelOfDetail;
+import org.eclipse.january.geometry.util.LevelOfDetailCache;
 import org.eclipse.january.geometry.util.MeshUtils;
 
 /**
@@ -29,7 +28,7 @@ import org.eclipse.january.geometry.util.MeshUtils;
  *
  * @generated
  */
-public class CylinderImpl extends ShapeImpl implements Cylinder {
+public class CylinderImpl extends ShapeImpl implements Cylinder, LevelOfDetail {
 	/**
 	 * The default value of the '{@link #getRadius() <em>Radius</em>}' attribute.
 	 * <!-- begin-user-doc --> <!-- end-user-doc -->
@@ -81,6 +80,13 @@ public class CylinderImpl extends ShapeImpl implements Cylinder {
 	 */
 	final private int SEGMENTS = 2;
 
+	/**
+	 * The triangles for the cylinder's coarser levels of detail.
+	 * 
+	 * @generated NOT
+	 */
+	protected LevelOfDetailCache detailTriangles = new LevelOfDetailCache();
+
 	/**
 	 * The last height used in drawing the mesh.
 	 * 
@@ -292,156 +298,56 @@ public class CylinderImpl extends ShapeImpl implements Cylinder {
 		// Clear the previous list
 		triangles = new BasicInternalEList<Triangle>(Triangle.class);
 
-		// Make an array of vertices to form the triangles
-		ArrayList<Vertex> vertices = new ArrayList<Vertex>();
-
-		// The x and z vertices for the cylinder
-		float[] circle = new float[RESOLUTION * 2];
-
-		// Get the unit circle's coordinates
-		circle = MeshUtils.createCircle((float) radius, RESOLUTION);
-
-		// The number of coordinates required to specify every 3D vertex for a
-		// cylinder of with SEGMENTS extra circles above the base circle and
-		// RESOLUTION points per circle.
-		int blockSize = (SEGMENTS + 1) * RESOLUTION * 3;
-
-		// Iterate through the points, one circle along the cylinder at a time,
-		// adding them to the vertex array
-		for (int i = 0; i <= SEGMENTS; i++) {
-			for (int j = 0; j < RESOLUTION; j++) {
-
-				Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
-
-				// X and Z coordinate of the unit circle
-				vertex.setX(circle[j * 2]);
-				vertex.setZ(circle[j * 2 + 1]);
-
-				// Y coordinate of the current segment's height
-				vertex.setY(-height / 2 + i * height / SEGMENTS);
-
-				// Add the vertex to the list
-				vertices.add(vertex);
-			}
-		}
-
-		// Add a vertex at the center of the bottom circle
-		Vertex bottom = GeometryFactory.eINSTANCE.createVertex();
-		bottom.setX(0);
-		bottom.setY(-height / 2);
-		bottom.setZ(0);
-		vertices.add(bottom);
-
-		// Add a vertex at the center of the top circle
-		Vertex top = GeometryFactory.eINSTANCE.createVertex();
-		top.setX(0);
-		top.setY(height / 2);
-		top.setZ(0);
-		vertices.add(top);
-
-		// Construct the side out of identical vertical segments, one at a time.
-		for (int axialSegment = 0; axialSegment < SEGMENTS; axialSegment++) {
-
-			// Add two triangles for each vertex along the current circle
-			for (int radialSegment = 0; radialSegment < RESOLUTION; radialSegment++) {
-
-				// Create a new triangle
-				Triangle t0 = GeometryFactory.eINSTANCE.createTriangle();
-
-				// Create a triangle between the current vertex, the next vertex
-				// along the circle, and the vertex immediately above this one.
-				t0.getVertices()
-						.add((Vertex) vertices
-								.get((axialSegment + 1) * RESOLUTION
-										+ ((radialSegment + 1) % RESOLUTION))
-								.clone());
-				t0.getVertices()
-						.add((Vertex) vertices
-								.get(axialSegment * RESOLUTION
-										+ ((radialSegment + 1) % RESOLUTION))
-								.clone());
-				t0.getVertices()
-						.add((Vertex) vertices
-								.get(axialSegment * RESOLUTION + radialSegment)
-								.clone());
-
-				// Add it to the list
-				triangles.add(t0);
-
-				// Create the second triangle
-				Triangle t1 = GeometryFactory.eINSTANCE.createTriangle();
-
-				// Create a triangle between the current vertex, the vertex
-				// immediately above it, and the last one along the circle from
-				// that one.
-				t1.getVertices()
-						.add((Vertex) vertices
-								.get(axialSegment * RESOLUTION + radialSegment)
-								.clone());
-				t1.getVertices()
-						.add((Vertex) vertices.get(
-								(axialSegment + 1) * RESOLUTION + radialSegment)
-								.clone());
-				t1.getVertices()
-						.add((Vertex) vertices
-								.get((axialSegment + 1) * RESOLUTION
-										+ ((radialSegment + 1) % RESOLUTION))
-								.clone());
-
-				// Add the second triangle to the list
-				triangles.add(t1);
-			}
-		}
-
-		// Add two triangles for each vertex along the top and bottom circles
-		for (int radialSegment = 0; radialSegment < RESOLUTION; radialSegment++) {
-
-			// Create a new triangle
-			Triangle t0 = GeometryFactory.eINSTANCE.createTriangle();
+		// Add a new cylinder's triangles
+		triangles.addAll(MeshUtils.createCylinderMesh(radius, height,
+				RESOLUTION, SEGMENTS));
 
-			// Create a triangle between the current vertex,the next vertex
-			// along the circle, and the center point.
-			t0.getVertices().add((Vertex) vertices.get(blockSize / 3).clone());
-			t0.getVertices().add((Vertex) vertices.get(radialSegment).clone());
-			t0.getVertices().add((Vertex) vertices
-					.get((radialSegment + 1) % RESOLUTION).clone());
-
-			// Add it to the list
-			triangles.add(t0);
+		return triangles;
+	}
 
-			// Create the second triangle
-			Triangle t1 = GeometryFactory.eINSTANCE.createTriangle();
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.january.geometry.util.LevelOfDetail#getDetailLevel(double)
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	public int getDetailLevel(double maxError) {
+		return MeshUtils.getDetailLevel(radius, RESOLUTION, maxError);
+	}
 
-			// Create a triangle between the current vertex,the next vertex
-			// along the circle, and the center point.
-			t1.getVertices().add(vertices.get(((SEGMENTS) * RESOLUTION)
-					+ ((radialSegment + 1) % RESOLUTION)));
-			t1.getVertices().add((Vertex) vertices
-					.get(((SEGMENTS) * RESOLUTION) + radialSegment).clone());
-			t1.getVertices()
-					.add((Vertex) vertices.get(blockSize / 3 + 1).clone());
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.january.geometry.util.LevelOfDetail#getTriangles(int)
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	public EList<Triangle> getTriangles(int level) {
 
-			// Add the second triangle to the list
-			triangles.add(t1);
+		// The full level of detail is the normal mesh
+		if (level <= 0) {
+			return getTriangles();
 		}
-		
-		// Calculate the normals for each triangle
-		for (Triangle tri : triangles) {
-
-			// Get the normal and vertices
-			Vertex normal = tri.getNormal();
-			EList<Vertex> currVertices = tri.getVertices();
-			Vertex v0 = currVertices.get(0);
-			Vertex v1 = currVertices.get(1);
-			Vertex v2 = currVertices.get(2);
-
-			// Set the normal to the average of the three vertices
-			normal.setX((v0.getX() + v1.getX() + v2.getX()) / 3);
-			normal.setY((v0.getY() + v1.getY() + v2.getY()) / 3);
-			normal.setZ((v0.getZ() + v1.getZ() + v2.getZ()) / 3);
+		level = Math.min(level, MeshUtils.DETAIL_LEVELS - 1);
+
+		// Create the level's triangles unless they were already created for
+		// the cylinder's current properties
+		EList<Triangle> levelTriangles = detailTriangles.get(level, radius, height);
+		if (levelTriangles == null) {
+
+			// Keep the triangles in a mesh, so that renderers can reuse what
+			// they made from it until it changes
+			levelTriangles = TriangleMeshList.copyOf(MeshUtils.createCylinderMesh(
+					radius, height,
+					MeshUtils.getDetailResolution(RESOLUTION, level),
+					Math.max(1, SEGMENTS >> level)));
+			detailTriangles.put(level, levelTriangles);
 		}
-
-		return triangles;
+		return levelTriangles;
 	}
 
 	/*
@@ -12,7 +12,7 @@ import org.eclipse.emf.ecore.impl.MinimalEObjectImpl;
 import org.eclipse.emf.ecore.util.EDataTypeUniqueEList;
 import org.eclipse.january.geometry.Face;
 import org.eclipse.january.geometry.GeometryPackage;
-import org.eclipse.swt.widgets.Display;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
 
 /**
  * <!-- begin-user-doc --> An implementation of the model object
@@ -188,34 +188,9 @@ public class FaceImpl extends MinimalEObjectImpl.Container implements Face {
 		Adapter[] eAdapters = eBasicAdapterArray();
 		if (eAdapters != null && eDeliver()) {
 
-			// If this notification is on the UI thread, launch a new thread to
-			// handle it
-			Display currDisplay = Display.getCurrent();
-			if (currDisplay != null
-					&& Thread.currentThread() == currDisplay.getThread()) {
-
-				Thread updateThread = new Thread() {
-
-					@Override
-					public void run() {
-						for (int i = 0, size = eAdapters.length; i < size; ++i) {
-							eAdapters[i].notifyChanged(notification);
-						}
-					}
-				};
-
-				updateThread.run();
-
-			}
-
-			// If we are already off the UI thread, such as being called by a
-			// thread created by some other object's eNotify(), then just notify
-			// the adapters.
-			else {
-				for (int i = 0, size = eAdapters.length; i < size; ++i) {
-					eAdapters[i].notifyChanged(notification);
-				}
-			}
+			// Let the shared dispatcher deliver the notification, in the
+			// background if this is the UI thread
+			NotificationDispatcher.dispatch(this, eAdapters, notification);
 		}
 	}
 } // FaceImpl
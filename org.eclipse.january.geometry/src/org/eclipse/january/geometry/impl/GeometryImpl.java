@@ -17,6 +17,7 @@ import org.eclipse.emf.ecore.impl.ENotificationImpl;
 import org.eclipse.emf.ecore.impl.MinimalEObjectImpl;
 import org.eclipse.emf.ecore.util.EObjectContainmentEList;
 import org.eclipse.emf.ecore.util.InternalEList;
+import org.eclipse.january.geometry.BoundingBox;
 import org.eclipse.january.geometry.Geometry;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.GeometryPackage;
@@ -24,7 +25,7 @@ import org.eclipse.january.geometry.INode;
 import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Vertex;
 import org.eclipse.january.geometry.VertexSource;
-import org.eclipse.swt.widgets.Display;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
 
 /**
  * <!-- begin-user-doc --> An implementation of the model object '
@@ -157,6 +158,14 @@ public class GeometryImpl extends MinimalEObjectImpl.Container
 	 */
 	protected HashMap<String, Double> properties;
 
+	/**
+	 * The cached bounds of the geometry and its descendants, or null if they
+	 * have never been requested.
+	 * 
+	 * @generated NOT
+	 */
+	protected NodeBounds nodeBounds;
+
 	/**
 	 * <!-- begin-user-doc --> <!-- end-user-doc -->
 	 * 
@@ -602,33 +611,12 @@ public class GeometryImpl extends MinimalEObjectImpl.Container
 				// The triangles from the other geometry
 				EList<Triangle> otherTriangles = otherGeometry.getTriangles();
 
-				// Check that the triangles lists are equal. We may ignore the
-				// VertexSources and assume that if two objects have the same
-				// triangles the source for the data may be disregarded.
-				if (getTriangles().size() == otherTriangles.size()) {
-
-					// Check that the other list contains every triangle in this
-					// one. Since they are the same length, this will mean the
-					// triangles are identical
-					for (Triangle triangle : triangles) {
-
-						// Whether a matching triangle has been found
-						boolean found = false;
-
-						// Search for an identical triangle
-						for (Triangle otherTriangle : otherTriangles) {
-							if (triangle.equals(otherTriangle)) {
-								found = true;
-								break;
-							}
-						}
-
-						// If the triangle is not in the other object, they are
-						// not equal
-						if (!found) {
-							return false;
-						}
-					}
+				// Check that the triangles lists are equal, matching up
+				// triangles with the same fingerprint first. We may ignore
+				// the VertexSources and assume that if two objects have the
+				// same triangles the source for the data may be disregarded.
+				if (NodeEquality.trianglesEqual(getTriangles(),
+						otherTriangles)) {
 
 					// Check that the centers are equal
 					if (getCenter().equals(otherGeometry.getCenter())) {
@@ -658,30 +646,7 @@ public class GeometryImpl extends MinimalEObjectImpl.Container
 
 							// Check that the lists of children contain the same
 							// values
-							if (ownNodes.size() == otherNodes.size()) {
-								for (INode node : ownNodes) {
-
-									// Whether a match has been found
-									boolean found = false;
-
-									// Check to see if the node equals any other
-									// the other object's
-									for (INode otherNode : otherNodes) {
-										if (node.equals(otherNode)) {
-											found = true;
-											break;
-										}
-									}
-
-									// If the node was not in the other list,
-									// the objects are not equal
-									if (!found) {
-										return false;
-									}
-								}
-
-								// All tests passed, so the objects must be
-								// equal
+							if (NodeEquality.nodesEqual(ownNodes, otherNodes)) {
 								return true;
 							}
 						}
@@ -721,11 +686,9 @@ public class GeometryImpl extends MinimalEObjectImpl.Container
 		}
 		hashCode += 31 * hashCode + nodesHash;
 
-		// Add the hash for each triangle
-		int trianglesHash = 0;
-		for (Triangle triangle : getTriangles()) {
-			trianglesHash += triangle.hashCode();
-		}
+		// Add the hash of the triangles' fingerprint, which is cached for
+		// triangles stored in a mesh
+		int trianglesHash = NodeEquality.hashTriangles(getTriangles());
 		hashCode += 31 * hashCode + trianglesHash;
 
 		return hashCode;
@@ -932,6 +895,45 @@ public class GeometryImpl extends MinimalEObjectImpl.Container
 		return result.toString();
 	}
 
+	/**
+	 * <!-- begin-user-doc --> The bounds are cached until the geometry, its
+	 * center or one of its descendants changes. <!-- end-user-doc -->
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	public BoundingBox getBounds() {
+		return getNodeBounds().getBounds();
+	}
+
+	/**
+	 * Get the cached bounds of the geometry, creating them if needed.
+	 * 
+	 * @return The geometry's cached bounds
+	 * @generated NOT
+	 */
+	synchronized NodeBounds getNodeBounds() {
+		if (nodeBounds == null) {
+			nodeBounds = new NodeBounds(this);
+		}
+		return nodeBounds;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.emf.common.notify.impl.BasicNotifierImpl#
+	 * eNotificationRequired()
+	 */
+	@Override
+	public boolean eNotificationRequired() {
+
+		// While the bounds are cached, every change must be reported so that
+		// they can be discarded
+		return super.eNotificationRequired()
+				|| nodeBounds != null && nodeBounds.isValid();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -941,38 +943,19 @@ public class GeometryImpl extends MinimalEObjectImpl.Container
 	 */
 	@Override
 	public void eNotify(Notification notification) {
+
+		// Discard the cached bounds, which the change may have moved
+		if (nodeBounds != null) {
+			nodeBounds.nodeChanged(notification);
+		}
+
 		// Check if a notification is required
 		Adapter[] eAdapters = eBasicAdapterArray();
 		if (eAdapters != null && eDeliver()) {
 
-			// If this notification is on the UI thread, launch a new thread to
-			// handle it
-			Display currDisplay = Display.getCurrent();
-			if (currDisplay != null
-					&& Thread.currentThread() == currDisplay.getThread()) {
-
-				Thread updateThread = new Thread() {
-
-					@Override
-					public void run() {
-						for (int i = 0, size = eAdapters.length; i < size; ++i) {
-							eAdapters[i].notifyChanged(notification);
-						}
-					}
-				};
-
-				updateThread.run();
-
-			}
-
-			// If we are already off the UI thread, such as being called by a
-			// thread created by some other object's eNotify(), then just notify
-			// the adapters.
-			else {
-				for (int i = 0, size = eAdapters.length; i < size; ++i) {
-					eAdapters[i].notifyChanged(notification);
-				}
-			}
+			// Let the shared dispatcher deliver the notification, in the
+			// background if this is the UI thread
+			NotificationDispatcher.dispatch(this, eAdapters, notification);
 		}
 	}
 } // GeometryImpl
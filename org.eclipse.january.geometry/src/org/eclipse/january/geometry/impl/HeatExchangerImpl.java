@@ -17,6 +17,7 @@ import org.eclipse.january.geometry.Pipe;
 import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Vertex;
 import org.eclipse.january.geometry.util.MeshUtils;
+import org.eclipse.january.geometry.util.PointTransform;
 
 /**
  * <!-- begin-user-doc --> An implementation of the model object ' <em><b>Heat
@@ -222,10 +223,6 @@ public class HeatExchangerImpl extends ShapeImpl implements HeatExchanger {
 		double[] vertices = MeshUtils.createTube(length, pipe.getRadius(),
 				pipe.getRadius(), RESOLUTION, SEGMENTS);
 
-		// Rotate the tube so that it is pointing in the right direction
-		vertices = MeshUtils.rotatePointsAboutAxis(vertices, axisOfRotation,
-				rotationAmount);
-
 		// Move the vertices to the intersection point, then step along the
 		// direct
 		// vector a distance equal to half the pipe's length. Since tubes'
@@ -241,7 +238,11 @@ public class HeatExchangerImpl extends ShapeImpl implements HeatExchanger {
 				+ (normalizedDirect[1] * length / 2) - center.getY());
 		intersectionPoint.setZ(intersection[2]
 				+ (normalizedDirect[2] * length / 2) - center.getZ());
-		vertices = MeshUtils.centerPoints(vertices, intersectionPoint);
+
+		// Rotate the tube so that it is pointing in the right direction, then
+		// move it into place
+		new PointTransform().rotateAboutAxis(axisOfRotation, rotationAmount)
+				.center(intersectionPoint).transform(vertices);
 
 		// Get the triangles that define the tube
 		return MeshUtils.createTubeMesh(vertices, RESOLUTION, SEGMENTS);
@@ -6,6 +6,7 @@ import org.eclipse.emf.ecore.EClass;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.GeometryPackage;
 import org.eclipse.january.geometry.Intersection;
+import org.eclipse.january.geometry.util.MeshBoolean;
 
 /**
  * <!-- begin-user-doc --> An implementation of the model object '
@@ -51,4 +52,14 @@ public class IntersectionImpl extends OperatorImpl implements Intersection {
 		return clone;
 	}
 
+	/**
+	 * <!-- begin-user-doc --> <!-- end-user-doc -->
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	protected double[] combine(double[] first, double[] second) {
+		return MeshBoolean.intersection(first, second);
+	}
+
 } // IntersectionImpl
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.impl;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.util.EcoreEList;
+import org.eclipse.january.geometry.GeometryPackage;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.TriangleMesh;
+
+/**
+ * A Triangle which is a view of one triangle in a TriangleMesh. Its vertices
+ * and normal read and write the mesh's arrays, so that triangles sharing a
+ * vertex in the mesh share it here as well. Views are created on demand by
+ * the shape's list of triangles and hold no data of their own beyond their
+ * index. Each view contains its own views of its vertices, and reflectively
+ * appears as an ordinary Triangle, so that it is saved as one. The list of vertices cannot be modified, as the mesh's connectivity
+ * is fixed.
+ *
+ * @author Robert Smith
+ *
+ */
+class MeshTriangle extends ComplexTriangle {
+
+	/**
+	 * The list which created the view.
+	 */
+	private final TriangleMeshList list;
+
+	/**
+	 * Whether the list has been asked to keep the view.
+	 */
+	private boolean pinned;
+
+	/**
+	 * The default constructor.
+	 *
+	 * @param list
+	 *            The list creating the view
+	 * @param owner
+	 *            The shape whose mesh contains the triangle, or null if the
+	 *            mesh belongs to no shape
+	 * @param mesh
+	 *            The mesh containing the triangle
+	 * @param index
+	 *            The index of the triangle in the mesh
+	 */
+	MeshTriangle(TriangleMeshList list, ShapeImpl owner, TriangleMesh mesh,
+			int index) {
+		super(null, new MeshVertex(owner, mesh, index, true));
+		this.list = list;
+
+		// Create the views of the vertices, contained by the triangle so that
+		// it is saved with its coordinates
+		MeshVertex[] views = new MeshVertex[3];
+		for (int i = 0; i < 3; i++) {
+			views[i] = new MeshVertex(owner, mesh, mesh.getIndex(index, i),
+					false);
+			views[i].setContainer(this, GeometryPackage.TRIANGLE__VERTICES);
+		}
+		((MeshVertex) normal).setContainer(this,
+				GeometryPackage.TRIANGLE__NORMAL);
+		vertices = new EcoreEList.UnmodifiableEList<Vertex>(this,
+				GeometryPackage.Literals.TRIANGLE__VERTICES, 3, views);
+	}
+
+	/**
+	 * Make sure the view, and so the views of its vertices, are kept by the
+	 * list, as their adapters would otherwise be lost once they were no
+	 * longer in use.
+	 */
+	void pin() {
+		if (!pinned) {
+			pinned = true;
+			list.pin(this);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.ecore.impl.MinimalEObjectImpl#eAdapters()
+	 */
+	@Override
+	public EList<Adapter> eAdapters() {
+		pin();
+		return super.eAdapters();
+	}
+
+	/**
+	 * Make the view contained by its shape's list of triangles, or by nothing.
+	 *
+	 * @param shape
+	 *            The shape containing the view, or null to release it
+	 */
+	void setContainer(ShapeImpl shape) {
+		eBasicSetContainer(shape, shape != null
+				? EOPPOSITE_FEATURE_BASE - GeometryPackage.SHAPE__TRIANGLES
+				: 0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.january.geometry.impl.ComplexTriangle#setNormal(org.eclipse.
+	 * january.geometry.Vertex)
+	 */
+	@Override
+	public void setNormal(Vertex value) {
+
+		// The normal is stored in the mesh, so copy the new value into it
+		// instead of replacing the view
+		if (value != null && value != normal) {
+			normal.setX(value.getX());
+			normal.setY(value.getY());
+			normal.setZ(value.getZ());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.ecore.impl.MinimalEObjectImpl#eStaticClass()
+	 */
+	@Override
+	protected EClass eStaticClass() {
+		return GeometryPackage.Literals.TRIANGLE;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.ecore.impl.BasicEObjectImpl#eGet(int, boolean,
+	 * boolean)
+	 */
+	@Override
+	public Object eGet(int featureID, boolean resolve, boolean coreType) {
+		switch (featureID) {
+		case GeometryPackage.TRIANGLE__NORMAL:
+			return getNormal();
+		case GeometryPackage.TRIANGLE__VERTICES:
+			return getVertices();
+		}
+		return super.eGet(featureID, resolve, coreType);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.ecore.impl.BasicEObjectImpl#eIsSet(int)
+	 */
+	@Override
+	public boolean eIsSet(int featureID) {
+		switch (featureID) {
+		case GeometryPackage.TRIANGLE__NORMAL:
+		case GeometryPackage.TRIANGLE__VERTICES:
+			return true;
+		}
+		return super.eIsSet(featureID);
+	}
+}
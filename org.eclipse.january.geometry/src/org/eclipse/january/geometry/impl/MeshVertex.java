@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.impl;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.ENotificationImpl;
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.GeometryPackage;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.TriangleMesh;
+
+/**
+ * A Vertex which is a view of either a vertex's position or a triangle's
+ * normal in a TriangleMesh. The coordinates are read from and written to the
+ * mesh's arrays, so every view of the same vertex sees the same values. The
+ * mesh stores single precision values, so coordinates set through a view are
+ * rounded to the nearest float.
+ *
+ * Changes are reported to the view's own listeners and once to the shape
+ * owning the mesh, which is not otherwise notified of edits to its mesh. No
+ * notification is created if neither needs one.
+ *
+ * @author Robert Smith
+ *
+ */
+class MeshVertex extends VertexImpl {
+
+	/**
+	 * The shape whose mesh contains the coordinates, or null if the mesh
+	 * belongs to no shape.
+	 */
+	private final ShapeImpl owner;
+
+	/**
+	 * The mesh containing the coordinates.
+	 */
+	private final TriangleMesh mesh;
+
+	/**
+	 * The index of the vertex, or of the triangle if this is a normal.
+	 */
+	private final int index;
+
+	/**
+	 * Whether this is a view of a triangle's normal instead of a vertex's
+	 * position.
+	 */
+	private final boolean normal;
+
+	/**
+	 * The default constructor.
+	 *
+	 * @param owner
+	 *            The shape whose mesh contains the coordinates, or null if
+	 *            the mesh belongs to no shape
+	 * @param mesh
+	 *            The mesh containing the coordinates
+	 * @param index
+	 *            The index of the vertex, or of the triangle for a normal
+	 * @param normal
+	 *            Whether the view is of a triangle's normal
+	 */
+	MeshVertex(ShapeImpl owner, TriangleMesh mesh, int index,
+			boolean normal) {
+		super();
+		this.owner = owner;
+		this.mesh = mesh;
+		this.index = index;
+		this.normal = normal;
+	}
+
+	/**
+	 * Make the view contained by the view of its triangle.
+	 *
+	 * @param triangle
+	 *            The triangle's view
+	 * @param featureID
+	 *            The ID of the triangle's feature holding the view
+	 */
+	void setContainer(MeshTriangle triangle, int featureID) {
+		eBasicSetContainer(triangle, EOPPOSITE_FEATURE_BASE - featureID);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.ecore.impl.MinimalEObjectImpl#eAdapters()
+	 */
+	@Override
+	public EList<Adapter> eAdapters() {
+
+		// Keep the triangle's view, and so this one, while it has adapters
+		InternalEObject container = eInternalContainer();
+		if (container instanceof MeshTriangle) {
+			((MeshTriangle) container).pin();
+		}
+		return super.eAdapters();
+	}
+
+	/**
+	 * Get one of the coordinates from the mesh.
+	 *
+	 * @param axis
+	 *            0, 1 or 2 for the x, y or z coordinate
+	 * @return The coordinate's value
+	 */
+	private double get(int axis) {
+		return normal ? mesh.getNormal(index, axis)
+				: mesh.getPosition(index, axis);
+	}
+
+	/**
+	 * Set one of the coordinates in the mesh, notifying listeners if it
+	 * changed.
+	 *
+	 * @param axis
+	 *            0, 1 or 2 for the x, y or z coordinate
+	 * @param feature
+	 *            The ID of the coordinate's feature
+	 * @param newValue
+	 *            The coordinate's new value
+	 */
+	private void set(int axis, int feature, double newValue) {
+
+		double oldValue = get(axis);
+
+		// Fail silently if the new value is already set
+		if (newValue != oldValue) {
+			if (normal) {
+				mesh.setNormal(index, axis, (float) newValue);
+			} else {
+				mesh.setPosition(index, axis, (float) newValue);
+			}
+
+			// Only create the notification if someone will receive it
+			boolean notify = eNotificationRequired();
+			if (notify || owner != null && owner.eNotificationRequired()) {
+				Notification notification = new ENotificationImpl(this,
+						Notification.SET, feature, oldValue, get(axis));
+				if (notify) {
+					eNotify(notification);
+				}
+				if (owner != null) {
+					owner.vertexChanged(notification);
+				}
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.VertexImpl#getX()
+	 */
+	@Override
+	public double getX() {
+		return get(0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.VertexImpl#setX(double)
+	 */
+	@Override
+	public void setX(double newX) {
+		set(0, GeometryPackage.VERTEX__X, newX);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.VertexImpl#getY()
+	 */
+	@Override
+	public double getY() {
+		return get(1);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.VertexImpl#setY(double)
+	 */
+	@Override
+	public void setY(double newY) {
+		set(1, GeometryPackage.VERTEX__Y, newY);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.VertexImpl#getZ()
+	 */
+	@Override
+	public double getZ() {
+		return get(2);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.VertexImpl#setZ(double)
+	 */
+	@Override
+	public void setZ(double newZ) {
+		set(2, GeometryPackage.VERTEX__Z, newZ);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.VertexImpl#eIsSet(int)
+	 */
+	@Override
+	public boolean eIsSet(int featureID) {
+		switch (featureID) {
+		case GeometryPackage.VERTEX__X:
+			return getX() != X_EDEFAULT;
+		case GeometryPackage.VERTEX__Y:
+			return getY() != Y_EDEFAULT;
+		case GeometryPackage.VERTEX__Z:
+			return getZ() != Z_EDEFAULT;
+		}
+		return super.eIsSet(featureID);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.VertexImpl#clone()
+	 */
+	@Override
+	public Object clone() {
+
+		// The clone is an ordinary vertex, independent of the mesh
+		Vertex clone = GeometryFactory.eINSTANCE.createVertex();
+		clone.setX(getX());
+		clone.setY(getY());
+		clone.setZ(getZ());
+		return clone;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.VertexImpl#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+
+		// Hash the same way as an ordinary vertex with these coordinates
+		int hash = 31;
+		hash = hash * 31 + Double.valueOf(getX()).hashCode();
+		hash = hash * 31 + Double.valueOf(getY()).hashCode();
+		hash = hash * 31 + Double.valueOf(getZ()).hashCode();
+
+		return hash;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.VertexImpl#toString()
+	 */
+	@Override
+	public String toString() {
+		return getClass().getName() + " (x: " + getX() + ", y: " + getY()
+				+ ", z: " + getZ() + ")";
+	}
+}
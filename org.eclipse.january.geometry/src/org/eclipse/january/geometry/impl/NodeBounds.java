@@ -0,0 +1,329 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.impl;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.january.geometry.BoundingBox;
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.INode;
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.TriangleMesh;
+import org.eclipse.january.geometry.util.TriangleMeshView;
+
+/**
+ * The cached bounding box of a node, holding its own triangles and those of
+ * all its descendants, offset by its center into its parent's coordinate
+ * system.
+ *
+ * The box is calculated the first time it is requested and kept until the
+ * node or its center vertex reports a change, through nodeChanged(). Both are
+ * reported directly from their eNotify(), whatever thread the change is made
+ * on, so the box is never read back stale after a change.
+ * Each change discards the boxes of the node and all of its ancestors, found
+ * through getParent(), so that they are calculated again the next time they
+ * are requested. Recalculating a node reuses the cached boxes of its
+ * unchanged children, so finding the bounds of a large tree after a change
+ * only reads the triangles of the nodes which changed.
+ *
+ * @author Robert Smith
+ *
+ */
+class NodeBounds {
+
+	/**
+	 * The node whose bounds are cached.
+	 */
+	private final INode node;
+
+	/**
+	 * The center vertex reporting its changes to the bounds, or null if there
+	 * is none.
+	 */
+	private VertexImpl center;
+
+	/**
+	 * The minimum x, y and z, then maximum x, y and z, of the box, or null if
+	 * neither the node nor its descendants have any triangles.
+	 */
+	private double[] bounds;
+
+	/**
+	 * Whether the cached box is up to date.
+	 */
+	private volatile boolean valid;
+
+	/**
+	 * The number of changes reported so far, used to tell whether the node
+	 * changed while its box was being calculated.
+	 */
+	private volatile int changes;
+
+	/**
+	 * The number of changes reported so far by the node's descendants, used
+	 * to tell whether results calculated from them are still up to date.
+	 */
+	private volatile int descendantChanges;
+
+	/**
+	 * The default constructor.
+	 *
+	 * @param node
+	 *            The node whose bounds will be cached
+	 */
+	NodeBounds(INode node) {
+		this.node = node;
+	}
+
+	/**
+	 * Get the node's bounds.
+	 *
+	 * @return A new BoundingBox holding the node's bounds, or null if neither
+	 *         the node nor its descendants have any triangles
+	 */
+	BoundingBox getBounds() {
+		double[] box = getBox();
+		if (box == null) {
+			return null;
+		}
+
+		BoundingBox result = GeometryFactory.eINSTANCE.createBoundingBox();
+		result.setMinX(box[0]);
+		result.setMinY(box[1]);
+		result.setMinZ(box[2]);
+		result.setMaxX(box[3]);
+		result.setMaxY(box[4]);
+		result.setMaxZ(box[5]);
+		return result;
+	}
+
+	/**
+	 * Whether the cached box is up to date, so that changes to the node must
+	 * be reported to discard it.
+	 *
+	 * @return True if the box is cached, false if it will be calculated the
+	 *         next time it is requested
+	 */
+	boolean isValid() {
+		return valid;
+	}
+
+	/**
+	 * Get the number of changes to the node's descendants reported so far.
+	 * Every change to a descendant is reported as long as the bounds of the
+	 * node are cached, so a result calculated from the descendants just after
+	 * getBounds() is up to date as long as this count is unchanged.
+	 *
+	 * @return The number of changes reported by the node's descendants
+	 */
+	int getDescendantChangeCount() {
+		return descendantChanges;
+	}
+
+	/**
+	 * Report a change to the node or its center. Every change other than the
+	 * removal of a listener may move the node's triangles or those of its
+	 * children.
+	 *
+	 * @param notification
+	 *            The node's or center's notification
+	 */
+	void nodeChanged(Notification notification) {
+		if (notification.getEventType() != Notification.REMOVING_ADAPTER) {
+			invalidate();
+		}
+	}
+
+	/**
+	 * Discard the cached box, and those of the node's ancestors.
+	 */
+	void invalidate() {
+		changes++;
+		valid = false;
+		invalidate(node.getParent());
+	}
+
+	/**
+	 * Calculate the node's box, if it is not already cached.
+	 *
+	 * @return The node's box, which must not be modified, or null if it has
+	 *         no triangles
+	 */
+	private synchronized double[] getBox() {
+		if (valid) {
+			return bounds;
+		}
+		int start = changes;
+
+		// Have the current center, which may have been replaced, report its
+		// changes
+		Vertex newCenter = node.getCenter();
+		if (newCenter != center) {
+			if (center != null) {
+				center.removeCenterBounds(this);
+			}
+			center = newCenter instanceof VertexImpl ? (VertexImpl) newCenter
+					: null;
+			if (center != null) {
+				center.addCenterBounds(this);
+			}
+		}
+
+		double[] box = null;
+
+		// Add the node's own triangles. If they are stored in a mesh, read
+		// its arrays directly.
+		EList<Triangle> triangles = node.getTriangles();
+		TriangleMesh mesh = triangles instanceof TriangleMeshView
+				? ((TriangleMeshView) triangles).getMesh() : null;
+		if (mesh != null) {
+			float[] positions = mesh.getPositions();
+			int[] indices = mesh.getIndices();
+			int count = mesh.getTriangleCount() * 3;
+			for (int i = 0; i < count; i++) {
+				int vertex = indices[i] * 3;
+				box = addPoint(box, positions[vertex], positions[vertex + 1],
+						positions[vertex + 2]);
+			}
+		} else {
+			for (Triangle triangle : triangles) {
+				for (Vertex vertex : triangle.getVertices()) {
+					if (vertex != null) {
+						box = addPoint(box, vertex.getX(), vertex.getY(),
+								vertex.getZ());
+					}
+				}
+			}
+		}
+
+		// Add the children's boxes, which are in this node's coordinates
+		for (INode child : node.getNodes()) {
+			double[] childBox = getBox(child);
+			if (childBox != null) {
+				box = addPoint(box, childBox[0], childBox[1], childBox[2]);
+				box = addPoint(box, childBox[3], childBox[4], childBox[5]);
+			}
+		}
+
+		// Move the box into the parent's coordinates
+		if (box != null && newCenter != null) {
+			box[0] += newCenter.getX();
+			box[1] += newCenter.getY();
+			box[2] += newCenter.getZ();
+			box[3] += newCenter.getX();
+			box[4] += newCenter.getY();
+			box[5] += newCenter.getZ();
+		}
+
+		bounds = box;
+
+		// If the node changed while its triangles were being read, the box
+		// may already be out of date
+		valid = start == changes;
+		return box;
+	}
+
+	/**
+	 * Grow a box to hold a point.
+	 *
+	 * @param box
+	 *            The box, or null if it has not been started
+	 * @param x
+	 *            The point's x coordinate
+	 * @param y
+	 *            The point's y coordinate
+	 * @param z
+	 *            The point's z coordinate
+	 * @return The grown box
+	 */
+	private static double[] addPoint(double[] box, double x, double y,
+			double z) {
+		if (box == null) {
+			return new double[] { x, y, z, x, y, z };
+		}
+		box[0] = Math.min(box[0], x);
+		box[1] = Math.min(box[1], y);
+		box[2] = Math.min(box[2], z);
+		box[3] = Math.max(box[3], x);
+		box[4] = Math.max(box[4], y);
+		box[5] = Math.max(box[5], z);
+		return box;
+	}
+
+	/**
+	 * Get a node's box, using its cache if it has one.
+	 *
+	 * @param node
+	 *            The node
+	 * @return The node's box, which must not be modified, or null if it has
+	 *         no triangles
+	 */
+	private static double[] getBox(INode node) {
+		NodeBounds cache = getCache(node);
+		if (cache != null) {
+			return cache.getBox();
+		}
+
+		BoundingBox box = node.getBounds();
+		return box == null ? null
+				: new double[] { box.getMinX(), box.getMinY(), box.getMinZ(),
+						box.getMaxX(), box.getMaxY(), box.getMaxZ() };
+	}
+
+	/**
+	 * Get a node's cached bounds, creating them if needed.
+	 *
+	 * @param node
+	 *            The node
+	 * @return The node's cached bounds, or null if it is not one of the
+	 *         package's implementations
+	 */
+	private static NodeBounds getCache(INode node) {
+		if (node instanceof ShapeImpl) {
+			return ((ShapeImpl) node).getNodeBounds();
+		} else if (node instanceof OperatorImpl) {
+			return ((OperatorImpl) node).getNodeBounds();
+		} else if (node instanceof GeometryImpl) {
+			return ((GeometryImpl) node).getNodeBounds();
+		}
+		return null;
+	}
+
+	/**
+	 * Discard a node's cached box and those of its ancestors.
+	 *
+	 * @param node
+	 *            The node, or null if there is none
+	 */
+	private static void invalidate(INode node) {
+		while (node != null) {
+
+			// Only nodes whose bounds have been requested have a cache
+			NodeBounds cache = null;
+			if (node instanceof ShapeImpl) {
+				cache = ((ShapeImpl) node).nodeBounds;
+			} else if (node instanceof OperatorImpl) {
+				cache = ((OperatorImpl) node).nodeBounds;
+			} else if (node instanceof GeometryImpl) {
+				cache = ((GeometryImpl) node).nodeBounds;
+			}
+
+			// The cache continues up the tree itself
+			if (cache != null) {
+				cache.descendantChanges++;
+				cache.invalidate();
+				return;
+			}
+			node = node.getParent();
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.january.geometry.INode;
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.util.TriangleMesh;
+
+/**
+ * Comparisons of the triangles and children of nodes, shared by the nodes'
+ * equals() and hashCode() implementations.
+ *
+ * Lists are compared regardless of order. Rather than searching the whole of
+ * one list for each member of the other, the members of one list are grouped
+ * by their hashes, so that each member of the other is usually only compared
+ * to those with the same hash. Triangles are grouped by their fingerprints and
+ * nodes by their hash codes.
+ *
+ * Triangles, child nodes and centers all follow the same rule: they are
+ * compared with equals(), whose vertices may differ within the vertex
+ * tolerance. Such vertices may hash differently, so hashes only decide which
+ * members are compared first. A member without an equal in its hash group is
+ * searched for in the whole of the other list, and lists are never rejected
+ * because their fingerprints differ.
+ *
+ * @author Robert Smith
+ *
+ */
+final class NodeEquality {
+
+	/**
+	 * The constructor is hidden, as the class only holds static methods.
+	 */
+	private NodeEquality() {
+	}
+
+	/**
+	 * Check whether two lists hold the same triangles, in any order.
+	 *
+	 * @param triangles
+	 *            The first list
+	 * @param otherTriangles
+	 *            The second list
+	 * @return True if the lists are the same size and each triangle in the
+	 *         first equals one in the second, false otherwise.
+	 */
+	static boolean trianglesEqual(List<? extends Triangle> triangles,
+			List<? extends Triangle> otherTriangles) {
+
+		if (triangles == otherTriangles) {
+			return true;
+		}
+		if (triangles.size() != otherTriangles.size()) {
+			return false;
+		}
+
+		// Group the other triangles by their fingerprints
+		HashMap<Long, List<Triangle>> candidates = new HashMap<Long, List<Triangle>>();
+		for (Triangle otherTriangle : otherTriangles) {
+			Long key = TriangleMesh.getFingerprint(otherTriangle);
+			List<Triangle> group = candidates.get(key);
+			if (group == null) {
+				group = new ArrayList<Triangle>(1);
+				candidates.put(key, group);
+			}
+			group.add(otherTriangle);
+		}
+
+		// Each triangle must match one, usually with the same fingerprint
+		for (Triangle triangle : triangles) {
+			List<Triangle> group = candidates
+					.get(TriangleMesh.getFingerprint(triangle));
+			if ((group == null || !containsEqual(group, triangle))
+					&& !containsEqual(otherTriangles, triangle)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check whether two lists hold the same nodes, in any order.
+	 *
+	 * @param nodes
+	 *            The first list
+	 * @param otherNodes
+	 *            The second list
+	 * @return True if the lists are the same size and each node in the first
+	 *         equals one in the second, false otherwise.
+	 */
+	static boolean nodesEqual(List<INode> nodes, List<INode> otherNodes) {
+
+		if (nodes.size() != otherNodes.size()) {
+			return false;
+		}
+
+		// Group the other nodes by their hash codes, which equal nodes share
+		HashMap<Integer, List<INode>> candidates = new HashMap<Integer, List<INode>>();
+		for (INode otherNode : otherNodes) {
+			Integer key = otherNode.hashCode();
+			List<INode> group = candidates.get(key);
+			if (group == null) {
+				group = new ArrayList<INode>(1);
+				candidates.put(key, group);
+			}
+			group.add(otherNode);
+		}
+
+		// Each node must match one, usually with the same hash
+		for (INode node : nodes) {
+			List<INode> group = candidates.get(node.hashCode());
+			if ((group == null || !containsEqual(group, node))
+					&& !containsEqual(otherNodes, node)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Calculate the part of a node's hash code given by its triangles.
+	 *
+	 * @param triangles
+	 *            The node's triangles
+	 * @return A hash of the triangles' fingerprint
+	 */
+	static int hashTriangles(List<? extends Triangle> triangles) {
+		long fingerprint = TriangleMesh.getFingerprint(triangles);
+		return (int) (fingerprint ^ fingerprint >>> 32);
+	}
+
+	/**
+	 * Check whether a list holds an object equal to the given one.
+	 *
+	 * @param list
+	 *            The list to search
+	 * @param object
+	 *            The object to search for
+	 * @return True if one of the list's members equals the object, false
+	 *         otherwise
+	 */
+	private static boolean containsEqual(List<?> list, Object object) {
+		for (Object member : list) {
+			if (object.equals(member)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -3,6 +3,7 @@
 package org.eclipse.january.geometry.impl;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 
@@ -17,13 +18,18 @@ import org.eclipse.emf.ecore.impl.ENotificationImpl;
 import org.eclipse.emf.ecore.impl.MinimalEObjectImpl;
 import org.eclipse.emf.ecore.util.EObjectContainmentEList;
 import org.eclipse.emf.ecore.util.InternalEList;
+import org.eclipse.january.geometry.BoundingBox;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.GeometryPackage;
 import org.eclipse.january.geometry.INode;
 import org.eclipse.january.geometry.Operator;
+import org.eclipse.january.geometry.Shape;
 import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Vertex;
-import org.eclipse.swt.widgets.Display;
+import org.eclipse.january.geometry.util.MeshBoolean;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
+import org.eclipse.january.geometry.util.TriangleMesh;
+import org.eclipse.january.geometry.util.TriangleMeshView;
 
 /**
  * <!-- begin-user-doc --> An implementation of the model object '
@@ -145,6 +151,37 @@ public class OperatorImpl extends MinimalEObjectImpl.Container
 	 */
 	protected HashMap<String, Double> properties;
 
+	/**
+	 * The cached bounds of the operator and its descendants, or null if they
+	 * have never been requested.
+	 * 
+	 * @generated NOT
+	 */
+	protected NodeBounds nodeBounds;
+
+	/**
+	 * A shape holding the solid produced by applying the operator to its
+	 * children in its mesh, or null if it has never been requested.
+	 * 
+	 * @generated NOT
+	 */
+	protected Shape result;
+
+	/**
+	 * The children the result was produced from, in order.
+	 * 
+	 * @generated NOT
+	 */
+	protected INode[] resultChildren;
+
+	/**
+	 * The number of changes reported by the operator's descendants when the
+	 * result was produced.
+	 * 
+	 * @generated NOT
+	 */
+	protected int resultChanges;
+
 	/**
 	 * <!-- begin-user-doc --> <!-- end-user-doc -->
 	 * 
@@ -547,31 +584,10 @@ public class OperatorImpl extends MinimalEObjectImpl.Container
 				// The triangles from the other geometry
 				EList<Triangle> otherTriangles = otherOperator.getTriangles();
 
-				// Check that the triangles lists are equal.
-				if (getTriangles().size() == otherTriangles.size()) {
-
-					// Check that the other list contains every triangle in this
-					// one. Since they are the same length, this will mean the
-					// triangles are identical
-					for (Triangle triangle : triangles) {
-
-						// Whether a matching triangle has been found
-						boolean found = false;
-
-						// Search for an identical triangle
-						for (Triangle otherTriangle : otherTriangles) {
-							if (triangle.equals(otherTriangle)) {
-								found = true;
-								break;
-							}
-						}
-
-						// If the triangle is not in the other object, they are
-						// not equal
-						if (!found) {
-							return false;
-						}
-					}
+				// Check that the triangles lists are equal, matching up
+				// triangles with the same fingerprint first
+				if (NodeEquality.trianglesEqual(getTriangles(),
+						otherTriangles)) {
 
 					// Check that the centers are equal
 					if (getCenter().equals(otherOperator.getCenter())) {
@@ -601,30 +617,7 @@ public class OperatorImpl extends MinimalEObjectImpl.Container
 
 							// Check that the lists of children contain the same
 							// values
-							if (ownNodes.size() == otherNodes.size()) {
-								for (INode node : ownNodes) {
-
-									// Whether a match has been found
-									boolean found = false;
-
-									// Check to see if the node equals any other
-									// the other object's
-									for (INode otherNode : otherNodes) {
-										if (node.equals(otherNode)) {
-											found = true;
-											break;
-										}
-									}
-
-									// If the node was not in the other list,
-									// the objects are not equal
-									if (!found) {
-										return false;
-									}
-								}
-
-								// All tests passed, so the objects must be
-								// equal
+							if (NodeEquality.nodesEqual(ownNodes, otherNodes)) {
 								return true;
 							}
 						}
@@ -664,11 +657,9 @@ public class OperatorImpl extends MinimalEObjectImpl.Container
 		}
 		hashCode = 31 * hashCode + nodesHash;
 
-		// Add the hash for each triangle
-		int trianglesHash = 0;
-		for (Triangle triangle : getTriangles()) {
-			trianglesHash += triangle.hashCode();
-		}
+		// Add the hash of the triangles' fingerprint, which is cached for
+		// triangles stored in a mesh
+		int trianglesHash = NodeEquality.hashTriangles(getTriangles());
 		hashCode = 31 * hashCode + trianglesHash;
 
 		return hashCode;
@@ -862,6 +853,200 @@ public class OperatorImpl extends MinimalEObjectImpl.Container
 		return result.toString();
 	}
 
+	/**
+	 * <!-- begin-user-doc --> The bounds are cached until the operator, its
+	 * center or one of its descendants changes. <!-- end-user-doc -->
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	public BoundingBox getBounds() {
+		return getNodeBounds().getBounds();
+	}
+
+	/**
+	 * Get the cached bounds of the operator, creating them if needed.
+	 * 
+	 * @return The operator's cached bounds
+	 * @generated NOT
+	 */
+	synchronized NodeBounds getNodeBounds() {
+		if (nodeBounds == null) {
+			nodeBounds = new NodeBounds(this);
+		}
+		return nodeBounds;
+	}
+
+	/**
+	 * <!-- begin-user-doc --> <!-- end-user-doc -->
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	public synchronized EList<Triangle> getResultTriangles() {
+
+		NodeBounds bounds = getNodeBounds();
+		int changes = bounds.getDescendantChangeCount();
+		EList<INode> children = getNodes();
+
+		// Reuse the result unless a child was added, removed or changed
+		boolean current = result != null && changes == resultChanges
+				&& resultChildren.length == children.size();
+		for (int i = 0; current && i < resultChildren.length; i++) {
+			current = resultChildren[i] == children.get(i);
+		}
+		if (current) {
+			return result.getTriangles();
+		}
+
+		// Cache the bounds of every descendant, so that each of them reports
+		// its changes from now on
+		getBounds();
+
+		// Combine the children's solids in order
+		double[] solid = null;
+		for (INode child : children) {
+			double[] childSolid = getSolid(child);
+			solid = solid == null ? childSolid : combine(solid, childSolid);
+		}
+
+		result = GeometryFactory.eINSTANCE.createShape();
+		result.setMesh(MeshBoolean.toMesh(solid == null ? new double[0]
+				: solid));
+		resultChildren = children.toArray(new INode[children.size()]);
+		resultChanges = changes;
+		return result.getTriangles();
+	}
+
+	/**
+	 * Combine the solids of two of the operator's children. By default, their
+	 * triangles are simply placed together. Subclasses perform their boolean
+	 * operation instead.
+	 * 
+	 * @param first
+	 *            The triangles of the solid formed by the children before the
+	 *            second, nine coordinates per triangle
+	 * @param second
+	 *            The triangles of the next child
+	 * @return The triangles of the combined solid
+	 * @generated NOT
+	 */
+	protected double[] combine(double[] first, double[] second) {
+		double[] combined = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, combined, first.length, second.length);
+		return combined;
+	}
+
+	/**
+	 * Get the solid formed by a node, in its parent's coordinates. This is
+	 * the result of an operator, or else the node's own triangles together
+	 * with the solids of its children.
+	 * 
+	 * @param node
+	 *            The node
+	 * @return The coordinates of the solid's triangles, nine per triangle
+	 * @generated NOT
+	 */
+	private static double[] getSolid(INode node) {
+
+		EList<Triangle> triangles = node instanceof Operator
+				? ((Operator) node).getResultTriangles() : node.getTriangles();
+		TriangleMesh mesh = triangles instanceof TriangleMeshView
+				? ((TriangleMeshView) triangles).getMesh() : null;
+
+		// Read the triangles, directly from their mesh if they have one
+		double[] solid;
+		if (mesh != null) {
+			float[] positions = mesh.getPositions();
+			int[] indices = mesh.getIndices();
+			int count = mesh.getTriangleCount() * 3;
+			solid = new double[count * 3];
+			for (int i = 0; i < count; i++) {
+				int vertex = indices[i] * 3;
+				solid[i * 3] = positions[vertex];
+				solid[i * 3 + 1] = positions[vertex + 1];
+				solid[i * 3 + 2] = positions[vertex + 2];
+			}
+		} else {
+
+			// Polygons are split into a fan of triangles around their first
+			// vertex, and anything with fewer than three vertices is skipped
+			int count = 0;
+			for (Triangle triangle : triangles) {
+				count += Math.max(triangle.getVertices().size() - 2, 0);
+			}
+			solid = new double[count * 9];
+			int i = 0;
+			for (Triangle triangle : triangles) {
+				EList<Vertex> vertices = triangle.getVertices();
+				for (int j = 2; j < vertices.size(); j++) {
+					i = addVertex(solid, i, vertices.get(0));
+					i = addVertex(solid, i, vertices.get(j - 1));
+					i = addVertex(solid, i, vertices.get(j));
+				}
+			}
+		}
+
+		// Add the children of nodes which are not operators
+		if (!(node instanceof Operator)) {
+			for (INode child : node.getNodes()) {
+				double[] childSolid = getSolid(child);
+				int length = solid.length;
+				solid = Arrays.copyOf(solid, length + childSolid.length);
+				System.arraycopy(childSolid, 0, solid, length,
+						childSolid.length);
+			}
+		}
+
+		// Move the solid into the parent's coordinates
+		Vertex center = node.getCenter();
+		if (center != null) {
+			double x = center.getX();
+			double y = center.getY();
+			double z = center.getZ();
+			for (int i = 0; i < solid.length; i += 3) {
+				solid[i] += x;
+				solid[i + 1] += y;
+				solid[i + 2] += z;
+			}
+		}
+		return solid;
+	}
+
+	/**
+	 * Write a vertex's coordinates into a solid.
+	 * 
+	 * @param solid
+	 *            The coordinates of the solid's triangles
+	 * @param index
+	 *            The index to write the x coordinate at
+	 * @param vertex
+	 *            The vertex to write
+	 * @return The index following the vertex's z coordinate
+	 * @generated NOT
+	 */
+	private static int addVertex(double[] solid, int index, Vertex vertex) {
+		solid[index] = vertex.getX();
+		solid[index + 1] = vertex.getY();
+		solid[index + 2] = vertex.getZ();
+		return index + 3;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.emf.common.notify.impl.BasicNotifierImpl#
+	 * eNotificationRequired()
+	 */
+	@Override
+	public boolean eNotificationRequired() {
+
+		// While the bounds are cached, every change must be reported so that
+		// they can be discarded
+		return super.eNotificationRequired()
+				|| nodeBounds != null && nodeBounds.isValid();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -871,38 +1056,19 @@ public class OperatorImpl extends MinimalEObjectImpl.Container
 	 */
 	@Override
 	public void eNotify(Notification notification) {
+
+		// Discard the cached bounds, which the change may have moved
+		if (nodeBounds != null) {
+			nodeBounds.nodeChanged(notification);
+		}
+
 		// Check if a notification is required
 		Adapter[] eAdapters = eBasicAdapterArray();
 		if (eAdapters != null && eDeliver()) {
 
-			// If this notification is on the UI thread, launch a new thread to
-			// handle it
-			Display currDisplay = Display.getCurrent();
-			if (currDisplay != null
-					&& Thread.currentThread() == currDisplay.getThread()) {
-
-				Thread updateThread = new Thread() {
-
-					@Override
-					public void run() {
-						for (int i = 0, size = eAdapters.length; i < size; ++i) {
-							eAdapters[i].notifyChanged(notification);
-						}
-					}
-				};
-
-				updateThread.run();
-
-			}
-
-			// If we are already off the UI thread, such as being called by a
-			// thread created by some other object's eNotify(), then just notify
-			// the adapters.
-			else {
-				for (int i = 0, size = eAdapters.length; i < size; ++i) {
-					eAdapters[i].notifyChanged(notification);
-				}
-			}
+			// Let the shared dispatcher deliver the notification, in the
+			// background if this is the UI thread
+			NotificationDispatcher.dispatch(this, eAdapters, notification);
 		}
 	}
 } // OperatorImpl
@@ -3,9 +3,9 @@
 package org.eclipse.january.geometry.impl;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 
 import org.eclipse.emf.common.notify.Notification;
-import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
@@ -15,6 +15,7 @@ import org.eclipse.january.geometry.GeometryPackage;
 import org.eclipse.january.geometry.Pipe;
 import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.util.MeshUtils;
+import org.eclipse.january.geometry.util.PointTransform;
 
 /**
  * <!-- begin-user-doc --> An implementation of the model object '
@@ -142,6 +143,14 @@ public class PipeImpl extends TubeImpl implements Pipe {
 	 */
 	protected double rotationZ = ROTATION_Z_EDEFAULT;
 
+	/**
+	 * The values of the pipe's properties its mesh's vertices were last
+	 * positioned for, or null if they have not been positioned.
+	 * 
+	 * @generated NOT
+	 */
+	private double[] meshKey;
+
 	/**
 	 * <!-- begin-user-doc --> <!-- end-user-doc -->
 	 * @generated
@@ -409,16 +418,10 @@ public class PipeImpl extends TubeImpl implements Pipe {
 			points[i * 3 + 2] = pointsOrig[i * 2 + 1];
 		}
 
-		// Rotate the points
-		points = MeshUtils.rotatePoints(points, rotationX, rotationY,
-				rotationZ);
-
-		// Move the points so that the pipe will be centered correctly
-		for (int i = 0; i < points.length / 3; i++) {
-			points[i * 3] = (points[i * 3] + center.getX());
-			points[i * 3 + 1] = (points[i * 3 + 1] + center.getY());
-			points[i * 3 + 2] = (points[i * 3 + 2] + center.getZ());
-		}
+		// Rotate the points, then move them so that the pipe will be centered
+		// correctly
+		new PointTransform().rotate(rotationX, rotationY, rotationZ)
+				.center(center).transform(points);
 
 		// Initialize the extrema with the first point
 		double minX = points[0];
@@ -479,33 +482,80 @@ public class PipeImpl extends TubeImpl implements Pipe {
 	@Override
 	public EList<Triangle> getTriangles() {
 
-		// Initialize the triangles list if it is not already
-		if (triangles == null) {
-			triangles = new BasicEList<Triangle>();
+		// Create the triangles only if there are none for the pipe's
+		// resolution, as changing its dimensions only moves their vertices
+		int vertexCount = RESOLUTION * (SEGMENTS + 1);
+		if (mesh == null || mesh.getVertexCount() != vertexCount) {
+			mesh = MeshUtils.createTubeTopology(RESOLUTION, SEGMENTS);
+			if (triangles instanceof TriangleMeshList) {
+				((TriangleMeshList) triangles).release();
+			}
+			triangles = null;
+			meshKey = null;
 		}
 
-		// If the attributes have not changed since the last time the mesh was
-		// recalculated, return the current mesh
-		if (prevHeight == height && prevInnerRadius == innerRadius
-				&& prevRadius == radius) {
-			return triangles;
+		// If the attributes have changed since the last time the mesh was
+		// recalculated, move the existing vertices to their new positions
+		double[] key = getDetailKey();
+		if (!Arrays.equals(key, meshKey)) {
+			meshKey = key;
+			mesh.setPositions(createPoints(RESOLUTION, SEGMENTS));
 		}
 
-		// Update to the current attributes
-		prevRadius = radius;
-		prevHeight = height;
+		// View the mesh as a list of triangles
+		if (triangles == null) {
+			triangles = new TriangleMeshList(this, mesh);
+		}
 
-		// Get the points and rotate them
-		double[] vertices = MeshUtils.createTube(height, radius, radius,
-				RESOLUTION, SEGMENTS);
-		vertices = MeshUtils.rotatePoints(vertices, rotationX, rotationY,
-				rotationZ);
+		return triangles;
+	}
 
-		// Replace the previous list with a a new tube's triangles.
-		triangles.clear();
-		triangles = MeshUtils.createTubeMesh(vertices, RESOLUTION, SEGMENTS);
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.january.geometry.impl.TubeImpl#createTriangles(int,
+	 * int)
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	protected EList<Triangle> createTriangles(int resolution, int segments) {
+		return MeshUtils.createTubeMesh(createPoints(resolution, segments),
+				resolution, segments);
+	}
 
-		return triangles;
+	/**
+	 * Create the points of the pipe's triangles, in the order given by
+	 * MeshUtils.createTube(), rotated to the pipe's orientation.
+	 * 
+	 * @param resolution
+	 *            The number of points around each of the pipe's circles
+	 * @param segments
+	 *            The number of segments the pipe is divided into along its
+	 *            axis
+	 * @return The x, y and z coordinates of each point
+	 * 
+	 * @generated NOT
+	 */
+	private double[] createPoints(int resolution, int segments) {
+		double[] points = MeshUtils.createTube(height, radius, radius,
+				resolution, segments);
+		new PointTransform().rotate(rotationX, rotationY, rotationZ)
+				.transform(points);
+		return points;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.january.geometry.impl.TubeImpl#getDetailKey()
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	protected double[] getDetailKey() {
+		return new double[] { height, radius, rotationX, rotationY,
+				rotationZ };
 	}
 
 	/**
@@ -4,6 +4,7 @@ package org.eclipse.january.geometry.impl;
 
 import java.util.Collection;
 
+import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.NotificationChain;
 import org.eclipse.emf.common.notify.impl.AdapterImpl;
@@ -70,6 +71,23 @@ public class PolyShapeImpl extends ShapeImpl implements PolyShape {
 	 */
 	protected EList<String> materialFiles;
 
+	/**
+	 * The listener added to each vertex used by the shape's triangles. A
+	 * single instance is shared by all the vertices, and it is added to each
+	 * vertex only once, however many triangles use it.
+	 * 
+	 * @generated NOT
+	 */
+	protected final Adapter vertexListener = new AdapterImpl() {
+
+		@Override
+		public void notifyChanged(Notification notification) {
+			if (!notification.isTouch()) {
+				vertexChanged(notification);
+			}
+		}
+	};
+
 	/**
 	 * <!-- begin-user-doc --> <!-- end-user-doc -->
 	 * @generated
@@ -146,15 +164,10 @@ public class PolyShapeImpl extends ShapeImpl implements PolyShape {
 							.get(index3);
 					ComplexTriangle tri = new ComplexTriangle(v1, v2, v3);
 
-					// Listen to the triangle, passing along any notifications.
-					tri.eAdapters().add(new AdapterImpl() {
-
-						@Override
-						public void notifyChanged(Notification notification) {
-							eNotify(notification);
-						}
-
-					});
+					// Listen to the vertices, passing along any notifications.
+					listenTo(v1);
+					listenTo(v2);
+					listenTo(v3);
 					getTriangles().add(tri);
 				}
 			} else {
@@ -163,6 +176,36 @@ public class PolyShapeImpl extends ShapeImpl implements PolyShape {
 		}
 	}
 
+	/**
+	 * Start passing a vertex's notifications along to the shape's listeners,
+	 * if it is not already being listened to.
+	 * 
+	 * @param vertex
+	 *            A vertex used by one of the shape's triangles
+	 * @generated NOT
+	 */
+	protected void listenTo(Vertex vertex) {
+		EList<Adapter> adapters = vertex.eAdapters();
+		if (!adapters.contains(vertexListener)) {
+			adapters.add(vertexListener);
+		}
+	}
+
+	/**
+	 * Stop listening to the vertices of all the shape's current triangles.
+	 * 
+	 * @generated NOT
+	 */
+	protected void stopListening() {
+		if (triangles != null) {
+			for (Triangle triangle : triangles) {
+				for (Vertex vertex : triangle.getVertices()) {
+					vertex.eAdapters().remove(vertexListener);
+				}
+			}
+		}
+	}
+
 	/**
 	 * <!-- begin-user-doc --> <!-- end-user-doc -->
 	 * 
@@ -268,7 +311,9 @@ public class PolyShapeImpl extends ShapeImpl implements PolyShape {
 			}
 
 			// Clear the current list of triangles
+			stopListening();
 			triangles = new BasicEList<Triangle>();
+			mesh = null;
 
 			// Copy the faces
 			faces = new BasicEList<Face>();
@@ -288,6 +333,11 @@ public class PolyShapeImpl extends ShapeImpl implements PolyShape {
 
 			// calculate the new polygons now that evertrhing is set up.
 			calculatePolyTriangles();
+
+			// The triangles were replaced without a notification
+			if (nodeBounds != null) {
+				nodeBounds.invalidate();
+			}
 		}
 	}
 
@@ -12,22 +12,17 @@ package org.eclipse.january.geometry.impl;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.Collection;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.emf.common.notify.Notification;
-import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.common.util.EList;
-import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
 import org.eclipse.emf.ecore.impl.MinimalEObjectImpl;
-import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.util.EDataTypeUniqueEList;
 import org.eclipse.january.geometry.Geometry;
 import org.eclipse.january.geometry.GeometryFactory;
@@ -37,10 +32,12 @@ import org.eclipse.january.geometry.STLGeometryImporter;
 import org.eclipse.january.geometry.Shape;
 import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Vertex;
-import org.eclipse.xtext.resource.XtextResource;
-import org.eclipse.xtext.resource.XtextResourceSet;
-
-import com.google.inject.Injector;
+import org.eclipse.january.geometry.model.importer.XtextImporterRuntime;
+import org.eclipse.january.geometry.util.BinarySTLReader;
+import org.eclipse.january.geometry.util.TriangleMesh;
+import org.eclipse.january.geometry.util.VertexWelder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import xtext.STLStandaloneSetup;
 
@@ -59,6 +56,13 @@ import xtext.STLStandaloneSetup;
  */
 public class STLGeometryImporterImpl extends MinimalEObjectImpl.Container
 		implements STLGeometryImporter {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(STLGeometryImporterImpl.class);
+
 	/**
 	 * The cached value of the '{@link #getFileTypes() <em>File Types</em>}' attribute list.
 	 * <!-- begin-user-doc --> <!-- end-user-doc -->
@@ -144,107 +148,106 @@ public class STLGeometryImporterImpl extends MinimalEObjectImpl.Container
 	 */
 	@Override
 	public Geometry load(Path path) {
+		return load(path, null);
+	}
+
+	/**
+	 * Returns the geometry from the STL file given by the specified path,
+	 * reporting progress to the given monitor while reading binary files.
+	 * 
+	 * @param path
+	 *            The path to read the file from
+	 * @param monitor
+	 *            The monitor to report progress to and check for
+	 *            cancellation. May be null.
+	 * @return The geometry read from the file
+	 * @throws OperationCanceledException
+	 *             Thrown if the monitor is cancelled during the load
+	 * @generated NOT
+	 */
+	public Geometry load(Path path, IProgressMonitor monitor) {
+
+		// Send binary files straight to the binary reader rather than making
+		// the parser fail on them first
+		if (BinarySTLReader.isBinary(path)) {
+			return loadBinary(path, monitor);
+		}
+
 		// Geometry to return
 		Geometry geometry = null;
 
-		Injector injector = new STLStandaloneSetup()
-				.createInjectorAndDoEMFRegistration();
-		XtextResourceSet resourceSet = injector
-				.getInstance(XtextResourceSet.class);
-		resourceSet.addLoadOption(XtextResource.OPTION_RESOLVE_ALL,
-				Boolean.TRUE);
-		Resource resource = resourceSet.getResource(
-				URI.createFileURI(path.toFile().getAbsolutePath()), true);
+		// Parse the file using the shared STL language runtime
+		EList<EObject> contents = XtextImporterRuntime
+				.getRuntime(new STLStandaloneSetup()).load(path);
 
 		// Check to see if returned contents contain a valid geometry. If not,
 		// then the file might be
 		// a binary format
 
-		// Get the contents of the resource
-		EList<EObject> contents = resource.getContents();
-
 		// If they contents are valid, get the first element
 		if (contents != null && !contents.isEmpty()) {
 			Geometry g = (Geometry) contents.get(0);
 
-			// If the geometry has no nodes, or the shape has no triangles, try
-			// loading from binary
+			// If the geometry has no nodes, or the shape has no triangles, the
+			// file may be a binary file with an unusual header, so try loading
+			// from binary. The binary reader builds the shape's mesh itself,
+			// so the geometry can be returned directly.
 			if (g.getNodes().isEmpty()
 					|| ((Shape) g.getNodes().get(0)).getTriangles().isEmpty()) {
-				geometry = loadBinary(path);
+				return loadBinary(path, monitor);
 			} else {
 				// Otherwise, return this geometry
 				geometry = g;
 			}
 		}
 
-		// Iterate through the returned nodes, replacing triangles with complex
-		// triangles
+		// Iterate through the returned nodes, replacing the parsed triangles
+		// with a compact mesh
 		for (INode node : geometry.getNodes()) {
 
 			// Get the nodes current triangles
 			EList<Triangle> triangles = node.getTriangles();
 
-			// The list of the new, complex triangles to assign to the node
-			ArrayList<Triangle> newTriangles = new ArrayList<Triangle>();
-
-			// The list of vertices in the mesh
-			ArrayList<Vertex> vertices = new ArrayList<Vertex>();
+			// The welder which will merge the duplicated vertices of adjacent
+			// triangles
+			VertexWelder welder = new VertexWelder();
 
-			// COnvert each triangle into a complex triangle
-			for (Triangle tri : triangles) {
+			// The indices of each triangle's vertices and its normal
+			int[] indices = new int[triangles.size() * 3];
+			float[] normals = new float[triangles.size() * 3];
 
-				// The vertices for the current triangle
-				ArrayList<Vertex> currVertices = new ArrayList<Vertex>();
-
-				// Add each vertex to the list
-				for (Vertex v : tri.getVertices()) {
-
-					// If the vertex is unrecognized, clone it and add it to the
-					// list
-					if (!vertices.contains(v)) {
-						Vertex clone = (Vertex) v.clone();
-						vertices.add(clone);
-						currVertices.add(clone);
-					}
-
-					// If it is already in the list, just get the reference to
-					// it
-					else {
-						currVertices.add(vertices.get(vertices.indexOf(v)));
-					}
+			// Weld each triangle's vertices into the mesh
+			for (int i = 0; i < triangles.size(); i++) {
+				Triangle tri = triangles.get(i);
+				EList<Vertex> vertices = tri.getVertices();
+				for (int j = 0; j < 3; j++) {
+					Vertex v = vertices.get(j);
+					indices[i * 3 + j] = welder.add(v.getX(), v.getY(),
+							v.getZ());
 				}
-
-				// Create a new triangle and set its normal
-				ComplexTriangle cTri = new ComplexTriangle(currVertices.get(0),
-						currVertices.get(1), currVertices.get(2));
-				cTri.getNormal().setX(tri.getNormal().getX());
-				cTri.getNormal().setY(tri.getNormal().getY());
-				cTri.getNormal().setZ(tri.getNormal().getZ());
-
-				// Register to listen for changes in the triangle
-				cTri.eAdapters().add(new AdapterImpl() {
-
-					@Override
-					public void notifyChanged(Notification notification) {
-
-						// Simply pass the notification along to the node's
-						// listeners
-						node.eNotify(notification);
-					}
-
-				});
-
-				newTriangles.add(cTri);
+				normals[i * 3] = (float) tri.getNormal().getX();
+				normals[i * 3 + 1] = (float) tri.getNormal().getY();
+				normals[i * 3 + 2] = (float) tri.getNormal().getZ();
 			}
 
-			// Empty the list of old triangles
-			node.getTriangles().clear();
-
-			// Add the new triangles to the list
-			for (Triangle tri : newTriangles) {
-				node.getTriangles().add(tri);
+			logger.debug("Welded " + welder.getMergedCount()
+					+ " duplicate vertices in " + path.getFileName()
+					+ ", leaving " + welder.getVertexCount()
+					+ " unique vertices.");
+
+			// Convert the welded coordinates to single precision, as the mesh
+			// stores them. Coordinates written with more than about seven
+			// significant digits lose the extra precision, as they would in a
+			// binary STL file.
+			double[] coordinates = welder.getCoordinates();
+			float[] positions = new float[coordinates.length];
+			for (int i = 0; i < coordinates.length; i++) {
+				positions[i] = (float) coordinates[i];
 			}
+
+			// Replace the parsed triangles with the mesh
+			((Shape) node)
+					.setMesh(new TriangleMesh(positions, indices, normals));
 		}
 
 		// Return the geometry
@@ -253,13 +256,17 @@ public class STLGeometryImporterImpl extends MinimalEObjectImpl.Container
 
 	/**
 	 * Loads a binary STL file from the given path into a geometry instance.
+	 * The file is streamed into primitive arrays by a BinarySTLReader, which
+	 * become the shape's mesh without creating any triangle objects.
 	 * 
 	 * @param path
 	 *            The path to read the file from
+	 * @param monitor
+	 *            The monitor to report progress to. May be null.
 	 * @return Returns the geometry given from the binary file
 	 * @generated NOT
 	 */
-	private Geometry loadBinary(Path path) {
+	private Geometry loadBinary(Path path, IProgressMonitor monitor) {
 		// Create a new geometry and add the new shape
 		Geometry geometry = GeometryFactory.eINSTANCE.createGeometry();
 		geometry.setName(path.getFileName().toString());
@@ -267,53 +274,23 @@ public class STLGeometryImporterImpl extends MinimalEObjectImpl.Container
 		geometry.getNodes().add(shape);
 
 		// Can throw IO exceptions
+		BinarySTLReader reader = new BinarySTLReader();
 		try {
-			// Read in the file's bytes, convert to buffer
-			byte[] fileBytes = Files.readAllBytes(path);
-			ByteBuffer buffer = ByteBuffer.wrap(fileBytes, 80,
-					fileBytes.length - 80);
-			buffer.order(ByteOrder.LITTLE_ENDIAN);
-
-			// Get the number of triangles
-			int triNum = buffer.getInt();
-
-			// Read in all the triangles
-			for (int i = 0; i < triNum; i++) {
-
-				// Create a triangle
-				Triangle triangle = GeometryFactory.eINSTANCE.createTriangle();
-
-				// Create a normal for the triangle
-				Vertex normal = GeometryFactory.eINSTANCE.createVertex();
-				normal.setX(buffer.getFloat());
-				normal.setY(buffer.getFloat());
-				normal.setZ(buffer.getFloat());
-
-				triangle.setNormal(normal);
-
-				// Create the triangle vertices
-				for (int j = 0; j < 3; j++) {
-					Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
-					vertex.setX(buffer.getFloat());
-					vertex.setY(buffer.getFloat());
-					vertex.setZ(buffer.getFloat());
-
-					triangle.getVertices().add(vertex);
-				}
-
-				// Not used- sometimes gives color information or texture info
-				int attributeByteCount = buffer.getShort();
-
-				// Add this triangle to the list
-				shape.getTriangles().add(triangle);
-
-			}
+			reader.read(path, monitor);
 		} catch (IOException e) {
-			// Put default error data in
-
+			logger.error("Could not read binary STL file " + path, e);
+			return geometry;
 		}
 
-		// Return the triangles array list
+		logger.debug("Welded " + reader.getWeldedCount()
+				+ " duplicate vertices in " + path.getFileName() + ".");
+
+		// Store the triangles in the shape as a compact mesh. Triangle
+		// objects will only be created if they are requested.
+		shape.setMesh(new TriangleMesh(reader.getVertices(),
+				reader.getIndices(), reader.getNormals()));
+
+		// Return the geometry
 		return geometry;
 	}
 
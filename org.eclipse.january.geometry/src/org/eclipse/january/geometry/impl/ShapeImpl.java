@@ -17,6 +17,7 @@ import org.eclipse.emf.ecore.impl.ENotificationImpl;
 import org.eclipse.emf.ecore.impl.MinimalEObjectImpl;
 import org.eclipse.emf.ecore.util.EObjectContainmentEList;
 import org.eclipse.emf.ecore.util.InternalEList;
+import org.eclipse.january.geometry.BoundingBox;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.GeometryPackage;
 import org.eclipse.january.geometry.INode;
@@ -24,7 +25,8 @@ import org.eclipse.january.geometry.Material;
 import org.eclipse.january.geometry.Shape;
 import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Vertex;
-import org.eclipse.swt.widgets.Display;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
+import org.eclipse.january.geometry.util.TriangleMesh;
 
 /**
  * <!-- begin-user-doc --> An implementation of the model object '
@@ -155,6 +157,37 @@ public class ShapeImpl extends MinimalEObjectImpl.Container implements Shape {
 	 */
 	protected HashMap<String, Double> properties;
 
+	/**
+	 * The cached bounds of the shape and its descendants, or null if they
+	 * have never been requested.
+	 * 
+	 * @generated NOT
+	 */
+	protected NodeBounds nodeBounds;
+
+	/**
+	 * The number of changes counted by getVersion().
+	 * 
+	 * @generated NOT
+	 */
+	private volatile long version = 0;
+
+	/**
+	 * Whether the version has been read since it last changed, so that the
+	 * next change must be counted.
+	 * 
+	 * @generated NOT
+	 */
+	private volatile boolean versionRead = false;
+
+	/**
+	 * The compact storage for the shape's triangles, or null if the triangles
+	 * are ordinary model objects held in the triangles list.
+	 * 
+	 * @generated NOT
+	 */
+	protected TriangleMesh mesh;
+
 	/**
 	 * <!-- begin-user-doc --> <!-- end-user-doc -->
 	 * 
@@ -297,17 +330,83 @@ public class ShapeImpl extends MinimalEObjectImpl.Container implements Shape {
 	}
 
 	/**
-	 * <!-- begin-user-doc --> <!-- end-user-doc -->
-	 * @generated
+	 * <!-- begin-user-doc --> If the shape's triangles are stored in a mesh,
+	 * the list materializes a view of each triangle as it is requested. <!--
+	 * end-user-doc -->
+	 * 
+	 * @generated NOT
 	 */
 	@Override
 	public EList<Triangle> getTriangles() {
 		if (triangles == null) {
-			triangles = new EObjectContainmentEList<Triangle>(Triangle.class, this, GeometryPackage.SHAPE__TRIANGLES);
+			if (mesh != null) {
+				triangles = new TriangleMeshList(this, mesh);
+			} else {
+				triangles = new EObjectContainmentEList<Triangle>(
+						Triangle.class, this,
+						GeometryPackage.SHAPE__TRIANGLES);
+			}
 		}
 		return triangles;
 	}
 
+	/**
+	 * <!-- begin-user-doc --> <!-- end-user-doc -->
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	public TriangleMesh getMesh() {
+		return mesh;
+	}
+
+	/**
+	 * <!-- begin-user-doc --> <!-- end-user-doc -->
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	public void setMesh(TriangleMesh newMesh) {
+
+		// Fail silently if the new value is already set
+		if (newMesh != mesh) {
+
+			mesh = newMesh;
+
+			// Drop the old triangles, so that the list will be recreated from
+			// the new mesh the next time it is requested
+			if (triangles instanceof TriangleMeshList) {
+				((TriangleMeshList) triangles).release();
+			}
+			triangles = null;
+
+			// The values are left out, as listeners expect the triangles
+			// feature to hold triangles rather than a mesh
+			if (eNotificationRequired())
+				eNotify(new ENotificationImpl(this, Notification.SET,
+						GeometryPackage.SHAPE__TRIANGLES, null, null));
+		}
+	}
+
+	/**
+	 * Notify the shape's listeners of a change to one of its triangles or to
+	 * one of their vertices, discarding the cached bounds. Triangles do not
+	 * listen to their vertices, so that a change to a vertex shared by many
+	 * triangles is reported to the shape only once. Instead, the triangles
+	 * and vertices created by the factory pass their changes up to the shape
+	 * containing them, and shapes which share vertices listen to each of them
+	 * once.
+	 * 
+	 * @param notification
+	 *            The triangle's or vertex's notification
+	 * @generated NOT
+	 */
+	protected void vertexChanged(Notification notification) {
+		if (eNotificationRequired()) {
+			eNotify(notification);
+		}
+	}
+
 	/**
 	 * <!-- begin-user-doc --> <!-- end-user-doc -->
 	 * 
@@ -590,12 +689,25 @@ public class ShapeImpl extends MinimalEObjectImpl.Container implements Shape {
 			}
 
 			// Clear the current list of triangles
-			triangles = new BasicEList<Triangle>();
+			if (triangles instanceof TriangleMeshList) {
+				((TriangleMeshList) triangles).release();
+			}
+			triangles = null;
+			mesh = null;
 
-			// Copy the triangles form the source
+			// Copy the triangles form the source, copying its arrays directly
+			// if they are stored in a mesh
 			EList<Triangle> otherTriangles = castSource.getTriangles();
-			if (otherTriangles != null) {
-				for (Triangle triangle : castSource.getTriangles()) {
+			if (castSource.getMesh() != null) {
+				mesh = castSource.getMesh().copy();
+			} else if (otherTriangles != null) {
+
+				// Collect the copies first, so that the shape's list holds
+				// them all and reports their changes, but only needs to be
+				// added to once
+				BasicEList<Triangle> copies = new BasicEList<Triangle>(
+						otherTriangles.size());
+				for (Triangle triangle : otherTriangles) {
 
 					// Create a new triangle
 					Triangle cloneTriangle = GeometryFactory.eINSTANCE
@@ -619,9 +731,16 @@ public class ShapeImpl extends MinimalEObjectImpl.Container implements Shape {
 					cloneTriangle.getNormal().setX(triangle.getNormal().getX());
 					cloneTriangle.getNormal().setY(triangle.getNormal().getY());
 					cloneTriangle.getNormal().setZ(triangle.getNormal().getZ());
-					triangles.add(cloneTriangle);
+					copies.add(cloneTriangle);
 				}
+				getTriangles().addAll(copies);
 			}
+
+			// The triangles were replaced without a notification
+			if (nodeBounds != null) {
+				nodeBounds.invalidate();
+			}
+			countChange();
 		}
 	}
 
@@ -667,31 +786,10 @@ public class ShapeImpl extends MinimalEObjectImpl.Container implements Shape {
 				// The triangles from the other geometry
 				EList<Triangle> otherTriangles = otherShape.getTriangles();
 
-				// Check that the triangles lists are equal.
-				if (getTriangles().size() == otherTriangles.size()) {
-
-					// Check that the other list contains every triangle in this
-					// one. Since they are the same length, this will mean the
-					// triangles are identical
-					for (Triangle triangle : triangles) {
-
-						// Whether a matching triangle has been found
-						boolean found = false;
-
-						// Search for an identical triangle
-						for (Triangle otherTriangle : otherTriangles) {
-							if (triangle.equals(otherTriangle)) {
-								found = true;
-								break;
-							}
-						}
-
-						// If the triangle is not in the other object, they are
-						// not equal
-						if (!found) {
-							return false;
-						}
-					}
+				// Check that the triangles lists are equal, matching up
+				// triangles with the same fingerprint first
+				if (NodeEquality.trianglesEqual(getTriangles(),
+						otherTriangles)) {
 
 					// Check that the centers are equal
 					if (getCenter().equals(otherShape.getCenter())) {
@@ -728,30 +826,8 @@ public class ShapeImpl extends MinimalEObjectImpl.Container implements Shape {
 								// Check that the lists of children contain the
 								// same
 								// values
-								if (ownNodes.size() == otherNodes.size()) {
-									for (INode node : ownNodes) {
-
-										// Whether a match has been found
-										boolean found = false;
-
-										// Check to see if the node equals any
-										// other the other object's
-										for (INode otherNode : otherNodes) {
-											if (node.equals(otherNode)) {
-												found = true;
-												break;
-											}
-										}
-
-										// If the node was not in the other
-										// list, the objects are not equal
-										if (!found) {
-											return false;
-										}
-									}
-
-									// All tests passed, so the objects must be
-									// equal
+								if (NodeEquality.nodesEqual(ownNodes,
+										otherNodes)) {
 									return true;
 								}
 							}
@@ -798,11 +874,9 @@ public class ShapeImpl extends MinimalEObjectImpl.Container implements Shape {
 		}
 		hashCode = 31 * hashCode + nodesHash;
 
-		// Add the hash for each triangle
-		int trianglesHash = 0;
-		for (Triangle triangle : getTriangles()) {
-			trianglesHash += triangle.hashCode();
-		}
+		// Add the hash of the triangles' fingerprint, which is cached for
+		// triangles stored in a mesh
+		int trianglesHash = NodeEquality.hashTriangles(getTriangles());
 		hashCode = 31 * hashCode + trianglesHash;
 
 		return hashCode;
@@ -930,8 +1004,9 @@ public class ShapeImpl extends MinimalEObjectImpl.Container implements Shape {
 	}
 
 	/**
-	 * <!-- begin-user-doc --> <!-- end-user-doc -->
-	 * @generated
+	 * <!-- begin-user-doc --> Triangles stored in a mesh are set even if
+	 * their list has not been created yet. <!-- end-user-doc -->
+	 * @generated NOT
 	 */
 	@Override
 	public boolean eIsSet(int featureID) {
@@ -945,6 +1020,9 @@ public class ShapeImpl extends MinimalEObjectImpl.Container implements Shape {
 			case GeometryPackage.SHAPE__TYPE:
 				return TYPE_EDEFAULT == null ? type != null : !TYPE_EDEFAULT.equals(type);
 			case GeometryPackage.SHAPE__TRIANGLES:
+				if (triangles == null && mesh != null) {
+					return mesh.getTriangleCount() > 0;
+				}
 				return triangles != null && !triangles.isEmpty();
 			case GeometryPackage.SHAPE__CENTER:
 				return center != null;
@@ -1008,6 +1086,78 @@ public class ShapeImpl extends MinimalEObjectImpl.Container implements Shape {
 		return result.toString();
 	}
 
+	/**
+	 * <!-- begin-user-doc --> The bounds are cached until the shape, its
+	 * center or one of its descendants changes. <!-- end-user-doc -->
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	public BoundingBox getBounds() {
+		return getNodeBounds().getBounds();
+	}
+
+	/**
+	 * Get the shape's version, which changes whenever the shape, its triangles
+	 * or their vertices change. A cache of data calculated from the shape's
+	 * triangles can keep the version it was calculated at, and compare it to
+	 * the current version to tell whether the data is still up to date.
+	 * 
+	 * Changes are only counted once the version has been read, so shapes
+	 * whose version is never requested do not report changes for it.
+	 * 
+	 * @return The shape's version
+	 * @generated NOT
+	 */
+	public long getVersion() {
+		versionRead = true;
+		return version;
+	}
+
+	/**
+	 * Count a change to the shape, if its version has been read since the
+	 * last change.
+	 * 
+	 * @generated NOT
+	 */
+	private void countChange() {
+
+		// Clear the flag first, so that a version read while it is being
+		// incremented is never mistaken for the new one
+		if (versionRead) {
+			versionRead = false;
+			version++;
+		}
+	}
+
+	/**
+	 * Get the cached bounds of the shape, creating them if needed.
+	 * 
+	 * @return The shape's cached bounds
+	 * @generated NOT
+	 */
+	synchronized NodeBounds getNodeBounds() {
+		if (nodeBounds == null) {
+			nodeBounds = new NodeBounds(this);
+		}
+		return nodeBounds;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.emf.common.notify.impl.BasicNotifierImpl#
+	 * eNotificationRequired()
+	 */
+	@Override
+	public boolean eNotificationRequired() {
+
+		// While the bounds are cached or the version is being watched, every
+		// change must be reported so that they can be updated
+		return super.eNotificationRequired() || versionRead
+				|| nodeBounds != null && nodeBounds.isValid();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -1017,38 +1167,22 @@ public class ShapeImpl extends MinimalEObjectImpl.Container implements Shape {
 	 */
 	@Override
 	public void eNotify(Notification notification) {
+
+		// Discard the cached bounds, which the change may have moved
+		if (nodeBounds != null) {
+			nodeBounds.nodeChanged(notification);
+		}
+		if (notification.getEventType() != Notification.REMOVING_ADAPTER) {
+			countChange();
+		}
+
 		// Check if a notification is required
 		Adapter[] eAdapters = eBasicAdapterArray();
 		if (eAdapters != null && eDeliver()) {
 
-			// If this notification is on the UI thread, launch a new thread to
-			// handle it
-			Display currDisplay = Display.getCurrent();
-			if (currDisplay != null
-					&& Thread.currentThread() == currDisplay.getThread()) {
-
-				Thread updateThread = new Thread() {
-
-					@Override
-					public void run() {
-						for (int i = 0, size = eAdapters.length; i < size; ++i) {
-							eAdapters[i].notifyChanged(notification);
-						}
-					}
-				};
-
-				updateThread.run();
-
-			}
-
-			// If we are already off the UI thread, such as being called by a
-			// thread created by some other object's eNotify(), then just notify
-			// the adapters.
-			else {
-				for (int i = 0, size = eAdapters.length; i < size; ++i) {
-					eAdapters[i].notifyChanged(notification);
-				}
-			}
+			// Let the shared dispatcher deliver the notification, in the
+			// background if this is the UI thread
+			NotificationDispatcher.dispatch(this, eAdapters, notification);
 		}
 	}
 } // ShapeImpl
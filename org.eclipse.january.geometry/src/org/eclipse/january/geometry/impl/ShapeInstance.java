@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.impl;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.GeometryPackage;
+import org.eclipse.january.geometry.Shape;
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.util.TriangleMesh;
+
+/**
+ * A lightweight copy of a shape which shares the triangles of a prototype
+ * instead of holding its own. Each instance has its own center, id, name and
+ * properties, while the triangles, and any changes made to them, belong to the
+ * prototype and so are seen by every one of its instances. A renderer which
+ * caches meshes by their triangles will therefore draw all the instances with
+ * a single mesh.
+ *
+ * The prototype is not part of the model, so reflectively the instance holds
+ * the prototype's triangles as its own. Saving an instance writes out the
+ * shared triangles, and copying one with EcoreUtil gives an ordinary shape
+ * with its own copy of them.
+ *
+ * Changes to the prototype's triangles are passed on to each instance's
+ * listeners by a single listener on the prototype. It only holds the
+ * instances weakly, so an instance which is no longer used can be garbage
+ * collected, and forgets collected instances as new ones are made.
+ *
+ * @author Robert Smith
+ *
+ * @generated NOT
+ *
+ */
+public class ShapeInstance extends ShapeImpl {
+
+	/**
+	 * The shape whose triangles are shared by the instance.
+	 */
+	protected Shape prototype;
+
+	/**
+	 * The default constructor.
+	 *
+	 * @param prototype
+	 *            The shape whose triangles will be shared by the instance. The
+	 *            instance starts with the prototype's name, type, and
+	 *            properties.
+	 */
+	public ShapeInstance(Shape prototype) {
+		super();
+		this.prototype = prototype;
+
+		name = prototype.getName();
+		type = prototype.getType();
+		for (String property : prototype.getPropertyNames()) {
+			properties.put(property, prototype.getProperty(property));
+		}
+
+		// Let the instance's listeners know when the shared triangles change
+		PrototypeAdapter adapter = null;
+		for (Adapter current : prototype.eAdapters()) {
+			if (current instanceof PrototypeAdapter) {
+				adapter = (PrototypeAdapter) current;
+				break;
+			}
+		}
+		if (adapter == null) {
+			adapter = new PrototypeAdapter();
+			prototype.eAdapters().add(adapter);
+		}
+		adapter.add(this);
+	}
+
+	/**
+	 * Create a prototype for instances of a shape. The prototype holds a copy
+	 * of the shape's triangles in compact form, along with its name, type,
+	 * and properties.
+	 *
+	 * @param shape
+	 *            The shape to copy
+	 * @return A new shape with the same triangles as the original
+	 */
+	public static Shape createPrototype(Shape shape) {
+
+		Shape prototype = GeometryFactory.eINSTANCE.createShape();
+		prototype.setName(shape.getName());
+		prototype.setType(shape.getType());
+		for (String property : shape.getPropertyNames()) {
+			prototype.setProperty(property, shape.getProperty(property));
+		}
+
+		// Keep the triangles in primitive arrays, so that they take little
+		// memory and their content hash is calculated only once
+		prototype.setMesh(TriangleMesh.copyOf(shape.getTriangles()));
+
+		return prototype;
+	}
+
+	/**
+	 * Getter method for the prototype.
+	 *
+	 * @return The shape whose triangles are shared by the instance
+	 */
+	public Shape getPrototype() {
+		return prototype;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.ShapeImpl#getTriangles()
+	 */
+	@Override
+	public EList<Triangle> getTriangles() {
+		return prototype.getTriangles();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.ShapeImpl#getMesh()
+	 */
+	@Override
+	public TriangleMesh getMesh() {
+		return prototype.getMesh();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.january.geometry.impl.ShapeImpl#setMesh(org.eclipse.january.
+	 * geometry.util.TriangleMesh)
+	 */
+	@Override
+	public void setMesh(TriangleMesh newMesh) {
+
+		// The triangles are shared, so replace them for every instance
+		prototype.setMesh(newMesh);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.ShapeImpl#eIsSet(int)
+	 */
+	@Override
+	public boolean eIsSet(int featureID) {
+
+		// The triangles are set if the prototype's are, so that they are
+		// saved and copied with the instance
+		if (featureID == GeometryPackage.SHAPE__TRIANGLES) {
+			return prototype
+					.eIsSet(GeometryPackage.Literals.INODE__TRIANGLES);
+		}
+		return super.eIsSet(featureID);
+	}
+
+	/**
+	 * Copy another shape's center, id, name, type, and properties. The
+	 * instance's triangles are always those of its prototype, so the other
+	 * shape's triangles and child nodes are not copied.
+	 *
+	 * @param source
+	 *            The shape to copy
+	 */
+	@Override
+	public void copy(Object source) {
+
+		// If the source object is not a shape, fail silently
+		if (source instanceof Shape) {
+			Shape castSource = (Shape) source;
+
+			// Copy the object's center
+			getCenter().setX(castSource.getCenter().getX());
+			center.setY(castSource.getCenter().getY());
+			center.setZ(castSource.getCenter().getZ());
+
+			// Copy the object's data members
+			id = castSource.getId();
+			name = castSource.getName();
+			type = castSource.getType();
+
+			// Make the properties map a copy of the source's
+			properties.clear();
+			for (String property : castSource.getPropertyNames()) {
+				properties.put(property, castSource.getProperty(property));
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.impl.ShapeImpl#clone()
+	 */
+	@Override
+	public Object clone() {
+
+		// Create a new instance of the same prototype
+		ShapeInstance clone = new ShapeInstance(prototype);
+
+		// Make it a copy of this
+		clone.copy(this);
+		return clone;
+	}
+
+	/**
+	 * A listener on a prototype which passes changes to the shared triangles
+	 * on to its instances, without keeping them from being garbage collected.
+	 */
+	private static class PrototypeAdapter extends AdapterImpl {
+
+		/**
+		 * The prototype's instances.
+		 */
+		private final ArrayList<WeakReference<ShapeInstance>> instances = new ArrayList<WeakReference<ShapeInstance>>();
+
+		/**
+		 * The number of instances which were left after collected ones were
+		 * last removed.
+		 */
+		private int liveCount = 0;
+
+		/**
+		 * Add an instance to be notified. Collected instances are removed
+		 * whenever the number of instances has doubled since they were last
+		 * removed, so that adding instances takes constant time on average.
+		 *
+		 * @param instance
+		 *            The new instance
+		 */
+		private synchronized void add(ShapeInstance instance) {
+			if (instances.size() >= 2 * liveCount + 16) {
+				Iterator<WeakReference<ShapeInstance>> iterator = instances
+						.iterator();
+				while (iterator.hasNext()) {
+					if (iterator.next().get() == null) {
+						iterator.remove();
+					}
+				}
+				liveCount = instances.size();
+			}
+			instances.add(new WeakReference<ShapeInstance>(instance));
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see
+		 * org.eclipse.emf.common.notify.impl.AdapterImpl#notifyChanged(org.
+		 * eclipse.emf.common.notify.Notification)
+		 */
+		@Override
+		public void notifyChanged(Notification notification) {
+
+			// The prototype's other notifications, such as changes to its own
+			// decorator properties, do not apply to the instances. Changes to
+			// the vertices are sent by the vertices themselves.
+			int featureID = notification.getFeatureID(Shape.class);
+			if (notification.getNotifier() == getTarget()
+					&& featureID != GeometryPackage.SHAPE__TRIANGLES) {
+				return;
+			}
+
+			ArrayList<ShapeInstance> current = new ArrayList<ShapeInstance>();
+			synchronized (this) {
+				for (WeakReference<ShapeInstance> reference : instances) {
+					ShapeInstance instance = reference.get();
+					if (instance != null) {
+						current.add(instance);
+					}
+				}
+			}
+			for (ShapeInstance instance : current) {
+				instance.eNotify(notification);
+			}
+		}
+	}
+}
@@ -21,7 +21,7 @@ import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.GeometryPackage;
 import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Vertex;
-import org.eclipse.swt.widgets.Display;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
 
 /**
  * <!-- begin-user-doc --> An implementation of the model object '
@@ -322,6 +322,41 @@ public class TriangleImpl extends MinimalEObjectImpl.Container
 		return super.eInvoke(operationID, arguments);
 	}
 
+	/**
+	 * Pass a change to one of the triangle's vertices on to the shape
+	 * containing the triangle. The triangle's own listeners are not notified,
+	 * as they can listen to the vertices themselves.
+	 * 
+	 * @param notification
+	 *            The vertex's notification
+	 * @generated NOT
+	 */
+	protected void vertexChanged(Notification notification) {
+		InternalEObject container = eInternalContainer();
+		if (container instanceof ShapeImpl) {
+			((ShapeImpl) container).vertexChanged(notification);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.emf.common.notify.impl.BasicNotifierImpl#
+	 * eNotificationRequired()
+	 */
+	@Override
+	public boolean eNotificationRequired() {
+
+		// Changes must also be reported whenever the triangle's shape needs
+		// them, for its listeners or cached bounds
+		if (super.eNotificationRequired()) {
+			return true;
+		}
+		InternalEObject container = eInternalContainer();
+		return container instanceof ShapeImpl
+				&& ((ShapeImpl) container).eNotificationRequired();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -335,34 +370,16 @@ public class TriangleImpl extends MinimalEObjectImpl.Container
 		Adapter[] eAdapters = eBasicAdapterArray();
 		if (eAdapters != null && eDeliver()) {
 
-			// If this notification is on the UI thread, launch a new thread to
-			// handle it
-			Display currDisplay = Display.getCurrent();
-			if (currDisplay != null
-					&& Thread.currentThread() == currDisplay.getThread()) {
-
-				Thread updateThread = new Thread() {
-
-					@Override
-					public void run() {
-						for (int i = 0, size = eAdapters.length; i < size; ++i) {
-							eAdapters[i].notifyChanged(notification);
-						}
-					}
-				};
-
-				updateThread.run();
-
-			}
+			// Let the shared dispatcher deliver the notification, in the
+			// background if this is the UI thread
+			NotificationDispatcher.dispatch(this, eAdapters, notification);
+		}
 
-			// If we are already off the UI thread, such as being called by a
-			// thread created by some other object's eNotify(), then just notify
-			// the adapters.
-			else {
-				for (int i = 0, size = eAdapters.length; i < size; ++i) {
-					eAdapters[i].notifyChanged(notification);
-				}
-			}
+		// Pass the change on to the shape containing the triangle
+		InternalEObject container = eInternalContainer();
+		if (container instanceof ShapeImpl && notification
+				.getEventType() != Notification.REMOVING_ADAPTER) {
+			((ShapeImpl) container).vertexChanged(notification);
 		}
 	}
 
@@ -0,0 +1,530 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.impl;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+import org.eclipse.emf.common.notify.NotificationChain;
+import org.eclipse.emf.common.util.DelegatingEList;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.util.BasicInternalEList;
+import org.eclipse.emf.ecore.util.EObjectContainmentEList;
+import org.eclipse.emf.ecore.util.InternalEList;
+import org.eclipse.january.geometry.GeometryPackage;
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.util.TriangleMesh;
+import org.eclipse.january.geometry.util.TriangleMeshView;
+
+/**
+ * The list of triangles for a shape whose triangles are stored in a
+ * TriangleMesh. Each triangle is materialized as a MeshTriangle view when it
+ * is requested. The list only holds its views weakly, so iterating over a
+ * large mesh does not keep a view of every triangle alive, but while a view
+ * is in use the same index returns the same object. Views which have been
+ * given adapters, directly or through their vertices, are held strongly so
+ * that their adapters are not lost. Views are contained by the shape, as
+ * ordinary triangles are.
+ *
+ * The first time the list is structurally modified, the views for all the
+ * mesh's triangles are created and moved into an ordinary containment list,
+ * which then becomes the shape's list of triangles. Clearing the list simply
+ * discards the mesh.
+ *
+ * A list may also hold triangles which belong to no shape, such as the coarse
+ * levels of detail a shape derives from its properties. Its views are not
+ * contained by anything, and a modified list becomes an ordinary list. As
+ * long as it is a view of its mesh, renderers can recognize the mesh and its
+ * version instead of reading every triangle.
+ *
+ * The list is an InternalEList, so that EMF's reflective code, such as a
+ * resource's content tree or its serializers, can read it without
+ * materializing the views. The views are never proxies, so the basic
+ * operations read the list as the ordinary ones do.
+ *
+ * @author Robert Smith
+ *
+ */
+class TriangleMeshList extends DelegatingEList<Triangle>
+		implements InternalEList<Triangle>, TriangleMeshView {
+
+	/**
+	 * The version ID for serialization.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The shape whose triangles are in the list, or null if they belong to no
+	 * shape.
+	 */
+	private final ShapeImpl shape;
+
+	/**
+	 * The mesh containing the triangles.
+	 */
+	private final TriangleMesh mesh;
+
+	/**
+	 * The list all operations are delegated to. This is a view of the mesh
+	 * until the list is first modified.
+	 */
+	private List<Triangle> delegate;
+
+	/**
+	 * The views created so far, indexed by triangle, or null once the list
+	 * has been materialized. Slots whose view has been collected are cleared
+	 * as their references are queued.
+	 */
+	private ViewReference[] views = new ViewReference[0];
+
+	/**
+	 * The queue the references to collected views are placed in.
+	 */
+	private final ReferenceQueue<MeshTriangle> collected = new ReferenceQueue<MeshTriangle>();
+
+	/**
+	 * The views which have adapters, and so must be kept as long as the list
+	 * is a view of the mesh.
+	 */
+	private final List<MeshTriangle> pinned = new ArrayList<MeshTriangle>();
+
+	/**
+	 * The default constructor.
+	 *
+	 * @param shape
+	 *            The shape whose triangles are in the list, or null if they
+	 *            belong to no shape
+	 * @param mesh
+	 *            The mesh containing the triangles
+	 */
+	TriangleMeshList(ShapeImpl shape, TriangleMesh mesh) {
+		this.shape = shape;
+		this.mesh = mesh;
+
+		// Create a read only view of the mesh
+		delegate = new AbstractList<Triangle>() {
+
+			@Override
+			public Triangle get(int index) {
+				if (index < 0 || index >= size()) {
+					throw new IndexOutOfBoundsException(
+							"index=" + index + ", size=" + size());
+				}
+				return getView(index);
+			}
+
+			@Override
+			public int size() {
+				return mesh.getTriangleCount();
+			}
+		};
+	}
+
+	/**
+	 * Create a list of triangles belonging to no shape, stored in a mesh with
+	 * the same values as the given triangles.
+	 *
+	 * @param triangles
+	 *            The triangles to copy
+	 * @return A view of a new mesh holding the triangles
+	 */
+	static EList<Triangle> copyOf(List<? extends Triangle> triangles) {
+		return new TriangleMeshList(null, TriangleMesh.copyOf(triangles));
+	}
+
+	/**
+	 * Get the view of a triangle in the mesh, creating it if this is the
+	 * first time it was requested.
+	 *
+	 * @param index
+	 *            The triangle's index in the mesh
+	 * @return The triangle's view
+	 */
+	private MeshTriangle getView(int index) {
+
+		// Forget the views which are no longer in use
+		Reference<? extends MeshTriangle> reference;
+		while ((reference = collected.poll()) != null) {
+			int collectedIndex = ((ViewReference) reference).index;
+			if (collectedIndex < views.length
+					&& views[collectedIndex] == reference) {
+				views[collectedIndex] = null;
+			}
+		}
+
+		// Triangles may have been added to the mesh since the array was made
+		if (index >= views.length) {
+			views = Arrays.copyOf(views,
+					Math.max(index + 1, mesh.getTriangleCount()));
+		}
+
+		MeshTriangle view = views[index] != null ? views[index].get() : null;
+		if (view == null) {
+			view = new MeshTriangle(this, shape, mesh, index);
+			view.setContainer(shape);
+			views[index] = new ViewReference(view, index, collected);
+		}
+		return view;
+	}
+
+	/**
+	 * Hold one of the list's views strongly, as it has been given adapters
+	 * which must still be there the next time it is requested. Does nothing
+	 * if the list has been materialized, as the views are then held by the
+	 * shape's new list. Each view is only pinned once.
+	 *
+	 * @param view
+	 *            The view
+	 */
+	void pin(MeshTriangle view) {
+		if (views != null) {
+			pinned.add(view);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.common.util.DelegatingEList#delegateList()
+	 */
+	@Override
+	protected List<Triangle> delegateList() {
+		return delegate;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.january.geometry.util.TriangleMeshView#getMesh()
+	 */
+	@Override
+	public TriangleMesh getMesh() {
+
+		// Once materialized, the list no longer reflects the mesh
+		return delegate instanceof EList ? null : mesh;
+	}
+
+	/**
+	 * Replace the view of the mesh with a containment list holding a view of
+	 * every triangle, and make it the shape's list of triangles. Does nothing
+	 * if the list has already been materialized.
+	 *
+	 * @param copyTriangles
+	 *            Whether the mesh's triangles should be copied into the new
+	 *            list, or discarded.
+	 */
+	private void materialize(boolean copyTriangles) {
+
+		// Ignore lists which are no longer views of a mesh
+		if (delegate instanceof EList) {
+			return;
+		}
+
+		EList<Triangle> triangles = shape != null
+				? new EObjectContainmentEList<Triangle>(Triangle.class, shape,
+						GeometryPackage.SHAPE__TRIANGLES)
+				: new BasicInternalEList<Triangle>(Triangle.class);
+		if (copyTriangles) {
+
+			// Release the views from the shape so that the containment list
+			// can add them again
+			List<Triangle> all = new ArrayList<Triangle>(delegate);
+			for (Triangle view : all) {
+				((MeshTriangle) view).setContainer(null);
+			}
+			triangles.addAll(all);
+		} else {
+			release();
+		}
+		delegate = triangles;
+		views = null;
+		pinned.clear();
+
+		// If the shape is still using this list, it no longer has a mesh
+		if (shape != null && shape.triangles == this) {
+			shape.mesh = null;
+			shape.triangles = triangles;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.common.util.DelegatingEList#delegateAdd(int,
+	 * java.lang.Object)
+	 */
+	@Override
+	protected void delegateAdd(int index, Triangle object) {
+		materialize(true);
+		super.delegateAdd(index, object);
+	}
+
+	/**
+	 * Release the views created so far from the shape, as when the shape's
+	 * mesh is replaced. Does nothing if the list has been materialized.
+	 */
+	void release() {
+		if (views != null) {
+			for (ViewReference reference : views) {
+				MeshTriangle view = reference != null ? reference.get() : null;
+				if (view != null) {
+					view.setContainer(null);
+				}
+			}
+			views = new ViewReference[0];
+			pinned.clear();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.emf.common.util.DelegatingEList#delegateAdd(java.lang.Object)
+	 */
+	@Override
+	protected void delegateAdd(Triangle object) {
+		materialize(true);
+		super.delegateAdd(object);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.common.util.DelegatingEList#clear()
+	 */
+	@Override
+	public void clear() {
+
+		// Discard the mesh without materializing its triangles
+		materialize(false);
+		super.clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.common.util.DelegatingEList#delegateMove(int, int)
+	 */
+	@Override
+	protected Triangle delegateMove(int targetIndex, int sourceIndex) {
+		materialize(true);
+		return super.delegateMove(targetIndex, sourceIndex);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.common.util.DelegatingEList#delegateRemove(int)
+	 */
+	@Override
+	protected Triangle delegateRemove(int index) {
+		materialize(true);
+		return super.delegateRemove(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.common.util.DelegatingEList#delegateSet(int,
+	 * java.lang.Object)
+	 */
+	@Override
+	protected Triangle delegateSet(int index, Triangle object) {
+		materialize(true);
+		return super.delegateSet(index, object);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.common.util.DelegatingEList#basicGet(int)
+	 */
+	@Override
+	public Triangle basicGet(int index) {
+		return get(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.common.util.DelegatingEList#basicList()
+	 */
+	@Override
+	public List<Triangle> basicList() {
+		return super.basicList();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.ecore.util.InternalEList#basicIterator()
+	 */
+	@Override
+	public Iterator<Triangle> basicIterator() {
+		return basicList().iterator();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.ecore.util.InternalEList#basicListIterator()
+	 */
+	@Override
+	public ListIterator<Triangle> basicListIterator() {
+		return basicList().listIterator();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.ecore.util.InternalEList#basicListIterator(int)
+	 */
+	@Override
+	public ListIterator<Triangle> basicListIterator(int index) {
+		return basicList().listIterator(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.ecore.util.InternalEList#basicToArray()
+	 */
+	@Override
+	public Object[] basicToArray() {
+		return toArray();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.ecore.util.InternalEList#basicToArray(T[])
+	 */
+	@Override
+	public <T> T[] basicToArray(T[] array) {
+		return toArray(array);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.ecore.util.InternalEList#basicIndexOf(java.lang.
+	 * Object)
+	 */
+	@Override
+	public int basicIndexOf(Object object) {
+		return indexOf(object);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.emf.ecore.util.InternalEList#basicLastIndexOf(java.lang.
+	 * Object)
+	 */
+	@Override
+	public int basicLastIndexOf(Object object) {
+		return lastIndexOf(object);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.emf.ecore.util.InternalEList#basicContains(java.lang.Object)
+	 */
+	@Override
+	public boolean basicContains(Object object) {
+		return contains(object);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.emf.ecore.util.InternalEList#basicContainsAll(java.util.
+	 * Collection)
+	 */
+	@Override
+	public boolean basicContainsAll(Collection<?> collection) {
+		return containsAll(collection);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.emf.ecore.util.InternalEList#basicRemove(java.lang.Object,
+	 * org.eclipse.emf.common.notify.NotificationChain)
+	 */
+	@Override
+	public NotificationChain basicRemove(Object object,
+			NotificationChain notifications) {
+		materialize(true);
+		return ((InternalEList<Triangle>) delegate).basicRemove(object,
+				notifications);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.emf.ecore.util.InternalEList#basicAdd(java.lang.Object,
+	 * org.eclipse.emf.common.notify.NotificationChain)
+	 */
+	@Override
+	public NotificationChain basicAdd(Triangle object,
+			NotificationChain notifications) {
+		materialize(true);
+		return ((InternalEList<Triangle>) delegate).basicAdd(object,
+				notifications);
+	}
+
+	/**
+	 * A weak reference to a view, which remembers the view's index so that
+	 * its slot can be cleared once the view has been collected.
+	 *
+	 * @author Robert Smith
+	 *
+	 */
+	private static class ViewReference extends WeakReference<MeshTriangle> {
+
+		/**
+		 * The index of the view's triangle.
+		 */
+		private final int index;
+
+		/**
+		 * The default constructor.
+		 *
+		 * @param view
+		 *            The view
+		 * @param index
+		 *            The index of the view's triangle
+		 * @param queue
+		 *            The queue the reference is placed in once the view has
+		 *            been collected
+		 */
+		ViewReference(MeshTriangle view, int index,
+				ReferenceQueue<MeshTriangle> queue) {
+			super(view, queue);
+			this.index = index;
+		}
+	}
+}
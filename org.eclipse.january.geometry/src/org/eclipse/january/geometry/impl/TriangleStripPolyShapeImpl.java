@@ -2,8 +2,6 @@
  */
 package org.eclipse.january.geometry.impl;
 
-import org.eclipse.emf.common.notify.Notification;
-import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.january.geometry.Face;
@@ -85,15 +83,10 @@ public class TriangleStripPolyShapeImpl extends PolyShapeImpl implements Triangl
 							.get(index3);
 					ComplexTriangle tri = new ComplexTriangle(v1, v2, v3);
 
-					// Listen to the triangle, passing along any notifications.
-					tri.eAdapters().add(new AdapterImpl() {
-
-						@Override
-						public void notifyChanged(Notification notification) {
-							eNotify(notification);
-						}
-
-					});
+					// Listen to the vertices, passing along any notifications.
+					listenTo(v1);
+					listenTo(v2);
+					listenTo(v3);
 					getTriangles().add(tri);
 				}
 			} else {
@@ -20,6 +20,8 @@ import org.eclipse.january.geometry.GeometryPackage;
 import org.eclipse.january.geometry.Triangle;
 import org.eclipse.january.geometry.Tube;
 import org.eclipse.january.geometry.Vertex;
+import org.eclipse.january.geometry.util.LevelOfDetail;
+import org.eclipse.january.geometry.util.LevelOfDetailCache;
 import org.eclipse.january.geometry.util.MeshUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,7 +43,7 @@ import org.slf4j.LoggerFactory;
  *
  * @generated
  */
-public class TubeImpl extends ShapeImpl implements Tube {
+public class TubeImpl extends ShapeImpl implements Tube, LevelOfDetail {
 
 	/**
 	 * Logger for handling event messages and other information.
@@ -144,6 +146,13 @@ public class TubeImpl extends ShapeImpl implements Tube {
 	 */
 	protected final int RESOLUTION = 25;
 
+	/**
+	 * The triangles for the tube's coarser levels of detail.
+	 * 
+	 * @generated NOT
+	 */
+	protected LevelOfDetailCache detailTriangles = new LevelOfDetailCache();
+
 	/**
 	 * <!-- begin-user-doc --> <!-- end-user-doc -->
 	 * 
@@ -418,11 +427,29 @@ public class TubeImpl extends ShapeImpl implements Tube {
 		}
 
 		// Replace the previous list with a a new tube's triangles.
-		double[] vertices = MeshUtils.createTube(height, innerRadius, radius,
-				RESOLUTION, SEGMENTS);
+		triangles.addAll(createTriangles(RESOLUTION, SEGMENTS));
+
+		return triangles;
+	}
+
+	/**
+	 * Create the tube's triangles at the given resolution.
+	 * 
+	 * @param resolution
+	 *            The number of points around each of the tube's circles
+	 * @param segments
+	 *            The number of segments the tube is divided into along its
+	 *            axis
+	 * @return The tube's triangles
+	 * 
+	 * @generated NOT
+	 */
+	protected EList<Triangle> createTriangles(int resolution, int segments) {
 
-		triangles.addAll(
-				MeshUtils.createTubeMesh(vertices, RESOLUTION, SEGMENTS));
+		double[] vertices = MeshUtils.createTube(height, innerRadius, radius,
+				resolution, segments);
+		EList<Triangle> triangles = MeshUtils.createTubeMesh(vertices,
+				resolution, segments);
 
 		// Calculate the normals for each triangle
 		for (Triangle tri : triangles) {
@@ -443,6 +470,64 @@ public class TubeImpl extends ShapeImpl implements Tube {
 		return triangles;
 	}
 
+	/**
+	 * Get the values of every property the tube's triangles depend on, used
+	 * to tell when the triangles for its coarser levels of detail must be
+	 * recreated.
+	 * 
+	 * @return The tube's height, inner radius, and radius
+	 * 
+	 * @generated NOT
+	 */
+	protected double[] getDetailKey() {
+		return new double[] { height, innerRadius, radius };
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.january.geometry.util.LevelOfDetail#getDetailLevel(double)
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	public int getDetailLevel(double maxError) {
+		return MeshUtils.getDetailLevel(radius, RESOLUTION, maxError);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.january.geometry.util.LevelOfDetail#getTriangles(int)
+	 * 
+	 * @generated NOT
+	 */
+	@Override
+	public EList<Triangle> getTriangles(int level) {
+
+		// The full level of detail is the normal mesh
+		if (level <= 0) {
+			return getTriangles();
+		}
+		level = Math.min(level, MeshUtils.DETAIL_LEVELS - 1);
+
+		// Create the level's triangles unless they were already created for
+		// the tube's current properties
+		EList<Triangle> levelTriangles = detailTriangles.get(level,
+				getDetailKey());
+		if (levelTriangles == null) {
+
+			// Keep the triangles in a mesh, so that renderers can reuse what
+			// they made from it until it changes
+			levelTriangles = TriangleMeshList.copyOf(createTriangles(
+					MeshUtils.getDetailResolution(RESOLUTION, level),
+					Math.max(1, SEGMENTS >> level)));
+			detailTriangles.put(level, levelTriangles);
+		}
+		return levelTriangles;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -3,17 +3,19 @@
 package org.eclipse.january.geometry.impl;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 
 import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.impl.ENotificationImpl;
 import org.eclipse.emf.ecore.impl.MinimalEObjectImpl;
 import org.eclipse.january.geometry.GeometryFactory;
 import org.eclipse.january.geometry.GeometryPackage;
 import org.eclipse.january.geometry.Vertex;
-import org.eclipse.swt.widgets.Display;
+import org.eclipse.january.geometry.util.NotificationDispatcher;
 
 /**
  * <!-- begin-user-doc --> An implementation of the model object '
@@ -90,6 +92,16 @@ public class VertexImpl extends MinimalEObjectImpl.Container implements Vertex {
 	 */
 	protected double z = Z_EDEFAULT;
 
+	/**
+	 * The cached bounds of the nodes which this vertex is the center of. They
+	 * are told of the vertex's changes directly from eNotify(), so that they
+	 * are discarded before the change returns. The array is replaced rather
+	 * than modified. Null if there are none.
+	 * 
+	 * @generated NOT
+	 */
+	private volatile NodeBounds[] centerBounds;
+
 	/**
 	 * <!-- begin-user-doc --> <!-- end-user-doc -->
 	 * @generated
@@ -361,6 +373,34 @@ public class VertexImpl extends MinimalEObjectImpl.Container implements Vertex {
 		return result.toString();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.emf.common.notify.impl.BasicNotifierImpl#
+	 * eNotificationRequired()
+	 */
+	@Override
+	public boolean eNotificationRequired() {
+
+		// A triangle's vertex must also report its changes whenever the
+		// triangle's shape needs them, for its listeners or cached bounds, and
+		// a center whenever its node's bounds are cached
+		if (super.eNotificationRequired()) {
+			return true;
+		}
+		NodeBounds[] bounds = centerBounds;
+		if (bounds != null) {
+			for (NodeBounds nodeBounds : bounds) {
+				if (nodeBounds.isValid()) {
+					return true;
+				}
+			}
+		}
+		InternalEObject container = eInternalContainer();
+		return container instanceof TriangleImpl
+				&& ((TriangleImpl) container).eNotificationRequired();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -370,37 +410,75 @@ public class VertexImpl extends MinimalEObjectImpl.Container implements Vertex {
 	 */
 	@Override
 	public void eNotify(Notification notification) {
+
+		// Discard the cached bounds of the nodes centered on the vertex
+		NodeBounds[] bounds = centerBounds;
+		if (bounds != null) {
+			for (NodeBounds nodeBounds : bounds) {
+				nodeBounds.nodeChanged(notification);
+			}
+		}
+
 		// Check if a notification is required
 		Adapter[] eAdapters = eBasicAdapterArray();
 		if (eAdapters != null && eDeliver()) {
 
-			// If this notification is on the UI thread, launch a new thread to
-			// handle it
-			Display currDisplay = Display.getCurrent();
-			if (currDisplay != null
-					&& Thread.currentThread() == currDisplay.getThread()) {
-
-				Thread updateThread = new Thread() {
-
-					@Override
-					public void run() {
-						for (int i = 0, size = eAdapters.length; i < size; ++i) {
-							eAdapters[i].notifyChanged(notification);
-						}
-					}
-				};
+			// Let the shared dispatcher deliver the notification, in the
+			// background if this is the UI thread
+			NotificationDispatcher.dispatch(this, eAdapters, notification);
+		}
 
-				updateThread.run();
+		// Pass the change on to the triangle containing the vertex
+		InternalEObject container = eInternalContainer();
+		if (container instanceof TriangleImpl && notification
+				.getEventType() != Notification.REMOVING_ADAPTER) {
+			((TriangleImpl) container).vertexChanged(notification);
+		}
+	}
 
-			}
+	/**
+	 * Tell a node's cached bounds about this vertex's changes, as the node's
+	 * center.
+	 * 
+	 * @param bounds
+	 *            The node's bounds
+	 * @generated NOT
+	 */
+	synchronized void addCenterBounds(NodeBounds bounds) {
+		NodeBounds[] current = centerBounds;
+		if (current == null) {
+			centerBounds = new NodeBounds[] { bounds };
+		} else {
+			NodeBounds[] added = Arrays.copyOf(current, current.length + 1);
+			added[current.length] = bounds;
+			centerBounds = added;
+		}
+	}
 
-			// If we are already off the UI thread, such as being called by a
-			// thread created by some other object's eNotify(), then just notify
-			// the adapters.
-			else {
-				for (int i = 0, size = eAdapters.length; i < size; ++i) {
-					eAdapters[i].notifyChanged(notification);
+	/**
+	 * Stop telling a node's cached bounds about this vertex's changes.
+	 * 
+	 * @param bounds
+	 *            The node's bounds
+	 * @generated NOT
+	 */
+	synchronized void removeCenterBounds(NodeBounds bounds) {
+		NodeBounds[] current = centerBounds;
+		if (current == null) {
+			return;
+		}
+		for (int i = 0; i < current.length; i++) {
+			if (current[i] == bounds) {
+				if (current.length == 1) {
+					centerBounds = null;
+				} else {
+					NodeBounds[] removed = new NodeBounds[current.length - 1];
+					System.arraycopy(current, 0, removed, 0, i);
+					System.arraycopy(current, i + 1, removed, i,
+							removed.length - i);
+					centerBounds = removed;
 				}
+				return;
 			}
 		}
 	}
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.model.importer;
+
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.ISetup;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.resource.XtextResourceSet;
+
+import com.google.inject.Injector;
+
+/**
+ * A shared runtime for the Xtext languages used by geometry importers.
+ * Creating an Xtext injector builds the language's entire Guice graph and
+ * registers it with EMF, which costs far more than parsing a typical file.
+ * Each language's injector is therefore created only once, the first time it
+ * is requested, and shared by all importers for that language.
+ *
+ * Resource sets are pooled, so that concurrent imports each parse with their
+ * own resource set without creating a new one for every file. This class is
+ * thread safe.
+ *
+ * @author Robert Smith
+ *
+ */
+public class XtextImporterRuntime {
+
+	/**
+	 * The maximum number of idle resource sets kept for each language.
+	 */
+	private static final int MAX_POOL_SIZE = 8;
+
+	/**
+	 * The runtime for each language, keyed on the class of the language's
+	 * setup.
+	 */
+	private static final ConcurrentHashMap<Class<?>, XtextImporterRuntime> runtimes = new ConcurrentHashMap<Class<?>, XtextImporterRuntime>();
+
+	/**
+	 * The language's injector.
+	 */
+	private final Injector injector;
+
+	/**
+	 * The idle resource sets available for reuse. The most recently released
+	 * resource set is reused first.
+	 */
+	private final ConcurrentLinkedDeque<XtextResourceSet> pool;
+
+	/**
+	 * The number of resource sets in the pool.
+	 */
+	private final AtomicInteger poolSize;
+
+	/**
+	 * The default constructor.
+	 *
+	 * @param setup
+	 *            The setup which will create the language's injector.
+	 */
+	private XtextImporterRuntime(ISetup setup) {
+		injector = setup.createInjectorAndDoEMFRegistration();
+		pool = new ConcurrentLinkedDeque<XtextResourceSet>();
+		poolSize = new AtomicInteger();
+	}
+
+	/**
+	 * Get the shared runtime for a language, creating it if this is the first
+	 * request for that language.
+	 *
+	 * @param setup
+	 *            The language's standalone setup. It will only be used if no
+	 *            runtime yet exists for setups of its class.
+	 * @return The runtime for the language
+	 */
+	public static XtextImporterRuntime getRuntime(ISetup setup) {
+		return runtimes.computeIfAbsent(setup.getClass(),
+				key -> new XtextImporterRuntime(setup));
+	}
+
+	/**
+	 * Get a resource set from the pool, or create a new one if the pool is
+	 * empty. The resource set should be returned with release() once the
+	 * import is finished with it.
+	 *
+	 * @return A resource set which will resolve all references while loading
+	 */
+	public XtextResourceSet acquire() {
+
+		XtextResourceSet resourceSet = pool.pollFirst();
+
+		// If there was no idle resource set, create a new one
+		if (resourceSet == null) {
+			resourceSet = injector.getInstance(XtextResourceSet.class);
+			resourceSet.addLoadOption(XtextResource.OPTION_RESOLVE_ALL,
+					Boolean.TRUE);
+		} else {
+			poolSize.decrementAndGet();
+		}
+
+		return resourceSet;
+	}
+
+	/**
+	 * Getter method for the injector.
+	 *
+	 * @return The language's shared injector
+	 */
+	public Injector getInjector() {
+		return injector;
+	}
+
+	/**
+	 * Parse a file and return its contents. The file's resource is removed
+	 * from the resource set before returning, so the contents remain valid
+	 * and are not shared with any later import.
+	 *
+	 * @param path
+	 *            The path of the file to load
+	 * @return The contents of the file's resource
+	 */
+	public EList<EObject> load(Path path) {
+
+		XtextResourceSet resourceSet = acquire();
+		try {
+			Resource resource = resourceSet.getResource(
+					URI.createFileURI(path.toFile().getAbsolutePath()), true);
+			return resource.getContents();
+		} finally {
+			release(resourceSet);
+		}
+	}
+
+	/**
+	 * Return a resource set to the pool. Its resources are removed from it,
+	 * but not unloaded, so objects already read through it remain valid.
+	 *
+	 * @param resourceSet
+	 *            A resource set obtained from acquire()
+	 */
+	public void release(XtextResourceSet resourceSet) {
+
+		// Forget all the resources loaded by the last import
+		resourceSet.getResources().clear();
+		if (resourceSet.getURIResourceMap() != null) {
+			resourceSet.getURIResourceMap().clear();
+		}
+
+		// Keep the resource set if the pool is not already full
+		if (poolSize.incrementAndGet() <= MAX_POOL_SIZE) {
+			pool.offerFirst(resourceSet);
+		} else {
+			poolSize.decrementAndGet();
+		}
+	}
+}
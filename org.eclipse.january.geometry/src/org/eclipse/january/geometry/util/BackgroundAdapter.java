@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.util;
+
+import org.eclipse.emf.common.notify.Adapter;
+
+/**
+ * A marker interface for adapters which may be notified on a
+ * NotificationDispatcher thread. Notifications sent from the SWT UI thread
+ * are queued for these adapters and delivered in the background, in the
+ * order they were sent, so that expensive work does not freeze the UI. All
+ * other adapters are notified immediately on the thread which sent the
+ * notification.
+ *
+ * An adapter should only implement this interface if it is safe to call from
+ * another thread while the model keeps changing, for example because it only
+ * passes its work on to another toolkit's UI thread. It must not rely on the
+ * model being unchanged since the notification was sent. EContentAdapters
+ * are always notified immediately, even if they implement this interface.
+ *
+ * @author Robert Smith
+ *
+ * @generated NOT
+ *
+ */
+public interface BackgroundAdapter extends Adapter {
+}
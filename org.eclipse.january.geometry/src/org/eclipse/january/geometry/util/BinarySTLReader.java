@@ -0,0 +1,337 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * A reader for binary STL files which streams the file through a memory map
+ * into primitive arrays, without creating any model objects. The triangles'
+ * vertices are welded as they are read, so that the result is an indexed mesh
+ * whose size is proportional to the number of unique vertices rather than to
+ * the size of the file.
+ *
+ * A binary STL file consists of an 80 byte header, followed by a 4 byte
+ * little endian triangle count and then 50 bytes for each triangle: the
+ * normal's three floats, three floats for each of the three vertices and a
+ * two byte attribute count.
+ *
+ * @author Robert Smith
+ *
+ * @generated NOT
+ *
+ */
+public class BinarySTLReader {
+
+	/**
+	 * The size in bytes of the file's header, including the triangle count.
+	 */
+	public static final int HEADER_SIZE = 84;
+
+	/**
+	 * The size in bytes of each triangle's record.
+	 */
+	public static final int TRIANGLE_SIZE = 50;
+
+	/**
+	 * The largest number of triangles whose vertex indices fit into an array.
+	 */
+	private static final int MAX_TRIANGLES = Integer.MAX_VALUE / 3 - 8;
+
+	/**
+	 * The number of triangles read before checking for cancellation and
+	 * reporting progress.
+	 */
+	private static final int PROGRESS_INTERVAL = 1 << 14;
+
+	/**
+	 * The number of triangles mapped into memory at a time. Mapping the file
+	 * in windows allows files larger than 2GB to be read.
+	 */
+	private static final int WINDOW_TRIANGLES = 1 << 20;
+
+	/**
+	 * The indices into the vertex array for each triangle, three per
+	 * triangle.
+	 */
+	private int[] indices;
+
+	/**
+	 * The normal vector of each triangle, in the format x1, y1, z1, x2...
+	 */
+	private float[] normals;
+
+	/**
+	 * The number of triangles read from the file.
+	 */
+	private int triangleCount;
+
+	/**
+	 * The tolerance used to weld the vertices.
+	 */
+	private final double tolerance;
+
+	/**
+	 * The coordinates of each unique vertex, in the format x1, y1, z1, x2...
+	 */
+	private float[] vertices;
+
+	/**
+	 * The number of vertices which were merged into others while reading.
+	 */
+	private int weldedCount;
+
+	/**
+	 * The default constructor, which welds the vertices using the default
+	 * tolerance.
+	 */
+	public BinarySTLReader() {
+		this(VertexWelder.DEFAULT_TOLERANCE);
+	}
+
+	/**
+	 * A constructor specifying the tolerance for welding vertices.
+	 *
+	 * @param tolerance
+	 *            The welding tolerance, as described in VertexWelder.
+	 */
+	public BinarySTLReader(double tolerance) {
+		this.tolerance = tolerance;
+		indices = new int[0];
+		normals = new float[0];
+		vertices = new float[0];
+	}
+
+	/**
+	 * Read a binary STL file, replacing any data previously read.
+	 *
+	 * @param path
+	 *            The path of the file to read
+	 * @param monitor
+	 *            The monitor to which progress will be reported, and which
+	 *            will be checked for cancellation. May be null.
+	 * @throws IOException
+	 *             Thrown if the file cannot be read or is too short to be a
+	 *             binary STL file.
+	 * @throws OperationCanceledException
+	 *             Thrown if the monitor is cancelled before the file is
+	 *             completely read.
+	 */
+	public void read(Path path, IProgressMonitor monitor) throws IOException {
+
+		if (monitor == null) {
+			monitor = new NullProgressMonitor();
+		}
+
+		try (FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.READ)) {
+
+			long size = channel.size();
+			if (size < HEADER_SIZE) {
+				throw new IOException("File " + path
+						+ " is too small to be a binary STL file.");
+			}
+
+			// Read the declared number of triangles, ignoring any which the
+			// file is too short to contain
+			ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			long declared = header.getInt(HEADER_SIZE - 4) & 0xFFFFFFFFL;
+			long count = Math.min(declared,
+					(size - HEADER_SIZE) / TRIANGLE_SIZE);
+			if (count > MAX_TRIANGLES) {
+				throw new IOException("File " + path + " contains " + count
+						+ " triangles, more than the maximum of "
+						+ MAX_TRIANGLES + ".");
+			}
+
+			triangleCount = (int) count;
+			indices = new int[triangleCount * 3];
+			normals = new float[triangleCount * 3];
+
+			VertexWelder welder = new VertexWelder(tolerance);
+
+			monitor.beginTask("Reading " + path.getFileName(),
+					triangleCount);
+
+			// Map and read the triangles one window at a time
+			for (int start = 0; start < triangleCount; start += WINDOW_TRIANGLES) {
+				int windowCount = Math.min(WINDOW_TRIANGLES,
+						triangleCount - start);
+				ByteBuffer buffer = channel
+						.map(MapMode.READ_ONLY,
+								HEADER_SIZE + (long) start * TRIANGLE_SIZE,
+								(long) windowCount * TRIANGLE_SIZE)
+						.order(ByteOrder.LITTLE_ENDIAN);
+
+				for (int i = 0; i < windowCount; i++) {
+					int triangle = start + i;
+
+					// Check for cancellation periodically
+					if (triangle % PROGRESS_INTERVAL == 0 && triangle > 0) {
+						if (monitor.isCanceled()) {
+							throw new OperationCanceledException();
+						}
+						monitor.worked(PROGRESS_INTERVAL);
+					}
+
+					// Read the normal
+					normals[triangle * 3] = buffer.getFloat();
+					normals[triangle * 3 + 1] = buffer.getFloat();
+					normals[triangle * 3 + 2] = buffer.getFloat();
+
+					// Read and weld the vertices
+					for (int j = 0; j < 3; j++) {
+						float x = buffer.getFloat();
+						float y = buffer.getFloat();
+						float z = buffer.getFloat();
+						indices[triangle * 3 + j] = welder.add(x, y, z);
+					}
+
+					// Skip the unused attribute byte count
+					buffer.getShort();
+				}
+			}
+
+			// Convert the welded vertices to floats
+			double[] coordinates = welder.getCoordinates();
+			vertices = new float[coordinates.length];
+			for (int i = 0; i < coordinates.length; i++) {
+				vertices[i] = (float) coordinates[i];
+			}
+			weldedCount = welder.getMergedCount();
+
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Determine whether a file is in the binary STL format by examining its
+	 * header and size, without reading the rest of the file.
+	 *
+	 * A file is considered binary if its size is exactly that implied by the
+	 * triangle count in its header. Otherwise it is considered ASCII if it
+	 * begins with the keyword "solid", as all ASCII STL files must. Some
+	 * programs also write "solid" at the start of binary headers, which is why
+	 * the size is checked first.
+	 *
+	 * @param path
+	 *            The path of the file to check
+	 * @return True if the file appears to be a binary STL file, false if it
+	 *         appears to be an ASCII STL file or cannot be read.
+	 */
+	public static boolean isBinary(Path path) {
+
+		try (FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.READ)) {
+
+			// A file too small for the header cannot be binary
+			long size = channel.size();
+			if (size < HEADER_SIZE) {
+				return false;
+			}
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// Keep reading until the header is full
+			}
+
+			// If the triangle count accounts for the whole file, it is binary
+			long count = header.getInt(HEADER_SIZE - 4) & 0xFFFFFFFFL;
+			if (HEADER_SIZE + count * TRIANGLE_SIZE == size) {
+				return true;
+			}
+
+			// Otherwise, check for the ASCII keyword after any whitespace
+			int start = 0;
+			while (start < HEADER_SIZE
+					&& Character.isWhitespace(header.get(start))) {
+				start++;
+			}
+			String keyword = "solid";
+			if (start + keyword.length() > HEADER_SIZE) {
+				return true;
+			}
+			for (int i = 0; i < keyword.length(); i++) {
+				if (Character.toLowerCase(header.get(start + i)) != keyword
+						.charAt(i)) {
+					return true;
+				}
+			}
+
+			return false;
+
+		} catch (IOException e) {
+			// Let the ASCII parser report the problem
+			return false;
+		}
+	}
+
+	/**
+	 * Get the vertex indices of each triangle.
+	 *
+	 * @return An array containing three indices into the vertex array for
+	 *         each triangle
+	 */
+	public int[] getIndices() {
+		return indices;
+	}
+
+	/**
+	 * Get the normal vector of each triangle.
+	 *
+	 * @return An array containing the x, y and z components of each
+	 *         triangle's normal
+	 */
+	public float[] getNormals() {
+		return normals;
+	}
+
+	/**
+	 * Get the number of triangles which were read.
+	 *
+	 * @return The number of triangles
+	 */
+	public int getTriangleCount() {
+		return triangleCount;
+	}
+
+	/**
+	 * Get the unique vertices of the mesh.
+	 *
+	 * @return An array containing the x, y and z coordinates of each unique
+	 *         vertex
+	 */
+	public float[] getVertices() {
+		return vertices;
+	}
+
+	/**
+	 * Get the number of vertices which were welded to others while reading.
+	 *
+	 * @return The number of merged vertices
+	 */
+	public int getWeldedCount() {
+		return weldedCount;
+	}
+}
@@ -0,0 +1,1299 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.january.geometry.BoundingBox;
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.INode;
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.Vertex;
+
+/**
+ * A bounding volume hierarchy over the triangles of a tree of nodes, such as
+ * a Geometry, for fast spatial queries. It supports casting a ray to find the
+ * first triangle it hits, finding the nodes with triangles inside a box, and
+ * finding the triangle nearest to a point, each in roughly logarithmic time
+ * in the number of triangles.
+ *
+ * The triangles of every node without children are placed in the root node's
+ * parent's coordinate system, by offsetting them by the centers of the node
+ * and each of its ancestors up to and including the root, in the same way as
+ * they are drawn. Nodes with children contribute their children's triangles
+ * instead of their own.
+ *
+ * The hierarchy listens to the nodes. When a node's properties or vertices
+ * change, its triangles are read again and the volumes are refit around them
+ * before the next query. When nodes are added or removed, or a node's number
+ * of triangles changes, the hierarchy is rebuilt instead. Its listeners are
+ * not BackgroundAdapters, so the NotificationDispatcher always notifies them
+ * on the thread making the change, and a query made straight after a change
+ * sees it. Queries may be made from any thread.
+ *
+ * @author Robert Smith
+ *
+ * @generated NOT
+ *
+ */
+public class BoundingVolumeHierarchy {
+
+	/**
+	 * The largest number of triangles held by a leaf of the hierarchy.
+	 */
+	private static final int LEAF_SIZE = 4;
+
+	/**
+	 * The node whose descendants' triangles are in the hierarchy.
+	 */
+	private final INode root;
+
+	/**
+	 * The adapters listening to each of the root's descendants, which are
+	 * removed when the hierarchy is rebuilt or disposed.
+	 */
+	private final List<NodeListener> listeners = new ArrayList<NodeListener>();
+
+	/**
+	 * The nodes whose triangles are in the hierarchy, in the order they were
+	 * found walking the tree depth first.
+	 */
+	private List<INode> leaves = new ArrayList<INode>();
+
+	/**
+	 * The x, y and z offset of each of the leaves' triangles.
+	 */
+	private double[] leafOffsets = new double[0];
+
+	/**
+	 * The index of each leaf's first triangle. The last element is the total
+	 * number of triangles.
+	 */
+	private int[] leafStarts = { 0 };
+
+	/**
+	 * The leaf each triangle belongs to.
+	 */
+	private int[] triangleLeaves = new int[0];
+
+	/**
+	 * The hierarchy leaf holding each triangle.
+	 */
+	private int[] triangleNodes = new int[0];
+
+	/**
+	 * The x, y and z coordinates of each triangle's three vertices, in the
+	 * order of the leaves.
+	 */
+	private float[] coordinates = new float[0];
+
+	/**
+	 * The triangles in the order they are held by the hierarchy's nodes, so
+	 * that each node's triangles are consecutive.
+	 */
+	private int[] order = new int[0];
+
+	/**
+	 * The minimum x, y and z, then maximum x, y and z, of each node's volume.
+	 */
+	private double[] nodeBounds = new double[0];
+
+	/**
+	 * For leaves, the index in order of the node's first triangle. For other
+	 * nodes, the index of the node's second child. The first child always
+	 * follows its parent.
+	 */
+	private int[] nodeIndices = new int[0];
+
+	/**
+	 * The number of triangles in each leaf, or 0 for nodes with children.
+	 */
+	private int[] nodeCounts = new int[0];
+
+	/**
+	 * Whether each node's volume must be refit, used while refitting.
+	 */
+	private boolean[] refitNodes = new boolean[0];
+
+	/**
+	 * The number of nodes in the hierarchy.
+	 */
+	private int nodeCount;
+
+	/**
+	 * Whether nodes have been added or removed, or their triangles replaced,
+	 * since the hierarchy was built.
+	 */
+	private boolean structureChanged = true;
+
+	/**
+	 * Whether each leaf's triangles may have moved since they were read.
+	 */
+	private boolean[] dirtyLeaves = new boolean[0];
+
+	/**
+	 * Whether any of the leaves are dirty.
+	 */
+	private boolean dirty;
+
+	/**
+	 * The default constructor.
+	 *
+	 * @param root
+	 *            The node, such as a Geometry, whose descendants' triangles
+	 *            will be placed in the hierarchy.
+	 */
+	public BoundingVolumeHierarchy(INode root) {
+		this.root = root;
+	}
+
+	/**
+	 * Find the first triangle hit by a ray.
+	 *
+	 * @param originX
+	 *            The x coordinate of the ray's origin
+	 * @param originY
+	 *            The y coordinate of the ray's origin
+	 * @param originZ
+	 *            The z coordinate of the ray's origin
+	 * @param directionX
+	 *            The x component of the ray's direction
+	 * @param directionY
+	 *            The y component of the ray's direction
+	 * @param directionZ
+	 *            The z component of the ray's direction
+	 * @return The nearest triangle in front of the origin which the ray hits,
+	 *         from either side, or null if it hits none. The distance of the
+	 *         hit is measured in multiples of the direction's length.
+	 */
+	public synchronized Hit castRay(double originX, double originY,
+			double originZ, double directionX, double directionY,
+			double directionZ) {
+
+		update();
+		if (nodeCount == 0) {
+			return null;
+		}
+
+		double inverseX = 1 / directionX;
+		double inverseY = 1 / directionY;
+		double inverseZ = 1 / directionZ;
+
+		int bestTriangle = -1;
+		double bestDistance = Double.POSITIVE_INFINITY;
+
+		int[] stack = new int[64];
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			if (intersectBox(node, originX, originY, originZ, inverseX,
+					inverseY, inverseZ) >= bestDistance) {
+				continue;
+			}
+
+			if (nodeCounts[node] > 0) {
+
+				// Test each of the leaf's triangles
+				int end = nodeIndices[node] + nodeCounts[node];
+				for (int i = nodeIndices[node]; i < end; i++) {
+					double distance = intersectTriangle(order[i], originX,
+							originY, originZ, directionX, directionY,
+							directionZ);
+					if (distance < bestDistance) {
+						bestDistance = distance;
+						bestTriangle = order[i];
+					}
+				}
+			} else {
+
+				// Visit the nearer child first by pushing it last
+				int first = node + 1;
+				int second = nodeIndices[node];
+				double firstDistance = intersectBox(first, originX, originY,
+						originZ, inverseX, inverseY, inverseZ);
+				double secondDistance = intersectBox(second, originX,
+						originY, originZ, inverseX, inverseY, inverseZ);
+				if (top + 2 > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length * 2);
+				}
+				if (firstDistance <= secondDistance) {
+					stack[top++] = second;
+					stack[top++] = first;
+				} else {
+					stack[top++] = first;
+					stack[top++] = second;
+				}
+			}
+		}
+
+		if (bestTriangle < 0) {
+			return null;
+		}
+		return createHit(bestTriangle, bestDistance,
+				originX + directionX * bestDistance,
+				originY + directionY * bestDistance,
+				originZ + directionZ * bestDistance);
+	}
+
+	/**
+	 * Stop listening to the nodes. The hierarchy will not be refit after
+	 * this, though it may still be queried.
+	 */
+	public synchronized void dispose() {
+		removeListeners();
+		structureChanged = false;
+		dirty = false;
+	}
+
+	/**
+	 * Get the box around all of the triangles in the hierarchy.
+	 *
+	 * @return A new bounding box around the triangles, or null if there are
+	 *         none.
+	 */
+	public synchronized BoundingBox getBounds() {
+
+		update();
+		if (nodeCount == 0) {
+			return null;
+		}
+
+		BoundingBox box = GeometryFactory.eINSTANCE.createBoundingBox();
+		box.setMinX(nodeBounds[0]);
+		box.setMinY(nodeBounds[1]);
+		box.setMinZ(nodeBounds[2]);
+		box.setMaxX(nodeBounds[3]);
+		box.setMaxY(nodeBounds[4]);
+		box.setMaxZ(nodeBounds[5]);
+		return box;
+	}
+
+	/**
+	 * Find the triangle nearest to a point.
+	 *
+	 * @param x
+	 *            The point's x coordinate
+	 * @param y
+	 *            The point's y coordinate
+	 * @param z
+	 *            The point's z coordinate
+	 * @return The triangle with the smallest distance to the point, along
+	 *         with the distance and the closest point on the triangle, or null
+	 *         if there are no triangles.
+	 */
+	public synchronized Hit getNearestTriangle(double x, double y, double z) {
+
+		update();
+		if (nodeCount == 0) {
+			return null;
+		}
+
+		int bestTriangle = -1;
+		double bestDistance = Double.POSITIVE_INFINITY;
+		double[] closest = new double[3];
+		double[] bestPoint = new double[3];
+
+		int[] stack = new int[64];
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			if (getBoxDistance(node, x, y, z) >= bestDistance) {
+				continue;
+			}
+
+			if (nodeCounts[node] > 0) {
+				int end = nodeIndices[node] + nodeCounts[node];
+				for (int i = nodeIndices[node]; i < end; i++) {
+					double distance = getClosestPoint(order[i], x, y, z,
+							closest);
+					if (distance < bestDistance) {
+						bestDistance = distance;
+						bestTriangle = order[i];
+						System.arraycopy(closest, 0, bestPoint, 0, 3);
+					}
+				}
+			} else {
+
+				// Visit the nearer child first by pushing it last
+				int first = node + 1;
+				int second = nodeIndices[node];
+				if (top + 2 > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length * 2);
+				}
+				if (getBoxDistance(first, x, y, z) <= getBoxDistance(second,
+						x, y, z)) {
+					stack[top++] = second;
+					stack[top++] = first;
+				} else {
+					stack[top++] = first;
+					stack[top++] = second;
+				}
+			}
+		}
+
+		return createHit(bestTriangle, Math.sqrt(bestDistance), bestPoint[0],
+				bestPoint[1], bestPoint[2]);
+	}
+
+	/**
+	 * Find the nodes with triangles inside a box. A triangle is counted as
+	 * inside the box if the box around it overlaps the given one, so a
+	 * triangle which passes close to one of the box's corners may be counted
+	 * even if it lies just outside.
+	 *
+	 * @param box
+	 *            The box to search
+	 * @return The nodes, without children, which have triangles in the box.
+	 */
+	public synchronized List<INode> getNodesInBox(BoundingBox box) {
+
+		update();
+		List<INode> found = new ArrayList<INode>();
+		if (nodeCount == 0) {
+			return found;
+		}
+
+		double[] query = { box.getMinX(), box.getMinY(), box.getMinZ(),
+				box.getMaxX(), box.getMaxY(), box.getMaxZ() };
+		boolean[] added = new boolean[leaves.size()];
+
+		int[] stack = new int[64];
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			if (!overlaps(nodeBounds, node * 6, query)) {
+				continue;
+			}
+
+			if (nodeCounts[node] > 0) {
+				int end = nodeIndices[node] + nodeCounts[node];
+				double[] triangleBounds = new double[6];
+				for (int i = nodeIndices[node]; i < end; i++) {
+					int leaf = triangleLeaves[order[i]];
+					if (!added[leaf]) {
+						getTriangleBounds(order[i], triangleBounds, 0);
+						if (overlaps(triangleBounds, 0, query)) {
+							added[leaf] = true;
+							found.add(leaves.get(leaf));
+						}
+					}
+				}
+			} else {
+				if (top + 2 > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length * 2);
+				}
+				stack[top++] = nodeIndices[node];
+				stack[top++] = node + 1;
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * Get the number of triangles in the hierarchy.
+	 *
+	 * @return The total number of triangles of all the nodes
+	 */
+	public synchronized int getTriangleCount() {
+		update();
+		return triangleLeaves.length;
+	}
+
+	/**
+	 * Build the hierarchy again from the current nodes and their triangles.
+	 */
+	private void build() {
+
+		// Find the nodes and read their triangles
+		removeListeners();
+		List<INode> newLeaves = new ArrayList<INode>();
+		List<double[]> offsets = new ArrayList<double[]>();
+		collectLeaves(root, 0, 0, 0, newLeaves, offsets, true);
+		leaves = newLeaves;
+		leafOffsets = new double[leaves.size() * 3];
+		leafStarts = new int[leaves.size() + 1];
+		for (int i = 0; i < leaves.size(); i++) {
+			System.arraycopy(offsets.get(i), 0, leafOffsets, i * 3, 3);
+			leafStarts[i + 1] = leafStarts[i]
+					+ leaves.get(i).getTriangles().size();
+		}
+
+		int triangleCount = leafStarts[leaves.size()];
+		triangleLeaves = new int[triangleCount];
+		triangleNodes = new int[triangleCount];
+		coordinates = new float[triangleCount * 9];
+		for (int i = 0; i < leaves.size(); i++) {
+			Arrays.fill(triangleLeaves, leafStarts[i], leafStarts[i + 1], i);
+			readTriangles(i);
+		}
+		dirtyLeaves = new boolean[leaves.size()];
+
+		// Split the triangles by their centers
+		float[] centers = new float[triangleCount * 3];
+		for (int i = 0; i < triangleCount; i++) {
+			for (int axis = 0; axis < 3; axis++) {
+				centers[i * 3 + axis] = (coordinates[i * 9 + axis]
+						+ coordinates[i * 9 + 3 + axis]
+						+ coordinates[i * 9 + 6 + axis]) / 3f;
+			}
+		}
+		order = new int[triangleCount];
+		for (int i = 0; i < triangleCount; i++) {
+			order[i] = i;
+		}
+
+		// A tree with leaves of at least half the leaf size has fewer than
+		// four nodes per leaf's worth of triangles
+		int capacity = Math.max(1, 4 * triangleCount / LEAF_SIZE + 1);
+		nodeBounds = new double[capacity * 6];
+		nodeIndices = new int[capacity];
+		nodeCounts = new int[capacity];
+		refitNodes = new boolean[capacity];
+		nodeCount = 0;
+		if (triangleCount > 0) {
+			buildNode(0, triangleCount, centers);
+		}
+	}
+
+	/**
+	 * Create a node of the hierarchy for a range of triangles, splitting it
+	 * into children if there are too many for one leaf.
+	 *
+	 * @param start
+	 *            The index in order of the range's first triangle
+	 * @param end
+	 *            One more than the index in order of the range's last triangle
+	 * @param centers
+	 *            The x, y and z coordinates of each triangle's center
+	 */
+	private void buildNode(int start, int end, float[] centers) {
+
+		int node = nodeCount++;
+		if (end - start <= LEAF_SIZE) {
+			nodeIndices[node] = start;
+			nodeCounts[node] = end - start;
+			for (int i = start; i < end; i++) {
+				triangleNodes[order[i]] = node;
+			}
+			fitLeaf(node);
+			return;
+		}
+
+		// Find the longest axis of the box around the centers
+		float[] min = { Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE };
+		float[] max = { -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE };
+		for (int i = start; i < end; i++) {
+			for (int axis = 0; axis < 3; axis++) {
+				float value = centers[order[i] * 3 + axis];
+				min[axis] = Math.min(min[axis], value);
+				max[axis] = Math.max(max[axis], value);
+			}
+		}
+		int axis = 0;
+		for (int i = 1; i < 3; i++) {
+			if (max[i] - min[i] > max[axis] - min[axis]) {
+				axis = i;
+			}
+		}
+
+		// Split the triangles in half along that axis
+		int middle = (start + end) >>> 1;
+		select(start, end - 1, middle, axis, centers);
+
+		buildNode(start, middle, centers);
+		nodeIndices[node] = nodeCount;
+		nodeCounts[node] = 0;
+		buildNode(middle, end, centers);
+		fitParent(node);
+	}
+
+	/**
+	 * Walk the tree of nodes, finding those without children and the offsets
+	 * of their triangles.
+	 *
+	 * @param node
+	 *            The current node
+	 * @param x
+	 *            The x offset of the node's parent
+	 * @param y
+	 *            The y offset of the node's parent
+	 * @param z
+	 *            The z offset of the node's parent
+	 * @param found
+	 *            The list to add the nodes without children to
+	 * @param offsets
+	 *            The list to add each of the found nodes' offsets to
+	 * @param listen
+	 *            Whether to start listening to the nodes
+	 */
+	private void collectLeaves(INode node, double x, double y, double z,
+			List<INode> found, List<double[]> offsets, boolean listen) {
+
+		int first = found.size();
+		Vertex center = node.getCenter();
+		if (center != null) {
+			x += center.getX();
+			y += center.getY();
+			z += center.getZ();
+		}
+
+		EList<INode> children = node.getNodes();
+		if (children.isEmpty()) {
+			found.add(node);
+			offsets.add(new double[] { x, y, z });
+		} else {
+			for (INode child : children) {
+				collectLeaves(child, x, y, z, found, offsets, listen);
+			}
+		}
+
+		if (listen) {
+			NodeListener listener = new NodeListener(node, center, first,
+					found.size());
+			node.eAdapters().add(listener);
+			if (center != null) {
+				center.eAdapters().add(listener);
+			}
+			listeners.add(listener);
+		}
+	}
+
+	/**
+	 * Create the result of a query.
+	 *
+	 * @param triangle
+	 *            The index of the triangle found
+	 * @param distance
+	 *            The distance to the triangle
+	 * @param x
+	 *            The x coordinate of the point found
+	 * @param y
+	 *            The y coordinate of the point found
+	 * @param z
+	 *            The z coordinate of the point found
+	 * @return The query's result
+	 */
+	private Hit createHit(int triangle, double distance, double x, double y,
+			double z) {
+		int leaf = triangleLeaves[triangle];
+		return new Hit(leaves.get(leaf), triangle - leafStarts[leaf],
+				distance, x, y, z);
+	}
+
+	/**
+	 * Set a leaf's volume to the box around its triangles.
+	 *
+	 * @param node
+	 *            The leaf's index
+	 */
+	private void fitLeaf(int node) {
+		int offset = node * 6;
+		getTriangleBounds(order[nodeIndices[node]], nodeBounds, offset);
+		double[] triangleBounds = new double[6];
+		int end = nodeIndices[node] + nodeCounts[node];
+		for (int i = nodeIndices[node] + 1; i < end; i++) {
+			getTriangleBounds(order[i], triangleBounds, 0);
+			for (int axis = 0; axis < 3; axis++) {
+				nodeBounds[offset + axis] = Math.min(nodeBounds[offset + axis],
+						triangleBounds[axis]);
+				nodeBounds[offset + 3 + axis] = Math.max(
+						nodeBounds[offset + 3 + axis], triangleBounds[3 + axis]);
+			}
+		}
+	}
+
+	/**
+	 * Set a node's volume to the box around its two children's volumes.
+	 *
+	 * @param node
+	 *            The node's index
+	 */
+	private void fitParent(int node) {
+		int offset = node * 6;
+		int first = (node + 1) * 6;
+		int second = nodeIndices[node] * 6;
+		for (int axis = 0; axis < 3; axis++) {
+			nodeBounds[offset + axis] = Math.min(nodeBounds[first + axis],
+					nodeBounds[second + axis]);
+			nodeBounds[offset + 3 + axis] = Math.max(
+					nodeBounds[first + 3 + axis], nodeBounds[second + 3 + axis]);
+		}
+	}
+
+	/**
+	 * Get the squared distance from a point to a node's volume.
+	 *
+	 * @param node
+	 *            The node's index
+	 * @param x
+	 *            The point's x coordinate
+	 * @param y
+	 *            The point's y coordinate
+	 * @param z
+	 *            The point's z coordinate
+	 * @return The squared distance, or 0 if the point is inside the volume
+	 */
+	private double getBoxDistance(int node, double x, double y, double z) {
+		int offset = node * 6;
+		double dx = Math.max(0, Math.max(nodeBounds[offset] - x,
+				x - nodeBounds[offset + 3]));
+		double dy = Math.max(0, Math.max(nodeBounds[offset + 1] - y,
+				y - nodeBounds[offset + 4]));
+		double dz = Math.max(0, Math.max(nodeBounds[offset + 2] - z,
+				z - nodeBounds[offset + 5]));
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 * Find the point on a triangle closest to a given point.
+	 *
+	 * @param triangle
+	 *            The triangle's index
+	 * @param px
+	 *            The point's x coordinate
+	 * @param py
+	 *            The point's y coordinate
+	 * @param pz
+	 *            The point's z coordinate
+	 * @param closest
+	 *            An array to hold the closest point's coordinates
+	 * @return The squared distance between the points
+	 */
+	private double getClosestPoint(int triangle, double px, double py,
+			double pz, double[] closest) {
+
+		int offset = triangle * 9;
+		double ax = coordinates[offset], ay = coordinates[offset + 1],
+				az = coordinates[offset + 2];
+		double abx = coordinates[offset + 3] - ax,
+				aby = coordinates[offset + 4] - ay,
+				abz = coordinates[offset + 5] - az;
+		double acx = coordinates[offset + 6] - ax,
+				acy = coordinates[offset + 7] - ay,
+				acz = coordinates[offset + 8] - az;
+		double apx = px - ax, apy = py - ay, apz = pz - az;
+
+		// Find which of the triangle's regions the point projects into, and
+		// from that the barycentric coordinates of the closest point
+		double d1 = abx * apx + aby * apy + abz * apz;
+		double d2 = acx * apx + acy * apy + acz * apz;
+		double v;
+		double w;
+		if (d1 <= 0 && d2 <= 0) {
+			v = 0;
+			w = 0;
+		} else {
+			double bpx = apx - abx, bpy = apy - aby, bpz = apz - abz;
+			double d3 = abx * bpx + aby * bpy + abz * bpz;
+			double d4 = acx * bpx + acy * bpy + acz * bpz;
+			double cpx = apx - acx, cpy = apy - acy, cpz = apz - acz;
+			double d5 = abx * cpx + aby * cpy + abz * cpz;
+			double d6 = acx * cpx + acy * cpy + acz * cpz;
+			double va = d3 * d6 - d5 * d4;
+			double vb = d5 * d2 - d1 * d6;
+			double vc = d1 * d4 - d3 * d2;
+			if (d3 >= 0 && d4 <= d3) {
+
+				// The first vertex
+				v = 1;
+				w = 0;
+			} else if (vc <= 0 && d1 >= 0 && d3 <= 0) {
+
+				// The edge between the first two vertices
+				v = d1 / (d1 - d3);
+				w = 0;
+			} else if (d6 >= 0 && d5 <= d6) {
+
+				// The third vertex
+				v = 0;
+				w = 1;
+			} else if (vb <= 0 && d2 >= 0 && d6 <= 0) {
+
+				// The edge between the first and third vertices
+				v = 0;
+				w = d2 / (d2 - d6);
+			} else if (va <= 0 && d4 - d3 >= 0 && d5 - d6 >= 0) {
+
+				// The edge between the second and third vertices
+				w = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+				v = 1 - w;
+			} else {
+
+				// The face
+				double denominator = 1 / (va + vb + vc);
+				v = vb * denominator;
+				w = vc * denominator;
+			}
+		}
+
+		closest[0] = ax + abx * v + acx * w;
+		closest[1] = ay + aby * v + acy * w;
+		closest[2] = az + abz * v + acz * w;
+		double dx = closest[0] - px;
+		double dy = closest[1] - py;
+		double dz = closest[2] - pz;
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 * Get the box around a triangle.
+	 *
+	 * @param triangle
+	 *            The triangle's index
+	 * @param bounds
+	 *            The array to write the minimum x, y and z, then maximum x, y
+	 *            and z, into
+	 * @param offset
+	 *            The index in bounds to start writing at
+	 */
+	private void getTriangleBounds(int triangle, double[] bounds,
+			int offset) {
+		int start = triangle * 9;
+		for (int axis = 0; axis < 3; axis++) {
+			float a = coordinates[start + axis];
+			float b = coordinates[start + 3 + axis];
+			float c = coordinates[start + 6 + axis];
+			bounds[offset + axis] = Math.min(a, Math.min(b, c));
+			bounds[offset + 3 + axis] = Math.max(a, Math.max(b, c));
+		}
+	}
+
+	/**
+	 * Find where a ray enters a node's volume.
+	 *
+	 * @param node
+	 *            The node's index
+	 * @param originX
+	 *            The x coordinate of the ray's origin
+	 * @param originY
+	 *            The y coordinate of the ray's origin
+	 * @param originZ
+	 *            The z coordinate of the ray's origin
+	 * @param inverseX
+	 *            One over the x component of the ray's direction
+	 * @param inverseY
+	 *            One over the y component of the ray's direction
+	 * @param inverseZ
+	 *            One over the z component of the ray's direction
+	 * @return The distance along the ray at which it enters the volume, 0 if
+	 *         the origin is inside it, or infinity if the ray misses it.
+	 */
+	private double intersectBox(int node, double originX, double originY,
+			double originZ, double inverseX, double inverseY,
+			double inverseZ) {
+
+		int offset = node * 6;
+		double near = 0;
+		double far = Double.POSITIVE_INFINITY;
+
+		// Clip the ray against each pair of planes. A ray parallel to a pair
+		// of planes gives infinite distances, which either miss or leave the
+		// range unchanged, or NaN if it lies exactly on one of the planes.
+		double t1 = (nodeBounds[offset] - originX) * inverseX;
+		double t2 = (nodeBounds[offset + 3] - originX) * inverseX;
+		if (t1 == t1 && t2 == t2) {
+			near = Math.max(near, Math.min(t1, t2));
+			far = Math.min(far, Math.max(t1, t2));
+		}
+
+		t1 = (nodeBounds[offset + 1] - originY) * inverseY;
+		t2 = (nodeBounds[offset + 4] - originY) * inverseY;
+		if (t1 == t1 && t2 == t2) {
+			near = Math.max(near, Math.min(t1, t2));
+			far = Math.min(far, Math.max(t1, t2));
+		}
+
+		t1 = (nodeBounds[offset + 2] - originZ) * inverseZ;
+		t2 = (nodeBounds[offset + 5] - originZ) * inverseZ;
+		if (t1 == t1 && t2 == t2) {
+			near = Math.max(near, Math.min(t1, t2));
+			far = Math.min(far, Math.max(t1, t2));
+		}
+
+		return near <= far ? near : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Find where a ray hits a triangle.
+	 *
+	 * @param triangle
+	 *            The triangle's index
+	 * @param originX
+	 *            The x coordinate of the ray's origin
+	 * @param originY
+	 *            The y coordinate of the ray's origin
+	 * @param originZ
+	 *            The z coordinate of the ray's origin
+	 * @param directionX
+	 *            The x component of the ray's direction
+	 * @param directionY
+	 *            The y component of the ray's direction
+	 * @param directionZ
+	 *            The z component of the ray's direction
+	 * @return The distance along the ray at which it hits the triangle, or
+	 *         infinity if it misses it.
+	 */
+	private double intersectTriangle(int triangle, double originX,
+			double originY, double originZ, double directionX,
+			double directionY, double directionZ) {
+
+		int offset = triangle * 9;
+		double ax = coordinates[offset], ay = coordinates[offset + 1],
+				az = coordinates[offset + 2];
+		double e1x = coordinates[offset + 3] - ax,
+				e1y = coordinates[offset + 4] - ay,
+				e1z = coordinates[offset + 5] - az;
+		double e2x = coordinates[offset + 6] - ax,
+				e2y = coordinates[offset + 7] - ay,
+				e2z = coordinates[offset + 8] - az;
+
+		// The Moller-Trumbore test, accepting hits on either side
+		double px = directionY * e2z - directionZ * e2y;
+		double py = directionZ * e2x - directionX * e2z;
+		double pz = directionX * e2y - directionY * e2x;
+		double determinant = e1x * px + e1y * py + e1z * pz;
+		if (determinant == 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double inverse = 1 / determinant;
+
+		double tx = originX - ax, ty = originY - ay, tz = originZ - az;
+		double u = (tx * px + ty * py + tz * pz) * inverse;
+		if (u < 0 || u > 1) {
+			return Double.POSITIVE_INFINITY;
+		}
+
+		double qx = ty * e1z - tz * e1y;
+		double qy = tz * e1x - tx * e1z;
+		double qz = tx * e1y - ty * e1x;
+		double v = (directionX * qx + directionY * qy + directionZ * qz)
+				* inverse;
+		if (v < 0 || u + v > 1) {
+			return Double.POSITIVE_INFINITY;
+		}
+
+		double distance = (e2x * qx + e2y * qy + e2z * qz) * inverse;
+		return distance >= 0 ? distance : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Mark every leaf in a range as needing its triangles read again.
+	 *
+	 * @param first
+	 *            The first leaf in the range
+	 * @param end
+	 *            One more than the last leaf in the range
+	 */
+	private synchronized void markDirty(int first, int end) {
+		if (!structureChanged) {
+			Arrays.fill(dirtyLeaves, first, end, true);
+			dirty |= first < end;
+		}
+	}
+
+	/**
+	 * Mark the hierarchy as needing to be rebuilt.
+	 */
+	private synchronized void markStructureChanged() {
+		structureChanged = true;
+	}
+
+	/**
+	 * Check whether two boxes overlap.
+	 *
+	 * @param bounds
+	 *            The array holding the first box
+	 * @param offset
+	 *            The index of the first box in its array
+	 * @param query
+	 *            The second box
+	 * @return True if the boxes overlap or touch, false otherwise
+	 */
+	private static boolean overlaps(double[] bounds, int offset,
+			double[] query) {
+		return bounds[offset] <= query[3] && bounds[offset + 3] >= query[0]
+				&& bounds[offset + 1] <= query[4]
+				&& bounds[offset + 4] >= query[1]
+				&& bounds[offset + 2] <= query[5]
+				&& bounds[offset + 5] >= query[2];
+	}
+
+	/**
+	 * Read a leaf's triangles into the coordinates array, offset into place.
+	 *
+	 * @param leaf
+	 *            The leaf's index
+	 */
+	private void readTriangles(int leaf) {
+
+		double x = leafOffsets[leaf * 3];
+		double y = leafOffsets[leaf * 3 + 1];
+		double z = leafOffsets[leaf * 3 + 2];
+		int offset = leafStarts[leaf] * 9;
+		EList<Triangle> triangles = leaves.get(leaf).getTriangles();
+
+		// If the triangles are stored in a mesh, read its arrays directly
+		TriangleMesh mesh = triangles instanceof TriangleMeshView
+				? ((TriangleMeshView) triangles).getMesh() : null;
+		if (mesh != null) {
+			float[] positions = mesh.getPositions();
+			int[] indices = mesh.getIndices();
+			int count = mesh.getTriangleCount() * 3;
+			for (int i = 0; i < count; i++) {
+				int vertex = indices[i] * 3;
+				coordinates[offset++] = (float) (positions[vertex] + x);
+				coordinates[offset++] = (float) (positions[vertex + 1] + y);
+				coordinates[offset++] = (float) (positions[vertex + 2] + z);
+			}
+		} else {
+			for (Triangle triangle : triangles) {
+				EList<Vertex> vertices = triangle.getVertices();
+				for (int i = 0; i < 3; i++) {
+
+					// A triangle missing vertices is treated as a point or
+					// line, using its last vertex for the missing ones
+					Vertex vertex = vertices.isEmpty() ? null
+							: vertices.get(Math.min(i, vertices.size() - 1));
+					coordinates[offset++] = (float) (vertex != null
+							? vertex.getX() + x : x);
+					coordinates[offset++] = (float) (vertex != null
+							? vertex.getY() + y : y);
+					coordinates[offset++] = (float) (vertex != null
+							? vertex.getZ() + z : z);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Refit the hierarchy around the dirty leaves' current triangles.
+	 *
+	 * @return False if the nodes or their numbers of triangles have changed,
+	 *         so that the hierarchy must be rebuilt instead. True otherwise.
+	 */
+	private boolean refit() {
+
+		// Find the leaves' current offsets, which depend on their ancestors
+		List<INode> currentLeaves = new ArrayList<INode>(leaves.size());
+		List<double[]> offsets = new ArrayList<double[]>(leaves.size());
+		collectLeaves(root, 0, 0, 0, currentLeaves, offsets, false);
+		if (currentLeaves.size() != leaves.size()) {
+			return false;
+		}
+		for (int i = 0; i < leaves.size(); i++) {
+			if (currentLeaves.get(i) != leaves.get(i)
+					|| leaves.get(i).getTriangles()
+							.size() != leafStarts[i + 1] - leafStarts[i]) {
+				return false;
+			}
+		}
+
+		// Read the moved triangles again and mark the leaves holding them
+		for (int i = 0; i < leaves.size(); i++) {
+			if (dirtyLeaves[i]) {
+				System.arraycopy(offsets.get(i), 0, leafOffsets, i * 3, 3);
+				readTriangles(i);
+				for (int j = leafStarts[i]; j < leafStarts[i + 1]; j++) {
+					refitNodes[triangleNodes[j]] = true;
+				}
+			}
+		}
+
+		// Refit the marked volumes and their ancestors from the bottom up.
+		// Children always follow their parents, so this visits both children
+		// before their parent.
+		for (int node = nodeCount - 1; node >= 0; node--) {
+			if (nodeCounts[node] > 0) {
+				if (refitNodes[node]) {
+					fitLeaf(node);
+				}
+			} else if (refitNodes[node + 1]
+					|| refitNodes[nodeIndices[node]]) {
+				fitParent(node);
+				refitNodes[node] = true;
+			}
+		}
+		Arrays.fill(refitNodes, 0, nodeCount, false);
+
+		return true;
+	}
+
+	/**
+	 * Stop listening to the nodes.
+	 */
+	private void removeListeners() {
+		for (NodeListener listener : listeners) {
+			listener.node.eAdapters().remove(listener);
+			if (listener.center != null) {
+				listener.center.eAdapters().remove(listener);
+			}
+		}
+		listeners.clear();
+	}
+
+	/**
+	 * Partially sort a range of the order array so that the triangle at the
+	 * given position is the one which would be there if the range were sorted
+	 * by the triangles' centers along an axis, with no larger triangles
+	 * before it and no smaller ones after it.
+	 *
+	 * @param left
+	 *            The first index of the range
+	 * @param right
+	 *            The last index of the range
+	 * @param target
+	 *            The index to place the correct triangle at
+	 * @param axis
+	 *            The axis to compare the triangles along
+	 * @param centers
+	 *            The x, y and z coordinates of each triangle's center
+	 */
+	private void select(int left, int right, int target, int axis,
+			float[] centers) {
+
+		while (right > left) {
+			float pivot = centers[order[(left + right) >>> 1] * 3 + axis];
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (centers[order[i] * 3 + axis] < pivot) {
+					i++;
+				}
+				while (centers[order[j] * 3 + axis] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					int swap = order[i];
+					order[i] = order[j];
+					order[j] = swap;
+					i++;
+					j--;
+				}
+			}
+
+			// Continue in the part which holds the target
+			if (target <= j) {
+				right = j;
+			} else if (target >= i) {
+				left = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Bring the hierarchy up to date with the nodes, rebuilding or refitting
+	 * it as needed.
+	 */
+	private void update() {
+		if (structureChanged) {
+			structureChanged = false;
+			dirty = false;
+			build();
+		} else if (dirty) {
+			dirty = false;
+			if (!refit()) {
+				build();
+			}
+			Arrays.fill(dirtyLeaves, false);
+		}
+	}
+
+	/**
+	 * The result of a query: a triangle, its node, and a point on it.
+	 */
+	public static class Hit {
+
+		/**
+		 * The node the triangle belongs to.
+		 */
+		private final INode node;
+
+		/**
+		 * The triangle's index in its node's list of triangles.
+		 */
+		private final int triangleIndex;
+
+		/**
+		 * The distance from the query to the triangle.
+		 */
+		private final double distance;
+
+		/**
+		 * The x, y and z coordinates of the point found on the triangle.
+		 */
+		private final double[] point;
+
+		/**
+		 * The default constructor.
+		 *
+		 * @param node
+		 *            The node the triangle belongs to
+		 * @param triangleIndex
+		 *            The triangle's index in its node's list of triangles
+		 * @param distance
+		 *            The distance from the query to the triangle
+		 * @param x
+		 *            The x coordinate of the point found on the triangle
+		 * @param y
+		 *            The y coordinate of the point found on the triangle
+		 * @param z
+		 *            The z coordinate of the point found on the triangle
+		 */
+		Hit(INode node, int triangleIndex, double distance, double x,
+				double y, double z) {
+			this.node = node;
+			this.triangleIndex = triangleIndex;
+			this.distance = distance;
+			point = new double[] { x, y, z };
+		}
+
+		/**
+		 * Getter method for the distance.
+		 *
+		 * @return For a ray, the distance along the ray in multiples of its
+		 *         direction's length. For a point, the distance from the point
+		 *         to the triangle.
+		 */
+		public double getDistance() {
+			return distance;
+		}
+
+		/**
+		 * Getter method for the node.
+		 *
+		 * @return The node the triangle belongs to
+		 */
+		public INode getNode() {
+			return node;
+		}
+
+		/**
+		 * Getter method for the point.
+		 *
+		 * @return The x, y and z coordinates of the point found on the
+		 *         triangle, in the hierarchy's coordinate system
+		 */
+		public double[] getPoint() {
+			return point.clone();
+		}
+
+		/**
+		 * Get the triangle that was found.
+		 *
+		 * @return The triangle from the node's list of triangles
+		 */
+		public Triangle getTriangle() {
+			return node.getTriangles().get(triangleIndex);
+		}
+
+		/**
+		 * Getter method for the triangle's index.
+		 *
+		 * @return The triangle's index in its node's list of triangles
+		 */
+		public int getTriangleIndex() {
+			return triangleIndex;
+		}
+	}
+
+	/**
+	 * A listener which marks a node's leaves dirty when it or its center
+	 * changes, and the hierarchy as changed when its children or triangles
+	 * are replaced.
+	 */
+	private class NodeListener extends AdapterImpl {
+
+		/**
+		 * The node being listened to.
+		 */
+		private final INode node;
+
+		/**
+		 * The node's center, which is also listened to.
+		 */
+		private final Vertex center;
+
+		/**
+		 * The first of the leaves which are the node or its descendants.
+		 */
+		private final int first;
+
+		/**
+		 * One more than the last of the leaves which are the node or its
+		 * descendants.
+		 */
+		private final int end;
+
+		/**
+		 * The default constructor.
+		 *
+		 * @param node
+		 *            The node to listen to
+		 * @param center
+		 *            The node's center
+		 * @param first
+		 *            The first of the node's leaves
+		 * @param end
+		 *            One more than the last of the node's leaves
+		 */
+		NodeListener(INode node, Vertex center, int first, int end) {
+			this.node = node;
+			this.center = center;
+			this.first = first;
+			this.end = end;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see
+		 * org.eclipse.emf.common.notify.impl.AdapterImpl#notifyChanged(org.
+		 * eclipse.emf.common.notify.Notification)
+		 */
+		@Override
+		public void notifyChanged(Notification notification) {
+
+			// Adding or removing the adapter itself changes nothing
+			int type = notification.getEventType();
+			if (type == Notification.REMOVING_ADAPTER
+					|| type == Notification.RESOLVE) {
+				return;
+			}
+
+			// Changes to the children, the triangles, or which vertex is the
+			// center need a rebuild. Anything else may move the triangles.
+			Object feature = notification.getFeature();
+			Notifier notifier = (Notifier) notification.getNotifier();
+			if (notifier != center && feature instanceof EStructuralFeature) {
+				String name = ((EStructuralFeature) feature).getName();
+				if ("nodes".equals(name) || "triangles".equals(name)
+						|| "center".equals(name)) {
+					markStructureChanged();
+					return;
+				}
+			}
+			markDirty(first, end);
+		}
+	}
+}
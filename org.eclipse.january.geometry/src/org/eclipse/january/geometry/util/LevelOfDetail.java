@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.util;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.january.geometry.Triangle;
+
+/**
+ * An interface for shapes which can be tessellated at several levels of
+ * detail. Level 0 is the shape's full resolution, as given by getTriangles(),
+ * and each level after it uses roughly half as many points around each of the
+ * shape's circles, down to MeshUtils.DETAIL_LEVELS - 1.
+ *
+ * A renderer should pick the coarsest level whose error is too small to be
+ * seen, which getDetailLevel() finds from the size of a pixel at the shape's
+ * distance from the camera.
+ *
+ * @author Robert Smith
+ *
+ * @generated NOT
+ *
+ */
+public interface LevelOfDetail {
+
+	/**
+	 * Get the coarsest level of detail at which the shape's surface is
+	 * everywhere within the given distance of the true surface.
+	 *
+	 * @param maxError
+	 *            The largest acceptable distance between the mesh and the
+	 *            surface it approximates, in the shape's units.
+	 * @return The level of detail, between 0 and MeshUtils.DETAIL_LEVELS - 1.
+	 */
+	int getDetailLevel(double maxError);
+
+	/**
+	 * Get the shape's triangles at the given level of detail.
+	 *
+	 * @param level
+	 *            The level of detail. Level 0 or less gives the same triangles
+	 *            as getTriangles(), and levels past the last give the last.
+	 * @return The triangles approximating the shape at the given level.
+	 */
+	EList<Triangle> getTriangles(int level);
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.util;
+
+import java.util.Arrays;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.january.geometry.Triangle;
+
+/**
+ * A holder for the triangles a LevelOfDetail shape has created for its
+ * coarser levels of detail. Each set of triangles is only valid for the
+ * values of the shape's properties it was created from, so the cache is
+ * emptied whenever it is asked for a level with different values.
+ *
+ * @author Robert Smith
+ *
+ * @generated NOT
+ *
+ */
+public class LevelOfDetailCache {
+
+	/**
+	 * The triangles for each level of detail, or null for those which have
+	 * not been created.
+	 */
+	private final Object[] levels = new Object[MeshUtils.DETAIL_LEVELS];
+
+	/**
+	 * The values of the shape's properties the cached triangles were created
+	 * from.
+	 */
+	private double[] key;
+
+	/**
+	 * Get the triangles for a level of detail.
+	 *
+	 * @param level
+	 *            The level of detail
+	 * @param currentKey
+	 *            The current values of every property the shape's triangles
+	 *            depend on
+	 * @return The triangles previously stored for the level, or null if there
+	 *         are none or the properties have since changed.
+	 */
+	@SuppressWarnings("unchecked")
+	public EList<Triangle> get(int level, double... currentKey) {
+
+		// If the properties have changed, none of the levels are valid
+		if (!Arrays.equals(key, currentKey)) {
+			Arrays.fill(levels, null);
+			key = currentKey;
+			return null;
+		}
+
+		return (EList<Triangle>) levels[level];
+	}
+
+	/**
+	 * Store the triangles for a level of detail, which were created from the
+	 * properties last given to get().
+	 *
+	 * @param level
+	 *            The level of detail
+	 * @param triangles
+	 *            The level's triangles
+	 */
+	public void put(int level, EList<Triangle> triangles) {
+		levels[level] = triangles;
+	}
+}
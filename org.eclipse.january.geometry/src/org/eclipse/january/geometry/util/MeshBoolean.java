@@ -0,0 +1,1252 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boolean operations on solids bounded by closed triangle meshes, used to
+ * evaluate the union, intersection and complement operators.
+ *
+ * Each solid is given as a flat array holding the x, y and z coordinates of
+ * each vertex of each of its triangles, nine values per triangle, wound
+ * counter-clockwise when seen from outside the solid. The result is given in
+ * the same form.
+ *
+ * Each operation splits every triangle of one solid along the planes of the
+ * triangles of the other solid which cross it, so that no piece passes
+ * through the other solid's surface. Each piece is then classified as inside
+ * the other solid, outside it, or lying on a face of it facing the same or
+ * the opposite way, and the pieces are kept or discarded according to the
+ * operation. Pieces are classified by counting the crossings of a ray cast
+ * from their centers, retrying in another direction if the ray grazes an
+ * edge.
+ *
+ * The triangles of each solid are held in a bounding box tree, so that
+ * finding the triangles crossing a piece and casting rays both take roughly
+ * logarithmic time in the solid's size. Triangles outside the box holding the
+ * other solid are classified without being split or cast from at all, so that
+ * solids which only overlap in a small region cost little more than copying
+ * their triangles.
+ *
+ * @author Robert Smith
+ *
+ * @generated NOT
+ *
+ */
+public class MeshBoolean {
+
+	/**
+	 * The distance below which points are considered to be on a plane,
+	 * relative to the size of the box holding both solids.
+	 */
+	private static final double RELATIVE_TOLERANCE = 1e-9;
+
+	/**
+	 * The smallest tolerance used, for solids which are all at one point.
+	 */
+	private static final double MINIMUM_TOLERANCE = 1e-12;
+
+	/**
+	 * The directions tried in turn when casting rays, chosen to be unlikely
+	 * to be parallel to the faces of the solids.
+	 */
+	private static final double[][] RAY_DIRECTIONS = {
+			{ 0.5437, 0.3291, 0.7719 }, { -0.6113, 0.7027, 0.3641 },
+			{ 0.2377, -0.8659, 0.4401 }, { -0.3187, -0.2851, -0.9039 },
+			{ 0.8291, -0.4127, -0.3771 } };
+
+	/**
+	 * The classification of a piece outside the other solid.
+	 */
+	private static final int OUTSIDE = 0;
+
+	/**
+	 * The classification of a piece inside the other solid.
+	 */
+	private static final int INSIDE = 1;
+
+	/**
+	 * The classification of a piece lying on a face of the other solid which
+	 * faces the same way.
+	 */
+	private static final int SAME = 2;
+
+	/**
+	 * The classification of a piece lying on a face of the other solid which
+	 * faces the opposite way.
+	 */
+	private static final int OPPOSITE = 3;
+
+	/**
+	 * The operation for a union.
+	 */
+	private static final int UNION = 0;
+
+	/**
+	 * The operation for an intersection.
+	 */
+	private static final int INTERSECTION = 1;
+
+	/**
+	 * The operation for a difference.
+	 */
+	private static final int DIFFERENCE = 2;
+
+	/**
+	 * The operands, held in trees.
+	 */
+	private final TriangleTree first;
+
+	/**
+	 * The second operand.
+	 */
+	private final TriangleTree second;
+
+	/**
+	 * The distance below which points are considered to be on a plane.
+	 */
+	private final double tolerance;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param first
+	 *            The triangles of the first solid
+	 * @param second
+	 *            The triangles of the second solid
+	 */
+	private MeshBoolean(double[] first, double[] second) {
+		this.first = new TriangleTree(first);
+		this.second = new TriangleTree(second);
+
+		// Scale the tolerance by the size of the region both solids lie in
+		double size = 0;
+		for (int i = 0; i < 3; i++) {
+			double max = Math.max(this.first.bounds[i + 3],
+					this.second.bounds[i + 3]);
+			double min = Math.min(this.first.bounds[i], this.second.bounds[i]);
+			size = Math.max(size, max - min);
+		}
+		tolerance = Math.max(size * RELATIVE_TOLERANCE, MINIMUM_TOLERANCE);
+	}
+
+	/**
+	 * Find the union of two solids.
+	 *
+	 * @param first
+	 *            The first solid's triangles
+	 * @param second
+	 *            The second solid's triangles
+	 * @return The triangles of the solid holding every point inside either
+	 *         solid
+	 */
+	public static double[] union(double[] first, double[] second) {
+		return evaluate(first, second, UNION);
+	}
+
+	/**
+	 * Find the intersection of two solids.
+	 *
+	 * @param first
+	 *            The first solid's triangles
+	 * @param second
+	 *            The second solid's triangles
+	 * @return The triangles of the solid holding every point inside both
+	 *         solids
+	 */
+	public static double[] intersection(double[] first, double[] second) {
+		return evaluate(first, second, INTERSECTION);
+	}
+
+	/**
+	 * Subtract one solid from another.
+	 *
+	 * @param first
+	 *            The triangles of the solid to subtract from
+	 * @param second
+	 *            The triangles of the solid to subtract
+	 * @return The triangles of the solid holding every point inside the first
+	 *         solid but not the second
+	 */
+	public static double[] difference(double[] first, double[] second) {
+		return evaluate(first, second, DIFFERENCE);
+	}
+
+	/**
+	 * Store a set of triangles in a mesh, sharing the vertices they have in
+	 * common and giving each triangle the normal of its winding.
+	 *
+	 * @param triangles
+	 *            The triangles' coordinates, nine per triangle
+	 * @return A new mesh holding the triangles
+	 */
+	public static TriangleMesh toMesh(double[] triangles) {
+
+		TriangleMesh mesh = new TriangleMesh();
+
+		// Weld only vertices which are equal to within rounding error, so
+		// that no triangle collapses
+		double size = 0;
+		for (double coordinate : triangles) {
+			size = Math.max(size, Math.abs(coordinate));
+		}
+		VertexWelder welder = new VertexWelder(
+				Math.max(size * RELATIVE_TOLERANCE, MINIMUM_TOLERANCE));
+		int[] vertices = new int[3];
+		for (int i = 0; i < triangles.length; i += 9) {
+			for (int j = 0; j < 3; j++) {
+				int offset = i + j * 3;
+				int vertex = welder.add(triangles[offset],
+						triangles[offset + 1], triangles[offset + 2]);
+				if (vertex == mesh.getVertexCount()) {
+					mesh.addVertex((float) triangles[offset],
+							(float) triangles[offset + 1],
+							(float) triangles[offset + 2]);
+				}
+				vertices[j] = vertex;
+			}
+			double[] normal = getNormal(triangles, i, 3);
+			mesh.addTriangle(vertices[0], vertices[1], vertices[2],
+					(float) normal[0], (float) normal[1], (float) normal[2]);
+		}
+
+		mesh.trimToSize();
+		return mesh;
+	}
+
+	/**
+	 * Perform an operation on two solids.
+	 *
+	 * @param first
+	 *            The first solid's triangles
+	 * @param second
+	 *            The second solid's triangles
+	 * @param operation
+	 *            The operation to perform
+	 * @return The resulting solid's triangles
+	 */
+	private static double[] evaluate(double[] first, double[] second,
+			int operation) {
+
+		// Handle empty solids without building anything
+		if (first.length == 0) {
+			return operation == UNION ? second.clone() : new double[0];
+		} else if (second.length == 0) {
+			return operation == INTERSECTION ? new double[0] : first.clone();
+		}
+
+		MeshBoolean solids = new MeshBoolean(first, second);
+		DoubleList result = new DoubleList(first.length + second.length);
+
+		// Pieces of the first solid are kept if they are outside the second
+		// for a union or difference and inside it for an intersection. Faces
+		// shared with the second solid are kept from the first solid only.
+		boolean[] keepFirst = new boolean[4];
+		keepFirst[operation == INTERSECTION ? INSIDE : OUTSIDE] = true;
+		keepFirst[operation == DIFFERENCE ? OPPOSITE : SAME] = true;
+		solids.addPieces(solids.first, solids.second, keepFirst, false,
+				result);
+
+		// Pieces of the second solid are kept if they are outside the first
+		// for a union and inside it otherwise. Subtracted pieces become the
+		// inside of the result, so they are turned around.
+		boolean[] keepSecond = new boolean[4];
+		keepSecond[operation == UNION ? OUTSIDE : INSIDE] = true;
+		solids.addPieces(solids.second, solids.first, keepSecond,
+				operation == DIFFERENCE, result);
+
+		return result.toArray();
+	}
+
+	/**
+	 * Split one solid's triangles against the other solid and add the pieces
+	 * with the given classifications to the result.
+	 *
+	 * @param solid
+	 *            The solid whose triangles are split
+	 * @param other
+	 *            The solid they are split against
+	 * @param keep
+	 *            Whether to keep pieces of each classification
+	 * @param flip
+	 *            Whether to reverse the winding of the kept pieces
+	 * @param result
+	 *            The list to add the kept pieces' triangles to
+	 */
+	private void addPieces(TriangleTree solid, TriangleTree other,
+			boolean[] keep, boolean flip, DoubleList result) {
+
+		double[] box = new double[6];
+		IntList candidates = new IntList();
+		List<double[]> pieces = new ArrayList<double[]>();
+		List<double[]> split = new ArrayList<double[]>();
+
+		for (int triangle = 0; triangle < solid.count; triangle++) {
+
+			// Triangles away from the other solid are outside it
+			solid.getTriangleBounds(triangle, box);
+			if (!overlaps(box, other.bounds)) {
+				if (keep[OUTSIDE]) {
+					addPolygon(solid.getPolygon(triangle), flip, result);
+				}
+				continue;
+			}
+
+			// Split the triangle along each of the other solid's triangles
+			// that crosses it
+			pieces.clear();
+			pieces.add(solid.getPolygon(triangle));
+			double[] plane = solid.planes[triangle];
+			candidates.clear();
+			other.query(box, tolerance, candidates);
+			for (int i = 0; i < candidates.size; i++) {
+				int candidate = candidates.values[i];
+				double[] candidatePlane = other.planes[candidate];
+				if (candidatePlane == null) {
+					continue;
+				}
+
+				// Skip triangles which do not reach each other's planes
+				int side = solid.getSide(triangle, candidatePlane, tolerance);
+				if (side == 1 || side == -1) {
+					continue;
+				}
+				if (side == 0) {
+
+					// A coplanar triangle is split along its edges, so that
+					// each piece is either on it or off it
+					for (int edge = 0; edge < 3; edge++) {
+						splitAll(pieces, other.getEdgePlane(candidate, edge),
+								split);
+					}
+				} else if (plane != null) {
+					int otherSide = other.getSide(candidate, plane,
+							tolerance);
+					if (otherSide != 1 && otherSide != -1) {
+						splitAll(pieces, candidatePlane, split);
+					}
+				}
+			}
+
+			// Keep the pieces as required
+			for (double[] piece : pieces) {
+				if (keep[classify(piece, other)]) {
+					addPolygon(piece, flip, result);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Classify a piece of one solid's surface against the other solid.
+	 *
+	 * @param piece
+	 *            The vertices of the piece, a convex polygon which does not
+	 *            cross the other solid's surface
+	 * @param other
+	 *            The other solid
+	 * @return The piece's classification
+	 */
+	private int classify(double[] piece, TriangleTree other) {
+
+		// Find the piece's center and normal
+		int count = piece.length / 3;
+		double x = 0;
+		double y = 0;
+		double z = 0;
+		for (int i = 0; i < piece.length; i += 3) {
+			x += piece[i];
+			y += piece[i + 1];
+			z += piece[i + 2];
+		}
+		x /= count;
+		y /= count;
+		z /= count;
+
+		// Check whether the piece lies on one of the other solid's faces
+		double[] box = { x, y, z, x, y, z };
+		IntList candidates = new IntList();
+		other.query(box, tolerance, candidates);
+		for (int i = 0; i < candidates.size; i++) {
+			int candidate = candidates.values[i];
+			double[] plane = other.planes[candidate];
+			if (plane != null
+					&& Math.abs(plane[0] * x + plane[1] * y + plane[2] * z
+							+ plane[3]) <= tolerance
+					&& other.contains(candidate, x, y, z, tolerance)) {
+				double[] normal = getNormal(piece, 0, count);
+				return normal[0] * plane[0] + normal[1] * plane[1]
+						+ normal[2] * plane[2] > 0 ? SAME : OPPOSITE;
+			}
+		}
+
+		// Otherwise count the faces crossed by a ray cast from the center.
+		// If every ray grazes an edge, go with the majority.
+		int insideVotes = 0;
+		int outsideVotes = 0;
+		for (double[] direction : RAY_DIRECTIONS) {
+			int crossings = other.countCrossings(x, y, z, direction,
+					tolerance);
+			if (crossings >= 0) {
+				return crossings % 2 == 1 ? INSIDE : OUTSIDE;
+			} else if (crossings == -1) {
+				outsideVotes++;
+			} else {
+				insideVotes++;
+			}
+		}
+		return insideVotes > outsideVotes ? INSIDE : OUTSIDE;
+	}
+
+	/**
+	 * Split a list of convex polygons by a plane, replacing any polygon which
+	 * crosses the plane with its two halves.
+	 *
+	 * @param polygons
+	 *            The polygons to split
+	 * @param plane
+	 *            The plane to split them by
+	 * @param buffer
+	 *            A list used to hold the results while splitting
+	 */
+	private void splitAll(List<double[]> polygons, double[] plane,
+			List<double[]> buffer) {
+		buffer.clear();
+		for (double[] polygon : polygons) {
+			splitPolygon(polygon, plane, buffer);
+		}
+		polygons.clear();
+		polygons.addAll(buffer);
+	}
+
+	/**
+	 * Split a convex polygon by a plane.
+	 *
+	 * @param polygon
+	 *            The polygon's vertices
+	 * @param plane
+	 *            The plane
+	 * @param results
+	 *            The list to add the polygon, or its two halves if it crosses
+	 *            the plane, to
+	 */
+	private void splitPolygon(double[] polygon, double[] plane,
+			List<double[]> results) {
+
+		int count = polygon.length / 3;
+		double[] distances = new double[count];
+		boolean front = false;
+		boolean back = false;
+		for (int i = 0; i < count; i++) {
+			distances[i] = plane[0] * polygon[i * 3]
+					+ plane[1] * polygon[i * 3 + 1]
+					+ plane[2] * polygon[i * 3 + 2] + plane[3];
+			front |= distances[i] > tolerance;
+			back |= distances[i] < -tolerance;
+		}
+		if (!front || !back) {
+			results.add(polygon);
+			return;
+		}
+
+		// Walk the edges, sending each vertex to its side and adding the
+		// points where edges cross the plane to both
+		DoubleList frontPoints = new DoubleList(polygon.length + 6);
+		DoubleList backPoints = new DoubleList(polygon.length + 6);
+		for (int i = 0; i < count; i++) {
+			int j = (i + 1) % count;
+			double distance = distances[i];
+			if (distance >= -tolerance) {
+				frontPoints.add(polygon, i * 3, 3);
+			}
+			if (distance <= tolerance) {
+				backPoints.add(polygon, i * 3, 3);
+			}
+			double next = distances[j];
+			if (distance > tolerance && next < -tolerance
+					|| distance < -tolerance && next > tolerance) {
+				double t = distance / (distance - next);
+				double[] point = new double[3];
+				for (int axis = 0; axis < 3; axis++) {
+					point[axis] = polygon[i * 3 + axis]
+							+ (polygon[j * 3 + axis] - polygon[i * 3 + axis])
+									* t;
+				}
+				frontPoints.add(point, 0, 3);
+				backPoints.add(point, 0, 3);
+			}
+		}
+		if (frontPoints.size >= 9) {
+			results.add(frontPoints.toArray());
+		}
+		if (backPoints.size >= 9) {
+			results.add(backPoints.toArray());
+		}
+	}
+
+	/**
+	 * Add a convex polygon to a list of triangles as a fan, skipping any
+	 * triangles with no area.
+	 *
+	 * @param polygon
+	 *            The polygon's vertices
+	 * @param flip
+	 *            Whether to reverse the polygon's winding
+	 * @param result
+	 *            The list of triangle coordinates
+	 */
+	private void addPolygon(double[] polygon, boolean flip,
+			DoubleList result) {
+		double minimumArea = tolerance * tolerance;
+		for (int i = 3; i + 3 < polygon.length; i += 3) {
+			double[] triangle = new double[9];
+			System.arraycopy(polygon, 0, triangle, 0, 3);
+			System.arraycopy(polygon, flip ? i + 3 : i, triangle, 3, 3);
+			System.arraycopy(polygon, flip ? i : i + 3, triangle, 6, 3);
+			double[] normal = getCross(triangle, 0);
+			if (Math.sqrt(normal[0] * normal[0] + normal[1] * normal[1]
+					+ normal[2] * normal[2]) > minimumArea) {
+				result.add(triangle, 0, 9);
+			}
+		}
+	}
+
+	/**
+	 * Get the cross product of the first two edges of a polygon.
+	 *
+	 * @param points
+	 *            An array of coordinates
+	 * @param offset
+	 *            The index of the polygon's first coordinate
+	 * @return The cross product, whose length is twice the area of the
+	 *         polygon's first triangle
+	 */
+	private static double[] getCross(double[] points, int offset) {
+		double ax = points[offset + 3] - points[offset];
+		double ay = points[offset + 4] - points[offset + 1];
+		double az = points[offset + 5] - points[offset + 2];
+		double bx = points[offset + 6] - points[offset];
+		double by = points[offset + 7] - points[offset + 1];
+		double bz = points[offset + 8] - points[offset + 2];
+		return new double[] { ay * bz - az * by, az * bx - ax * bz,
+				ax * by - ay * bx };
+	}
+
+	/**
+	 * Get the unit normal of a planar polygon, using Newell's method so that
+	 * collinear vertices do not matter.
+	 *
+	 * @param points
+	 *            An array of coordinates
+	 * @param offset
+	 *            The index of the polygon's first coordinate
+	 * @param count
+	 *            The number of vertices in the polygon
+	 * @return The normal, or the zero vector if the polygon has no area
+	 */
+	private static double[] getNormal(double[] points, int offset,
+			int count) {
+		double[] normal = new double[3];
+		for (int i = 0; i < count; i++) {
+			int current = offset + i * 3;
+			int next = offset + (i + 1) % count * 3;
+			normal[0] += (points[current + 1] - points[next + 1])
+					* (points[current + 2] + points[next + 2]);
+			normal[1] += (points[current + 2] - points[next + 2])
+					* (points[current] + points[next]);
+			normal[2] += (points[current] - points[next])
+					* (points[current + 1] + points[next + 1]);
+		}
+		double length = Math.sqrt(normal[0] * normal[0]
+				+ normal[1] * normal[1] + normal[2] * normal[2]);
+		if (length > 0) {
+			normal[0] /= length;
+			normal[1] /= length;
+			normal[2] /= length;
+		}
+		return normal;
+	}
+
+	/**
+	 * Check whether two boxes overlap.
+	 *
+	 * @param first
+	 *            The minimum then maximum coordinates of the first box
+	 * @param second
+	 *            The minimum then maximum coordinates of the second box
+	 * @return True if the boxes overlap or touch, false otherwise
+	 */
+	private boolean overlaps(double[] first, double[] second) {
+		for (int i = 0; i < 3; i++) {
+			if (first[i] > second[i + 3] + tolerance
+					|| first[i + 3] < second[i] - tolerance) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A bounding box tree over the triangles of a solid.
+	 */
+	private static class TriangleTree {
+
+		/**
+		 * The largest number of triangles held by a leaf.
+		 */
+		private static final int LEAF_SIZE = 4;
+
+		/**
+		 * The triangles' coordinates, nine per triangle.
+		 */
+		private final double[] coordinates;
+
+		/**
+		 * The number of triangles.
+		 */
+		private final int count;
+
+		/**
+		 * The unit normal and offset of each triangle's plane, or null for
+		 * triangles with no area.
+		 */
+		private final double[][] planes;
+
+		/**
+		 * The box holding every triangle.
+		 */
+		private final double[] bounds = new double[6];
+
+		/**
+		 * The triangles in the order they are held by the tree's nodes.
+		 */
+		private final int[] order;
+
+		/**
+		 * The minimum then maximum coordinates of each node's box.
+		 */
+		private double[] nodeBounds;
+
+		/**
+		 * For leaves, the index in order of the first triangle. For other
+		 * nodes, the index of the second child, the first following its
+		 * parent.
+		 */
+		private int[] nodeIndices;
+
+		/**
+		 * The number of triangles in each leaf, or 0 for other nodes.
+		 */
+		private int[] nodeCounts;
+
+		/**
+		 * The number of nodes.
+		 */
+		private int nodeCount;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param coordinates
+		 *            The triangles' coordinates
+		 */
+		TriangleTree(double[] coordinates) {
+			this.coordinates = coordinates;
+			count = coordinates.length / 9;
+			planes = new double[count][];
+			order = new int[count];
+
+			float[] centers = new float[count * 3];
+			double[] box = new double[6];
+			Arrays.fill(bounds, 0, 3, Double.POSITIVE_INFINITY);
+			Arrays.fill(bounds, 3, 6, Double.NEGATIVE_INFINITY);
+			for (int i = 0; i < count; i++) {
+				order[i] = i;
+				getTriangleBounds(i, box);
+				for (int axis = 0; axis < 3; axis++) {
+					bounds[axis] = Math.min(bounds[axis], box[axis]);
+					bounds[axis + 3] = Math.max(bounds[axis + 3],
+							box[axis + 3]);
+					centers[i * 3 + axis] = (float) (box[axis]
+							+ box[axis + 3]) / 2;
+				}
+				double[] normal = getNormal(coordinates, i * 9, 3);
+				if (normal[0] != 0 || normal[1] != 0 || normal[2] != 0) {
+					planes[i] = new double[] { normal[0], normal[1],
+							normal[2], -(normal[0] * coordinates[i * 9]
+									+ normal[1] * coordinates[i * 9 + 1]
+									+ normal[2] * coordinates[i * 9 + 2]) };
+				}
+			}
+
+			int capacity = 4 * count / LEAF_SIZE + 1;
+			nodeBounds = new double[capacity * 6];
+			nodeIndices = new int[capacity];
+			nodeCounts = new int[capacity];
+			if (count > 0) {
+				build(0, count, centers);
+			}
+		}
+
+		/**
+		 * Build the node holding a range of the triangles and its children.
+		 *
+		 * @param start
+		 *            The index in order of the first triangle
+		 * @param end
+		 *            The index in order after the last triangle
+		 * @param centers
+		 *            The center of each triangle's box
+		 */
+		private void build(int start, int end, float[] centers) {
+
+			int node = nodeCount++;
+			if (node >= nodeIndices.length) {
+				nodeBounds = Arrays.copyOf(nodeBounds, nodeBounds.length * 2);
+				nodeIndices = Arrays.copyOf(nodeIndices,
+						nodeIndices.length * 2);
+				nodeCounts = Arrays.copyOf(nodeCounts, nodeCounts.length * 2);
+			}
+
+			// Fit the node's box around its triangles
+			double[] box = new double[6];
+			Arrays.fill(nodeBounds, node * 6, node * 6 + 3,
+					Double.POSITIVE_INFINITY);
+			Arrays.fill(nodeBounds, node * 6 + 3, node * 6 + 6,
+					Double.NEGATIVE_INFINITY);
+			for (int i = start; i < end; i++) {
+				getTriangleBounds(order[i], box);
+				for (int axis = 0; axis < 3; axis++) {
+					nodeBounds[node * 6 + axis] = Math
+							.min(nodeBounds[node * 6 + axis], box[axis]);
+					nodeBounds[node * 6 + axis + 3] = Math.max(
+							nodeBounds[node * 6 + axis + 3], box[axis + 3]);
+				}
+			}
+
+			if (end - start <= LEAF_SIZE) {
+				nodeIndices[node] = start;
+				nodeCounts[node] = end - start;
+				return;
+			}
+
+			// Split the triangles at the median of the longest axis
+			int axis = 0;
+			for (int i = 1; i < 3; i++) {
+				if (nodeBounds[node * 6 + i + 3]
+						- nodeBounds[node * 6 + i] > nodeBounds[node * 6
+								+ axis + 3] - nodeBounds[node * 6 + axis]) {
+					axis = i;
+				}
+			}
+			int middle = (start + end) >>> 1;
+			select(start, end - 1, middle, axis, centers);
+
+			build(start, middle, centers);
+			nodeIndices[node] = nodeCount;
+			nodeCounts[node] = 0;
+			build(middle, end, centers);
+		}
+
+		/**
+		 * Partially sort a range of the triangles so that the one at the
+		 * target index has the same center along an axis as it would if they
+		 * were sorted, with smaller ones before it and larger ones after.
+		 *
+		 * @param left
+		 *            The first index of the range
+		 * @param right
+		 *            The last index of the range
+		 * @param target
+		 *            The index to sort into place
+		 * @param axis
+		 *            The axis to sort along
+		 * @param centers
+		 *            The center of each triangle's box
+		 */
+		private void select(int left, int right, int target, int axis,
+				float[] centers) {
+			while (left < right) {
+				float pivot = centers[order[(left + right) >>> 1] * 3 + axis];
+				int i = left;
+				int j = right;
+				while (i <= j) {
+					while (centers[order[i] * 3 + axis] < pivot) {
+						i++;
+					}
+					while (centers[order[j] * 3 + axis] > pivot) {
+						j--;
+					}
+					if (i <= j) {
+						int temp = order[i];
+						order[i] = order[j];
+						order[j] = temp;
+						i++;
+						j--;
+					}
+				}
+				if (target <= j) {
+					right = j;
+				} else if (target >= i) {
+					left = i;
+				} else {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Find the triangles whose boxes overlap a box.
+		 *
+		 * @param box
+		 *            The minimum then maximum coordinates of the box
+		 * @param margin
+		 *            The distance by which to grow the box
+		 * @param results
+		 *            The list to add the triangles' indices to
+		 */
+		void query(double[] box, double margin, IntList results) {
+			if (count == 0) {
+				return;
+			}
+			int[] stack = new int[64];
+			int depth = 0;
+			stack[depth++] = 0;
+			while (depth > 0) {
+				int node = stack[--depth];
+				boolean overlaps = true;
+				for (int axis = 0; axis < 3 && overlaps; axis++) {
+					overlaps = box[axis] - margin <= nodeBounds[node * 6
+							+ axis + 3]
+							&& box[axis + 3] + margin >= nodeBounds[node * 6
+									+ axis];
+				}
+				if (!overlaps) {
+					continue;
+				}
+				if (nodeCounts[node] > 0) {
+					for (int i = nodeIndices[node]; i < nodeIndices[node]
+							+ nodeCounts[node]; i++) {
+						results.add(order[i]);
+					}
+				} else {
+					if (depth + 2 > stack.length) {
+						stack = Arrays.copyOf(stack, stack.length * 2);
+					}
+					stack[depth++] = node + 1;
+					stack[depth++] = nodeIndices[node];
+				}
+			}
+		}
+
+		/**
+		 * Count the triangles crossed by a ray.
+		 *
+		 * @param x
+		 *            The x coordinate of the ray's origin
+		 * @param y
+		 *            The y coordinate of the ray's origin
+		 * @param z
+		 *            The z coordinate of the ray's origin
+		 * @param direction
+		 *            The ray's direction
+		 * @param tolerance
+		 *            The distance below which a crossing is too close to an
+		 *            edge or the origin to be trusted
+		 * @return The number of crossings, or -1 or -2 if the ray passed too
+		 *         close to an edge to be sure, -1 if it would otherwise have
+		 *         crossed an even number of faces and -2 if odd
+		 */
+		int countCrossings(double x, double y, double z, double[] direction,
+				double tolerance) {
+
+			int crossings = 0;
+			boolean uncertain = false;
+			int[] stack = new int[64];
+			int depth = 0;
+			stack[depth++] = 0;
+			while (depth > 0) {
+				int node = stack[--depth];
+				if (!hitsBox(node, x, y, z, direction)) {
+					continue;
+				}
+				if (nodeCounts[node] == 0) {
+					if (depth + 2 > stack.length) {
+						stack = Arrays.copyOf(stack, stack.length * 2);
+					}
+					stack[depth++] = node + 1;
+					stack[depth++] = nodeIndices[node];
+					continue;
+				}
+
+				for (int i = nodeIndices[node]; i < nodeIndices[node]
+						+ nodeCounts[node]; i++) {
+					int hit = crosses(order[i], x, y, z, direction,
+							tolerance);
+					if (hit > 0) {
+						crossings++;
+					} else if (hit < 0) {
+						uncertain = true;
+						crossings++;
+					}
+				}
+			}
+
+			if (uncertain) {
+				return crossings % 2 == 1 ? -2 : -1;
+			}
+			return crossings;
+		}
+
+		/**
+		 * Check whether a ray crosses a triangle, using the Moller-Trumbore
+		 * test.
+		 *
+		 * @param triangle
+		 *            The triangle
+		 * @param x
+		 *            The x coordinate of the ray's origin
+		 * @param y
+		 *            The y coordinate of the ray's origin
+		 * @param z
+		 *            The z coordinate of the ray's origin
+		 * @param direction
+		 *            The ray's direction
+		 * @param tolerance
+		 *            The distance below which a crossing is too close to an
+		 *            edge to be trusted
+		 * @return 1 if the ray crosses the triangle, 0 if it misses and -1 if
+		 *         it passes too close to an edge or the triangle's plane to
+		 *         tell
+		 */
+		private int crosses(int triangle, double x, double y, double z,
+				double[] direction, double tolerance) {
+
+			if (planes[triangle] == null) {
+				return 0;
+			}
+
+			int offset = triangle * 9;
+			double ax = coordinates[offset];
+			double ay = coordinates[offset + 1];
+			double az = coordinates[offset + 2];
+			double e1x = coordinates[offset + 3] - ax;
+			double e1y = coordinates[offset + 4] - ay;
+			double e1z = coordinates[offset + 5] - az;
+			double e2x = coordinates[offset + 6] - ax;
+			double e2y = coordinates[offset + 7] - ay;
+			double e2z = coordinates[offset + 8] - az;
+
+			double px = direction[1] * e2z - direction[2] * e2y;
+			double py = direction[2] * e2x - direction[0] * e2z;
+			double pz = direction[0] * e2y - direction[1] * e2x;
+			double determinant = e1x * px + e1y * py + e1z * pz;
+
+			// Compare the determinant, the area of the triangle projected
+			// along the ray, to its true area
+			double area = Math.sqrt(px * px + py * py + pz * pz)
+					* Math.sqrt(e1x * e1x + e1y * e1y + e1z * e1z);
+			if (Math.abs(determinant) <= 1e-9 * area) {
+
+				// The ray runs along the triangle's plane. It can only
+				// touch the triangle's edges, which its neighbours will
+				// count, unless the ray lies in the plane.
+				double distance = planes[triangle][0] * x
+						+ planes[triangle][1] * y + planes[triangle][2] * z
+						+ planes[triangle][3];
+				return Math.abs(distance) <= tolerance ? -1 : 0;
+			}
+
+			double inverse = 1 / determinant;
+			double tx = x - ax;
+			double ty = y - ay;
+			double tz = z - az;
+			double u = (tx * px + ty * py + tz * pz) * inverse;
+			double qx = ty * e1z - tz * e1y;
+			double qy = tz * e1x - tx * e1z;
+			double qz = tx * e1y - ty * e1x;
+			double v = (direction[0] * qx + direction[1] * qy
+					+ direction[2] * qz) * inverse;
+			double t = (e2x * qx + e2y * qy + e2z * qz) * inverse;
+			double w = 1 - u - v;
+
+			// Find how close the crossing is to the edges, in terms of the
+			// triangle's size
+			double edgeTolerance = 1e-7;
+			if (u < -edgeTolerance || v < -edgeTolerance
+					|| w < -edgeTolerance || t < -tolerance) {
+				return 0;
+			}
+			if (u <= edgeTolerance || v <= edgeTolerance
+					|| w <= edgeTolerance || t <= tolerance) {
+				return -1;
+			}
+			return 1;
+		}
+
+		/**
+		 * Check whether a ray passes through a node's box.
+		 *
+		 * @param node
+		 *            The node
+		 * @param x
+		 *            The x coordinate of the ray's origin
+		 * @param y
+		 *            The y coordinate of the ray's origin
+		 * @param z
+		 *            The z coordinate of the ray's origin
+		 * @param direction
+		 *            The ray's direction
+		 * @return True if the ray reaches the box, false otherwise
+		 */
+		private boolean hitsBox(int node, double x, double y, double z,
+				double[] direction) {
+			double near = 0;
+			double far = Double.POSITIVE_INFINITY;
+			double[] origin = { x, y, z };
+			for (int axis = 0; axis < 3; axis++) {
+				double min = nodeBounds[node * 6 + axis];
+				double max = nodeBounds[node * 6 + axis + 3];
+				double margin = (max - min) * 1e-9 + 1e-12;
+				min -= margin;
+				max += margin;
+				if (direction[axis] == 0) {
+					if (origin[axis] < min || origin[axis] > max) {
+						return false;
+					}
+					continue;
+				}
+				double t1 = (min - origin[axis]) / direction[axis];
+				double t2 = (max - origin[axis]) / direction[axis];
+				near = Math.max(near, Math.min(t1, t2));
+				far = Math.min(far, Math.max(t1, t2));
+				if (near > far) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Check whether a point on a triangle's plane lies inside the
+		 * triangle.
+		 *
+		 * @param triangle
+		 *            The triangle
+		 * @param x
+		 *            The point's x coordinate
+		 * @param y
+		 *            The point's y coordinate
+		 * @param z
+		 *            The point's z coordinate
+		 * @param tolerance
+		 *            The distance outside the edges still counted as inside
+		 * @return True if the point is inside the triangle
+		 */
+		boolean contains(int triangle, double x, double y, double z,
+				double tolerance) {
+			for (int edge = 0; edge < 3; edge++) {
+				double[] plane = getEdgePlane(triangle, edge);
+				if (plane[0] * x + plane[1] * y + plane[2] * z
+						+ plane[3] < -tolerance) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Get the plane through one of a triangle's edges, perpendicular to
+		 * the triangle, facing the triangle's inside.
+		 *
+		 * @param triangle
+		 *            The triangle, which must have an area
+		 * @param edge
+		 *            The edge, from vertex edge to the next vertex
+		 * @return The plane's unit normal and offset
+		 */
+		double[] getEdgePlane(int triangle, int edge) {
+			int start = triangle * 9 + edge * 3;
+			int end = triangle * 9 + (edge + 1) % 3 * 3;
+			double ex = coordinates[end] - coordinates[start];
+			double ey = coordinates[end + 1] - coordinates[start + 1];
+			double ez = coordinates[end + 2] - coordinates[start + 2];
+			double[] normal = planes[triangle];
+
+			// The normal cross the edge points into a counter-clockwise
+			// triangle
+			double nx = normal[1] * ez - normal[2] * ey;
+			double ny = normal[2] * ex - normal[0] * ez;
+			double nz = normal[0] * ey - normal[1] * ex;
+			double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+			nx /= length;
+			ny /= length;
+			nz /= length;
+			return new double[] { nx, ny, nz,
+					-(nx * coordinates[start] + ny * coordinates[start + 1]
+							+ nz * coordinates[start + 2]) };
+		}
+
+		/**
+		 * Get a triangle as a polygon.
+		 *
+		 * @param triangle
+		 *            The triangle
+		 * @return A new array of its vertices' coordinates
+		 */
+		double[] getPolygon(int triangle) {
+			return Arrays.copyOfRange(coordinates, triangle * 9,
+					triangle * 9 + 9);
+		}
+
+		/**
+		 * Find which side of a plane a triangle lies on.
+		 *
+		 * @param triangle
+		 *            The triangle
+		 * @param plane
+		 *            The plane's normal and offset
+		 * @param tolerance
+		 *            The distance within which vertices are on the plane
+		 * @return 1 if the triangle is entirely in front of the plane, -1 if
+		 *         behind, 0 if it lies in the plane and 2 if it touches or
+		 *         crosses it
+		 */
+		int getSide(int triangle, double[] plane, double tolerance) {
+			boolean front = false;
+			boolean back = false;
+			for (int i = triangle * 9; i < triangle * 9 + 9; i += 3) {
+				double distance = plane[0] * coordinates[i]
+						+ plane[1] * coordinates[i + 1]
+						+ plane[2] * coordinates[i + 2] + plane[3];
+				front |= distance > tolerance;
+				back |= distance < -tolerance;
+			}
+			if (front && back) {
+				return 2;
+			}
+			return front ? 1 : back ? -1 : 0;
+		}
+
+		/**
+		 * Get the box holding a triangle.
+		 *
+		 * @param triangle
+		 *            The triangle
+		 * @param box
+		 *            The array to fill with the box's minimum then maximum
+		 *            coordinates
+		 */
+		void getTriangleBounds(int triangle, double[] box) {
+			int offset = triangle * 9;
+			for (int axis = 0; axis < 3; axis++) {
+				double a = coordinates[offset + axis];
+				double b = coordinates[offset + 3 + axis];
+				double c = coordinates[offset + 6 + axis];
+				box[axis] = Math.min(a, Math.min(b, c));
+				box[axis + 3] = Math.max(a, Math.max(b, c));
+			}
+		}
+	}
+
+	/**
+	 * A growable list of doubles.
+	 */
+	private static class DoubleList {
+
+		/**
+		 * The values, of which the first size are in use.
+		 */
+		private double[] values;
+
+		/**
+		 * The number of values in the list.
+		 */
+		private int size;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param capacity
+		 *            The initial capacity
+		 */
+		DoubleList(int capacity) {
+			values = new double[Math.max(capacity, 9)];
+		}
+
+		/**
+		 * Add part of an array to the list.
+		 *
+		 * @param source
+		 *            The array
+		 * @param offset
+		 *            The index of the first value to add
+		 * @param length
+		 *            The number of values to add
+		 */
+		void add(double[] source, int offset, int length) {
+			if (size + length > values.length) {
+				values = Arrays.copyOf(values,
+						Math.max(values.length * 2, size + length));
+			}
+			System.arraycopy(source, offset, values, size, length);
+			size += length;
+		}
+
+		/**
+		 * Get the list's values.
+		 *
+		 * @return A new array holding the values
+		 */
+		double[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+
+	/**
+	 * A growable list of ints.
+	 */
+	private static class IntList {
+
+		/**
+		 * The values, of which the first size are in use.
+		 */
+		private int[] values = new int[16];
+
+		/**
+		 * The number of values in the list.
+		 */
+		private int size;
+
+		/**
+		 * Add a value to the list.
+		 *
+		 * @param value
+		 *            The value
+		 */
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		/**
+		 * Empty the list.
+		 */
+		void clear() {
+			size = 0;
+		}
+	}
+}
@@ -28,6 +28,17 @@ import org.eclipse.january.geometry.Vertex;
  */
 public class MeshUtils {
 
+	/**
+	 * The number of levels of detail a LevelOfDetail shape can be tessellated
+	 * at, including its full resolution.
+	 */
+	public static final int DETAIL_LEVELS = 4;
+
+	/**
+	 * The fewest points a circle is ever given at a lower level of detail.
+	 */
+	public static final int MIN_DETAIL_RESOLUTION = 4;
+
 	/**
 	 * Create an array containing the given three dimensional points moved to be
 	 * centered around the given vertex.
@@ -42,18 +53,10 @@ public class MeshUtils {
 	 */
 	public static double[] centerPoints(double[] points, Vertex center) {
 
-		// The coordinates after being moved
-		double[] centered = new double[points.length];
-
-		// Move each coordinate relative to the new center
-		for (int i = 0; i < points.length / 3; i++) {
-			centered[i * 3] = points[i * 3] + center.getX();
-			centered[i * 3 + 1] = points[i * 3 + 1] + center.getY();
-			centered[i * 3 + 2] = points[i * 3 + 2] + center.getZ();
-		}
-
+		// Move a copy of the coordinates relative to the new center
+		double[] centered = points.clone();
+		new PointTransform().center(center).transform(centered);
 		return centered;
-
 	}
 
 	/**
@@ -124,6 +127,181 @@ public class MeshUtils {
 		return points;
 	}
 
+	/**
+	 * Create the triangles for a closed cylinder centered on the origin, with
+	 * its axis along the y axis.
+	 * 
+	 * @param radius
+	 *            The cylinder's radius
+	 * @param height
+	 *            The cylinder's height
+	 * @param resolution
+	 *            The number of points around each of the cylinder's circles
+	 * @param segments
+	 *            The number of segments the cylinder's side is divided into
+	 *            along its axis
+	 * @return A list of triangles covering the cylinder's side and its two
+	 *         ends. Each triangle's normal is set to the average of its
+	 *         vertices.
+	 */
+	public static EList<Triangle> createCylinderMesh(double radius,
+			double height, int resolution, int segments) {
+
+		// The triangles defining the mesh
+		EList<Triangle> triangles = new BasicEList<Triangle>();
+
+		// Make an array of vertices to form the triangles
+		ArrayList<Vertex> vertices = new ArrayList<Vertex>();
+
+		// The x and z vertices for the cylinder
+		float[] circle = new float[resolution * 2];
+
+		// Get the unit circle's coordinates
+		circle = createCircle((float) radius, resolution);
+
+		// The number of coordinates required to specify every 3D vertex for a
+		// cylinder of with segments extra circles above the base circle and
+		// resolution points per circle.
+		int blockSize = (segments + 1) * resolution * 3;
+
+		// Iterate through the points, one circle along the cylinder at a time,
+		// adding them to the vertex array
+		for (int i = 0; i <= segments; i++) {
+			for (int j = 0; j < resolution; j++) {
+
+				Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+
+				// X and Z coordinate of the unit circle
+				vertex.setX(circle[j * 2]);
+				vertex.setZ(circle[j * 2 + 1]);
+
+				// Y coordinate of the current segment's height
+				vertex.setY(-height / 2 + i * height / segments);
+
+				// Add the vertex to the list
+				vertices.add(vertex);
+			}
+		}
+
+		// Add a vertex at the center of the bottom circle
+		Vertex bottom = GeometryFactory.eINSTANCE.createVertex();
+		bottom.setX(0);
+		bottom.setY(-height / 2);
+		bottom.setZ(0);
+		vertices.add(bottom);
+
+		// Add a vertex at the center of the top circle
+		Vertex top = GeometryFactory.eINSTANCE.createVertex();
+		top.setX(0);
+		top.setY(height / 2);
+		top.setZ(0);
+		vertices.add(top);
+
+		// Construct the side out of identical vertical segments, one at a time.
+		for (int axialSegment = 0; axialSegment < segments; axialSegment++) {
+
+			// Add two triangles for each vertex along the current circle
+			for (int radialSegment = 0; radialSegment < resolution; radialSegment++) {
+
+				// Create a new triangle
+				Triangle t0 = GeometryFactory.eINSTANCE.createTriangle();
+
+				// Create a triangle between the current vertex, the next vertex
+				// along the circle, and the vertex immediately above this one.
+				t0.getVertices()
+						.add((Vertex) vertices
+								.get((axialSegment + 1) * resolution
+										+ ((radialSegment + 1) % resolution))
+								.clone());
+				t0.getVertices()
+						.add((Vertex) vertices
+								.get(axialSegment * resolution
+										+ ((radialSegment + 1) % resolution))
+								.clone());
+				t0.getVertices()
+						.add((Vertex) vertices
+								.get(axialSegment * resolution + radialSegment)
+								.clone());
+
+				// Add it to the list
+				triangles.add(t0);
+
+				// Create the second triangle
+				Triangle t1 = GeometryFactory.eINSTANCE.createTriangle();
+
+				// Create a triangle between the current vertex, the vertex
+				// immediately above it, and the last one along the circle from
+				// that one.
+				t1.getVertices()
+						.add((Vertex) vertices
+								.get(axialSegment * resolution + radialSegment)
+								.clone());
+				t1.getVertices()
+						.add((Vertex) vertices.get(
+								(axialSegment + 1) * resolution + radialSegment)
+								.clone());
+				t1.getVertices()
+						.add((Vertex) vertices
+								.get((axialSegment + 1) * resolution
+										+ ((radialSegment + 1) % resolution))
+								.clone());
+
+				// Add the second triangle to the list
+				triangles.add(t1);
+			}
+		}
+
+		// Add two triangles for each vertex along the top and bottom circles
+		for (int radialSegment = 0; radialSegment < resolution; radialSegment++) {
+
+			// Create a new triangle
+			Triangle t0 = GeometryFactory.eINSTANCE.createTriangle();
+
+			// Create a triangle between the current vertex,the next vertex
+			// along the circle, and the center point.
+			t0.getVertices().add((Vertex) vertices.get(blockSize / 3).clone());
+			t0.getVertices().add((Vertex) vertices.get(radialSegment).clone());
+			t0.getVertices().add((Vertex) vertices
+					.get((radialSegment + 1) % resolution).clone());
+
+			// Add it to the list
+			triangles.add(t0);
+
+			// Create the second triangle
+			Triangle t1 = GeometryFactory.eINSTANCE.createTriangle();
+
+			// Create a triangle between the current vertex,the next vertex
+			// along the circle, and the center point.
+			t1.getVertices().add(vertices.get(((segments) * resolution)
+					+ ((radialSegment + 1) % resolution)));
+			t1.getVertices().add((Vertex) vertices
+					.get(((segments) * resolution) + radialSegment).clone());
+			t1.getVertices()
+					.add((Vertex) vertices.get(blockSize / 3 + 1).clone());
+
+			// Add the second triangle to the list
+			triangles.add(t1);
+		}
+		
+		// Calculate the normals for each triangle
+		for (Triangle tri : triangles) {
+
+			// Get the normal and vertices
+			Vertex normal = tri.getNormal();
+			EList<Vertex> currVertices = tri.getVertices();
+			Vertex v0 = currVertices.get(0);
+			Vertex v1 = currVertices.get(1);
+			Vertex v2 = currVertices.get(2);
+
+			// Set the normal to the average of the three vertices
+			normal.setX((v0.getX() + v1.getX() + v2.getX()) / 3);
+			normal.setY((v0.getY() + v1.getY() + v2.getY()) / 3);
+			normal.setZ((v0.getZ() + v1.getZ() + v2.getZ()) / 3);
+		}
+
+		return triangles;
+	}
+
 	/**
 	 * Create a list of 3D points forming the vertices of a rectangular prism
 	 * with the given side lengths. The points will be specified in the format
@@ -396,6 +574,216 @@ public class MeshUtils {
 		return points;
 	}
 
+	/**
+	 * Create the triangles for a sphere centered on the origin. The sphere is
+	 * made of resolution - 2 circles stacked along the y axis, with a single
+	 * point above and below them.
+	 * 
+	 * @param radius
+	 *            The sphere's radius
+	 * @param resolution
+	 *            The number of points around each circle, which is also the
+	 *            number of layers from the bottom of the sphere to the top.
+	 *            Must be at least 4.
+	 * @return A list of triangles covering the sphere. Each triangle's normal
+	 *         is set to the average of its vertices.
+	 */
+	public static EList<Triangle> createSphereMesh(double radius,
+			int resolution) {
+
+		// The triangles defining the mesh
+		EList<Triangle> triangles = new BasicEList<Triangle>();
+
+		// Make an array of the vertices along each circle
+		ArrayList<Vertex> vertices = new ArrayList<Vertex>();
+
+		// The amount of change between one layer and the next, both in the
+		// layer's height and the radius of the circle at that height
+		double stepSize = 2d / (resolution - 1);
+
+		// The radius for the current circle under construction. It starts off
+		// one step above 0.
+		double currRadius;
+
+		// The height starts one step above the sphere's nadir at height -radius
+		double height;
+
+		// Add each circle's points to the sphere
+		for (int i = 0; i < resolution - 2; i++) {
+
+			// Get the radius of the sphere at the proper height. For the bottom
+			// half of the sphere, the radius will increase from zero. For the
+			// top half, it will decrease from one. At exactly half way through
+			// the sphere, the radius will be exactly 1.
+			if (i < (resolution - 3) / 2) {
+				currRadius = (float) Math
+						.sqrt(1f - (Math.pow(1f - (stepSize * (i + 1f)), 2)));
+			} else if (i > (resolution - 1) / 2 - 1) {
+				currRadius = (float) Math
+						.sqrt(1f - (Math.pow(1f - (((i + 1f) * stepSize)), 2)));
+			} else {
+				currRadius = 1f;
+			}
+
+			// Scale the current radius by the total radius
+			currRadius = currRadius * radius;
+
+			// The height is one step above -1 for each circle
+			height = (-radius) + ((i + 1) * stepSize * radius);
+
+			// Create a circle of the correct radius
+			float[] circle = createCircle((float) currRadius,
+					resolution);
+
+			// Add the circle's coordinates to the points as its X and Z values,
+			// with Y values given by the current height
+			for (int j = 0; j < resolution; j++) {
+
+				Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+				vertex.setX(circle[j * 2]);
+				vertex.setY(height);
+				vertex.setZ(circle[j * 2 + 1]);
+				vertices.add(vertex);
+			}
+
+			// In the bottom half, the circles on the sphere increase in size up
+			// to the sphere's radius, and decrease from the full radius down to
+			// a point on the top half.
+			if (i <= resolution / 2) {
+				currRadius = (float) Math.pow(stepSize, (i + 1) * 2);
+			} else {
+				currRadius = (float) Math.pow(stepSize,
+						(resolution - i + 1) * 2);
+			}
+
+			// The next circle will be one step above this one.
+			height += stepSize;
+
+		}
+
+		// The index of the lowest point on the sphere
+		int nadir = resolution * (resolution - 2);
+
+		// The index of the highest point on the sphere
+		int apex = nadir + 1;
+
+		// Finally add the top and bottom points, (0, -1, 0) and (0, 1, 0)
+		Vertex nadirVertex = GeometryFactory.eINSTANCE.createVertex();
+		nadirVertex.setX(0);
+		nadirVertex.setY(-radius);
+		nadirVertex.setZ(0);
+		vertices.add(nadirVertex);
+
+		Vertex apexVertex = GeometryFactory.eINSTANCE.createVertex();
+		apexVertex.setX(0);
+		apexVertex.setY(radius);
+		apexVertex.setZ(0);
+		vertices.add(apexVertex);
+
+		// For each of the resolution layers of the sphere, excluding the
+		// special cases of the top and bottom ones...
+		for (int i = 0; i < resolution - 3; i++) {
+
+			// Add two faces at each point
+			for (int j = 0; j < resolution; j++) {
+
+				// Create a new triangle
+				Triangle tri0 = GeometryFactory.eINSTANCE.createTriangle();
+
+				// Calculate the third vertex's index based on whether or not
+				// this is the end of the circle
+				int vIndex0 = (j != resolution - 1) ? i * resolution + j + 1
+						: i * resolution;
+
+				// The first face will go from the point to the next one along
+				// the circle to the point above the original on the next circle
+				// up.
+				tri0.getVertices()
+						.add((Vertex) vertices.get(i * resolution + j).clone());
+				tri0.getVertices().add((Vertex) vertices
+						.get((i + 1) * resolution + j).clone());
+				tri0.getVertices().add((Vertex) vertices.get(vIndex0).clone());
+
+				// Add the triangle to the list
+				triangles.add(tri0);
+
+				// Create the second triangle
+				Triangle tri1 = GeometryFactory.eINSTANCE.createTriangle();
+
+				// Calculate the second vertex's index based on whether or not
+				// this is the start of the circle
+				int vIndex1 = (j != 0) ? (i + 1) * resolution + j - 1
+						: (i + 2) * resolution - 1;
+
+				// The first face will go from the point to the next one along
+				// the circle to the point above the original on the next circle
+				// up.
+				tri1.getVertices()
+						.add((Vertex) vertices.get(i * resolution + j).clone());
+				tri1.getVertices().add((Vertex) vertices.get(vIndex1).clone());
+				tri1.getVertices().add((Vertex) vertices
+						.get((i + 1) * resolution + j).clone());
+
+				// Add the triangle to the list
+				triangles.add(tri1);
+			}
+		}
+
+		// The index of the start of the block of points on the highest circle
+		// in the sphere
+		int indexTopPoints = resolution * (resolution - 3);
+
+		// Add the faces from the top and bottom circles to the top and bottom
+		// points
+		for (int i = 0; i < resolution; i++) {
+
+			// Create the triangle
+			Triangle tri0 = GeometryFactory.eINSTANCE.createTriangle();
+
+			// Create a face between two points on the bottom circle and the
+			// nadir.
+			tri0.getVertices().add((Vertex) vertices.get(i).clone());
+			tri0.getVertices()
+					.add((Vertex) vertices.get((i + 1) % resolution).clone());
+			tri0.getVertices().add((Vertex) vertices.get(nadir).clone());
+
+			// Add the bottom triangle to the list
+			triangles.add(tri0);
+
+			// Create the second triangle
+			Triangle tri1 = GeometryFactory.eINSTANCE.createTriangle();
+
+			// Create a face between two points on the bottom circle and the
+			// nadir.
+			tri1.getVertices().add((Vertex) vertices
+					.get(indexTopPoints + ((i + 1) % resolution)).clone());
+			tri1.getVertices()
+					.add((Vertex) vertices.get(indexTopPoints + i).clone());
+			tri1.getVertices().add((Vertex) vertices.get(apex).clone());
+
+			// Add the top triangle to the list
+			triangles.add(tri1);
+		}
+
+		// Calculate the normals for each triangle
+		for (Triangle tri : triangles) {
+
+			// Get the normal and vertices
+			Vertex normal = tri.getNormal();
+			EList<Vertex> currVertices = tri.getVertices();
+			Vertex v0 = currVertices.get(0);
+			Vertex v1 = currVertices.get(1);
+			Vertex v2 = currVertices.get(2);
+
+			// Set the normal to the average of the three vertices
+			normal.setX((v0.getX() + v1.getX() + v2.getX()) / 3);
+			normal.setY((v0.getY() + v1.getY() + v2.getY()) / 3);
+			normal.setZ((v0.getZ() + v1.getZ() + v2.getZ()) / 3);
+		}
+
+		return triangles;
+	}
+
 	/**
 	 * Create the points which define a tube. A tube is defined by an outer
 	 * cylindrical shell and, optionally, an inner cylinder sharing the same
@@ -774,6 +1162,141 @@ public class MeshUtils {
 		return triangles;
 	}
 
+	/**
+	 * Create the triangles of a thin tube as an indexed mesh, without placing
+	 * its vertices. The mesh has one vertex for each point given by
+	 * createTube() for a tube whose inner radius equals its radius, in the
+	 * same order, and its triangles are those createTubeMesh() would create
+	 * from those points. The vertices all start at the origin, and can be
+	 * moved into place with TriangleMesh.setPositions() as often as the
+	 * tube's dimensions change, without creating the triangles again.
+	 *
+	 * @param resolution
+	 *            The number of points around each of the tube's circles
+	 * @param segments
+	 *            The number of segments the tube is divided into along its
+	 *            axis
+	 * @return A mesh with the tube's triangles and unpositioned vertices
+	 */
+	public static TriangleMesh createTubeTopology(int resolution,
+			int segments) {
+
+		// Two triangles join each point to the next point around its circle
+		// and to the circle above
+		int[] indices = new int[segments * resolution * 6];
+		int i = 0;
+		for (int axialSegment = 0; axialSegment < segments; axialSegment++) {
+			for (int radialSegment = 0; radialSegment < resolution; radialSegment++) {
+
+				// The current point, the next one along the circle, and the
+				// points immediately above each of them
+				int current = axialSegment * resolution + radialSegment;
+				int next = axialSegment * resolution
+						+ ((radialSegment + 1) % resolution);
+				int above = current + resolution;
+				int nextAbove = next + resolution;
+
+				indices[i++] = current;
+				indices[i++] = next;
+				indices[i++] = nextAbove;
+
+				indices[i++] = nextAbove;
+				indices[i++] = above;
+				indices[i++] = current;
+			}
+		}
+
+		return new TriangleMesh(new float[(segments + 1) * resolution * 3],
+				indices, null);
+	}
+
+	/**
+	 * Get the greatest distance between a circle and the polygon made by
+	 * joining evenly spaced points on it, which is the largest error in the
+	 * surface of a mesh made from such circles.
+	 * 
+	 * @param radius
+	 *            The circle's radius
+	 * @param resolution
+	 *            The number of points on the circle
+	 * @return The distance from the middle of one of the polygon's edges to the
+	 *         circle
+	 */
+	public static double getCircleError(double radius, int resolution) {
+		return Math.abs(radius) * (1 - Math.cos(Math.PI / resolution));
+	}
+
+	/**
+	 * Get the coarsest level of detail for a shape made of circles, such that
+	 * the circles' error is no more than the given amount.
+	 * 
+	 * @param radius
+	 *            The radius of the shape's largest circle
+	 * @param resolution
+	 *            The number of points on each circle at the full level of
+	 *            detail
+	 * @param maxError
+	 *            The largest acceptable distance between the mesh and the
+	 *            shape's true surface
+	 * @return The level of detail, from 0 for the full resolution to
+	 *         DETAIL_LEVELS - 1.
+	 */
+	public static int getDetailLevel(double radius, int resolution,
+			double maxError) {
+
+		// Keep moving to a coarser level until its error would be too large
+		// or it would not reduce the resolution any further
+		int level = 0;
+		while (level < DETAIL_LEVELS - 1) {
+			int coarser = getDetailResolution(resolution, level + 1);
+			if (coarser == getDetailResolution(resolution, level)
+					|| getCircleError(radius, coarser) > maxError) {
+				break;
+			}
+			level++;
+		}
+
+		return level;
+	}
+
+	/**
+	 * Get the number of points to use at a level of detail. Each level uses
+	 * half as many points as the one before it, down to
+	 * MIN_DETAIL_RESOLUTION.
+	 * 
+	 * @param resolution
+	 *            The number of points at the full level of detail
+	 * @param level
+	 *            The level of detail, from 0 for the full resolution to
+	 *            DETAIL_LEVELS - 1. Levels outside this range are treated as
+	 *            the nearest one inside it.
+	 * @return The number of points at the given level
+	 */
+	public static int getDetailResolution(int resolution, int level) {
+		level = Math.max(0, Math.min(level, DETAIL_LEVELS - 1));
+		return Math.max(Math.min(resolution, MIN_DETAIL_RESOLUTION),
+				resolution >> level);
+	}
+
+	/**
+	 * Get the size of a pixel, in scene units, for an object at the given
+	 * distance from a perspective camera.
+	 * 
+	 * @param distance
+	 *            The distance from the camera to the object
+	 * @param fieldOfView
+	 *            The camera's vertical field of view, in degrees
+	 * @param viewportHeight
+	 *            The height of the view, in pixels
+	 * @return The height of the area covered by one pixel at the object's
+	 *         distance
+	 */
+	public static double getPixelSize(double distance, double fieldOfView,
+			double viewportHeight) {
+		return 2 * distance * Math.tan(Math.toRadians(fieldOfView) / 2)
+				/ viewportHeight;
+	}
+
 	/**
 	 * Rotate the given points around the x, y, and z axes by the given amount.
 	 * 
@@ -794,34 +1317,10 @@ public class MeshUtils {
 	public static double[] rotatePoints(double[] points, double rotationX,
 			double rotationY, double rotationZ) {
 
-		// The points after they have undergone rotation
-		double[] rotated = new double[points.length];
-
-		// Consider each point one at a time
-		for (int i = 0; i < points.length / 3; i++) {
-
-			// Apply the rotation to the point
-			double x = points[i * 3];
-			double y = points[i * 3 + 1];
-			double z = points[i * 3 + 2];
-
-			// Rotate about the z axis
-			double tempY = (x * Math.sin(rotationZ) + y * Math.cos(rotationZ));
-			x = (x * Math.cos(rotationZ) - y * Math.sin(rotationZ));
-			y = tempY;
-
-			// Rotate about the y axis
-			double tempX = (z * Math.sin(rotationY) + x * Math.cos(rotationY));
-			z = (z * Math.cos(rotationY) - x * Math.sin(rotationY));
-			rotated[i * 3] = tempX;
-
-			// Rotate about the x axis
-			tempY = (y * Math.cos(rotationX) - z * Math.sin(rotationX));
-			rotated[i * 3 + 2] = (y * Math.sin(rotationX)
-					+ z * Math.cos(rotationX));
-			rotated[i * 3 + 1] = tempY;
-		}
-
+		// Rotate a copy of the points
+		double[] rotated = points.clone();
+		new PointTransform().rotate(rotationX, rotationY, rotationZ)
+				.transform(rotated);
 		return rotated;
 	}
 
@@ -844,55 +1343,10 @@ public class MeshUtils {
 	public static double[] rotatePointsAboutAxis(double[] points, Vertex axis,
 			double magnitude) {
 
-		// The array of rotated points
-		double[] rotated = new double[points.length];
-
-		// The multiplication matrix
-		double[][] matrix = new double[3][3];
-
-		// Get the three components of the axis of rotation
-		double x = axis.getX();
-		double y = axis.getY();
-		double z = axis.getZ();
-		
-		//Normalize the vector
-		double vectorLength = Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2) + Math.pow(z, 2));
-		x /= vectorLength;
-		y /= vectorLength;
-		z /= vectorLength;
-
-		// Get the sin and (1 - cos) for the magnitude of the rotation
-		double sin = Math.sin(magnitude);
-		double cos = Math.cos(magnitude);
-		double inverseCos = 1 - Math.cos(magnitude);
-
-		//Fill the matrix for a rotation about the axis
-		matrix[0][0] = cos + (Math.pow(x, 2) * inverseCos);
-		matrix[0][1] = (x * y * inverseCos) - (z * sin);
-		matrix[0][2] = (x * z * inverseCos) + (y * sin);
-		matrix[1][0] = (y * x * inverseCos) + (z * sin);
-		matrix[1][1] = cos + (Math.pow(y, 2) * inverseCos);
-		matrix[1][2] = (y * z * inverseCos) - (x * sin);
-		matrix[2][0] = (x * z * inverseCos) - (y * sin);
-		matrix[2][1] = (z * y * inverseCos) + (x * sin);
-		matrix[2][2] = cos + (Math.pow(z, 2) * inverseCos);
-
-		// Apply the rotation matrix to each vector of three coordinates
-		for (int i = 0; i < points.length / 3; i++) {
-
-			// Calculate the vector of the rotated point's coordinates by
-			// multiplying the original coordinates by the rotation matrix
-			rotated[i * 3] = points[i * 3] * matrix[0][0]
-					+ points[i * 3 + 1] * matrix[0][1]
-					+ points[i * 3 + 2] * matrix[0][2];
-			rotated[i * 3 + 1] = points[i * 3] * matrix[1][0]
-					+ points[i * 3 + 1] * matrix[1][1]
-					+ points[i * 3 + 2] * matrix[1][2];
-			rotated[i * 3 + 2] = points[i * 3] * matrix[2][0]
-					+ points[i * 3 + 1] * matrix[2][1]
-					+ points[i * 3 + 2] * matrix[2][2];
-		}
-
+		// Rotate a copy of the points
+		double[] rotated = points.clone();
+		new PointTransform().rotateAboutAxis(axis, magnitude)
+				.transform(rotated);
 		return rotated;
 	}
 }
@@ -0,0 +1,421 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.util;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.swt.widgets.Display;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The shared dispatcher for the notifications sent by the model's objects.
+ * Adapters which implement BackgroundAdapter have the notifications sent from
+ * the SWT UI thread handed to a background thread, so that listeners which do
+ * expensive work, such as rebuilding a mesh, do not freeze the UI. All other
+ * adapters, including the model's own listeners which keep its caches up to
+ * date, are notified immediately on the sending thread, as they always have
+ * been.
+ *
+ * Notifications to background adapters are always delivered in the order
+ * they were sent, whichever object sent them, so that a listener on a tree of
+ * objects sees a parent's changes and its children's changes in the order
+ * they happened. The waiting notifications are held in a single lane, which
+ * delivers them one at a time. A notification sent while earlier ones are
+ * still waiting is queued behind them, whatever thread it was sent from.
+ *
+ * The lane holds a bounded number of waiting notifications. The sending
+ * thread never waits for space, as it may be the UI thread which a listener
+ * is itself waiting for. A notification sent while the lane is full is
+ * instead delivered immediately on the sending thread, so under that much
+ * load a background adapter may receive it before older notifications which
+ * are still waiting.
+ *
+ * EContentAdapters are always notified immediately on the sending thread.
+ * They attach themselves to the objects added to the tree they watch, and so
+ * must see each change before the next one is sent. Background adapters
+ * which change the user interface are responsible for passing that work to
+ * their toolkit's UI thread.
+ *
+ * Tests which expect listeners to have been called by the time a setter
+ * returns can make all delivery immediate with setSynchronous(true).
+ *
+ * @author Robert Smith
+ *
+ * @generated NOT
+ *
+ */
+public class NotificationDispatcher {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(NotificationDispatcher.class);
+
+	/**
+	 * The maximum number of notifications waiting in the lane, after which
+	 * new notifications are delivered on the sending thread.
+	 */
+	private static final int MAX_QUEUED = 4096;
+
+	/**
+	 * The lane waiting notifications are delivered through.
+	 */
+	private static final Lane lane = new Lane();
+
+	/**
+	 * The thread which delivers the lane's notifications. Only one thread
+	 * works on the lane at a time, and it is replaced if it sits idle.
+	 */
+	private static final ThreadPoolExecutor executor;
+
+	/**
+	 * Whether notifications are always delivered immediately on the sending
+	 * thread.
+	 */
+	private static volatile boolean synchronous = false;
+
+	static {
+		executor = new ThreadPoolExecutor(1, 1, 30,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+				new DispatcherThreadFactory());
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * This class only has static methods.
+	 */
+	private NotificationDispatcher() {
+	}
+
+	/**
+	 * Deliver a notification to a set of adapters. This is meant to be called
+	 * from a notifier's eNotify() in place of looping over the adapters
+	 * directly. Background adapters are notified later if the notification is
+	 * sent from the UI thread, and the rest are notified immediately.
+	 *
+	 * @param source
+	 *            The object sending the notification
+	 * @param adapters
+	 *            The source's adapters. The array must not be modified after
+	 *            being passed in, which is already true of the arrays returned
+	 *            by eBasicAdapterArray().
+	 * @param notification
+	 *            The notification to deliver
+	 */
+	public static void dispatch(Notifier source, Adapter[] adapters,
+			Notification notification) {
+
+		if (synchronous || !hasBackground(adapters)) {
+			deliver(adapters, notification);
+			return;
+		}
+
+		// Off the UI thread, deliver immediately unless earlier notifications
+		// are still waiting, which must be delivered first
+		if (!isUIThread() && !lane.isBusy()) {
+			deliver(adapters, notification);
+		} else {
+			post(adapters, notification);
+		}
+	}
+
+	/**
+	 * Queue a notification for delivery to the background adapters on a
+	 * dispatcher thread, whatever thread it is sent from. The other adapters
+	 * are still notified immediately, as are the background adapters if the
+	 * lane is full.
+	 *
+	 * @param adapters
+	 *            The adapters to notify. The array must not be modified after
+	 *            being passed in.
+	 * @param notification
+	 *            The notification to deliver
+	 */
+	public static void post(Adapter[] adapters, Notification notification) {
+
+		// Notify the other adapters now and queue the background ones
+		int immediate = 0;
+		for (Adapter adapter : adapters) {
+			if (!isBackground(adapter)) {
+				immediate++;
+			}
+		}
+		Adapter[] queued = adapters;
+		if (immediate > 0) {
+			queued = new Adapter[adapters.length - immediate];
+			int size = 0;
+			for (Adapter adapter : adapters) {
+				if (!isBackground(adapter)) {
+					adapter.notifyChanged(notification);
+				} else {
+					queued[size++] = adapter;
+				}
+			}
+		}
+
+		// Never wait for the lane to make space
+		if (queued.length > 0 && !lane.submit(queued, notification)) {
+			deliver(queued, notification);
+		}
+	}
+
+	/**
+	 * Wait until every notification which has been dispatched has been
+	 * delivered.
+	 *
+	 * @param timeout
+	 *            The maximum time to wait
+	 * @param unit
+	 *            The unit of the timeout
+	 * @return True if all notifications were delivered, or false if the
+	 *         timeout expired first.
+	 * @throws InterruptedException
+	 *             Thrown if the thread is interrupted while waiting
+	 */
+	public static boolean awaitIdle(long timeout, TimeUnit unit)
+			throws InterruptedException {
+		return lane.awaitIdle(System.nanoTime() + unit.toNanos(timeout));
+	}
+
+	/**
+	 * Getter method for the synchronous mode.
+	 *
+	 * @return True if notifications are always delivered immediately on the
+	 *         sending thread, false if those sent on the UI thread are
+	 *         delivered to background adapters in the background.
+	 */
+	public static boolean isSynchronous() {
+		return synchronous;
+	}
+
+	/**
+	 * Setter method for the synchronous mode. Notifications which are already
+	 * waiting are still delivered in the background.
+	 *
+	 * @param newSynchronous
+	 *            True to always deliver notifications immediately on the
+	 *            sending thread, false to deliver those sent on the UI thread
+	 *            in the background.
+	 */
+	public static void setSynchronous(boolean newSynchronous) {
+		synchronous = newSynchronous;
+	}
+
+	/**
+	 * Pass a notification to each adapter in turn.
+	 *
+	 * @param adapters
+	 *            The adapters to notify
+	 * @param notification
+	 *            The notification to deliver
+	 */
+	private static void deliver(Adapter[] adapters,
+			Notification notification) {
+		for (int i = 0, size = adapters.length; i < size; ++i) {
+			adapters[i].notifyChanged(notification);
+		}
+	}
+
+	/**
+	 * Check whether an adapter may be notified on a dispatcher thread.
+	 *
+	 * @param adapter
+	 *            The adapter to check
+	 * @return True if the adapter is a BackgroundAdapter and not an
+	 *         EContentAdapter
+	 */
+	private static boolean isBackground(Adapter adapter) {
+		return adapter instanceof BackgroundAdapter
+				&& !(adapter instanceof EContentAdapter);
+	}
+
+	/**
+	 * Check whether any of a set of adapters may be notified on a dispatcher
+	 * thread.
+	 *
+	 * @param adapters
+	 *            The adapters to check
+	 * @return True if at least one of the adapters is a background adapter
+	 */
+	private static boolean hasBackground(Adapter[] adapters) {
+		for (int i = 0, size = adapters.length; i < size; ++i) {
+			if (isBackground(adapters[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Check whether the current thread is the SWT UI thread.
+	 *
+	 * @return True if the current thread is a display's UI thread
+	 */
+	private static boolean isUIThread() {
+		Display currDisplay = Display.getCurrent();
+		return currDisplay != null
+				&& Thread.currentThread() == currDisplay.getThread();
+	}
+
+	/**
+	 * A serial queue of notifications which are delivered one at a time, in
+	 * order, by the dispatcher thread.
+	 */
+	private static class Lane implements Runnable {
+
+		/**
+		 * The waiting notifications, alternating with the adapters they are to
+		 * be delivered to.
+		 */
+		private final ArrayDeque<Object> queue = new ArrayDeque<Object>();
+
+		/**
+		 * Whether the lane has been handed to the executor and has not yet
+		 * emptied its queue.
+		 */
+		private boolean scheduled = false;
+
+		/**
+		 * Wait until the lane has delivered all its notifications.
+		 *
+		 * @param deadline
+		 *            The System.nanoTime() after which to give up waiting
+		 * @return True if the lane is idle, false if the deadline passed
+		 *         first.
+		 * @throws InterruptedException
+		 *             Thrown if the thread is interrupted while waiting
+		 */
+		synchronized boolean awaitIdle(long deadline)
+				throws InterruptedException {
+			while (scheduled) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					return false;
+				}
+				TimeUnit.NANOSECONDS.timedWait(this, remaining);
+			}
+			return true;
+		}
+
+		/**
+		 * Check whether the lane has notifications which have not yet been
+		 * delivered.
+		 *
+		 * @return True if the lane is working
+		 */
+		synchronized boolean isBusy() {
+			return scheduled;
+		}
+
+		/**
+		 * Queue a notification for delivery, unless the lane is full.
+		 *
+		 * @param adapters
+		 *            The adapters to notify
+		 * @param notification
+		 *            The notification to deliver
+		 * @return True if the notification was queued, or false if the lane
+		 *         was full and the caller must deliver it.
+		 */
+		boolean submit(Adapter[] adapters, Notification notification) {
+
+			synchronized (this) {
+				if (queue.size() >= MAX_QUEUED * 2) {
+					return false;
+				}
+
+				queue.add(adapters);
+				queue.add(notification);
+
+				// If a thread is already working on the lane, it will deliver
+				// the new notification
+				if (scheduled) {
+					return true;
+				}
+				scheduled = true;
+			}
+
+			executor.execute(this);
+			return true;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			while (true) {
+
+				Adapter[] adapters;
+				Notification notification;
+				synchronized (this) {
+					if (queue.isEmpty()) {
+						scheduled = false;
+						notifyAll();
+						return;
+					}
+					adapters = (Adapter[]) queue.poll();
+					notification = (Notification) queue.poll();
+				}
+
+				// Keep notifying the other listeners if one of them fails
+				for (Adapter adapter : adapters) {
+					try {
+						adapter.notifyChanged(notification);
+					} catch (RuntimeException e) {
+						logger.error(
+								"Listener failed while handling notification "
+										+ notification,
+								e);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * The factory for the dispatcher's daemon threads.
+	 */
+	private static class DispatcherThreadFactory implements ThreadFactory {
+
+		/**
+		 * The number of threads created so far.
+		 */
+		private final AtomicInteger count = new AtomicInteger();
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+		 */
+		@Override
+		public Thread newThread(Runnable target) {
+			Thread thread = new Thread(target,
+					"Geometry Notification Dispatcher "
+							+ count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
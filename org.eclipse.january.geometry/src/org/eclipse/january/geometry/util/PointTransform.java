@@ -0,0 +1,409 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.eclipse.january.geometry.Vertex;
+
+/**
+ * A transformation of three dimensional points, built up from rotations,
+ * scales and translations and held as a single 4x4 affine matrix. Each
+ * operation is applied after those added before it, so that
+ *
+ * <pre>
+ * new PointTransform().rotate(0, 0, angle).translate(1, 0, 0)
+ * </pre>
+ *
+ * rotates the points and then moves the rotated points. The trigonometric
+ * functions are evaluated once, when an operation is added, and applying the
+ * transform is a single pass over the points which modifies them in place,
+ * so that a buffer can be transformed repeatedly without allocating.
+ *
+ * Points are given in the format x1, y1, z1, x2, y2, z2, x3... as for the
+ * other methods in MeshUtils. This class is not thread safe, but a transform
+ * may be applied from several threads once it is no longer being modified.
+ *
+ * @author Robert Smith
+ *
+ * @generated NOT
+ *
+ */
+public class PointTransform {
+
+	/**
+	 * The number of points transformed by each task when a transform is
+	 * applied in parallel. Arrays with fewer points are transformed on the
+	 * calling thread.
+	 */
+	public static final int PARALLEL_CHUNK_SIZE = 16384;
+
+	/**
+	 * The first three rows of the matrix, in row major order. The last row is
+	 * always 0, 0, 0, 1.
+	 */
+	private final double[] matrix = { 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0 };
+
+	/**
+	 * Move the points so that the origin is at the given center.
+	 *
+	 * @param center
+	 *            The new center for the points
+	 * @return This transform
+	 */
+	public PointTransform center(Vertex center) {
+		return translate(center.getX(), center.getY(), center.getZ());
+	}
+
+	/**
+	 * Get the matrix's elements.
+	 *
+	 * @return The first three rows of the 4x4 matrix, in row major order. The
+	 *         last row is always 0, 0, 0, 1.
+	 */
+	public double[] getMatrix() {
+		return matrix.clone();
+	}
+
+	/**
+	 * Apply a matrix after the current one.
+	 *
+	 * @param m
+	 *            The first three rows of the matrix to apply, in row major
+	 *            order.
+	 * @return This transform
+	 */
+	private PointTransform multiply(double[] m) {
+
+		// Multiply each column of the current matrix by the new one. The
+		// bottom row of both is 0, 0, 0, 1, which is only added to the
+		// translation column.
+		for (int column = 0; column < 4; column++) {
+			double a0 = matrix[column];
+			double a1 = matrix[4 + column];
+			double a2 = matrix[8 + column];
+			double w = column == 3 ? 1 : 0;
+			for (int row = 0; row < 3; row++) {
+				matrix[row * 4 + column] = m[row * 4] * a0
+						+ m[row * 4 + 1] * a1 + m[row * 4 + 2] * a2
+						+ m[row * 4 + 3] * w;
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * Rotate the points around the z, then y, then x axes, in the same way as
+	 * MeshUtils.rotatePoints().
+	 *
+	 * @param rotationX
+	 *            The amount of rotation about the x axis, given in radians.
+	 * @param rotationY
+	 *            The amount of rotation about the y axis, given in radians.
+	 * @param rotationZ
+	 *            The amount of rotation about the z axis, given in radians.
+	 * @return This transform
+	 */
+	public PointTransform rotate(double rotationX, double rotationY,
+			double rotationZ) {
+
+		if (rotationZ != 0) {
+			double sin = Math.sin(rotationZ);
+			double cos = Math.cos(rotationZ);
+			multiply(new double[] { cos, -sin, 0, 0, sin, cos, 0, 0, 0, 0, 1,
+					0 });
+		}
+
+		if (rotationY != 0) {
+			double sin = Math.sin(rotationY);
+			double cos = Math.cos(rotationY);
+			multiply(new double[] { cos, 0, sin, 0, 0, 1, 0, 0, -sin, 0, cos,
+					0 });
+		}
+
+		if (rotationX != 0) {
+			double sin = Math.sin(rotationX);
+			double cos = Math.cos(rotationX);
+			multiply(new double[] { 1, 0, 0, 0, 0, cos, -sin, 0, 0, sin, cos,
+					0 });
+		}
+
+		return this;
+	}
+
+	/**
+	 * Rotate the points about the axis beginning at the origin and ending at
+	 * the given vertex, in the same way as MeshUtils.rotatePointsAboutAxis().
+	 *
+	 * @param axis
+	 *            The endpoint of the axis around which the rotation will
+	 *            happen.
+	 * @param magnitude
+	 *            The amount of rotation to apply, given in radians.
+	 * @return This transform
+	 */
+	public PointTransform rotateAboutAxis(Vertex axis, double magnitude) {
+
+		// Normalize the axis
+		double x = axis.getX();
+		double y = axis.getY();
+		double z = axis.getZ();
+		double length = Math.sqrt(x * x + y * y + z * z);
+		x /= length;
+		y /= length;
+		z /= length;
+
+		// Get the sin and (1 - cos) for the magnitude of the rotation
+		double sin = Math.sin(magnitude);
+		double cos = Math.cos(magnitude);
+		double inverseCos = 1 - cos;
+
+		return multiply(new double[] { cos + x * x * inverseCos,
+				x * y * inverseCos - z * sin, x * z * inverseCos + y * sin, 0,
+				y * x * inverseCos + z * sin, cos + y * y * inverseCos,
+				y * z * inverseCos - x * sin, 0, x * z * inverseCos - y * sin,
+				z * y * inverseCos + x * sin, cos + z * z * inverseCos, 0 });
+	}
+
+	/**
+	 * Scale the points away from the origin.
+	 *
+	 * @param scaleX
+	 *            The factor to multiply x coordinates by
+	 * @param scaleY
+	 *            The factor to multiply y coordinates by
+	 * @param scaleZ
+	 *            The factor to multiply z coordinates by
+	 * @return This transform
+	 */
+	public PointTransform scale(double scaleX, double scaleY, double scaleZ) {
+		return multiply(new double[] { scaleX, 0, 0, 0, 0, scaleY, 0, 0, 0, 0,
+				scaleZ, 0 });
+	}
+
+	/**
+	 * Transform every point in the array in place.
+	 *
+	 * @param points
+	 *            The coordinates of the points to transform
+	 */
+	public void transform(double[] points) {
+		transform(points, 0, points.length / 3);
+	}
+
+	/**
+	 * Transform a range of points in place.
+	 *
+	 * @param points
+	 *            The coordinates of the points to transform
+	 * @param start
+	 *            The index of the first point to transform
+	 * @param end
+	 *            One more than the index of the last point to transform
+	 */
+	public void transform(double[] points, int start, int end) {
+
+		double m0 = matrix[0], m1 = matrix[1], m2 = matrix[2], m3 = matrix[3];
+		double m4 = matrix[4], m5 = matrix[5], m6 = matrix[6], m7 = matrix[7];
+		double m8 = matrix[8], m9 = matrix[9], m10 = matrix[10],
+				m11 = matrix[11];
+
+		for (int i = start * 3; i < end * 3; i += 3) {
+			double x = points[i];
+			double y = points[i + 1];
+			double z = points[i + 2];
+			points[i] = m0 * x + m1 * y + m2 * z + m3;
+			points[i + 1] = m4 * x + m5 * y + m6 * z + m7;
+			points[i + 2] = m8 * x + m9 * y + m10 * z + m11;
+		}
+	}
+
+	/**
+	 * Transform every point in the array in place.
+	 *
+	 * @param points
+	 *            The coordinates of the points to transform
+	 */
+	public void transform(float[] points) {
+		transform(points, 0, points.length / 3);
+	}
+
+	/**
+	 * Transform a range of points in place. The arithmetic is done in double
+	 * precision and the results rounded to floats.
+	 *
+	 * @param points
+	 *            The coordinates of the points to transform
+	 * @param start
+	 *            The index of the first point to transform
+	 * @param end
+	 *            One more than the index of the last point to transform
+	 */
+	public void transform(float[] points, int start, int end) {
+
+		double m0 = matrix[0], m1 = matrix[1], m2 = matrix[2], m3 = matrix[3];
+		double m4 = matrix[4], m5 = matrix[5], m6 = matrix[6], m7 = matrix[7];
+		double m8 = matrix[8], m9 = matrix[9], m10 = matrix[10],
+				m11 = matrix[11];
+
+		for (int i = start * 3; i < end * 3; i += 3) {
+			double x = points[i];
+			double y = points[i + 1];
+			double z = points[i + 2];
+			points[i] = (float) (m0 * x + m1 * y + m2 * z + m3);
+			points[i + 1] = (float) (m4 * x + m5 * y + m6 * z + m7);
+			points[i + 2] = (float) (m8 * x + m9 * y + m10 * z + m11);
+		}
+	}
+
+	/**
+	 * Transform every point in the array in place, splitting the array into
+	 * chunks of PARALLEL_CHUNK_SIZE points which are transformed by the
+	 * common fork join pool. Small arrays are transformed on the calling
+	 * thread.
+	 *
+	 * @param points
+	 *            The coordinates of the points to transform
+	 */
+	public void transformParallel(double[] points) {
+		int count = points.length / 3;
+		if (count <= PARALLEL_CHUNK_SIZE) {
+			transform(points, 0, count);
+		} else {
+			ForkJoinPool.commonPool()
+					.invoke(new TransformTask(this, points, null, 0, count));
+		}
+	}
+
+	/**
+	 * Transform every point in the array in place, splitting the array into
+	 * chunks of PARALLEL_CHUNK_SIZE points which are transformed by the
+	 * common fork join pool. Small arrays are transformed on the calling
+	 * thread.
+	 *
+	 * @param points
+	 *            The coordinates of the points to transform
+	 */
+	public void transformParallel(float[] points) {
+		int count = points.length / 3;
+		if (count <= PARALLEL_CHUNK_SIZE) {
+			transform(points, 0, count);
+		} else {
+			ForkJoinPool.commonPool()
+					.invoke(new TransformTask(this, null, points, 0, count));
+		}
+	}
+
+	/**
+	 * Move the points by the given offset.
+	 *
+	 * @param x
+	 *            The distance to move along the x axis
+	 * @param y
+	 *            The distance to move along the y axis
+	 * @param z
+	 *            The distance to move along the z axis
+	 * @return This transform
+	 */
+	public PointTransform translate(double x, double y, double z) {
+
+		// Translation only adds to the last column
+		matrix[3] += x;
+		matrix[7] += y;
+		matrix[11] += z;
+		return this;
+	}
+
+	/**
+	 * A task which transforms a range of points, splitting it in half until
+	 * each part is no more than PARALLEL_CHUNK_SIZE points.
+	 */
+	private static class TransformTask extends RecursiveAction {
+
+		/**
+		 * The default serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The transform to apply.
+		 */
+		private final PointTransform transform;
+
+		/**
+		 * The points to transform if they are doubles, or null.
+		 */
+		private final double[] doublePoints;
+
+		/**
+		 * The points to transform if they are floats, or null.
+		 */
+		private final float[] floatPoints;
+
+		/**
+		 * The index of the first point in the task's range.
+		 */
+		private final int start;
+
+		/**
+		 * One more than the index of the last point in the task's range.
+		 */
+		private final int end;
+
+		/**
+		 * The default constructor.
+		 *
+		 * @param transform
+		 *            The transform to apply
+		 * @param doublePoints
+		 *            The points to transform if they are doubles, or null.
+		 * @param floatPoints
+		 *            The points to transform if they are floats, or null.
+		 * @param start
+		 *            The index of the first point to transform
+		 * @param end
+		 *            One more than the index of the last point to transform
+		 */
+		TransformTask(PointTransform transform, double[] doublePoints,
+				float[] floatPoints, int start, int end) {
+			this.transform = transform;
+			this.doublePoints = doublePoints;
+			this.floatPoints = floatPoints;
+			this.start = start;
+			this.end = end;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+
+			// Split the range in half until it is small enough to transform
+			if (end - start > PARALLEL_CHUNK_SIZE) {
+				int middle = (start + end) >>> 1;
+				invokeAll(
+						new TransformTask(transform, doublePoints, floatPoints,
+								start, middle),
+						new TransformTask(transform, doublePoints, floatPoints,
+								middle, end));
+			} else if (doublePoints != null) {
+				transform.transform(doublePoints, start, end);
+			} else {
+				transform.transform(floatPoints, start, end);
+			}
+		}
+	}
+}
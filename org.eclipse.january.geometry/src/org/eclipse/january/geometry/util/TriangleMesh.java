@@ -0,0 +1,864 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.january.geometry.Triangle;
+import org.eclipse.january.geometry.Vertex;
+
+/**
+ * A compact, indexed triangle mesh stored in primitive arrays. Each vertex
+ * takes three floats, and each triangle three int indices into the vertices
+ * plus three floats for its normal, so that a triangle whose vertices are
+ * shared with its neighbours costs roughly 24 bytes instead of the several
+ * hundred bytes taken by a Triangle and its Vertex objects.
+ *
+ * Coordinates and normals are stored in single precision. Values given as
+ * doubles, such as those parsed from an ASCII STL file or set through a
+ * shape's triangles, are rounded to the nearest float, which keeps about
+ * seven significant digits.
+ *
+ * The arrays may be larger than the mesh, in which case only the first
+ * getVertexCount() * 3 position values and the first getTriangleCount() * 3
+ * index and normal values are meaningful. This class is not thread safe.
+ *
+ * Changes are tracked for the mesh as a whole rather than per element. The
+ * version is incremented by every change, and the ranges of vertices and
+ * triangles changed since the last call to clearDirty() are recorded, so that
+ * a consumer such as a renderer can check whether its copy of the mesh is
+ * stale and update only the part that changed.
+ *
+ * @author Robert Smith
+ *
+ * @generated NOT
+ *
+ */
+public class TriangleMesh {
+
+	/**
+	 * The initial number of vertices and triangles for an empty mesh.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The value a content hash starts from before any triangles are added.
+	 */
+	private static final long HASH_SEED = 0xCBF29CE484222325L;
+
+	/**
+	 * The x, y and z coordinates of each vertex.
+	 */
+	private float[] positions;
+
+	/**
+	 * The x, y and z components of each triangle's normal.
+	 */
+	private float[] normals;
+
+	/**
+	 * The indices of the three vertices of each triangle.
+	 */
+	private int[] indices;
+
+	/**
+	 * The number of vertices in the mesh.
+	 */
+	private int vertexCount;
+
+	/**
+	 * The number of triangles in the mesh.
+	 */
+	private int triangleCount;
+
+	/**
+	 * The number of changes made to the mesh.
+	 */
+	private long version;
+
+	/**
+	 * The index of the first vertex changed since the dirty ranges were last
+	 * cleared.
+	 */
+	private int dirtyVertexStart;
+
+	/**
+	 * One more than the index of the last vertex changed since the dirty
+	 * ranges were last cleared.
+	 */
+	private int dirtyVertexEnd;
+
+	/**
+	 * The index of the first triangle changed since the dirty ranges were
+	 * last cleared.
+	 */
+	private int dirtyTriangleStart;
+
+	/**
+	 * One more than the index of the last triangle changed since the dirty
+	 * ranges were last cleared.
+	 */
+	private int dirtyTriangleEnd;
+
+	/**
+	 * The content hash last calculated for the mesh.
+	 */
+	private long contentHash;
+
+	/**
+	 * The version of the mesh the content hash was calculated for, or -1 if
+	 * it has not been calculated.
+	 */
+	private long contentHashVersion = -1;
+
+	/**
+	 * The fingerprint last calculated for the mesh.
+	 */
+	private long fingerprint;
+
+	/**
+	 * The version of the mesh the fingerprint is up to date with, or -1 if it
+	 * has not been calculated.
+	 */
+	private long fingerprintVersion = -1;
+
+	/**
+	 * The default constructor, which creates an empty mesh.
+	 */
+	public TriangleMesh() {
+		positions = new float[INITIAL_CAPACITY * 3];
+		normals = new float[INITIAL_CAPACITY * 3];
+		indices = new int[INITIAL_CAPACITY * 3];
+	}
+
+	/**
+	 * A constructor which wraps existing arrays, such as those produced by a
+	 * BinarySTLReader. The arrays are used directly, not copied.
+	 *
+	 * @param positions
+	 *            The x, y and z coordinates of each vertex
+	 * @param indices
+	 *            The indices of the three vertices of each triangle
+	 * @param normals
+	 *            The x, y and z components of each triangle's normal, or null
+	 *            if all normals are zero.
+	 */
+	public TriangleMesh(float[] positions, int[] indices, float[] normals) {
+
+		// Each triangle needs three indices and each vertex three coordinates
+		if (positions.length % 3 != 0 || indices.length % 3 != 0) {
+			throw new IllegalArgumentException(
+					"Positions and indices must have a length divisible by 3.");
+		}
+
+		this.positions = positions;
+		this.indices = indices;
+		this.normals = normals != null ? normals : new float[indices.length];
+		vertexCount = positions.length / 3;
+		triangleCount = indices.length / 3;
+
+		// The whole mesh is new
+		dirtyVertexEnd = vertexCount;
+		dirtyTriangleEnd = triangleCount;
+
+		if (this.normals.length < indices.length) {
+			throw new IllegalArgumentException(
+					"The mesh must have one normal per triangle.");
+		}
+	}
+
+	/**
+	 * Add a triangle with a zero normal to the mesh.
+	 *
+	 * @param v1
+	 *            The index of the first vertex
+	 * @param v2
+	 *            The index of the second vertex
+	 * @param v3
+	 *            The index of the third vertex
+	 * @return The index of the new triangle
+	 */
+	public int addTriangle(int v1, int v2, int v3) {
+		return addTriangle(v1, v2, v3, 0f, 0f, 0f);
+	}
+
+	/**
+	 * Add a triangle to the mesh.
+	 *
+	 * @param v1
+	 *            The index of the first vertex
+	 * @param v2
+	 *            The index of the second vertex
+	 * @param v3
+	 *            The index of the third vertex
+	 * @param nx
+	 *            The x component of the triangle's normal
+	 * @param ny
+	 *            The y component of the triangle's normal
+	 * @param nz
+	 *            The z component of the triangle's normal
+	 * @return The index of the new triangle
+	 */
+	public int addTriangle(int v1, int v2, int v3, float nx, float ny,
+			float nz) {
+
+		// Grow the arrays if they are full
+		if (triangleCount * 3 == indices.length) {
+			int capacity = Math.max(INITIAL_CAPACITY, triangleCount * 2) * 3;
+			indices = Arrays.copyOf(indices, capacity);
+			normals = Arrays.copyOf(normals, capacity);
+		}
+
+		int offset = triangleCount * 3;
+		indices[offset] = v1;
+		indices[offset + 1] = v2;
+		indices[offset + 2] = v3;
+		normals[offset] = nx;
+		normals[offset + 1] = ny;
+		normals[offset + 2] = nz;
+
+		// Keep an up to date fingerprint current by adding the new triangle
+		boolean current = fingerprintVersion == version;
+		markTriangle(triangleCount);
+		if (current) {
+			fingerprint += getFingerprint(triangleCount);
+			fingerprintVersion = version;
+		}
+		return triangleCount++;
+	}
+
+	/**
+	 * Add a vertex to the mesh.
+	 *
+	 * @param x
+	 *            The vertex's x coordinate
+	 * @param y
+	 *            The vertex's y coordinate
+	 * @param z
+	 *            The vertex's z coordinate
+	 * @return The index of the new vertex
+	 */
+	public int addVertex(float x, float y, float z) {
+
+		// Grow the array if it is full
+		if (vertexCount * 3 == positions.length) {
+			positions = Arrays.copyOf(positions,
+					Math.max(INITIAL_CAPACITY, vertexCount * 2) * 3);
+		}
+
+		int offset = vertexCount * 3;
+		positions[offset] = x;
+		positions[offset + 1] = y;
+		positions[offset + 2] = z;
+
+		markVertex(vertexCount);
+		return vertexCount++;
+	}
+
+	/**
+	 * Forget the changes recorded in the dirty ranges. The version is not
+	 * affected.
+	 */
+	public void clearDirty() {
+		dirtyVertexStart = 0;
+		dirtyVertexEnd = 0;
+		dirtyTriangleStart = 0;
+		dirtyTriangleEnd = 0;
+	}
+
+	/**
+	 * Create a deep copy of the mesh, with arrays trimmed to its size.
+	 *
+	 * @return A new mesh containing the same vertices and triangles
+	 */
+	public TriangleMesh copy() {
+		return new TriangleMesh(Arrays.copyOf(positions, vertexCount * 3),
+				Arrays.copyOf(indices, triangleCount * 3),
+				Arrays.copyOf(normals, triangleCount * 3));
+	}
+
+	/**
+	 * Create a mesh holding a copy of a list of triangles. Each triangle is
+	 * given its own three vertices, so no vertices are shared, and triangles
+	 * without exactly three vertices are left out. If the list is a view of a
+	 * mesh, that mesh's arrays are copied directly.
+	 *
+	 * @param triangles
+	 *            The triangles to copy
+	 * @return A new mesh containing the same triangles
+	 */
+	public static TriangleMesh copyOf(List<? extends Triangle> triangles) {
+
+		// Copy the arrays of a mesh without reading its triangles
+		if (triangles instanceof TriangleMeshView) {
+			TriangleMesh mesh = ((TriangleMeshView) triangles).getMesh();
+			if (mesh != null) {
+				return mesh.copy();
+			}
+		}
+
+		float[] positions = new float[triangles.size() * 9];
+		float[] normals = new float[triangles.size() * 3];
+		int count = 0;
+		for (Triangle triangle : triangles) {
+			List<Vertex> vertices = triangle.getVertices();
+			if (vertices.size() != 3) {
+				continue;
+			}
+
+			Vertex normal = triangle.getNormal();
+			if (normal != null) {
+				normals[count * 3] = (float) normal.getX();
+				normals[count * 3 + 1] = (float) normal.getY();
+				normals[count * 3 + 2] = (float) normal.getZ();
+			}
+			for (int i = 0; i < 3; i++) {
+				Vertex vertex = vertices.get(i);
+				positions[count * 9 + i * 3] = (float) vertex.getX();
+				positions[count * 9 + i * 3 + 1] = (float) vertex.getY();
+				positions[count * 9 + i * 3 + 2] = (float) vertex.getZ();
+			}
+			count++;
+		}
+
+		// Each triangle's vertices follow the previous triangle's
+		int[] indices = new int[count * 3];
+		for (int i = 0; i < indices.length; i++) {
+			indices[i] = i;
+		}
+
+		// Trim the arrays if any triangles were left out
+		if (count < triangles.size()) {
+			positions = Arrays.copyOf(positions, count * 9);
+			normals = Arrays.copyOf(normals, count * 3);
+		}
+		return new TriangleMesh(positions, indices, normals);
+	}
+
+	/**
+	 * Getter method for the content hash, a 64 bit hash of the coordinates of
+	 * every triangle's normal and vertices, in order. Two meshes with the
+	 * same triangles have the same hash, even if their vertices are numbered
+	 * differently, and a mesh has the same hash as a list of triangles with
+	 * the same values. The hash is only recalculated when the version has
+	 * changed since it was last requested.
+	 *
+	 * @return The mesh's content hash
+	 */
+	public long getContentHash() {
+		if (contentHashVersion != version) {
+			long hash = HASH_SEED;
+			for (int i = 0; i < triangleCount * 3; i += 3) {
+				hash = hash(hash, normals[i]);
+				hash = hash(hash, normals[i + 1]);
+				hash = hash(hash, normals[i + 2]);
+				for (int j = i; j < i + 3; j++) {
+					int offset = indices[j] * 3;
+					hash = hash(hash, positions[offset]);
+					hash = hash(hash, positions[offset + 1]);
+					hash = hash(hash, positions[offset + 2]);
+				}
+			}
+			contentHash = hash(hash, triangleCount);
+			contentHashVersion = version;
+		}
+		return contentHash;
+	}
+
+	/**
+	 * Calculate the content hash for a list of triangles. The result is the
+	 * same as getContentHash() would give for a mesh with the same triangles.
+	 * If the list is a view of a mesh, the mesh's hash is returned without
+	 * reading the triangles.
+	 *
+	 * @param triangles
+	 *            The triangles to hash
+	 * @return The triangles' content hash
+	 */
+	public static long getContentHash(List<? extends Triangle> triangles) {
+
+		// Use the mesh's cached hash if there is one
+		if (triangles instanceof TriangleMeshView) {
+			TriangleMesh mesh = ((TriangleMeshView) triangles).getMesh();
+			if (mesh != null) {
+				return mesh.getContentHash();
+			}
+		}
+
+		long hash = HASH_SEED;
+		for (Triangle triangle : triangles) {
+			Vertex normal = triangle.getNormal();
+			if (normal != null) {
+				hash = hash(hash, normal.getX());
+				hash = hash(hash, normal.getY());
+				hash = hash(hash, normal.getZ());
+			}
+			for (Vertex vertex : triangle.getVertices()) {
+				hash = hash(hash, vertex.getX());
+				hash = hash(hash, vertex.getY());
+				hash = hash(hash, vertex.getZ());
+			}
+		}
+		return hash(hash, triangles.size());
+	}
+
+	/**
+	 * Getter method for the fingerprint, a 64 bit hash of the mesh's
+	 * triangles which, unlike the content hash, does not depend on their
+	 * order or on the order of each triangle's vertices. Two meshes holding
+	 * the same triangles in any order have the same fingerprint, as does a
+	 * list of triangles with the same values. Adding triangles or changing
+	 * normals updates an up to date fingerprint in place, while other changes
+	 * cause it to be recalculated the next time it is requested.
+	 *
+	 * @return The mesh's fingerprint
+	 */
+	public long getFingerprint() {
+		if (fingerprintVersion != version) {
+			long sum = 0;
+			for (int i = 0; i < triangleCount; i++) {
+				sum += getFingerprint(i);
+			}
+			fingerprint = sum;
+			fingerprintVersion = version;
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * Calculate the fingerprint for a list of triangles. The result is the
+	 * same as getFingerprint() would give for a mesh with the same triangles.
+	 * If the list is a view of a mesh, the mesh's fingerprint is returned
+	 * without reading the triangles.
+	 *
+	 * @param triangles
+	 *            The triangles to fingerprint
+	 * @return The triangles' fingerprint
+	 */
+	public static long getFingerprint(List<? extends Triangle> triangles) {
+
+		// Use the mesh's cached fingerprint if there is one
+		if (triangles instanceof TriangleMeshView) {
+			TriangleMesh mesh = ((TriangleMeshView) triangles).getMesh();
+			if (mesh != null) {
+				return mesh.getFingerprint();
+			}
+		}
+
+		long sum = 0;
+		for (Triangle triangle : triangles) {
+			sum += getFingerprint(triangle);
+		}
+		return sum;
+	}
+
+	/**
+	 * Calculate the fingerprint of a single triangle. A list's fingerprint is
+	 * the sum of those of its triangles, so triangles with equal fingerprints
+	 * are the only candidates for matching each other when comparing lists.
+	 *
+	 * @param triangle
+	 *            The triangle
+	 * @return A hash of the triangle's normal and vertices, which is the same
+	 *         whatever order the vertices are in
+	 */
+	public static long getFingerprint(Triangle triangle) {
+
+		// Hash the vertices separately so that they can be sorted
+		List<Vertex> vertices = triangle.getVertices();
+		long[] vertexHashes = new long[vertices.size()];
+		for (int i = 0; i < vertexHashes.length; i++) {
+			Vertex vertex = vertices.get(i);
+			vertexHashes[i] = hashPoint(vertex.getX(), vertex.getY(),
+					vertex.getZ());
+		}
+		Arrays.sort(vertexHashes);
+
+		long hash = HASH_SEED;
+		Vertex normal = triangle.getNormal();
+		if (normal != null) {
+			hash = hash(hash, normal.getX());
+			hash = hash(hash, normal.getY());
+			hash = hash(hash, normal.getZ());
+		}
+		for (long vertexHash : vertexHashes) {
+			hash = hash(hash, vertexHash);
+		}
+		return mix(hash(hash, vertexHashes.length));
+	}
+
+	/**
+	 * Calculate the fingerprint of one of the mesh's triangles.
+	 *
+	 * @param triangle
+	 *            The triangle's index
+	 * @return The same value getFingerprint(Triangle) gives for a view of the
+	 *         triangle
+	 */
+	private long getFingerprint(int triangle) {
+		int offset = triangle * 3;
+
+		// Sort the three vertices' hashes
+		long first = hashVertex(indices[offset]);
+		long second = hashVertex(indices[offset + 1]);
+		long third = hashVertex(indices[offset + 2]);
+		if (first > second) {
+			long swap = first;
+			first = second;
+			second = swap;
+		}
+		if (second > third) {
+			long swap = second;
+			second = third;
+			third = swap;
+		}
+		if (first > second) {
+			long swap = first;
+			first = second;
+			second = swap;
+		}
+
+		long hash = HASH_SEED;
+		hash = hash(hash, normals[offset]);
+		hash = hash(hash, normals[offset + 1]);
+		hash = hash(hash, normals[offset + 2]);
+		hash = hash(hash, first);
+		hash = hash(hash, second);
+		hash = hash(hash, third);
+		return mix(hash(hash, 3L));
+	}
+
+	/**
+	 * Getter method for the end of the range of changed triangles.
+	 *
+	 * @return One more than the index of the last triangle added or given a
+	 *         new normal since the last call to clearDirty(), or 0 if there
+	 *         have been no such changes.
+	 */
+	public int getDirtyTriangleEnd() {
+		return dirtyTriangleEnd;
+	}
+
+	/**
+	 * Getter method for the start of the range of changed triangles.
+	 *
+	 * @return The index of the first triangle added or given a new normal
+	 *         since the last call to clearDirty()
+	 */
+	public int getDirtyTriangleStart() {
+		return dirtyTriangleStart;
+	}
+
+	/**
+	 * Getter method for the end of the range of changed vertices.
+	 *
+	 * @return One more than the index of the last vertex added or moved since
+	 *         the last call to clearDirty(), or 0 if there have been no such
+	 *         changes.
+	 */
+	public int getDirtyVertexEnd() {
+		return dirtyVertexEnd;
+	}
+
+	/**
+	 * Getter method for the start of the range of changed vertices.
+	 *
+	 * @return The index of the first vertex added or moved since the last
+	 *         call to clearDirty()
+	 */
+	public int getDirtyVertexStart() {
+		return dirtyVertexStart;
+	}
+
+	/**
+	 * Getter method for the index of one of a triangle's vertices.
+	 *
+	 * @param triangle
+	 *            The triangle's index
+	 * @param corner
+	 *            0, 1 or 2 for the triangle's first, second or third vertex
+	 * @return The index of the vertex
+	 */
+	public int getIndex(int triangle, int corner) {
+		return indices[triangle * 3 + corner];
+	}
+
+	/**
+	 * Getter method for the indices array. The array is not a copy and may be
+	 * longer than the mesh.
+	 *
+	 * @return The indices of the three vertices of each triangle
+	 */
+	public int[] getIndices() {
+		return indices;
+	}
+
+	/**
+	 * Getter method for one component of a triangle's normal.
+	 *
+	 * @param triangle
+	 *            The triangle's index
+	 * @param axis
+	 *            0, 1 or 2 for the x, y or z component
+	 * @return The component's value
+	 */
+	public float getNormal(int triangle, int axis) {
+		return normals[triangle * 3 + axis];
+	}
+
+	/**
+	 * Getter method for the normals array. The array is not a copy and may be
+	 * longer than the mesh.
+	 *
+	 * @return The x, y and z components of each triangle's normal
+	 */
+	public float[] getNormals() {
+		return normals;
+	}
+
+	/**
+	 * Getter method for one coordinate of a vertex.
+	 *
+	 * @param vertex
+	 *            The vertex's index
+	 * @param axis
+	 *            0, 1 or 2 for the x, y or z coordinate
+	 * @return The coordinate's value
+	 */
+	public float getPosition(int vertex, int axis) {
+		return positions[vertex * 3 + axis];
+	}
+
+	/**
+	 * Getter method for the positions array. The array is not a copy and may
+	 * be longer than the mesh.
+	 *
+	 * @return The x, y and z coordinates of each vertex
+	 */
+	public float[] getPositions() {
+		return positions;
+	}
+
+	/**
+	 * Getter method for the number of triangles.
+	 *
+	 * @return The number of triangles in the mesh
+	 */
+	public int getTriangleCount() {
+		return triangleCount;
+	}
+
+	/**
+	 * Getter method for the version.
+	 *
+	 * @return A number which is incremented every time the mesh changes
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Getter method for the number of vertices.
+	 *
+	 * @return The number of vertices in the mesh
+	 */
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * Mix a value into a content hash.
+	 *
+	 * @param hash
+	 *            The hash of the values so far
+	 * @param value
+	 *            The next value. Negative zero is treated as zero.
+	 * @return The new hash
+	 */
+	private static long hash(long hash, double value) {
+		return hash(hash, Double.doubleToLongBits(value + 0d));
+	}
+
+	/**
+	 * Mix a value into a content hash.
+	 *
+	 * @param hash
+	 *            The hash of the values so far
+	 * @param value
+	 *            The next value
+	 * @return The new hash
+	 */
+	private static long hash(long hash, long value) {
+		hash ^= value;
+		hash *= 0x9E3779B97F4A7C15L;
+		return Long.rotateLeft(hash, 31);
+	}
+
+	/**
+	 * Hash the coordinates of a point.
+	 *
+	 * @param x
+	 *            The point's x coordinate
+	 * @param y
+	 *            The point's y coordinate
+	 * @param z
+	 *            The point's z coordinate
+	 * @return The point's hash
+	 */
+	private static long hashPoint(double x, double y, double z) {
+		return hash(hash(hash(HASH_SEED, x), y), z);
+	}
+
+	/**
+	 * Hash the coordinates of one of the mesh's vertices.
+	 *
+	 * @param vertex
+	 *            The vertex's index
+	 * @return The same value hashPoint() gives for the vertex's coordinates
+	 */
+	private long hashVertex(int vertex) {
+		int offset = vertex * 3;
+		return hashPoint(positions[offset], positions[offset + 1],
+				positions[offset + 2]);
+	}
+
+	/**
+	 * Scramble the bits of a triangle's hash, so that the sums of many
+	 * triangles' fingerprints are spread evenly. This is the finalizer of the
+	 * 64 bit MurmurHash3.
+	 *
+	 * @param hash
+	 *            The hash to scramble
+	 * @return The scrambled hash
+	 */
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB93FE53E6CD5L;
+		return hash ^ hash >>> 33;
+	}
+
+	/**
+	 * Record a change to a triangle.
+	 *
+	 * @param triangle
+	 *            The index of the changed triangle
+	 */
+	private void markTriangle(int triangle) {
+		version++;
+		if (dirtyTriangleStart == dirtyTriangleEnd) {
+			dirtyTriangleStart = triangle;
+			dirtyTriangleEnd = triangle + 1;
+		} else {
+			dirtyTriangleStart = Math.min(dirtyTriangleStart, triangle);
+			dirtyTriangleEnd = Math.max(dirtyTriangleEnd, triangle + 1);
+		}
+	}
+
+	/**
+	 * Record a change to a vertex.
+	 *
+	 * @param vertex
+	 *            The index of the changed vertex
+	 */
+	private void markVertex(int vertex) {
+		version++;
+		if (dirtyVertexStart == dirtyVertexEnd) {
+			dirtyVertexStart = vertex;
+			dirtyVertexEnd = vertex + 1;
+		} else {
+			dirtyVertexStart = Math.min(dirtyVertexStart, vertex);
+			dirtyVertexEnd = Math.max(dirtyVertexEnd, vertex + 1);
+		}
+	}
+
+	/**
+	 * Setter method for one component of a triangle's normal.
+	 *
+	 * @param triangle
+	 *            The triangle's index
+	 * @param axis
+	 *            0, 1 or 2 for the x, y or z component
+	 * @param value
+	 *            The component's new value
+	 */
+	public void setNormal(int triangle, int axis, float value) {
+
+		// Keep an up to date fingerprint current by replacing the triangle's
+		boolean current = fingerprintVersion == version;
+		if (current) {
+			fingerprint -= getFingerprint(triangle);
+		}
+		normals[triangle * 3 + axis] = value;
+		markTriangle(triangle);
+		if (current) {
+			fingerprint += getFingerprint(triangle);
+			fingerprintVersion = version;
+		}
+	}
+
+	/**
+	 * Setter method for one coordinate of a vertex. Every triangle sharing
+	 * the vertex will see the change.
+	 *
+	 * @param vertex
+	 *            The vertex's index
+	 * @param axis
+	 *            0, 1 or 2 for the x, y or z coordinate
+	 * @param value
+	 *            The coordinate's new value
+	 */
+	public void setPosition(int vertex, int axis, float value) {
+		positions[vertex * 3 + axis] = value;
+		markVertex(vertex);
+	}
+
+	/**
+	 * Move every vertex of the mesh at once, leaving its triangles unchanged.
+	 * The change is recorded as a single new version covering all vertices.
+	 *
+	 * @param coordinates
+	 *            The new x, y and z coordinates of each vertex, in the order
+	 *            x1, y1, z1, x2, y2, z2, x3...
+	 */
+	public void setPositions(double[] coordinates) {
+
+		// There must be exactly one point for each vertex
+		if (coordinates.length != vertexCount * 3) {
+			throw new IllegalArgumentException("Expected "
+					+ vertexCount * 3 + " coordinates but received "
+					+ coordinates.length + ".");
+		}
+
+		for (int i = 0; i < coordinates.length; i++) {
+			positions[i] = (float) coordinates[i];
+		}
+
+		version++;
+		dirtyVertexStart = 0;
+		dirtyVertexEnd = vertexCount;
+	}
+
+	/**
+	 * Shrink the arrays so that they are exactly the size of the mesh.
+	 */
+	public void trimToSize() {
+		if (positions.length != vertexCount * 3) {
+			positions = Arrays.copyOf(positions, vertexCount * 3);
+		}
+		if (indices.length != triangleCount * 3) {
+			indices = Arrays.copyOf(indices, triangleCount * 3);
+			normals = Arrays.copyOf(normals, triangleCount * 3);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.util;
+
+/**
+ * A list of triangles which is a view of a TriangleMesh, such as the list
+ * returned by Shape.getTriangles() for a shape whose triangles are stored in
+ * a mesh. Consumers can read the mesh's arrays directly instead of walking the
+ * list's triangles.
+ *
+ * @author Robert Smith
+ *
+ * @generated NOT
+ *
+ */
+public interface TriangleMeshView {
+
+	/**
+	 * Get the mesh the list is a view of.
+	 *
+	 * @return The mesh containing the list's triangles, or null if the list
+	 *         has been modified and no longer reflects a mesh.
+	 */
+	public TriangleMesh getMesh();
+}
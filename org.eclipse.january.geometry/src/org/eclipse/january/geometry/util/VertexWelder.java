@@ -0,0 +1,414 @@
+/*******************************************************************************
+ * Copyright (c) 2016 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Robert Smith
+ *******************************************************************************/
+package org.eclipse.january.geometry.util;
+
+import java.util.Arrays;
+
+import org.eclipse.january.geometry.GeometryFactory;
+import org.eclipse.january.geometry.Vertex;
+
+/**
+ * A utility which merges nearly coincident vertices into a single shared
+ * vertex. Two vertices are welded together if each of their coordinates lie
+ * within the welder's tolerance of each other, which is the same test used by
+ * Vertex.equals() when the default tolerance is used.
+ *
+ * Vertices are stored in a hashed spatial grid whose cells are as wide as the
+ * tolerance, so that each lookup only needs to examine the 27 cells
+ * surrounding the new point. This makes welding a mesh linear in the number of
+ * vertices, instead of quadratic as it is when searching a list for matches.
+ *
+ * A welder is intended to be used for a single mesh at a time, such as one
+ * node in a geometry being read by an importer.
+ *
+ * @author Robert Smith
+ *
+ * @generated NOT
+ *
+ */
+public class VertexWelder {
+
+	/**
+	 * The tolerance used by default, which is the same as the one used by
+	 * Vertex.equals().
+	 */
+	public static final double DEFAULT_TOLERANCE = 0.01;
+
+	/**
+	 * The value marking an empty slot in the cell table.
+	 */
+	private static final int EMPTY = -1;
+
+	/**
+	 * The initial number of vertices the welder has room for.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * The coordinates of each welded vertex, in the format x1, y1, z1, x2, y2,
+	 * z2, x3...
+	 */
+	private double[] coordinates;
+
+	/**
+	 * The number of cells from a vertex's own cell to search in each direction
+	 * for matches. This is 1 when there is a tolerance and 0 when vertices
+	 * must match exactly.
+	 */
+	private final int searchRadius;
+
+	/**
+	 * The width of each cell in the spatial grid.
+	 */
+	private final double cellSize;
+
+	/**
+	 * The keys of the cells in the open addressing table.
+	 */
+	private long[] cellKeys;
+
+	/**
+	 * The index of the most recently added vertex in each cell of the table,
+	 * or EMPTY if the slot is unused.
+	 */
+	private int[] cellHeads;
+
+	/**
+	 * The number of slots in the cell table which are in use.
+	 */
+	private int cellCount;
+
+	/**
+	 * The number of times a vertex was merged into an existing one.
+	 */
+	private int mergedCount;
+
+	/**
+	 * For each vertex, the index of the previous vertex added to the same
+	 * cell, or EMPTY if it was the first.
+	 */
+	private int[] next;
+
+	/**
+	 * The tolerance within which each of two vertices' coordinates must be
+	 * for them to be welded together.
+	 */
+	private final double tolerance;
+
+	/**
+	 * The number of unique vertices held by the welder.
+	 */
+	private int vertexCount;
+
+	/**
+	 * The Vertex objects for each welded vertex. These are only created when
+	 * requested.
+	 */
+	private Vertex[] vertices;
+
+	/**
+	 * The default constructor, which uses the default tolerance.
+	 */
+	public VertexWelder() {
+		this(DEFAULT_TOLERANCE);
+	}
+
+	/**
+	 * A constructor specifying the welding tolerance.
+	 *
+	 * @param tolerance
+	 *            The maximum distance along each axis between two vertices
+	 *            which will be welded together. A tolerance of 0 will only weld
+	 *            exactly equal vertices.
+	 */
+	public VertexWelder(double tolerance) {
+
+		// A negative tolerance is meaningless
+		if (tolerance < 0 || Double.isNaN(tolerance)) {
+			throw new IllegalArgumentException(
+					"Vertex welding tolerance must be non-negative, but was "
+							+ tolerance);
+		}
+
+		this.tolerance = tolerance;
+
+		// With no tolerance, only the vertex's own cell can contain a match
+		if (tolerance > 0) {
+			cellSize = tolerance;
+			searchRadius = 1;
+		} else {
+			cellSize = 1;
+			searchRadius = 0;
+		}
+
+		coordinates = new double[INITIAL_CAPACITY * 3];
+		next = new int[INITIAL_CAPACITY];
+		vertices = new Vertex[INITIAL_CAPACITY];
+		cellKeys = new long[INITIAL_CAPACITY * 2];
+		cellHeads = new int[INITIAL_CAPACITY * 2];
+		Arrays.fill(cellHeads, EMPTY);
+	}
+
+	/**
+	 * Add a point to the welder.
+	 *
+	 * @param x
+	 *            The point's x coordinate
+	 * @param y
+	 *            The point's y coordinate
+	 * @param z
+	 *            The point's z coordinate
+	 * @return The index of the welded vertex for the point. This will be an
+	 *         existing vertex if one was within the tolerance, or else a new
+	 *         vertex at the point's coordinates.
+	 */
+	public int add(double x, double y, double z) {
+
+		// Find the cell containing the point
+		long cellX = cell(x);
+		long cellY = cell(y);
+		long cellZ = cell(z);
+
+		// Search the cell and its neighbors for the lowest indexed match, so
+		// that the result is the same as searching a list in order
+		int match = EMPTY;
+		for (long i = cellX - searchRadius; i <= cellX + searchRadius; i++) {
+			for (long j = cellY - searchRadius; j <= cellY
+					+ searchRadius; j++) {
+				for (long k = cellZ - searchRadius; k <= cellZ
+						+ searchRadius; k++) {
+
+					int slot = findSlot(key(i, j, k));
+					for (int index = cellHeads[slot]; index != EMPTY; index = next[index]) {
+						if ((match == EMPTY || index < match)
+								&& matches(index, x, y, z)) {
+							match = index;
+						}
+					}
+				}
+			}
+		}
+
+		// If a match was found, weld the point to it
+		if (match != EMPTY) {
+			mergedCount++;
+			return match;
+		}
+
+		// Otherwise create a new vertex
+		ensureCapacity(vertexCount + 1);
+		int index = vertexCount++;
+		coordinates[index * 3] = x;
+		coordinates[index * 3 + 1] = y;
+		coordinates[index * 3 + 2] = z;
+
+		// Place it at the head of its cell's chain
+		long key = key(cellX, cellY, cellZ);
+		int slot = findSlot(key);
+		if (cellHeads[slot] == EMPTY) {
+			cellKeys[slot] = key;
+			cellCount++;
+		}
+		next[index] = cellHeads[slot];
+		cellHeads[slot] = index;
+
+		// Keep the table no more than half full
+		if (cellCount * 2 > cellKeys.length) {
+			rehash();
+		}
+
+		return index;
+	}
+
+	/**
+	 * Weld the given vertex into the mesh.
+	 *
+	 * @param vertex
+	 *            The vertex to weld. It will not be modified.
+	 * @return The shared vertex the given vertex was welded to. If no existing
+	 *         vertex was within the tolerance, this will be a new clone of the
+	 *         given vertex.
+	 */
+	public Vertex weld(Vertex vertex) {
+		return getVertex(add(vertex.getX(), vertex.getY(), vertex.getZ()));
+	}
+
+	/**
+	 * Get the coordinates of all the welded vertices.
+	 *
+	 * @return A new array containing each vertex's coordinates in the format
+	 *         x1, y1, z1, x2, y2, z2, x3...
+	 */
+	public double[] getCoordinates() {
+		return Arrays.copyOf(coordinates, vertexCount * 3);
+	}
+
+	/**
+	 * Get the number of points which were merged into an existing vertex
+	 * instead of creating a new one.
+	 *
+	 * @return The number of merged points
+	 */
+	public int getMergedCount() {
+		return mergedCount;
+	}
+
+	/**
+	 * Getter method for the tolerance.
+	 *
+	 * @return The maximum distance along each axis between two welded points
+	 */
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	/**
+	 * Get the shared Vertex object for a welded vertex.
+	 *
+	 * @param index
+	 *            The vertex's index, as returned by add()
+	 * @return The Vertex at the given index. The same object will be returned
+	 *         for every call with the same index.
+	 */
+	public Vertex getVertex(int index) {
+
+		if (index < 0 || index >= vertexCount) {
+			throw new IndexOutOfBoundsException(
+					"Index " + index + " is not between 0 and " + vertexCount);
+		}
+
+		// Create the vertex the first time it is requested
+		if (vertices[index] == null) {
+			Vertex vertex = GeometryFactory.eINSTANCE.createVertex();
+			vertex.setX(coordinates[index * 3]);
+			vertex.setY(coordinates[index * 3 + 1]);
+			vertex.setZ(coordinates[index * 3 + 2]);
+			vertices[index] = vertex;
+		}
+
+		return vertices[index];
+	}
+
+	/**
+	 * Get the number of unique vertices in the welder.
+	 *
+	 * @return The number of vertices
+	 */
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * Get the cell along one axis containing the given coordinate.
+	 *
+	 * @param coordinate
+	 *            The coordinate
+	 * @return The cell's index along the axis
+	 */
+	private long cell(double coordinate) {
+		return (long) Math.floor(coordinate / cellSize);
+	}
+
+	/**
+	 * Ensure that the per vertex arrays have room for the given number of
+	 * vertices.
+	 *
+	 * @param capacity
+	 *            The required number of vertices
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > next.length) {
+			int newCapacity = Math.max(capacity, next.length * 2);
+			coordinates = Arrays.copyOf(coordinates, newCapacity * 3);
+			next = Arrays.copyOf(next, newCapacity);
+			vertices = Arrays.copyOf(vertices, newCapacity);
+		}
+	}
+
+	/**
+	 * Find the slot in the cell table which holds the given key, or else the
+	 * empty slot where it would be placed.
+	 *
+	 * @param key
+	 *            The cell's key
+	 * @return The slot's index in the table
+	 */
+	private int findSlot(long key) {
+		int mask = cellKeys.length - 1;
+
+		// Mix the key's bits so that neighboring cells spread over the table
+		long hash = key * 0x9E3779B97F4A7C15L;
+		int slot = (int) (hash ^ (hash >>> 32)) & mask;
+
+		// Probe linearly until the key or an empty slot is found
+		while (cellHeads[slot] != EMPTY && cellKeys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	/**
+	 * Get the key for the cell with the given indices.
+	 *
+	 * @param x
+	 *            The cell's index along the x axis
+	 * @param y
+	 *            The cell's index along the y axis
+	 * @param z
+	 *            The cell's index along the z axis
+	 * @return The key for the cell. Different cells may share a key, as
+	 *         candidates are always checked against the tolerance.
+	 */
+	private static long key(long x, long y, long z) {
+		return (x * 73856093L) ^ (y * 19349663L) ^ (z * 83492791L);
+	}
+
+	/**
+	 * Check whether the given point is within the tolerance of a vertex.
+	 *
+	 * @param index
+	 *            The index of the vertex to check against
+	 * @param x
+	 *            The point's x coordinate
+	 * @param y
+	 *            The point's y coordinate
+	 * @param z
+	 *            The point's z coordinate
+	 * @return True if all three coordinates are within the tolerance, false
+	 *         otherwise
+	 */
+	private boolean matches(int index, double x, double y, double z) {
+		return Math.abs(coordinates[index * 3] - x) <= tolerance
+				&& Math.abs(coordinates[index * 3 + 1] - y) <= tolerance
+				&& Math.abs(coordinates[index * 3 + 2] - z) <= tolerance;
+	}
+
+	/**
+	 * Double the size of the cell table, placing each cell into its new slot.
+	 */
+	private void rehash() {
+		long[] oldKeys = cellKeys;
+		int[] oldHeads = cellHeads;
+
+		cellKeys = new long[oldKeys.length * 2];
+		cellHeads = new int[oldHeads.length * 2];
+		Arrays.fill(cellHeads, EMPTY);
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldHeads[i] != EMPTY) {
+				int slot = findSlot(oldKeys[i]);
+				cellKeys[slot] = oldKeys[i];
+				cellHeads[slot] = oldHeads[i];
+			}
+		}
+	}
+}